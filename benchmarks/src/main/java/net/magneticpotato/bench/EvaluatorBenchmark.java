@@ -0,0 +1,101 @@
+package net.magneticpotato.bench;
+
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.service.ComplexityCalculator;
+import net.magneticpotato.service.ExpressionLoader;
+import net.magneticpotato.sqlexpr.congocc.SqlExprEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for SqlExprEvaluator.match, one parameterised run per
+ * complexity class of the JSON expression corpus.
+ * <p>
+ * The corpus is loaded with {@link ExpressionLoader} and split into classes
+ * with {@link ComplexityCalculator}, exactly as the load tester does. Each
+ * benchmark invocation evaluates the next expression of the selected class,
+ * cycling through all of them, and returns the result so JMH can sink it.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EvaluatorBenchmark {
+
+    /**
+     * Expressions of one complexity class, shared by all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Corpus {
+
+        /**
+         * Corpus to load: a classpath resource name, or a filesystem path
+         * prefixed with "file:".
+         */
+        @Param({"complex_expressions-limited.json"})
+        public String input;
+
+        /** Complexity class to benchmark, as computed by ComplexityCalculator. */
+        @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10",
+                "15", "20", "25", "30", "35", "40", "45", "50", "60", "75"})
+        public int complexity;
+
+        String[] expressions;
+        Map<String, Object>[] bindings;
+
+        @Setup(Level.Trial)
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public void load() throws IOException {
+            ExpressionLoader.LoadedExpressions loaded = input.startsWith("file:")
+                ? ExpressionLoader.loadExpressionsFromFile(input.substring("file:".length()))
+                : ExpressionLoader.loadExpressionsFromClasspath(input);
+
+            // Keep the class's expressions, dropping any the evaluator rejects
+            List<ExpressionData> selected = new ArrayList<>();
+            for (ExpressionData expr : loaded.expressions()) {
+                if (ComplexityCalculator.calculate(expr.expr()) != complexity) {
+                    continue;
+                }
+                try {
+                    SqlExprEvaluator.match(expr.expr(), expr.value_map());
+                    selected.add(expr);
+                } catch (Exception e) {
+                    // Failing expressions are reported by the load tester, not benchmarked
+                }
+            }
+
+            if (selected.isEmpty()) {
+                throw new IllegalStateException(
+                    "No evaluable expressions in complexity class " + complexity + " of " + input);
+            }
+
+            expressions = new String[selected.size()];
+            bindings = new Map[selected.size()];
+            for (int i = 0; i < selected.size(); i++) {
+                expressions[i] = selected.get(i).expr();
+                bindings[i] = selected.get(i).value_map();
+            }
+        }
+    }
+
+    /**
+     * Per-thread position in the class's expressions.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Benchmark
+    public boolean match(Corpus corpus, Cursor cursor) throws Exception {
+        int i = cursor.index;
+        cursor.index = (i + 1 == corpus.expressions.length) ? 0 : i + 1;
+        return SqlExprEvaluator.match(corpus.expressions[i], corpus.bindings[i]);
+    }
+}
@@ -1,14 +1,52 @@
 package net.magneticpotato;
 
+import net.magneticpotato.model.ArrivalPolicy;
+import net.magneticpotato.model.ComparisonResult;
 import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ExpressionGrouping;
+import net.magneticpotato.model.ForkPolicy;
+import net.magneticpotato.model.GeneratorSpec;
+import net.magneticpotato.model.LoadTestConfig;
 import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.ProfileDimension;
+import net.magneticpotato.model.WarmupPolicy;
+import net.magneticpotato.model.WorkloadPolicy;
+import net.magneticpotato.service.BinaryCorpus;
+import net.magneticpotato.service.CorpusSource;
+import net.magneticpotato.service.DistributedCoordinator;
+import net.magneticpotato.service.DistributedWorker;
+import net.magneticpotato.service.EvaluatorRegistry;
+import net.magneticpotato.service.ExpressionCache;
+import net.magneticpotato.service.ExpressionEvaluator;
+import net.magneticpotato.service.ExpressionGenerator;
 import net.magneticpotato.service.ExpressionLoader;
+import net.magneticpotato.service.ForkRunner;
 import net.magneticpotato.service.LoadTester;
 import net.magneticpotato.service.ReportGenerator;
+import net.magneticpotato.service.ResultComparator;
+import net.magneticpotato.service.ResultsJson;
+import net.magneticpotato.service.RunListener;
+import net.magneticpotato.service.ScalabilitySweep;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Main entry point for the SQL expression load testing program.
@@ -19,46 +57,86 @@ public class Main {
     private static final String OUTPUT_DIR = "output";
     private static final String TIMINGS_FILE = "test_timings.md";
     private static final String FAILED_FILE = "failed_tests.md";
+    private static final String METRICS_FILE = "interval_metrics.csv";
+    private static final String JFR_FILE = "recording.jfr";
+    private static final String RESULTS_FILE = "test_results.json";
+    private static final String COMPARISON_FILE = "comparison.md";
+
+    /** Exit status of {@code compare} when a class regressed. */
+    private static final int EXIT_REGRESSION = 2;
+
+    /** Options of the parent of a forked run that its children do not take. */
+    private static final Set<String> FORK_OPTIONS = Set.of("--forks", "--fork-jvm", "--fork-classes");
+
+    /** Options of the coordinator of a distributed run that its workers do not take. */
+    private static final Set<String> COORDINATOR_OPTIONS = Set.of("--workers", "--worker-timeout");
+
+    /** Interval at which workers report metrics when the run gives none. */
+    private static final String DEFAULT_WORKER_INTERVAL = "1s";
 
     /**
-     * CLI configuration record.
+     * CLI configuration record. A forked run has {@code forks} and the
+     * arguments of its children; a child has the {@code forkResult} file.
+     * A distributed run has {@code workers} and the arguments they run with.
+     * {@code classes} is null unless the run is restricted to some classes.
      */
-    private record CliConfig(String inputFile, int iterations, boolean isClasspathResource) {}
+    private record CliConfig(String inputFile, boolean isClasspathResource, boolean stream,
+                             ExpressionLoader.LoadOptions loadOptions, String convertTo,
+                             int sweepMaxThreads, LoadTestConfig testConfig, GeneratorSpec generate,
+                             Set<Integer> classes, ForkPolicy forks, List<String> forkArguments,
+                             Path forkResult, List<InetSocketAddress> workers, List<String> workerArguments,
+                             long workerTimeoutMs) {}
 
     public static void main(String[] args) {
         try {
+            if (args.length > 0 && "compare".equals(args[0])) {
+                System.exit(compare(Arrays.copyOfRange(args, 1, args.length)));
+            }
+            if (args.length > 0 && "worker".equals(args[0])) {
+                worker(Arrays.copyOfRange(args, 1, args.length));
+                return;
+            }
+
             // Parse CLI arguments
             CliConfig config = parseCliArguments(args);
 
-            System.out.println("Loading expressions from: " + config.inputFile);
-
-            // Load expressions based on source type
-            ExpressionLoader.LoadedExpressions loaded = config.isClasspathResource
-                ? ExpressionLoader.loadExpressionsFromClasspath(config.inputFile)
-                : ExpressionLoader.loadExpressionsFromFile(config.inputFile);
-
-            List<ExpressionData> expressions = loaded.expressions();
-            String absolutePath = loaded.absolutePath();
+            if (config.convertTo != null) {
+                convert(config);
+                return;
+            }
 
-            System.out.println("Loaded " + expressions.size() + " expressions");
-            System.out.println("Resolved path: " + absolutePath);
+            if (config.testConfig.metricsLog() != null && config.forkResult == null) {
+                // Sweep levels and forks append to the log, so start each run with a fresh one
+                Files.deleteIfExists(config.testConfig.metricsLog());
+            }
 
-            System.out.println("Running load test with " + config.iterations + " iteration(s)...");
+            LoadTestResult result;
+            if (config.forks != null) {
+                System.out.println("Forking " + config.forks.trials() + " JVM(s): " + config.forks.describe());
+                result = new ForkRunner(config.testConfig, config.forks, config.forkArguments).run();
+            } else if (config.workers != null) {
+                System.out.println("Distributing the run over " + config.workers.size() + " worker(s)");
+                result = new DistributedCoordinator(config.testConfig, config.workers, config.workerArguments,
+                    config.workerTimeoutMs).run();
+            } else {
+                result = config.stream ? runStreamed(config) : runLoaded(config);
+            }
 
-            LoadTester tester = new LoadTester(config.iterations, absolutePath);
-            LoadTestResult result = tester.run(expressions);
+            if (config.forkResult != null) {
+                ResultsJson.write(config.forkResult, result);
+                System.out.println("Fork result written to " + config.forkResult);
+                return;
+            }
 
             System.out.println("Generating reports...");
 
             Path outputDir = Paths.get(OUTPUT_DIR);
             Path timingsPath = outputDir.resolve(TIMINGS_FILE);
             Path failedPath = outputDir.resolve(FAILED_FILE);
+            Path resultsPath = outputDir.resolve(RESULTS_FILE);
 
-            ReportGenerator.generateTimingsReport(
-                timingsPath,
-                result.overallStats(),
-                result.classStats()
-            );
+            ReportGenerator.generateTimingsReport(timingsPath, result);
+            ResultsJson.write(resultsPath, result);
 
             ReportGenerator.generateFailedTestsReport(
                 failedPath,
@@ -67,6 +145,13 @@ public class Main {
 
             System.out.println("Reports generated:");
             System.out.println("  - " + timingsPath);
+            System.out.println("  - " + resultsPath);
+            if (config.testConfig.metricsLog() != null) {
+                System.out.println("  - " + config.testConfig.metricsLog());
+            }
+            if (result.jfr() != null) {
+                System.out.println("  - " + result.jfr().recordingPath());
+            }
             if (!result.failures().isEmpty()) {
                 System.out.println("  - " + failedPath);
                 System.out.println("WARNING: " + result.failures().size() + " evaluations failed!");
@@ -81,6 +166,249 @@ public class Main {
         }
     }
 
+    /**
+     * Loads the whole corpus into memory and runs the load test on it.
+     */
+    private static LoadTestResult runLoaded(CliConfig config) throws IOException {
+        ExpressionLoader.LoadedExpressions corpus = loadCorpus(config);
+        String absolutePath = corpus.absolutePath();
+
+        printRunBanner(config);
+        if (config.sweepMaxThreads > 0) {
+            return new ScalabilitySweep(config.testConfig, absolutePath, config.sweepMaxThreads)
+                .run(tester -> tester.run(corpus));
+        }
+        LoadTester tester = new LoadTester(config.testConfig, absolutePath);
+        return tester.run(corpus);
+    }
+
+    /**
+     * Loads or generates the corpus, restricted to the run's classes.
+     */
+    private static ExpressionLoader.LoadedExpressions loadCorpus(CliConfig config) throws IOException {
+        ExpressionLoader.LoadedExpressions loaded;
+        if (config.generate != null) {
+            System.out.println("Generating expressions: " + config.generate.describe());
+            loaded = new ExpressionGenerator(config.generate).load();
+        } else {
+            System.out.println("Loading expressions from: " + config.inputFile);
+
+            // Load expressions based on source type
+            loaded = config.isClasspathResource
+                ? ExpressionLoader.loadExpressionsFromClasspath(config.inputFile, config.loadOptions)
+                : ExpressionLoader.loadExpressionsFromFile(config.inputFile, config.loadOptions);
+        }
+
+        System.out.println("Loaded " + loaded.expressions().size() + " expressions ("
+            + loaded.format().label() + String.format(", %.1f ms", loaded.loadTimeMs())
+            + ((loaded.heapBytes() >= 0)
+                ? String.format(", %.1f MB heap)", loaded.heapBytes() / (1024.0 * 1024.0))
+                : ")"));
+        if (config.classes != null) {
+            loaded = loaded.restrictTo(config.classes);
+            System.out.println("Restricted to class(es) " + config.classes.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ")) + ": " + loaded.expressions().size() + " expressions");
+        }
+        System.out.println("Resolved path: " + loaded.absolutePath());
+        return loaded;
+    }
+
+    /**
+     * Runs the {@code worker} command: serves the shards of distributed runs
+     * until the process is stopped.
+     *
+     * @param args the arguments after "worker"
+     */
+    private static void worker(String[] args) throws IOException {
+        int port = 0;
+        String bind = InetAddress.getLoopbackAddress().getHostAddress();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--listen":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--listen requires a port");
+                    }
+                    port = parseInt("--listen", args[++i]);
+                    break;
+                case "--bind":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--bind requires a host");
+                    }
+                    bind = args[++i];
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                        "Unknown argument: " + args[i] + "\n" + getUsageMessage()
+                    );
+            }
+        }
+        if (port == 0) {
+            throw new IllegalArgumentException("worker requires --listen PORT\n" + getUsageMessage());
+        }
+
+        try (DistributedWorker worker = new DistributedWorker(new InetSocketAddress(bind, port))) {
+            System.out.println("Worker listening on " + bind + ":" + worker.port());
+            worker.serve(Main::runShard);
+        }
+    }
+
+    /**
+     * Runs a worker's shard of a distributed run, holding each phase until
+     * the coordinator starts it.
+     */
+    private static LoadTestResult runShard(DistributedWorker.Job job, RunListener listener) throws IOException {
+        CliConfig parsed = parseCliArguments(job.arguments().toArray(String[]::new));
+        // Workers may share a directory, so interval metrics only go to the coordinator
+        LoadTestConfig testConfig = parsed.testConfig.toBuilder().metricsLog(null).build();
+        ExpressionLoader.LoadedExpressions shard = loadCorpus(parsed).shard(job.shard(), job.shards());
+        System.out.println("Shard " + (job.shard() + 1) + " of " + job.shards() + ": "
+            + shard.expressions().size() + " expressions");
+
+        printRunBanner(parsed);
+        LoadTester tester = new LoadTester(testConfig, shard.absolutePath());
+        tester.setRunListener(listener);
+        return tester.run(shard);
+    }
+
+    /**
+     * Returns the corpus to stream: the generated corpus, or the input file.
+     */
+    private static CorpusSource streamSource(CliConfig config) throws IOException {
+        if (config.generate != null) {
+            return new ExpressionGenerator(config.generate);
+        }
+        return config.isClasspathResource
+            ? ExpressionLoader.streamExpressionsFromClasspath(config.inputFile)
+            : ExpressionLoader.streamExpressionsFromFile(config.inputFile);
+    }
+
+    /**
+     * Converts the input corpus, or writes the generated one, to the binary
+     * format. The input is streamed, so corpora larger than the heap can be
+     * converted.
+     */
+    private static void convert(CliConfig config) throws IOException {
+        CorpusSource source = streamSource(config);
+        Path target = Paths.get(config.convertTo);
+
+        System.out.println("Converting " + source.absolutePath() + " to " + target.toAbsolutePath());
+        long startNs = System.nanoTime();
+        BinaryCorpus.ConversionResult converted;
+        try (Stream<ExpressionData> expressions = source.open()) {
+            converted = BinaryCorpus.write(expressions.iterator(), target);
+        }
+        double elapsedMs = (System.nanoTime() - startNs) / 1_000_000.0;
+
+        System.out.println(String.format("Wrote %d records, %d distinct strings, %d bytes in %.1f ms",
+            converted.records(), converted.strings(), converted.bytes(), elapsedMs));
+    }
+
+    /**
+     * Runs the load test on a corpus streamed from its source on every pass.
+     */
+    private static LoadTestResult runStreamed(CliConfig config) throws IOException {
+        CorpusSource source = streamSource(config);
+        System.out.println("Streaming expressions from: "
+            + ((config.generate != null) ? "generator" : config.inputFile));
+
+        System.out.println("Resolved path: " + source.absolutePath());
+        System.out.println("Read-ahead: " + config.testConfig.readAhead() + " expressions");
+
+        printRunBanner(config);
+        if (config.sweepMaxThreads > 0) {
+            return new ScalabilitySweep(config.testConfig, source.absolutePath(), config.sweepMaxThreads)
+                .run(tester -> tester.run(source));
+        }
+        LoadTester tester = new LoadTester(config.testConfig, source.absolutePath());
+        return tester.run(source);
+    }
+
+    private static void printRunBanner(CliConfig config) {
+        LoadTestConfig testConfig = config.testConfig;
+        String threads = (config.sweepMaxThreads > 0)
+            ? "1 to " + config.sweepMaxThreads
+            : String.valueOf(testConfig.threads());
+        String length = (testConfig.durationMs() > 0 || config.sweepMaxThreads > 0)
+            ? "for " + ((testConfig.durationMs() > 0) ? testConfig.durationMs() : ScalabilitySweep.DEFAULT_LEVEL_DURATION_MS) + " ms"
+            : "with " + testConfig.iterations() + " iteration(s)";
+        System.out.println("Running load test " + length + " on "
+            + threads + (testConfig.virtualThreads() ? " virtual" : "") + " thread(s)...");
+        System.out.println("Engines: " + testConfig.engines().stream()
+            .map(ExpressionEvaluator::name)
+            .collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Runs the {@code compare} command: compares a candidate result file
+     * against a baseline and writes the comparison report.
+     *
+     * @param args the arguments after "compare"
+     * @return the exit status, {@value #EXIT_REGRESSION} if any class regressed
+     */
+    private static int compare(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        ComparisonResult.Metric metric = ComparisonResult.Metric.P50;
+        double threshold = ResultComparator.DEFAULT_THRESHOLD_PERCENT;
+        double alpha = ResultComparator.DEFAULT_ALPHA;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--metric":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--metric requires a value");
+                    }
+                    metric = parseMetric(args[++i]);
+                    break;
+                case "--threshold":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--threshold requires a value");
+                    }
+                    String value = args[++i];
+                    threshold = parsePositiveDouble("--threshold",
+                        value.endsWith("%") ? value.substring(0, value.length() - 1) : value);
+                    break;
+                case "--alpha":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--alpha requires a value");
+                    }
+                    alpha = parsePositiveDouble("--alpha", args[++i]);
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException(
+                            "Unknown argument: " + args[i] + "\n" + getUsageMessage()
+                        );
+                    }
+                    files.add(args[i]);
+            }
+        }
+        if (files.size() != 2) {
+            throw new IllegalArgumentException("compare requires a baseline and a candidate results file\n"
+                + getUsageMessage());
+        }
+
+        ComparisonResult comparison = new ResultComparator(metric, threshold, alpha).compare(
+            ResultsJson.read(Paths.get(files.get(0))),
+            ResultsJson.read(Paths.get(files.get(1))));
+        Path reportPath = Paths.get(OUTPUT_DIR, COMPARISON_FILE);
+        System.out.println(ReportGenerator.generateComparisonReport(reportPath, comparison));
+        System.out.println("Comparison written to " + reportPath);
+        if (comparison.regressed()) {
+            System.out.println("REGRESSION: the candidate is slower than the baseline");
+            return EXIT_REGRESSION;
+        }
+        return 0;
+    }
+
+    private static ComparisonResult.Metric parseMetric(String value) {
+        try {
+            return ComparisonResult.Metric.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown --metric: " + value + " (expected mean, p50, p90 or p99)");
+        }
+    }
+
     /**
      * Parses command line arguments to get configuration.
      *
@@ -90,8 +418,44 @@ public class Main {
      */
     private static CliConfig parseCliArguments(String[] args) {
         String inputFile = DEFAULT_INPUT_FILE;
-        int iterations = 1;
         boolean isClasspathResource = true;
+        boolean stream = false;
+        String convertTo = null;
+        int loadThreads = Runtime.getRuntime().availableProcessors();
+        boolean compactBindings = false;
+        boolean corpusHeap = false;
+        LoadTestConfig.Builder testConfig = LoadTestConfig.builder();
+        String warmupSpec = null;
+        double warmupCv = WarmupPolicy.DEFAULT_CV_THRESHOLD;
+        int warmupWindow = WarmupPolicy.DEFAULT_WINDOW;
+        int warmupMax = WarmupPolicy.DEFAULT_MAX_ITERATIONS;
+        double rate = 0.0;
+        int sweepMaxThreads = 0;
+        int metricsPort = 0;
+        String metricsHost = null;
+        boolean poisson = false;
+        boolean jfr = false;
+        int jfrSampleEvery = 0;
+        boolean alloc = false;
+        int allocSampleEvery = 0;
+        boolean shuffle = false;
+        double zipfExponent = 0.0;
+        Map<Integer, Double> mix = Map.of();
+        Long seed = null;
+        int generateCount = 0;
+        Map<Integer, Double> genComplexity = null;
+        Map<GeneratorSpec.Operator, Double> genOperators = null;
+        int genDepth = 0;
+        int genVariables = 0;
+        Set<GeneratorSpec.ValueType> genTypes = null;
+        boolean inputGiven = false;
+        Set<Integer> classes = null;
+        int forks = 0;
+        List<String> forkJvmOptions = new ArrayList<>();
+        List<Integer> forkClasses = List.of();
+        Path forkResult = null;
+        List<InetSocketAddress> workers = null;
+        long workerTimeoutMs = 0;
 
         for (int i = 0; i < args.length; i++) {
             switch (args[i]) {
@@ -101,12 +465,275 @@ public class Main {
                     }
                     inputFile = args[++i];
                     isClasspathResource = false;
+                    inputGiven = true;
+                    break;
+                case "--generate":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--generate requires a value");
+                    }
+                    generateCount = parseInt("--generate", args[++i]);
+                    break;
+                case "--gen-complexity":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--gen-complexity requires a value");
+                    }
+                    genComplexity = parseComplexityWeights(args[++i]);
+                    break;
+                case "--gen-operators":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--gen-operators requires a value");
+                    }
+                    genOperators = parseOperatorWeights(args[++i]);
+                    break;
+                case "--gen-depth":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--gen-depth requires a value");
+                    }
+                    genDepth = parseInt("--gen-depth", args[++i]);
+                    break;
+                case "--gen-variables":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--gen-variables requires a value");
+                    }
+                    genVariables = parseInt("--gen-variables", args[++i]);
+                    break;
+                case "--gen-types":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--gen-types requires a value");
+                    }
+                    genTypes = parseValueTypes(args[++i]);
                     break;
                 case "--iterations":
                     if (i + 1 >= args.length) {
                         throw new IllegalArgumentException("--iterations requires a value");
                     }
-                    iterations = parseInt(args[++i]);
+                    testConfig.iterations(parseInt("--iterations", args[++i]));
+                    break;
+                case "--duration":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--duration requires a value");
+                    }
+                    testConfig.durationMs(parseDurationMs("--duration", args[++i]));
+                    break;
+                case "--interval":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--interval requires a value");
+                    }
+                    testConfig.metricsIntervalMs(parseDurationMs("--interval", args[++i]));
+                    testConfig.metricsLog(Paths.get(OUTPUT_DIR, METRICS_FILE));
+                    break;
+                case "--metrics-port":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--metrics-port requires a value");
+                    }
+                    metricsPort = parseInt("--metrics-port", args[++i]);
+                    break;
+                case "--metrics-host":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--metrics-host requires a value");
+                    }
+                    metricsHost = args[++i];
+                    break;
+                case "--jfr":
+                    jfr = true;
+                    testConfig.jfrRecording(Paths.get(OUTPUT_DIR, JFR_FILE));
+                    break;
+                case "--jfr-sample":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--jfr-sample requires a value");
+                    }
+                    jfrSampleEvery = parseInt("--jfr-sample", args[++i]);
+                    testConfig.jfrSampleEvery(jfrSampleEvery);
+                    break;
+                case "--alloc":
+                    alloc = true;
+                    break;
+                case "--alloc-sample":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--alloc-sample requires a value");
+                    }
+                    allocSampleEvery = parseInt("--alloc-sample", args[++i]);
+                    break;
+                case "--batch":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--batch requires a value");
+                    }
+                    testConfig.timingBatch(parseInt("--batch", args[++i]));
+                    break;
+                case "--classes":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--classes requires a value");
+                    }
+                    classes = new LinkedHashSet<>(parseClasses("--classes", args[++i]));
+                    break;
+                case "--forks":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--forks requires a value");
+                    }
+                    forks = parseInt("--forks", args[++i]);
+                    break;
+                case "--fork-jvm":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--fork-jvm requires a value");
+                    }
+                    forkJvmOptions.add(args[++i]);
+                    break;
+                case "--fork-classes":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--fork-classes requires a value");
+                    }
+                    forkClasses = parseClasses("--fork-classes", args[++i]);
+                    break;
+                case "--fork-result":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--fork-result requires a file path");
+                    }
+                    forkResult = Paths.get(args[++i]);
+                    break;
+                case "--workers":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--workers requires a value");
+                    }
+                    workers = parseWorkers(args[++i]);
+                    break;
+                case "--worker-timeout":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--worker-timeout requires a value");
+                    }
+                    workerTimeoutMs = parseDurationMs("--worker-timeout", args[++i]);
+                    break;
+                case "--shuffle":
+                    shuffle = true;
+                    break;
+                case "--zipf":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--zipf requires a value");
+                    }
+                    zipfExponent = parsePositiveDouble("--zipf", args[++i]);
+                    break;
+                case "--mix":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--mix requires a value");
+                    }
+                    mix = parseMix(args[++i]);
+                    break;
+                case "--seed":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--seed requires a value");
+                    }
+                    seed = parseSeed(args[++i]);
+                    break;
+                case "--sweep":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--sweep requires a value");
+                    }
+                    sweepMaxThreads = parseInt("--sweep", args[++i]);
+                    break;
+                case "--threads":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--threads requires a value");
+                    }
+                    testConfig.threads(parseInt("--threads", args[++i]));
+                    break;
+                case "--virtual-threads":
+                    testConfig.virtualThreads(true);
+                    break;
+                case "--warmup":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--warmup requires a value");
+                    }
+                    warmupSpec = args[++i];
+                    break;
+                case "--engine":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--engine requires a value");
+                    }
+                    testConfig.engines(EvaluatorRegistry.resolve(
+                        Arrays.asList(args[++i].split(","))));
+                    break;
+                case "--load-threads":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--load-threads requires a value");
+                    }
+                    loadThreads = parseInt("--load-threads", args[++i]);
+                    break;
+                case "--compact-bindings":
+                    compactBindings = true;
+                    break;
+                case "--corpus-heap":
+                    corpusHeap = true;
+                    break;
+                case "--convert-to":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--convert-to requires a file path");
+                    }
+                    convertTo = args[++i];
+                    break;
+                case "--stream":
+                    stream = true;
+                    break;
+                case "--read-ahead":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--read-ahead requires a value");
+                    }
+                    testConfig.readAhead(parseInt("--read-ahead", args[++i]));
+                    break;
+                case "--split-timing":
+                    testConfig.splitTiming(true);
+                    break;
+                case "--cache":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--cache requires a value");
+                    }
+                    testConfig.cachePolicy(parseCachePolicy(args[++i]));
+                    break;
+                case "--cache-size":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--cache-size requires a value");
+                    }
+                    testConfig.cacheSize(parseInt("--cache-size", args[++i]));
+                    break;
+                case "--rate":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--rate requires a value");
+                    }
+                    rate = parseRate(args[++i]);
+                    break;
+                case "--arrivals":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--arrivals requires a value");
+                    }
+                    poisson = parseArrivals(args[++i]);
+                    break;
+                case "--group-by":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--group-by requires a value");
+                    }
+                    testConfig.grouping(parseGrouping(args[++i]));
+                    break;
+                case "--regression":
+                    testConfig.regression(true);
+                    break;
+                case "--warmup-cv":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--warmup-cv requires a value");
+                    }
+                    warmupCv = parsePositiveDouble("--warmup-cv", args[++i]);
+                    break;
+                case "--warmup-window":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--warmup-window requires a value");
+                    }
+                    warmupWindow = parseInt("--warmup-window", args[++i]);
+                    if (warmupWindow < 2) {
+                        throw new IllegalArgumentException("--warmup-window must be >= 2");
+                    }
+                    break;
+                case "--warmup-max":
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--warmup-max requires a value");
+                    }
+                    warmupMax = parseInt("--warmup-max", args[++i]);
                     break;
                 default:
                     throw new IllegalArgumentException(
@@ -115,25 +742,423 @@ public class Main {
             }
         }
 
-        return new CliConfig(inputFile, iterations, isClasspathResource);
+        if (warmupSpec != null) {
+            testConfig.warmup(parseWarmup(warmupSpec, warmupCv, warmupWindow, warmupMax));
+        }
+        if (rate > 0.0) {
+            testConfig.arrivals(poisson ? ArrivalPolicy.poisson(rate) : ArrivalPolicy.uniform(rate));
+        } else if (poisson) {
+            throw new IllegalArgumentException("--arrivals requires --rate");
+        }
+        if (metricsPort > 0) {
+            testConfig.metricsAddress(new InetSocketAddress(
+                (metricsHost != null) ? metricsHost : InetAddress.getLoopbackAddress().getHostAddress(), metricsPort));
+        } else if (metricsHost != null) {
+            throw new IllegalArgumentException("--metrics-host requires --metrics-port");
+        }
+        if (jfrSampleEvery > 0 && !jfr) {
+            throw new IllegalArgumentException("--jfr-sample requires --jfr");
+        }
+        if (alloc && testConfig.build().virtualThreads()) {
+            throw new IllegalArgumentException("--alloc cannot measure virtual threads; use platform --threads");
+        }
+        if (alloc) {
+            testConfig.allocationSampleEvery((allocSampleEvery > 0) ? allocSampleEvery : 1);
+        } else if (allocSampleEvery > 0) {
+            throw new IllegalArgumentException("--alloc-sample requires --alloc");
+        }
+        // Without a seed pick one, so the report records how to repeat the run
+        long runSeed = (seed != null) ? seed : new SplittableRandom().nextLong();
+        GeneratorSpec generate = null;
+        if (generateCount > 0) {
+            if (inputGiven) {
+                throw new IllegalArgumentException("--generate replaces --input; give only one of them");
+            }
+            GeneratorSpec defaults = GeneratorSpec.defaults(generateCount, runSeed);
+            generate = new GeneratorSpec(generateCount, runSeed,
+                (genComplexity != null) ? genComplexity : defaults.complexity(),
+                (genOperators != null) ? genOperators : defaults.operators(),
+                genDepth,
+                (genVariables > 0) ? genVariables : defaults.variables(),
+                (genTypes != null) ? genTypes : defaults.valueTypes());
+        } else if (genComplexity != null || genOperators != null || genDepth > 0 || genVariables > 0
+            || genTypes != null) {
+            throw new IllegalArgumentException("--gen-* options require --generate");
+        }
+        if (shuffle || zipfExponent > 0.0 || !mix.isEmpty()) {
+            if (shuffle && (zipfExponent > 0.0 || !mix.isEmpty())) {
+                throw new IllegalArgumentException("--shuffle visits every expression once and cannot be combined with --zipf or --mix");
+            }
+            if (stream) {
+                throw new IllegalArgumentException("--shuffle, --zipf and --mix need a loaded corpus and cannot be combined with --stream");
+            }
+            if (!mix.isEmpty() && !testConfig.build().grouping().isComplexity()) {
+                throw new IllegalArgumentException("--mix weights complexity classes and cannot be combined with --group-by");
+            }
+            testConfig.workload(new WorkloadPolicy(shuffle, zipfExponent, mix, runSeed));
+        } else if (seed != null && generate == null) {
+            throw new IllegalArgumentException("--seed requires --generate, --shuffle, --zipf or --mix");
+        }
+        LoadTestConfig built = testConfig.build();
+        if (built.timingBatch() > 1) {
+            if (stream) {
+                throw new IllegalArgumentException("--batch needs a loaded corpus and cannot be combined with --stream");
+            }
+            if (built.splitTiming() || rate > 0.0 || jfr || alloc || built.regression()) {
+                throw new IllegalArgumentException(
+                    "--batch times evaluations together and cannot be combined with --split-timing, --cache, "
+                        + "--rate, --jfr, --alloc or --regression");
+            }
+        }
+        if (sweepMaxThreads > 0 && rate > 0.0) {
+            throw new IllegalArgumentException("--sweep measures closed-loop throughput and cannot be combined with --rate");
+        }
+        if (classes != null || !forkClasses.isEmpty()) {
+            if (stream) {
+                throw new IllegalArgumentException("--classes and --fork-classes need a loaded corpus and cannot be combined with --stream");
+            }
+            if (!built.grouping().isComplexity()) {
+                throw new IllegalArgumentException("--classes and --fork-classes select complexity classes and cannot be combined with --group-by");
+            }
+        }
+
+        ForkPolicy forkPolicy = null;
+        List<String> forkArguments = null;
+        if (forks > 0) {
+            if (sweepMaxThreads > 0 || jfr || built.splitTiming() || built.regression() || rate > 0.0
+                || convertTo != null || forkResult != null) {
+                throw new IllegalArgumentException("--forks merges per-class histograms and cannot be combined with "
+                    + "--sweep, --jfr, --split-timing, --cache, --regression, --rate or --convert-to");
+            }
+            if (classes != null && !forkClasses.isEmpty()) {
+                throw new IllegalArgumentException("--fork-classes gives each fork its class; drop --classes");
+            }
+            forkPolicy = new ForkPolicy(forks, forkJvmOptions, forkClasses);
+            // Every child must generate and visit the same corpus, so pass on the seed even when it was picked
+            boolean seeded = generate != null || !built.workload().isSequential();
+            forkArguments = childArguments(args, FORK_OPTIONS, seeded ? runSeed : null);
+        } else if (!forkJvmOptions.isEmpty() || !forkClasses.isEmpty()) {
+            throw new IllegalArgumentException("--fork-jvm and --fork-classes require --forks");
+        }
+
+        List<String> workerArguments = null;
+        if (workers != null) {
+            if (sweepMaxThreads > 0 || jfr || built.splitTiming() || built.regression() || rate > 0.0
+                || forks > 0 || stream || convertTo != null || metricsPort > 0 || forkResult != null) {
+                throw new IllegalArgumentException("--workers merges per-class histograms and cannot be combined with "
+                    + "--sweep, --jfr, --split-timing, --cache, --regression, --rate, --forks, --stream, "
+                    + "--metrics-port or --convert-to");
+            }
+            // Every worker must generate and visit the same corpus before taking its shard
+            boolean seeded = generate != null || !built.workload().isSequential();
+            workerArguments = childArguments(args, COORDINATOR_OPTIONS, seeded ? runSeed : null);
+            if (built.metricsIntervalMs() == 0) {
+                workerArguments.add("--interval");
+                workerArguments.add(DEFAULT_WORKER_INTERVAL);
+                built = built.toBuilder()
+                    .metricsIntervalMs(parseDurationMs("--interval", DEFAULT_WORKER_INTERVAL))
+                    .build();
+            }
+            // The coordinator prints merged intervals but runs nothing to log
+            built = built.toBuilder().metricsLog(null).build();
+        } else if (workerTimeoutMs > 0) {
+            throw new IllegalArgumentException("--worker-timeout requires --workers");
+        }
+
+        return new CliConfig(inputFile, isClasspathResource, stream,
+            new ExpressionLoader.LoadOptions(loadThreads, compactBindings, compactBindings || corpusHeap),
+            convertTo, sweepMaxThreads, built, generate, classes, forkPolicy, forkArguments, forkResult, workers,
+            workerArguments,
+            (workerTimeoutMs > 0) ? workerTimeoutMs : DistributedCoordinator.DEFAULT_WORKER_TIMEOUT_MS);
+    }
+
+    /**
+     * Returns the arguments of the children of a forked or distributed run:
+     * the parent's, without the given options and, when given, with the
+     * run's seed.
+     */
+    private static List<String> childArguments(String[] args, Set<String> parentOptions, Long seed) {
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (parentOptions.contains(args[i]) || (seed != null && "--seed".equals(args[i]))) {
+                i++;
+            } else {
+                arguments.add(args[i]);
+            }
+        }
+        if (seed != null) {
+            arguments.add("--seed");
+            arguments.add(String.valueOf(seed));
+        }
+        return arguments;
+    }
+
+    /**
+     * Parses the --warmup value: "auto", an iteration count, or a duration
+     * such as "500ms", "30s" or "2m".
+     *
+     * @return the warmup policy
+     * @throws IllegalArgumentException if the value is invalid
+     */
+    private static WarmupPolicy parseWarmup(String value, double cv, int window, int max) {
+        if ("auto".equalsIgnoreCase(value)) {
+            return WarmupPolicy.auto(cv, window, max);
+        }
+        if (value.chars().allMatch(Character::isDigit)) {
+            return WarmupPolicy.iterations(parseInt("--warmup", value));
+        }
+        return WarmupPolicy.duration(parseDurationMs("--warmup", value));
+    }
+
+    /**
+     * Parses the --rate value: evaluations per second, optionally suffixed
+     * with "/s".
+     *
+     * @throws IllegalArgumentException if the value is invalid
+     */
+    private static double parseRate(String value) {
+        String number = value.toLowerCase().endsWith("/s") ? value.substring(0, value.length() - 2) : value;
+        return parsePositiveDouble("--rate", number);
+    }
+
+    /**
+     * Parses the --arrivals process name.
+     *
+     * @return true for Poisson arrivals, false for uniform ones
+     * @throws IllegalArgumentException if the process is unknown
+     */
+    private static boolean parseArrivals(String value) {
+        return switch (value.toLowerCase()) {
+            case "uniform" -> false;
+            case "poisson" -> true;
+            default -> throw new IllegalArgumentException(
+                "Invalid --arrivals process (use uniform or poisson): " + value);
+        };
+    }
+
+    /**
+     * Parses the --mix class weights, e.g. "1:60,3:30,8:10". Weights are
+     * relative and need not add up to 100.
+     *
+     * @throws IllegalArgumentException if an entry is malformed or a class is repeated
+     */
+    private static Map<Integer, Double> parseMix(String value) {
+        return parseWeights("--mix", value, key -> parseInt("--mix class", key));
+    }
+
+    /**
+     * Parses the --gen-complexity weights, e.g. "0:10,1:60,5:30".
+     *
+     * @throws IllegalArgumentException if an entry is malformed or a complexity is repeated
+     */
+    private static Map<Integer, Double> parseComplexityWeights(String value) {
+        return parseWeights("--gen-complexity", value, key -> {
+            try {
+                int complexity = Integer.parseInt(key);
+                if (complexity < 0) {
+                    throw new IllegalArgumentException("--gen-complexity complexities must be >= 0");
+                }
+                return complexity;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid --gen-complexity complexity: " + key);
+            }
+        });
+    }
+
+    /**
+     * Parses a list of complexity classes, e.g. "1,4,8".
+     *
+     * @throws IllegalArgumentException if a class is not a number >= 0 or is repeated
+     */
+    private static List<Integer> parseClasses(String option, String value) {
+        List<Integer> classes = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            int complexity;
+            try {
+                complexity = Integer.parseInt(entry.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + option + " class: " + entry);
+            }
+            if (complexity < 0) {
+                throw new IllegalArgumentException(option + " classes must be >= 0");
+            }
+            if (classes.contains(complexity)) {
+                throw new IllegalArgumentException(option + " repeats class " + complexity);
+            }
+            classes.add(complexity);
+        }
+        return classes;
+    }
+
+    /**
+     * Parses the --workers value: comma separated HOST:PORT addresses.
+     */
+    private static List<InetSocketAddress> parseWorkers(String value) {
+        List<InetSocketAddress> workers = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            int colon = entry.trim().lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Invalid --workers address (expected HOST:PORT): " + entry);
+            }
+            String host = entry.trim().substring(0, colon);
+            int port = parseInt("--workers port", entry.trim().substring(colon + 1));
+            workers.add(new InetSocketAddress(host, port));
+        }
+        return workers;
+    }
+
+    /**
+     * Parses the --gen-operators weights, e.g. "cmp:50,in:30,like:20".
+     *
+     * @throws IllegalArgumentException if an entry is malformed or an operator is unknown or repeated
+     */
+    private static Map<GeneratorSpec.Operator, Double> parseOperatorWeights(String value) {
+        return parseWeights("--gen-operators", value, GeneratorSpec.Operator::fromName);
+    }
+
+    /**
+     * Parses a comma separated list of KEY:WEIGHT entries. Weights are
+     * relative, may end in "%" and need not add up to 100.
+     *
+     * @throws IllegalArgumentException if an entry is malformed or a key is repeated
+     */
+    private static <K> Map<K, Double> parseWeights(String option, String value, Function<String, K> parseKey) {
+        Map<K, Double> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            int colon = entry.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Invalid " + option + " entry (use KEY:WEIGHT): " + entry);
+            }
+            K key = parseKey.apply(entry.substring(0, colon).trim());
+            String weight = entry.substring(colon + 1).trim();
+            if (weight.endsWith("%")) {
+                weight = weight.substring(0, weight.length() - 1);
+            }
+            if (weights.put(key, parsePositiveDouble(option + " weight", weight)) != null) {
+                throw new IllegalArgumentException(option + " lists " + key + " twice");
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Parses the --gen-types value type list.
+     *
+     * @throws IllegalArgumentException if a type is unknown
+     */
+    private static Set<GeneratorSpec.ValueType> parseValueTypes(String value) {
+        Set<GeneratorSpec.ValueType> types = EnumSet.noneOf(GeneratorSpec.ValueType.class);
+        for (String name : value.split(",")) {
+            types.add(GeneratorSpec.ValueType.fromName(name));
+        }
+        return types;
+    }
+
+    /**
+     * Parses the --seed value, any long.
+     *
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    private static long parseSeed(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid --seed value: " + value);
+        }
+    }
+
+    /**
+     * Parses the --group-by dimension list.
+     *
+     * @throws IllegalArgumentException if a dimension is unknown or repeated
+     */
+    private static ExpressionGrouping parseGrouping(String value) {
+        List<ProfileDimension> dimensions = new ArrayList<>();
+        for (String name : value.split(",")) {
+            dimensions.add(ProfileDimension.fromName(name.trim()));
+        }
+        return ExpressionGrouping.of(dimensions);
+    }
+
+    /**
+     * Parses the --cache policy name.
+     *
+     * @throws IllegalArgumentException if the policy is unknown
+     */
+    private static ExpressionCache.Policy parseCachePolicy(String value) {
+        return switch (value.toLowerCase()) {
+            case "lru" -> ExpressionCache.Policy.LRU;
+            case "wtinylfu", "w-tinylfu", "tinylfu" -> ExpressionCache.Policy.WTINYLFU;
+            case "none" -> ExpressionCache.Policy.NONE;
+            default -> throw new IllegalArgumentException(
+                "Invalid --cache policy (use lru, wtinylfu or none): " + value);
+        };
+    }
+
+    /**
+     * Parses a duration with a unit suffix (ms, s or m) into milliseconds.
+     *
+     * @param option the option name, used in error messages
+     * @param value the string value to parse
+     * @return the duration in milliseconds
+     * @throws IllegalArgumentException if value is invalid
+     */
+    private static long parseDurationMs(String option, String value) {
+        String lower = value.toLowerCase();
+        long multiplier;
+        String number;
+        if (lower.endsWith("ms")) {
+            multiplier = 1;
+            number = lower.substring(0, lower.length() - 2);
+        } else if (lower.endsWith("s")) {
+            multiplier = 1_000;
+            number = lower.substring(0, lower.length() - 1);
+        } else if (lower.endsWith("m")) {
+            multiplier = 60_000;
+            number = lower.substring(0, lower.length() - 1);
+        } else {
+            throw new IllegalArgumentException("Invalid " + option + " duration (use ms, s or m): " + value);
+        }
+        return parseInt(option, number) * multiplier;
+    }
+
+    /**
+     * Parses a strictly positive floating point option value.
+     *
+     * @param option the option name, used in error messages
+     * @param value the string value to parse
+     * @return the parsed value
+     * @throws IllegalArgumentException if value is invalid
+     */
+    private static double parsePositiveDouble(String option, String value) {
+        try {
+            double result = Double.parseDouble(value);
+            if (!(result > 0.0)) {
+                throw new IllegalArgumentException(option + " must be > 0");
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + option + " value: " + value);
+        }
     }
 
     /**
-     * Parses an integer value with validation.
+     * Parses an integer option value with validation.
      *
+     * @param option the option name, used in error messages
      * @param value the string value to parse
      * @return the parsed integer
      * @throws IllegalArgumentException if value is invalid
      */
-    private static int parseInt(String value) {
+    private static int parseInt(String option, String value) {
         try {
             int result = Integer.parseInt(value);
             if (result < 1) {
-                throw new IllegalArgumentException("Iterations must be >= 1");
+                throw new IllegalArgumentException(option + " must be >= 1");
             }
             return result;
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid iterations value: " + value);
+            throw new IllegalArgumentException("Invalid " + option + " value: " + value);
         }
     }
 
@@ -143,11 +1168,99 @@ public class Main {
      * @return usage message string
      */
     private static String getUsageMessage() {
-        return "Usage: java Main [--input FILE] [--iterations N]\n" +
-               "  --input FILE       Path to expressions JSON file\n" +
+        return "Usage: java Main [--input FILE] [--iterations N] [--duration D] [--threads N] [--virtual-threads]\n" +
+               "                 [--warmup N|DURATION|auto] [--warmup-cv X] [--warmup-window N] [--warmup-max N]\n" +
+               "                 [--engine NAME[,NAME...]] [--split-timing] [--cache lru|wtinylfu] [--cache-size N]\n" +
+               "                 [--stream] [--read-ahead N] [--load-threads N] [--compact-bindings] [--corpus-heap]\n" +
+               "                 [--group-by DIM[,DIM...]] [--regression] [--rate N/s] [--arrivals uniform|poisson]\n" +
+               "                 [--sweep N] [--interval D] [--metrics-port N] [--metrics-host HOST]\n" +
+               "                 [--jfr] [--jfr-sample N] [--alloc] [--alloc-sample N]\n" +
+               "                 [--shuffle] [--zipf S] [--mix C:W[,C:W...]] [--seed N] [--batch K]\n" +
+               "                 [--classes C[,C...]] [--forks N] [--fork-jvm OPTIONS]... [--fork-classes C[,C...]]\n" +
+               "                 [--workers HOST:PORT[,HOST:PORT...]] [--worker-timeout D] [--convert-to FILE]\n" +
+               "                 [--generate N] [--gen-complexity C:W,...] [--gen-operators OP:W,...]\n" +
+               "                 [--gen-depth N] [--gen-variables N] [--gen-types TYPE[,TYPE...]]\n" +
+               "       java Main worker --listen PORT [--bind HOST]\n" +
+               "       java Main compare BASELINE.json CANDIDATE.json [--metric mean|p50|p90|p99]\n" +
+               "                 [--threshold PCT] [--alpha A]\n" +
+               "  --input FILE       Path to expressions JSON, NDJSON or binary corpus file\n" +
                "                     - Absolute path: /home/user/data/file.json\n" +
                "                     - Relative path: file.json (resolved to src/main/resources/file.json)\n" +
                "                     - Default: complex_expressions-limited.json (from classpath)\n" +
-               "  --iterations N     Number of iterations (default: 1, must be >= 1)";
+               "  --generate N       Generate N synthetic expressions from --seed instead of reading --input\n" +
+               "  --gen-complexity M Relative weight of each complexity, e.g. 0:10,1:60,5:30 (default: 0 to 10\n" +
+               "                     equally likely)\n" +
+               "  --gen-operators M  Relative weight of each predicate operator, e.g. cmp:50,in:30,like:20, of:\n" +
+               "                     " + GeneratorSpec.Operator.names() + " (default: cmp:40 and 15 each other)\n" +
+               "  --gen-depth N      Maximum nesting depth of AND/OR (default: no limit)\n" +
+               "  --gen-variables N  Variables bound for each expression (default: 8)\n" +
+               "  --gen-types TYPES  Types of the variables, of: " + GeneratorSpec.ValueType.names() + " (default: all)\n" +
+               "  --iterations N     Number of iterations (default: 1, must be >= 1)\n" +
+               "  --duration D       Measure for a duration such as 30s or 2m instead of --iterations\n" +
+               "  --threads N        Number of concurrent evaluation workers (default: 1, must be >= 1)\n" +
+               "  --virtual-threads  Run the workers on virtual threads instead of platform threads\n" +
+               "  --warmup SPEC      Unmeasured warmup before the timed iterations:\n" +
+               "                     - N: N iterations; 30s / 500ms / 2m: whole iterations for that long\n" +
+               "                     - auto: iterate until per-class mean latency is stable\n" +
+               "  --warmup-cv X      Auto warmup: max coefficient of variation of class means (default: 0.05)\n" +
+               "  --warmup-window N  Auto warmup: sliding window of iterations (default: 5, must be >= 2)\n" +
+               "  --warmup-max N     Auto warmup: give up after N iterations (default: 100)\n" +
+               "  --engine NAMES     Comma separated evaluator engines to run side by side (default: congocc)\n" +
+               "  --split-timing     Time the parse/compile and evaluate phases separately\n" +
+               "  --cache POLICY     Compiled-expression cache in front of the engine: lru or wtinylfu\n" +
+               "                     (implies --split-timing)\n" +
+               "  --cache-size N     Maximum cached expressions (default: 1000)\n" +
+               "  --group-by DIMS    Group timings by expression features instead of complexity, up to 4 of:\n" +
+               "                     " + ProfileDimension.names() + "\n" +
+               "  --regression       Regress latency on expression features to attribute cost to each\n" +
+               "  --rate N/s         Open loop: start N evaluations per second on a fixed schedule and measure\n" +
+               "                     response time from each scheduled start\n" +
+               "  --arrivals PROC    Open loop: uniform (default) or poisson arrival times\n" +
+               "  --metrics-port N   Serve live metrics in OpenMetrics format at http://HOST:N/metrics\n" +
+               "  --metrics-host H   Address the metrics endpoint binds to (default: loopback only)\n" +
+               "  --sweep N          Measure at 1, 2, 4, ... N workers for --duration each (default: 10s)\n" +
+               "                     and fit the Universal Scalability Law\n" +
+               "  --interval D       Print throughput and latency every D (e.g. 1s) and append them to\n" +
+               "                     output/interval_metrics.csv\n" +
+               "  --jfr              Record the measured phase with Java Flight Recorder to output/recording.jfr\n" +
+               "                     and report hot methods per class, allocation sites and GC pauses\n" +
+               "  --jfr-sample N     Emit a flight recorder event for one evaluation in N (default: 10)\n" +
+               "  --alloc            Measure the bytes allocated per evaluation for each class\n" +
+               "  --alloc-sample N   Measure allocations of one evaluation in N (default: 1)\n" +
+               "  --batch K          Time up to K consecutive evaluations of a class with one timer pair and\n" +
+               "                     record their per-evaluation mean (default: 1, each evaluation on its own)\n" +
+               "  --shuffle          Visit the corpus in a different random order on every pass\n" +
+               "  --zipf S           Draw each pass from the corpus with Zipfian popularity of exponent S\n" +
+               "  --mix C:W,...      Draw each pass with complexity class C weighted W, e.g. 1:60,3:30,8:10\n" +
+               "                     (Zipfian within each class with --zipf, uniform otherwise)\n" +
+               "  --seed N           Seed of --generate, --shuffle, --zipf and --mix (default: random, recorded\n" +
+               "                     in the report)\n" +
+               "  --classes C,...    Run only the expressions of these complexity classes\n" +
+               "  --forks N          Run N trials, each in a child JVM of its own, and merge their results\n" +
+               "  --fork-jvm OPTIONS JVM options of the children, e.g. \"-XX:+UseParallelGC -Xmx2g\"; repeat to\n" +
+               "                     compare JVM configurations, each run in N forks (default: no options)\n" +
+               "  --fork-classes C,. Give each of these complexity classes N forks of its own\n" +
+               "  --fork-result FILE Write the result to FILE for a parent run and skip the reports (used by --forks)\n" +
+               "  --workers H:P,...  Split the corpus into one shard per worker, run the shards on these workers\n" +
+               "                     in lock step and merge their results (workers report every --interval,\n" +
+               "                     default: 1s)\n" +
+               "  --worker-timeout D Fail the run when a worker it waits on sends nothing for D plus the interval\n" +
+               "                     (default: 5m)\n" +
+               "  --stream           Stream the corpus from its source on every pass instead of loading it\n" +
+               "  --read-ahead N     Streaming: expressions read ahead of the workers (default: 10000)\n" +
+               "  --load-threads N   Threads used to parse a JSON input file (default: available processors)\n" +
+               "  --compact-bindings Store value maps compactly with interned names and primitive values\n" +
+               "  --corpus-heap      Measure the heap retained by the loaded corpus, with a full GC before and\n" +
+               "                     after loading (implied by --compact-bindings)\n" +
+               "  --convert-to FILE  Convert the input, or write the generated corpus, to the binary corpus\n" +
+               "                     format and exit\n" +
+               "worker: serve the shards of --workers runs, one coordinator at a time\n" +
+               "  --listen PORT      Port to accept the coordinator on\n" +
+               "  --bind HOST        Address to listen on (default: loopback only)\n" +
+               "compare: compare two output/test_results.json files class by class and exit with status 2\n" +
+               "         when the candidate is significantly slower\n" +
+               "  --metric M         Latency statistic the threshold applies to (default: p50)\n" +
+               "  --threshold PCT    Relative slowdown that counts as a regression (default: 5%)\n" +
+               "  --alpha A          Significance level of the Mann-Whitney U test (default: 0.01)";
     }
 }
@@ -0,0 +1,55 @@
+package net.magneticpotato.model;
+
+/**
+ * Describes when evaluations are started. In the default closed loop each
+ * worker starts its next evaluation as soon as the previous one finishes.
+ * In an open loop evaluations are scheduled at a fixed rate regardless of
+ * how long they take, and latency is measured from the intended start, so
+ * queueing behind a slow evaluation is not hidden.
+ */
+public record ArrivalPolicy(
+    Mode mode,
+    double ratePerSec
+) {
+    /**
+     * Arrival processes.
+     */
+    public enum Mode {
+        /** Each worker starts the next evaluation when the previous one completes. */
+        CLOSED,
+        /** Evaluations are scheduled at evenly spaced intervals. */
+        UNIFORM,
+        /** Evaluations are scheduled with exponentially distributed gaps. */
+        POISSON
+    }
+
+    public static ArrivalPolicy closed() {
+        return new ArrivalPolicy(Mode.CLOSED, 0.0);
+    }
+
+    public static ArrivalPolicy uniform(double ratePerSec) {
+        return new ArrivalPolicy(Mode.UNIFORM, ratePerSec);
+    }
+
+    public static ArrivalPolicy poisson(double ratePerSec) {
+        return new ArrivalPolicy(Mode.POISSON, ratePerSec);
+    }
+
+    /**
+     * Returns true if evaluations follow a schedule rather than each other.
+     */
+    public boolean isOpenLoop() {
+        return mode != Mode.CLOSED;
+    }
+
+    /**
+     * Returns a human readable description of the policy.
+     */
+    public String describe() {
+        return switch (mode) {
+            case CLOSED -> "closed loop";
+            case UNIFORM -> String.format("open loop, %.1f/s uniform", ratePerSec);
+            case POISSON -> String.format("open loop, %.1f/s Poisson", ratePerSec);
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package net.magneticpotato.model;
+
+/**
+ * Compiled-expression cache activity for one engine.
+ *
+ * @param policy the eviction policy name
+ * @param capacity maximum number of cached expressions
+ * @param size entries cached at the end of the run
+ * @param hits lookups served from the cache
+ * @param misses lookups that had to prepare the expression
+ * @param evictions entries evicted or rejected by the admission policy
+ */
+public record CacheSummary(
+    String policy,
+    int capacity,
+    int size,
+    long hits,
+    long misses,
+    long evictions
+) {
+    /**
+     * Returns the fraction of lookups served from the cache, or NaN without lookups.
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return (lookups == 0) ? Double.NaN : (double) hits / lookups;
+    }
+}
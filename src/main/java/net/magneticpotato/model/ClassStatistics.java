@@ -1,54 +1,103 @@
 package net.magneticpotato.model;
 
-import java.util.List;
-
 /**
  * Computed statistics for a complexity class.
+ * The histogram the statistics were derived from is retained so results
+ * from several runs can be combined. Allocation figures are per measured
+ * evaluation; {@code allocationSamples} is 0 when allocations were not measured.
+ * {@code timedBatches} is the number of timer pairs when evaluations were
+ * timed in batches, whose latencies are then per-operation batch means,
+ * and 0 when each evaluation was timed on its own.
  */
 public record ClassStatistics(
     int complexity,
-    int totalEvaluations,
+    long totalEvaluations,
     int uniqueExpressions,
     double totalTimeMs,
     double minTimeMs,
     double maxTimeMs,
     double avgTimeMs,
-    double stdDevMs
+    double stdDevMs,
+    double p50TimeMs,
+    double p90TimeMs,
+    double p99TimeMs,
+    double p999TimeMs,
+    double p9999TimeMs,
+    long allocationSamples,
+    double allocatedBytesMean,
+    long allocatedBytesMax,
+    long timedBatches,
+    LatencyHistogram histogram
 ) {
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
     /**
      * Creates ClassStatistics from ClassTimings data.
      */
     public static ClassStatistics fromTimings(int complexity, ClassTimings timings) {
-        double min = (timings.getMinTime() == Double.MAX_VALUE) ? 0.0 : timings.getMinTime();
-        double avg = (timings.getEvaluationCount() > 0)
-            ? timings.getAccumulatedTime() / timings.getEvaluationCount()
-            : 0.0;
-        double stdDev = calculateStdDev(timings.getIndividualTimings(), avg);
+        ClassStatistics stats = fromHistogram(complexity, timings.getUniqueExprCount(), timings.getHistogram().copy());
+        long samples = timings.getAllocationSamples();
+        if (samples > 0) {
+            stats = stats.withAllocations(samples, timings.getAllocatedBytes() / (double) samples,
+                timings.getMaxAllocatedBytes());
+        }
+        if (timings.getTimedBatches() > 0) {
+            stats = stats.withTimedBatches(timings.getTimedBatches());
+        }
+        return stats;
+    }
 
+    /**
+     * Creates ClassStatistics from a latency histogram.
+     */
+    public static ClassStatistics fromHistogram(int complexity, int uniqueExpressions,
+                                                LatencyHistogram histogram) {
         return new ClassStatistics(
             complexity,
-            timings.getEvaluationCount(),
-            timings.getUniqueExprCount(),
-            timings.getAccumulatedTime(),
-            min,
-            timings.getMaxTime(),
-            avg,
-            stdDev
+            histogram.getTotalCount(),
+            uniqueExpressions,
+            histogram.getTotalNs() / NANOS_PER_MS,
+            histogram.getMinNs() / NANOS_PER_MS,
+            histogram.getMaxNs() / NANOS_PER_MS,
+            histogram.getMeanNs() / NANOS_PER_MS,
+            histogram.getStdDevNs() / NANOS_PER_MS,
+            histogram.getValueAtPercentile(50.0) / NANOS_PER_MS,
+            histogram.getValueAtPercentile(90.0) / NANOS_PER_MS,
+            histogram.getValueAtPercentile(99.0) / NANOS_PER_MS,
+            histogram.getValueAtPercentile(99.9) / NANOS_PER_MS,
+            histogram.getValueAtPercentile(99.99) / NANOS_PER_MS,
+            0L,
+            0.0,
+            0L,
+            0L,
+            histogram
         );
     }
 
     /**
-     * Calculates standard deviation using Bessel's correction (n-1 denominator).
+     * Returns a copy of these statistics with allocation figures.
      */
-    private static double calculateStdDev(List<Double> timings, double mean) {
-        if (timings.size() <= 1) {
-            return 0.0;
-        }
+    public ClassStatistics withAllocations(long samples, double meanBytes, long maxBytes) {
+        return new ClassStatistics(complexity, totalEvaluations, uniqueExpressions, totalTimeMs, minTimeMs,
+            maxTimeMs, avgTimeMs, stdDevMs, p50TimeMs, p90TimeMs, p99TimeMs, p999TimeMs, p9999TimeMs,
+            samples, meanBytes, maxBytes, timedBatches, histogram);
+    }
 
-        double sumSquaredDiffs = timings.stream()
-            .mapToDouble(t -> Math.pow(t - mean, 2))
-            .sum();
+    /**
+     * Returns a copy of these statistics recording that evaluations were
+     * timed in {@code batches} batches.
+     */
+    public ClassStatistics withTimedBatches(long batches) {
+        return new ClassStatistics(complexity, totalEvaluations, uniqueExpressions, totalTimeMs, minTimeMs,
+            maxTimeMs, avgTimeMs, stdDevMs, p50TimeMs, p90TimeMs, p99TimeMs, p999TimeMs, p9999TimeMs,
+            allocationSamples, allocatedBytesMean, allocatedBytesMax, batches, histogram);
+    }
 
-        return Math.sqrt(sumSquaredDiffs / (timings.size() - 1));
+    /**
+     * Returns the mean number of evaluations per timer pair, 1 when each
+     * evaluation was timed on its own.
+     */
+    public double evaluationsPerTimer() {
+        return (timedBatches == 0) ? 1.0 : totalEvaluations / (double) timedBatches;
     }
 }
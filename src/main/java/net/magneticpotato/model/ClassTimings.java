@@ -1,61 +1,203 @@
 package net.magneticpotato.model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Tracks timing metrics for a single complexity class.
+ * Timings are recorded into a fixed-size {@link LatencyHistogram}, so the
+ * memory used does not grow with the number of evaluations.
  */
 public class ClassTimings {
-    private double accumulatedTime;
-    private double minTime;
-    private double maxTime;
-    private int evaluationCount;
+    private final LatencyHistogram histogram;
+    private LatencyHistogram parseHistogram;
+    private LatencyHistogram evalHistogram;
+    private LatencyHistogram responseHistogram;
+    private long cacheHits;
+    private long cacheMisses;
+    private long allocationSamples;
+    private long allocatedBytes;
+    private long maxAllocatedBytes;
+    private long timedBatches;
     private int uniqueExprCount;
-    private final List<Double> individualTimings;
 
     public ClassTimings() {
-        this.accumulatedTime = 0.0;
-        this.minTime = Double.MAX_VALUE;
-        this.maxTime = 0.0;
-        this.evaluationCount = 0;
+        this.histogram = new LatencyHistogram();
         this.uniqueExprCount = 0;
-        this.individualTimings = new ArrayList<>();
     }
 
-    public void addTiming(double durationMs) {
-        accumulatedTime += durationMs;
-        minTime = Math.min(minTime, durationMs);
-        maxTime = Math.max(maxTime, durationMs);
-        evaluationCount++;
-        individualTimings.add(durationMs);
+    public void addTiming(long durationNs) {
+        histogram.recordValue(durationNs);
     }
 
-    public void incrementUniqueExpr() {
-        uniqueExprCount++;
+    /**
+     * Records a batch of evaluations timed with one timer pair, as that
+     * many evaluations of the batch's mean latency. The remainder of the
+     * division is spread one nanosecond at a time, so the recorded total
+     * is the batch's time.
+     *
+     * @param totalNs time taken by the whole batch
+     * @param evaluations evaluations in the batch
+     */
+    public void addBatchTiming(long totalNs, int evaluations) {
+        long meanNs = totalNs / evaluations;
+        int remainder = (int) (totalNs % evaluations);
+        histogram.recordValueWithCount(meanNs, evaluations - remainder);
+        if (remainder > 0) {
+            histogram.recordValueWithCount(meanNs + 1, remainder);
+        }
+        timedBatches++;
+    }
+
+    /**
+     * Records the parse/compile phase of a split-timing evaluation.
+     */
+    public void addParseTiming(long durationNs) {
+        getParseHistogram().recordValue(durationNs);
     }
 
-    public double getAccumulatedTime() {
-        return accumulatedTime;
+    /**
+     * Records the evaluate-against-bindings phase of a split-timing evaluation.
+     */
+    public void addEvalTiming(long durationNs) {
+        getEvalHistogram().recordValue(durationNs);
     }
 
-    public double getMinTime() {
-        return minTime;
+    /**
+     * Records the response time of an open-loop evaluation, measured from
+     * its scheduled start rather than its actual start.
+     */
+    public void addResponseTiming(long durationNs) {
+        getResponseHistogram().recordValue(durationNs);
     }
 
-    public double getMaxTime() {
-        return maxTime;
+    /**
+     * Records the bytes the evaluating thread allocated during one evaluation.
+     */
+    public void addAllocation(long bytes) {
+        allocationSamples++;
+        allocatedBytes += bytes;
+        maxAllocatedBytes = Math.max(maxAllocatedBytes, bytes);
     }
 
-    public int getEvaluationCount() {
-        return evaluationCount;
+    public void recordCacheHit() {
+        cacheHits++;
+    }
+
+    public void recordCacheMiss() {
+        cacheMisses++;
+    }
+
+    /**
+     * Folds another accumulator into this one. Used to combine the
+     * per-worker timings of a concurrent run.
+     */
+    public void merge(ClassTimings other) {
+        histogram.add(other.histogram);
+        if (other.parseHistogram != null) {
+            getParseHistogram().add(other.parseHistogram);
+        }
+        if (other.evalHistogram != null) {
+            getEvalHistogram().add(other.evalHistogram);
+        }
+        if (other.responseHistogram != null) {
+            getResponseHistogram().add(other.responseHistogram);
+        }
+        cacheHits += other.cacheHits;
+        cacheMisses += other.cacheMisses;
+        allocationSamples += other.allocationSamples;
+        allocatedBytes += other.allocatedBytes;
+        maxAllocatedBytes = Math.max(maxAllocatedBytes, other.maxAllocatedBytes);
+        timedBatches += other.timedBatches;
+        uniqueExprCount += other.uniqueExprCount;
+    }
+
+    public void incrementUniqueExpr() {
+        uniqueExprCount++;
+    }
+
+    public long getEvaluationCount() {
+        return histogram.getTotalCount();
     }
 
     public int getUniqueExprCount() {
         return uniqueExprCount;
     }
 
-    public List<Double> getIndividualTimings() {
-        return individualTimings;
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Returns the number of batches timed with one timer pair, 0 when every
+     * evaluation was timed on its own.
+     */
+    public long getTimedBatches() {
+        return timedBatches;
+    }
+
+    /**
+     * Returns whether any parse or evaluate phase timings were recorded.
+     */
+    public boolean hasPhaseTimings() {
+        return parseHistogram != null || evalHistogram != null;
+    }
+
+    /**
+     * Returns the parse phase histogram, created on first use so runs
+     * without split timing do not pay for it.
+     */
+    public LatencyHistogram getParseHistogram() {
+        if (parseHistogram == null) {
+            parseHistogram = new LatencyHistogram();
+        }
+        return parseHistogram;
+    }
+
+    /**
+     * Returns the evaluate phase histogram, created on first use.
+     */
+    public LatencyHistogram getEvalHistogram() {
+        if (evalHistogram == null) {
+            evalHistogram = new LatencyHistogram();
+        }
+        return evalHistogram;
+    }
+
+    /**
+     * Returns whether any open-loop response times were recorded.
+     */
+    public boolean hasResponseTimings() {
+        return responseHistogram != null;
+    }
+
+    /**
+     * Returns the open-loop response time histogram, created on first use.
+     */
+    public LatencyHistogram getResponseHistogram() {
+        if (responseHistogram == null) {
+            responseHistogram = new LatencyHistogram();
+        }
+        return responseHistogram;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Returns the number of evaluations whose allocations were measured.
+     */
+    public long getAllocationSamples() {
+        return allocationSamples;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getMaxAllocatedBytes() {
+        return maxAllocatedBytes;
     }
 }
@@ -0,0 +1,171 @@
+package net.magneticpotato.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only, compact replacement for a record's {@code value_map}.
+ * <p>
+ * Names live once in a shared {@link KeyDictionary}; each record keeps its
+ * key slots (with the value type packed into the low bits), numeric and
+ * boolean values as raw {@code long}s and interned string values in a
+ * reference array that is only allocated when the record has strings.
+ * Values are boxed on lookup, so small integers and booleans come from the
+ * JDK caches but longs and doubles allocate.
+ */
+public final class CompactBindings extends AbstractMap<String, Object> {
+
+    private static final int TYPE_BITS = 3;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_INT = 1;
+    private static final int TYPE_LONG = 2;
+    private static final int TYPE_DOUBLE = 3;
+    private static final int TYPE_BOOLEAN = 4;
+    private static final int TYPE_STRING = 5;
+
+    private final KeyDictionary dictionary;
+    private final int[] keys;
+    private final long[] prims;
+    private final String[] refs;
+
+    private CompactBindings(KeyDictionary dictionary, int[] keys, long[] prims, String[] refs) {
+        this.dictionary = dictionary;
+        this.keys = keys;
+        this.prims = prims;
+        this.refs = refs;
+    }
+
+    /**
+     * Builds compact bindings from a map, preserving its iteration order.
+     *
+     * @param values the bindings to copy
+     * @param dictionary the shared dictionary for names and string values
+     * @return the compact bindings
+     * @throws IllegalArgumentException if a value is not a number, string, boolean or null
+     */
+    public static CompactBindings of(Map<String, Object> values, KeyDictionary dictionary) {
+        int size = values.size();
+        int[] keys = new int[size];
+        long[] prims = new long[size];
+        int stringCount = 0;
+        for (Object value : values.values()) {
+            if (value instanceof String) {
+                stringCount++;
+            }
+        }
+        String[] refs = (stringCount == 0) ? null : new String[stringCount];
+
+        int i = 0;
+        int r = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            int type;
+            if (value == null) {
+                type = TYPE_NULL;
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                type = TYPE_INT;
+                prims[i] = ((Number) value).intValue();
+            } else if (value instanceof Long l) {
+                type = TYPE_LONG;
+                prims[i] = l;
+            } else if (value instanceof Double || value instanceof Float) {
+                type = TYPE_DOUBLE;
+                prims[i] = Double.doubleToRawLongBits(((Number) value).doubleValue());
+            } else if (value instanceof Boolean b) {
+                type = TYPE_BOOLEAN;
+                prims[i] = b ? 1 : 0;
+            } else if (value instanceof String s) {
+                type = TYPE_STRING;
+                prims[i] = r;
+                refs[r++] = dictionary.internValue(s);
+            } else {
+                throw new IllegalArgumentException("Unsupported value type for variable '" + entry.getKey()
+                    + "': " + value.getClass().getSimpleName());
+            }
+            keys[i++] = (dictionary.slotOf(entry.getKey()) << TYPE_BITS) | type;
+        }
+        return new CompactBindings(dictionary, keys, prims, refs);
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = indexOf(key);
+        return (index < 0) ? null : valueAt(index);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return keys.length;
+            }
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(dictionary.name(keys[index] >>> TYPE_BITS), valueAt(index));
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Records usually bind a handful of variables, so a linear scan of the
+     * slots is cheaper than hashing into a per-record table.
+     */
+    private int indexOf(Object key) {
+        int slot = dictionary.findSlot(key);
+        if (slot < 0) {
+            return -1;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if ((keys[i] >>> TYPE_BITS) == slot) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object valueAt(int index) {
+        long bits = prims[index];
+        return switch (keys[index] & TYPE_MASK) {
+            case TYPE_INT -> (int) bits;
+            case TYPE_LONG -> bits;
+            case TYPE_DOUBLE -> Double.longBitsToDouble(bits);
+            case TYPE_BOOLEAN -> bits != 0;
+            case TYPE_STRING -> refs[(int) bits];
+            default -> null;
+        };
+    }
+}
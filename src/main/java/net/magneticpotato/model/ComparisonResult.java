@@ -0,0 +1,90 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * The per-class comparison of a candidate run against a baseline.
+ *
+ * @param baseline the baseline run
+ * @param candidate the candidate run
+ * @param metric the latency statistic the threshold applies to
+ * @param thresholdPercent the relative change of the metric that counts as a regression or improvement
+ * @param alpha the significance level of the Mann-Whitney test
+ * @param classes one entry per engine and class found in either run
+ */
+public record ComparisonResult(
+    ResultSnapshot baseline,
+    ResultSnapshot candidate,
+    Metric metric,
+    double thresholdPercent,
+    double alpha,
+    List<ClassComparison> classes
+) {
+    /**
+     * Latency statistic a comparison is judged on.
+     */
+    public enum Metric {
+        MEAN,
+        P50,
+        P90,
+        P99;
+
+        /**
+         * Returns this statistic of a histogram in nanoseconds.
+         */
+        public double valueNs(LatencyHistogram histogram) {
+            return switch (this) {
+                case MEAN -> histogram.getMeanNs();
+                case P50 -> histogram.getValueAtPercentile(50.0);
+                case P90 -> histogram.getValueAtPercentile(90.0);
+                case P99 -> histogram.getValueAtPercentile(99.0);
+            };
+        }
+    }
+
+    /**
+     * Outcome for one class.
+     */
+    public enum Verdict {
+        /** Significantly slower by more than the threshold. */
+        REGRESSION,
+        /** Significantly faster by more than the threshold. */
+        IMPROVEMENT,
+        /** Neither significant nor beyond the threshold. */
+        UNCHANGED,
+        /** Measured in only one of the runs. */
+        MISSING
+    }
+
+    /**
+     * Comparison of one class on one engine.
+     *
+     * @param engine the engine name
+     * @param label the class label
+     * @param baselineEvaluations evaluations in the baseline
+     * @param candidateEvaluations evaluations in the candidate
+     * @param baselineMs the metric in the baseline
+     * @param candidateMs the metric in the candidate
+     * @param deltaPercent relative change of the metric, NaN when missing
+     * @param test the Mann-Whitney test, or null when missing
+     * @param verdict the outcome
+     */
+    public record ClassComparison(
+        String engine,
+        String label,
+        long baselineEvaluations,
+        long candidateEvaluations,
+        double baselineMs,
+        double candidateMs,
+        double deltaPercent,
+        MannWhitneyU test,
+        Verdict verdict
+    ) {}
+
+    /**
+     * Returns true if any class regressed.
+     */
+    public boolean regressed() {
+        return classes.stream().anyMatch(c -> c.verdict() == Verdict.REGRESSION);
+    }
+}
@@ -0,0 +1,57 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * Workers of a distributed run and the merged timeline of its measured
+ * phase.
+ *
+ * @param intervalMs the length of each interval workers reported
+ * @param workers every worker, by shard
+ * @param timeline the measured intervals, merged over the workers
+ */
+public record DistributedSummary(
+    long intervalMs,
+    List<Worker> workers,
+    List<TimelinePoint> timeline
+) {
+    /**
+     * One worker and the shard of the corpus it ran.
+     *
+     * @param expressions expressions in the worker's shard
+     * @param clockOffsetMs how far the worker's clock was ahead of the coordinator's, estimated at connection
+     * @param roundTripMs the round trip time of the estimate, which bounds its error
+     */
+    public record Worker(
+        int shard,
+        String address,
+        int expressions,
+        long totalEvaluations,
+        double wallClockTimeMs,
+        double throughputEvalsPerSec,
+        double p50Ms,
+        double p99Ms,
+        int failedEvaluations,
+        long gcCount,
+        double clockOffsetMs,
+        double roundTripMs
+    ) {}
+
+    /**
+     * One measured interval, merged over the workers that reported it.
+     *
+     * @param startSec mean start of the interval over the workers, relative to the start of the measured phase
+     * @param workerEvaluations evaluations of each worker in the interval, by shard
+     */
+    public record TimelinePoint(
+        int sequence,
+        double startSec,
+        double endSec,
+        long evaluations,
+        double throughputEvalsPerSec,
+        double p50Ms,
+        double p99Ms,
+        double maxMs,
+        List<Long> workerEvaluations
+    ) {}
+}
@@ -0,0 +1,32 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * Results for one evaluation engine in a run that compares several engines.
+ *
+ * @param engine the engine name
+ * @param classStats per-class statistics for this engine
+ * @param totalEvaluations evaluations executed by this engine
+ * @param totalTimeMs summed evaluation time of this engine
+ * @param throughputEvalsPerSec evaluations per second of busy worker time, scaled by the worker count
+ * @param failedEvaluations expressions this engine failed to evaluate
+ * @param phaseStats per-class parse/evaluate statistics, empty unless split timing was enabled
+ * @param cache cache activity, or null when no compiled-expression cache was used
+ * @param preparationSupported whether the engine parses in its prepare step
+ * @param regression latency regression against expression features, or null when not requested
+ * @param openLoop service and response times, or null in a closed-loop run
+ */
+public record EngineResult(
+    String engine,
+    List<ClassStatistics> classStats,
+    long totalEvaluations,
+    double totalTimeMs,
+    double throughputEvalsPerSec,
+    int failedEvaluations,
+    List<PhaseStatistics> phaseStats,
+    CacheSummary cache,
+    boolean preparationSupported,
+    RegressionResult regression,
+    OpenLoopSummary openLoop
+) {}
@@ -0,0 +1,104 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maps expression profiles to the class ids that timings are grouped by.
+ * <p>
+ * With a single dimension the id is the dimension's value, so grouping by
+ * complexity yields the familiar complexity classes. Several dimensions are
+ * packed into one id, most significant first, so sorting ids sorts groups
+ * lexicographically; each value is clamped to the bits available to it.
+ */
+public final class ExpressionGrouping {
+
+    /** Maximum number of dimensions that can be combined. */
+    public static final int MAX_DIMENSIONS = 4;
+
+    private static final ExpressionGrouping COMPLEXITY = new ExpressionGrouping(List.of(ProfileDimension.COMPLEXITY));
+
+    private final List<ProfileDimension> dimensions;
+    private final int bits;
+    private final int maxValue;
+
+    private ExpressionGrouping(List<ProfileDimension> dimensions) {
+        this.dimensions = List.copyOf(dimensions);
+        this.bits = (dimensions.size() == 1) ? 31 : 31 / dimensions.size();
+        this.maxValue = (dimensions.size() == 1) ? Integer.MAX_VALUE : (1 << bits) - 1;
+    }
+
+    /**
+     * Returns the default grouping by complexity class.
+     */
+    public static ExpressionGrouping complexity() {
+        return COMPLEXITY;
+    }
+
+    /**
+     * Creates a grouping over one or more dimensions.
+     *
+     * @throws IllegalArgumentException if no dimension, a repeated dimension
+     *         or more than {@value #MAX_DIMENSIONS} dimensions are given
+     */
+    public static ExpressionGrouping of(List<ProfileDimension> dimensions) {
+        if (dimensions.isEmpty() || dimensions.size() > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("Grouping needs 1 to " + MAX_DIMENSIONS + " dimensions");
+        }
+        if (dimensions.stream().distinct().count() != dimensions.size()) {
+            throw new IllegalArgumentException("Grouping dimensions must not repeat");
+        }
+        return dimensions.equals(COMPLEXITY.dimensions) ? COMPLEXITY : new ExpressionGrouping(dimensions);
+    }
+
+    public List<ProfileDimension> dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Returns true for the default grouping, which needs only the
+     * complexity and not a full profile.
+     */
+    public boolean isComplexity() {
+        return this == COMPLEXITY;
+    }
+
+    /**
+     * Returns the class id of an expression.
+     */
+    public int groupOf(ExpressionProfile profile) {
+        int id = 0;
+        for (ProfileDimension dimension : dimensions) {
+            id = (id << bits) | Math.min(dimension.value(profile), maxValue);
+        }
+        return id;
+    }
+
+    /**
+     * Returns a readable label for a class id, e.g. {@code depth=3, like=1}.
+     * Clamped values are shown with a trailing {@code +}.
+     */
+    public String label(int id) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < dimensions.size(); i++) {
+            int shift = bits * (dimensions.size() - 1 - i);
+            int value = (dimensions.size() == 1) ? id : (id >>> shift) & maxValue;
+            ProfileDimension dimension = dimensions.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(dimension.cliName()).append('=').append(dimension.format(value));
+            if (value == maxValue && dimensions.size() > 1) {
+                sb.append('+');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Describes the grouping, e.g. {@code depth, like}.
+     */
+    public String describe() {
+        return dimensions.stream().map(ProfileDimension::cliName).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,64 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * Structural features of an expression, used to group timings and to
+ * attribute latency to language constructs.
+ *
+ * @param length number of characters
+ * @param depth maximum parenthesis nesting, not counting IN lists
+ * @param connectives logical AND and OR operators (the complexity class)
+ * @param nots NOT keywords, including NOT LIKE, NOT IN, NOT BETWEEN and IS NOT
+ * @param comparisons comparison operators (=, &lt;&gt;, !=, &lt;, &lt;=, &gt;, &gt;=)
+ * @param likes LIKE predicates
+ * @param ins IN predicates
+ * @param inItems total number of items across all IN lists
+ * @param maxInList size of the longest IN list
+ * @param betweens BETWEEN predicates
+ * @param nullChecks IS NULL and IS NOT NULL predicates
+ * @param literals string, numeric and boolean literals
+ * @param variables distinct variable names
+ */
+public record ExpressionProfile(
+    int length,
+    int depth,
+    int connectives,
+    int nots,
+    int comparisons,
+    int likes,
+    int ins,
+    int inItems,
+    int maxInList,
+    int betweens,
+    int nullChecks,
+    int literals,
+    int variables
+) {
+    /** Names of the features used for regression, in {@link #feature(int)} order. */
+    public static final List<String> FEATURES = List.of(
+        "length", "depth", "connectives", "not", "comparisons", "like", "in",
+        "in-items", "between", "null-checks", "literals", "variables"
+    );
+
+    /**
+     * Returns a regression feature by index, without allocating.
+     */
+    public int feature(int index) {
+        return switch (index) {
+            case 0 -> length;
+            case 1 -> depth;
+            case 2 -> connectives;
+            case 3 -> nots;
+            case 4 -> comparisons;
+            case 5 -> likes;
+            case 6 -> ins;
+            case 7 -> inItems;
+            case 8 -> betweens;
+            case 9 -> nullChecks;
+            case 10 -> literals;
+            case 11 -> variables;
+            default -> throw new IndexOutOfBoundsException("Feature index " + index);
+        };
+    }
+}
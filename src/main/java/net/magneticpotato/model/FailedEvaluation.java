@@ -8,5 +8,6 @@ import java.util.Map;
 public record FailedEvaluation(
     String expression,
     Map<String, Object> valueMap,
-    String errorMessage
+    String errorMessage,
+    String engine
 ) {}
@@ -0,0 +1,58 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * How a run is split across child JVMs. Every JVM configuration runs
+ * {@code forks} trials; with {@code classes} each trial measures one of
+ * them, otherwise every class of the corpus.
+ *
+ * @param forks trials per JVM configuration and class
+ * @param jvmOptions the options of each JVM configuration, separated by spaces; "" starts children without options
+ * @param classes complexity classes to measure in trials of their own, or empty
+ */
+public record ForkPolicy(
+    int forks,
+    List<String> jvmOptions,
+    List<Integer> classes
+) {
+    public ForkPolicy {
+        if (forks < 1) {
+            throw new IllegalArgumentException("At least one fork is needed");
+        }
+        jvmOptions = jvmOptions.isEmpty() ? List.of("") : List.copyOf(jvmOptions);
+        classes = List.copyOf(classes);
+    }
+
+    /**
+     * Returns the number of child JVMs the run starts.
+     */
+    public int trials() {
+        return forks * jvmOptions.size() * Math.max(1, classes.size());
+    }
+
+    /**
+     * Returns a label for a JVM configuration.
+     */
+    public static String label(String jvmOptions) {
+        return jvmOptions.isBlank() ? "default JVM" : jvmOptions.trim();
+    }
+
+    /**
+     * Describes the policy, e.g. "3 forks per class, classes 1, 4, 8, 2 JVM configurations".
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(forks).append((forks == 1) ? " fork" : " forks");
+        if (!classes.isEmpty()) {
+            sb.append(" per class, classes ")
+                .append(String.join(", ", classes.stream().map(String::valueOf).toList()));
+        }
+        if (jvmOptions.size() > 1) {
+            sb.append(", ").append(jvmOptions.size()).append(" JVM configurations");
+        } else if (!jvmOptions.get(0).isBlank()) {
+            sb.append(", JVM options ").append(jvmOptions.get(0).trim());
+        }
+        return sb.toString();
+    }
+}
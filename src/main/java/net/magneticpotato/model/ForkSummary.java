@@ -0,0 +1,60 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * Trials of a run that was split across child JVMs, and how much each
+ * class's mean latency varied between them.
+ *
+ * @param policy how the run was split
+ * @param trials every child JVM, in the order they ran
+ * @param spread the between-fork spread of each engine and class
+ */
+public record ForkSummary(
+    ForkPolicy policy,
+    List<Trial> trials,
+    List<ClassSpread> spread
+) {
+    /**
+     * One child JVM.
+     *
+     * @param fork the trial's number, from 1
+     * @param jvmOptions the JVM configuration it ran with
+     * @param complexity the class it measured, or -1 for every class
+     */
+    public record Trial(
+        int fork,
+        String jvmOptions,
+        int complexity,
+        long totalEvaluations,
+        double wallClockTimeMs,
+        double throughputEvalsPerSec,
+        long gcCount,
+        long gcTimeMs
+    ) {}
+
+    /**
+     * Spread of one engine's and class's mean latency across the trials
+     * that measured it.
+     *
+     * @param forks trials that measured the class
+     * @param meanMs mean of the trials' mean latencies
+     * @param stdDevMs sample standard deviation of the trials' mean latencies, 0 with one trial
+     */
+    public record ClassSpread(
+        String engine,
+        int complexity,
+        int forks,
+        double meanMs,
+        double stdDevMs,
+        double minMeanMs,
+        double maxMeanMs
+    ) {
+        /**
+         * Returns the coefficient of variation of the trials' means, or NaN when the mean is zero.
+         */
+        public double cv() {
+            return (meanMs > 0) ? stdDevMs / meanMs : Double.NaN;
+        }
+    }
+}
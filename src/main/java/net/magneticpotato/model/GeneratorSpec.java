@@ -0,0 +1,196 @@
+package net.magneticpotato.model;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Shape of a synthetic corpus. Each expression draws its complexity, the
+ * number of AND and OR connectives, from {@code complexity} and each of its
+ * predicates from {@code operators}, both by relative weight. Predicates
+ * test variables from a binding of {@code variables} values whose types are
+ * taken in turn from {@code valueTypes}. With a positive {@code maxDepth}
+ * connectives are nested at most that deep.
+ *
+ * @param count number of expressions
+ * @param seed seed of every random choice
+ * @param complexity relative weight of each complexity
+ * @param operators relative weight of each predicate operator
+ * @param maxDepth maximum nesting depth of connectives, or 0 for no limit
+ * @param variables number of variables in each binding
+ * @param valueTypes types of the variables
+ */
+public record GeneratorSpec(
+    int count,
+    long seed,
+    Map<Integer, Double> complexity,
+    Map<Operator, Double> operators,
+    int maxDepth,
+    int variables,
+    Set<ValueType> valueTypes
+) {
+    /** Default number of variables in each binding. */
+    public static final int DEFAULT_VARIABLES = 8;
+    /** Default maximum complexity, drawn uniformly from 0. */
+    public static final int DEFAULT_MAX_COMPLEXITY = 10;
+
+    /**
+     * A predicate operator.
+     */
+    public enum Operator {
+        COMPARISON("cmp"),
+        BETWEEN("between"),
+        IN("in"),
+        LIKE("like"),
+        IS_NULL("null");
+
+        private final String cliName;
+
+        Operator(String cliName) {
+            this.cliName = cliName;
+        }
+
+        public String cliName() {
+            return cliName;
+        }
+
+        /**
+         * Looks an operator up by its command line name.
+         *
+         * @throws IllegalArgumentException if no operator has that name
+         */
+        public static Operator fromName(String name) {
+            for (Operator operator : values()) {
+                if (operator.cliName.equalsIgnoreCase(name.trim())) {
+                    return operator;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operator (use " + names() + "): " + name);
+        }
+
+        public static String names() {
+            return Arrays.stream(values()).map(Operator::cliName).collect(Collectors.joining(", "));
+        }
+    }
+
+    /**
+     * The type of a bound variable, which also names it: "i3", "f4", "s5".
+     */
+    public enum ValueType {
+        INT("int", "i"),
+        DOUBLE("double", "f"),
+        STRING("string", "s");
+
+        private final String cliName;
+        private final String prefix;
+
+        ValueType(String cliName, String prefix) {
+            this.cliName = cliName;
+            this.prefix = prefix;
+        }
+
+        public String cliName() {
+            return cliName;
+        }
+
+        public String prefix() {
+            return prefix;
+        }
+
+        /**
+         * Looks a value type up by its command line name.
+         *
+         * @throws IllegalArgumentException if no type has that name
+         */
+        public static ValueType fromName(String name) {
+            for (ValueType type : values()) {
+                if (type.cliName.equalsIgnoreCase(name.trim())) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown value type (use " + names() + "): " + name);
+        }
+
+        public static String names() {
+            return Arrays.stream(values()).map(ValueType::cliName).collect(Collectors.joining(", "));
+        }
+    }
+
+    public GeneratorSpec {
+        complexity = Map.copyOf(complexity);
+        operators = Map.copyOf(operators);
+        valueTypes = Set.copyOf(valueTypes);
+        if (count < 1) {
+            throw new IllegalArgumentException("A synthetic corpus needs at least one expression");
+        }
+        if (complexity.isEmpty() || operators.isEmpty() || valueTypes.isEmpty()) {
+            throw new IllegalArgumentException("A synthetic corpus needs complexities, operators and value types");
+        }
+        if (variables < valueTypes.size()) {
+            throw new IllegalArgumentException("Need at least one variable per value type (" + valueTypes.size() + ")");
+        }
+        for (Map.Entry<Integer, Double> entry : complexity.entrySet()) {
+            if (entry.getKey() < 0 || !(entry.getValue() > 0.0)) {
+                throw new IllegalArgumentException("Complexities must be >= 0 with weights > 0");
+            }
+            if (maxDepth > 0 && entry.getKey() + 1L > (1L << Math.min(maxDepth, 62))) {
+                throw new IllegalArgumentException("Complexity " + entry.getKey()
+                    + " does not fit in nesting depth " + maxDepth);
+            }
+        }
+        for (Map.Entry<Operator, Double> entry : operators.entrySet()) {
+            if (!(entry.getValue() > 0.0)) {
+                throw new IllegalArgumentException("Operator weights must be > 0");
+            }
+        }
+        boolean numeric = valueTypes.contains(ValueType.INT) || valueTypes.contains(ValueType.DOUBLE);
+        if (operators.containsKey(Operator.BETWEEN) && !numeric) {
+            throw new IllegalArgumentException("BETWEEN needs int or double variables");
+        }
+        if (operators.containsKey(Operator.LIKE) && !valueTypes.contains(ValueType.STRING)) {
+            throw new IllegalArgumentException("LIKE needs string variables");
+        }
+    }
+
+    /**
+     * Returns a spec with the default shape: complexities 0 to
+     * {@value #DEFAULT_MAX_COMPLEXITY} equally likely, mostly comparisons,
+     * no depth limit and {@value #DEFAULT_VARIABLES} variables of every type.
+     */
+    public static GeneratorSpec defaults(int count, long seed) {
+        Map<Integer, Double> complexity = new TreeMap<>();
+        for (int c = 0; c <= DEFAULT_MAX_COMPLEXITY; c++) {
+            complexity.put(c, 1.0);
+        }
+        Map<Operator, Double> operators = new EnumMap<>(Operator.class);
+        operators.put(Operator.COMPARISON, 40.0);
+        operators.put(Operator.BETWEEN, 15.0);
+        operators.put(Operator.IN, 15.0);
+        operators.put(Operator.LIKE, 15.0);
+        operators.put(Operator.IS_NULL, 15.0);
+        return new GeneratorSpec(count, seed, complexity, operators, 0, DEFAULT_VARIABLES,
+            EnumSet.allOf(ValueType.class));
+    }
+
+    /**
+     * Returns the types of the variables in binding order; types are
+     * assigned in turn so every type is bound.
+     */
+    public List<ValueType> variableTypes() {
+        List<ValueType> types = List.copyOf(EnumSet.copyOf(valueTypes));
+        return IntStream.range(0, variables).mapToObj(i -> types.get(i % types.size())).toList();
+    }
+
+    /**
+     * Returns a human readable description of the corpus.
+     */
+    public String describe() {
+        return "synthetic (" + count + " expressions, seed " + seed + ")";
+    }
+}
@@ -0,0 +1,93 @@
+package net.magneticpotato.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Double-buffered per-class latency and failure recorder that a reader can
+ * snapshot while its writer keeps recording. The writer records into the
+ * active buffer; {@link #snapshotInto} swaps the buffers, waits for a
+ * recording already in flight to finish, and drains the now inactive buffer.
+ * <p>
+ * Writer and reader are coordinated by a writer-reader phaser as in
+ * HdrHistogram's {@code Recorder}: the writer only increments uncontended
+ * counters and never blocks. One writer thread; readers must not overlap.
+ */
+public class IntervalRecorder {
+
+    private final AtomicLong startEpoch = new AtomicLong();
+    private final AtomicLong evenEndEpoch = new AtomicLong();
+    private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+    private volatile Buffer active = new Buffer();
+    private Buffer inactive = new Buffer();
+
+    /**
+     * One side of the double buffer.
+     */
+    private static class Buffer {
+        final Map<Integer, LatencyHistogram> latencies = new HashMap<>();
+        final Map<Integer, long[]> failures = new HashMap<>();
+    }
+
+    /**
+     * Records one timing of a class. Called by the writer thread only.
+     *
+     * @param failed whether the evaluation failed
+     */
+    public void record(int classId, long durationNs, boolean failed) {
+        long epoch = startEpoch.getAndIncrement();
+        try {
+            Buffer buffer = active;
+            buffer.latencies.computeIfAbsent(classId, k -> new LatencyHistogram()).recordValue(durationNs);
+            if (failed) {
+                buffer.failures.computeIfAbsent(classId, k -> new long[1])[0]++;
+            }
+        } finally {
+            (epoch < 0 ? oddEndEpoch : evenEndEpoch).getAndIncrement();
+        }
+    }
+
+    /**
+     * Adds everything recorded since the previous snapshot to the given
+     * per-class histograms and failure counts.
+     */
+    public void snapshotInto(Map<Integer, LatencyHistogram> latencies, Map<Integer, Long> failures) {
+        Buffer drained = inactive;
+        inactive = active;
+        active = drained;
+        flipPhase();
+
+        // The writer has left the swapped-out buffer; it is ours until the next flip
+        inactive.latencies.forEach((classId, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                latencies.computeIfAbsent(classId, k -> new LatencyHistogram()).add(histogram);
+                histogram.reset();
+            }
+        });
+        inactive.failures.forEach((classId, count) -> {
+            if (count[0] > 0) {
+                failures.merge(classId, count[0], Long::sum);
+                count[0] = 0;
+            }
+        });
+    }
+
+    /**
+     * Starts a new phase and waits until every recording that started in
+     * the previous phase has ended.
+     */
+    private void flipPhase() {
+        boolean nextPhaseIsEven = startEpoch.get() < 0;
+        long initialEnd = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+        (nextPhaseIsEven ? evenEndEpoch : oddEndEpoch).set(initialEnd);
+
+        long startAtFlip = startEpoch.getAndSet(initialEnd);
+        AtomicLong previousEnd = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+        while (previousEnd.get() != startAtFlip) {
+            LockSupport.parkNanos(10_000);
+        }
+    }
+}
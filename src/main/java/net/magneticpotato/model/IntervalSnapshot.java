@@ -0,0 +1,36 @@
+package net.magneticpotato.model;
+
+import java.util.Map;
+
+/**
+ * Latencies and failures recorded in one interval of a run, per engine and
+ * class. Times are seconds since the phase started on the clock of the
+ * process that measured them, so snapshots of different hosts line up by
+ * {@code sequence} without comparing their clocks.
+ *
+ * @param phase "warmup" or "measure"
+ * @param sequence number of the interval in its phase, from 0
+ * @param startSec when the interval started, relative to the start of the phase
+ * @param endSec when the interval ended, relative to the start of the phase
+ * @param latencies per engine, the latencies of each class
+ * @param failures per engine, the failed evaluations of each class
+ * @param gcCount garbage collections in the interval
+ */
+public record IntervalSnapshot(
+    String phase,
+    int sequence,
+    double startSec,
+    double endSec,
+    Map<String, Map<Integer, LatencyHistogram>> latencies,
+    Map<String, Map<Integer, Long>> failures,
+    long gcCount
+) {
+    /**
+     * Returns the latencies of an engine over all classes.
+     */
+    public LatencyHistogram all(String engine) {
+        LatencyHistogram all = new LatencyHistogram();
+        latencies.getOrDefault(engine, Map.of()).values().forEach(all::add);
+        return all;
+    }
+}
@@ -0,0 +1,69 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * What a Java Flight Recorder recording of the measured phase shows.
+ *
+ * @param recordingPath the recording file, for opening in JDK Mission Control
+ * @param windowMs length of the measured window
+ * @param sampledEvaluations evaluation events recorded
+ * @param sampleEvery one evaluation in this many was recorded as an event
+ * @param executionSamples CPU samples of the evaluation workers
+ * @param classes per engine and class profiles
+ * @param allocationSites heaviest allocation sites, by estimated bytes
+ * @param gcCount garbage collections that started in the measured window
+ * @param gcPauseTotalMs summed GC pause time in the measured window
+ * @param gcPauseMaxMs longest single GC pause in the measured window
+ */
+public record JfrProfile(
+    String recordingPath,
+    double windowMs,
+    long sampledEvaluations,
+    int sampleEvery,
+    long executionSamples,
+    List<ClassProfile> classes,
+    List<AllocationSite> allocationSites,
+    long gcCount,
+    double gcPauseTotalMs,
+    double gcPauseMaxMs
+) {
+    /**
+     * The recorded evaluations of one class on one engine, and the CPU
+     * samples taken while one of them was running.
+     *
+     * @param engine the engine name
+     * @param complexity the class
+     * @param evaluations evaluation events recorded
+     * @param failures recorded evaluations that failed
+     * @param meanMs mean duration of the recorded evaluations
+     * @param executionSamples CPU samples attributed to the class
+     * @param hotMethods the methods most often on top of the stack
+     * @param stacksFile collapsed stacks of the class for flame graph tools, or null without samples
+     */
+    public record ClassProfile(
+        String engine,
+        int complexity,
+        long evaluations,
+        long failures,
+        double meanMs,
+        long executionSamples,
+        List<HotMethod> hotMethods,
+        String stacksFile
+    ) {}
+
+    /**
+     * A method and the number of CPU samples with it on top of the stack.
+     */
+    public record HotMethod(String method, long samples) {}
+
+    /**
+     * An allocation site: the innermost frame outside the JDK, and the type allocated.
+     *
+     * @param site the allocating method
+     * @param type the allocated class
+     * @param estimatedBytes bytes allocated, as estimated by allocation sampling
+     * @param samples allocation samples taken at the site
+     */
+    public record AllocationSite(String site, String type, long estimatedBytes, long samples) {}
+}
@@ -0,0 +1,74 @@
+package net.magneticpotato.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared dictionary for {@link CompactBindings}. Variable names are
+ * interned and given a slot index, and string values are interned so equal
+ * values across records share one instance. Safe for concurrent loaders.
+ */
+public class KeyDictionary {
+
+    private final ConcurrentHashMap<String, Integer> slots = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+
+    /**
+     * Returns the slot of a variable name, adding it if it is new.
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return (slot != null) ? slot : addName(name);
+    }
+
+    /**
+     * Returns the slot of a variable name, or -1 if it has never been added.
+     */
+    public int findSlot(Object name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer slot = slots.get(name);
+        return (slot != null) ? slot : -1;
+    }
+
+    /**
+     * Returns the interned name held in a slot.
+     */
+    public String name(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Returns the shared instance of a string value.
+     */
+    public String internValue(String value) {
+        String existing = values.putIfAbsent(value, value);
+        return (existing != null) ? existing : value;
+    }
+
+    /**
+     * Returns the number of distinct variable names.
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    private synchronized int addName(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        int next = slots.size();
+        String[] current = names;
+        if (next == current.length) {
+            current = Arrays.copyOf(current, next * 2);
+        }
+        current[next] = name;
+        // Publish the name before the slot so readers of the slot always see it
+        names = current;
+        slots.put(name, next);
+        return next;
+    }
+}
@@ -0,0 +1,266 @@
+package net.magneticpotato.model;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, log-linear latency histogram in the style of HdrHistogram.
+ * Values are recorded as primitive nanoseconds. Each power-of-two range is
+ * split into {@value #SUB_BUCKET_HALF_COUNT} linear sub-buckets, so a reported
+ * percentile is at most {@link #MAX_RELATIVE_ERROR} (1/128, under 0.8%) above
+ * the recorded value, while the memory used stays constant no matter how
+ * many values are recorded.
+ * <p>
+ * Count, min, max, mean and standard deviation are tracked exactly; only
+ * percentiles are derived from the bucket counts.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /** Largest relative error of a reported percentile: the width of a bucket relative to its lowest value. */
+    public static final double MAX_RELATIVE_ERROR = 1.0 / SUB_BUCKET_HALF_COUNT;
+
+    /** Largest trackable value (one hour); larger values are clamped. */
+    public static final long MAX_TRACKABLE_NS = 3_600_000_000_000L;
+
+    private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NS) + 1;
+
+    private final long[] counts;
+    private long totalCount;
+    private long minNs;
+    private long maxNs;
+    private double mean;
+    private double sumSquaredDiffs;
+
+    public LatencyHistogram() {
+        this.counts = new long[BUCKET_COUNT];
+        reset();
+    }
+
+    /**
+     * Records a single value.
+     *
+     * @param valueNs the value in nanoseconds, negative values are treated as 0
+     */
+    public void recordValue(long valueNs) {
+        recordValueWithCount(valueNs, 1);
+    }
+
+    /**
+     * Records the same value several times.
+     *
+     * @param valueNs the value in nanoseconds, negative values are treated as 0
+     * @param count number of occurrences
+     */
+    public void recordValueWithCount(long valueNs, long count) {
+        if (count <= 0) {
+            return;
+        }
+        long value = Math.min(Math.max(valueNs, 0L), MAX_TRACKABLE_NS);
+        counts[bucketIndex(value)] += count;
+        minNs = Math.min(minNs, value);
+        maxNs = Math.max(maxNs, value);
+
+        // Welford's update, generalised to a run of identical values
+        long newCount = totalCount + count;
+        double delta = value - mean;
+        mean += delta * count / newCount;
+        sumSquaredDiffs += delta * delta * totalCount * count / newCount;
+        totalCount = newCount;
+    }
+
+    /**
+     * Adds all values recorded by another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        minNs = Math.min(minNs, other.minNs);
+        maxNs = Math.max(maxNs, other.maxNs);
+
+        // Chan et al. parallel combination of mean and squared differences
+        long newCount = totalCount + other.totalCount;
+        double delta = other.mean - mean;
+        mean += delta * other.totalCount / newCount;
+        sumSquaredDiffs += other.sumSquaredDiffs
+            + delta * delta * totalCount * other.totalCount / newCount;
+        totalCount = newCount;
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public final void reset() {
+        Arrays.fill(counts, 0L);
+        totalCount = 0;
+        minNs = Long.MAX_VALUE;
+        maxNs = 0;
+        mean = 0.0;
+        sumSquaredDiffs = 0.0;
+    }
+
+    /**
+     * Rebuilds a histogram from its non-empty buckets, each identified by a
+     * value that falls into it, and its exact summary statistics.
+     *
+     * @param valuesNs a value in each bucket, e.g. its {@link #lowestEquivalentValue(int)}
+     * @param counts the count of each bucket
+     * @param minNs the smallest recorded value
+     * @param maxNs the largest recorded value
+     * @param meanNs the mean of the recorded values
+     * @param stdDevNs the sample standard deviation of the recorded values
+     */
+    public static LatencyHistogram restore(long[] valuesNs, long[] counts, long minNs, long maxNs,
+                                           double meanNs, double stdDevNs) {
+        if (valuesNs.length != counts.length) {
+            throw new IllegalArgumentException("Bucket values and counts differ in length");
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < valuesNs.length; i++) {
+            long value = Math.min(Math.max(valuesNs[i], 0L), MAX_TRACKABLE_NS);
+            histogram.counts[bucketIndex(value)] += counts[i];
+            histogram.totalCount += counts[i];
+        }
+        if (histogram.totalCount > 0) {
+            histogram.minNs = minNs;
+            histogram.maxNs = maxNs;
+            histogram.mean = meanNs;
+            histogram.sumSquaredDiffs = stdDevNs * stdDevNs * (histogram.totalCount - 1);
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns an independent copy of this histogram.
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMinNs() {
+        return (totalCount == 0) ? 0L : minNs;
+    }
+
+    public long getMaxNs() {
+        return maxNs;
+    }
+
+    public double getMeanNs() {
+        return mean;
+    }
+
+    /**
+     * Returns the sum of all recorded values in nanoseconds.
+     */
+    public double getTotalNs() {
+        return mean * totalCount;
+    }
+
+    /**
+     * Returns the sample standard deviation using Bessel's correction (n-1 denominator).
+     */
+    public double getStdDevNs() {
+        return (totalCount <= 1) ? 0.0 : Math.sqrt(sumSquaredDiffs / (totalCount - 1));
+    }
+
+    /**
+     * Returns the value at the given percentile. The result is the highest
+     * value equivalent to the bucket holding the percentile, capped by the
+     * exact recorded maximum.
+     *
+     * @param percentile percentile in the range [0, 100]
+     * @return the value in nanoseconds, or 0 when the histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0L;
+        }
+        double clamped = Math.min(Math.max(percentile, 0.0), 100.0);
+        long target = Math.max(1L, (long) Math.ceil(clamped / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                long value = highestEquivalentValue(i);
+                return Math.max(Math.min(value, maxNs), getMinNs());
+            }
+        }
+        return maxNs;
+    }
+
+    /**
+     * Returns the number of recorded values that are less than or equal to
+     * the given value, at bucket resolution.
+     */
+    public long getCountAtOrBelow(long valueNs) {
+        if (valueNs < 0) {
+            return 0L;
+        }
+        int last = bucketIndex(Math.min(valueNs, MAX_TRACKABLE_NS));
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count += counts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of buckets, for iterating with {@link #getCountAtIndex(int)}.
+     */
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    public long getCountAtIndex(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Returns the lowest value that falls into the bucket at the given index.
+     */
+    public static long lowestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return subBucket << shift;
+    }
+
+    /**
+     * Returns the highest value that falls into the bucket at the given index.
+     */
+    public static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        return lowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the bucket index for a non-negative value.
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (subBucket - SUB_BUCKET_HALF_COUNT);
+    }
+}
@@ -0,0 +1,161 @@
+package net.magneticpotato.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Constant-memory accumulator for a linear regression of latency against
+ * {@link ExpressionProfile} features. Only the sums of the normal equations
+ * are kept, so observations can be added from the measurement loop and
+ * accumulators from several workers merged before fitting.
+ * Not thread-safe; each worker keeps its own.
+ */
+public class LatencyRegression {
+
+    private static final int FEATURES = ExpressionProfile.FEATURES.size();
+    // Column 0 is the intercept
+    private static final int COLUMNS = FEATURES + 1;
+
+    private final double[] xtx = new double[COLUMNS * COLUMNS];
+    private final double[] xty = new double[COLUMNS];
+    private final double[] row = new double[COLUMNS];
+    private double yty;
+    private long count;
+
+    /**
+     * Adds one timed evaluation.
+     */
+    public void add(ExpressionProfile profile, long latencyNs) {
+        row[0] = 1.0;
+        for (int j = 0; j < FEATURES; j++) {
+            row[j + 1] = profile.feature(j);
+        }
+        double y = latencyNs;
+        for (int a = 0; a < COLUMNS; a++) {
+            double xa = row[a];
+            if (xa == 0.0) {
+                continue;
+            }
+            int offset = a * COLUMNS;
+            for (int b = a; b < COLUMNS; b++) {
+                xtx[offset + b] += xa * row[b];
+            }
+            xty[a] += xa * y;
+        }
+        yty += y * y;
+        count++;
+    }
+
+    /**
+     * Adds the observations of another accumulator to this one.
+     */
+    public void add(LatencyRegression other) {
+        for (int i = 0; i < xtx.length; i++) {
+            xtx[i] += other.xtx[i];
+        }
+        for (int i = 0; i < xty.length; i++) {
+            xty[i] += other.xty[i];
+        }
+        yty += other.yty;
+        count += other.count;
+    }
+
+    public void reset() {
+        Arrays.fill(xtx, 0.0);
+        Arrays.fill(xty, 0.0);
+        yty = 0.0;
+        count = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Fits the regression by sweeping the augmented cross-product matrix
+     * one column at a time, intercept first. A column whose remaining
+     * variance is negligible (a constant feature, or one that is a linear
+     * combination of earlier features) is skipped and reported as aliased.
+     *
+     * @return the fit, or null with fewer observations than fitted terms
+     */
+    public RegressionResult fit() {
+        // [X'X X'y; y'X y'y]; after sweeping column k, m[k][COLUMNS] is its coefficient
+        int n = COLUMNS + 1;
+        double[][] m = new double[n][n];
+        for (int r = 0; r < COLUMNS; r++) {
+            for (int c = 0; c < COLUMNS; c++) {
+                m[r][c] = sym(r, c);
+            }
+            m[r][COLUMNS] = xty[r];
+            m[COLUMNS][r] = xty[r];
+        }
+        m[COLUMNS][COLUMNS] = yty;
+
+        boolean[] swept = new boolean[COLUMNS];
+        int fitted = 0;
+        for (int k = 0; k < COLUMNS; k++) {
+            if (m[k][k] > 1e-9 * Math.max(sym(k, k), Double.MIN_NORMAL)) {
+                sweep(m, k);
+                swept[k] = true;
+                fitted++;
+            }
+        }
+        if (!swept[0] || count <= fitted) {
+            return null;
+        }
+
+        double sse = Math.max(0.0, m[COLUMNS][COLUMNS]);
+        double meanY = xty[0] / count;
+        double sst = yty - count * meanY * meanY;
+        double rSquared = (sst > 0) ? Math.max(0.0, 1.0 - sse / sst) : 0.0;
+        double sigma2 = sse / (count - fitted);
+
+        List<RegressionResult.Coefficient> coefficients = new ArrayList<>(FEATURES);
+        for (int j = 1; j < COLUMNS; j++) {
+            String name = ExpressionProfile.FEATURES.get(j - 1);
+            double mean = xtx[j] / count;
+            if (swept[j]) {
+                double se = Math.sqrt(Math.max(0.0, sigma2 * m[j][j]));
+                coefficients.add(new RegressionResult.Coefficient(name, mean, m[j][COLUMNS], se, false));
+            } else {
+                coefficients.add(new RegressionResult.Coefficient(name, mean, Double.NaN, Double.NaN, true));
+            }
+        }
+        return new RegressionResult(count, rSquared, m[0][COLUMNS], coefficients);
+    }
+
+    /**
+     * Sweeps a symmetric matrix on a pivot. After sweeping a set of columns
+     * their block holds the inverse of their cross products, their column
+     * against y holds the least squares coefficients and the y diagonal the
+     * residual sum of squares.
+     */
+    private static void sweep(double[][] m, int k) {
+        int n = m.length;
+        double d = m[k][k];
+        for (int c = 0; c < n; c++) {
+            m[k][c] /= d;
+        }
+        for (int r = 0; r < n; r++) {
+            if (r == k) {
+                continue;
+            }
+            double factor = m[r][k];
+            if (factor == 0.0) {
+                continue;
+            }
+            for (int c = 0; c < n; c++) {
+                m[r][c] -= factor * m[k][c];
+            }
+            m[r][k] = -factor / d;
+        }
+        m[k][k] = 1.0 / d;
+    }
+
+    /** Reads the symmetric matrix, of which only the upper triangle is stored. */
+    private double sym(int r, int c) {
+        return (r <= c) ? xtx[r * COLUMNS + c] : xtx[c * COLUMNS + r];
+    }
+}
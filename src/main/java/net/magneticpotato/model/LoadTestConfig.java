@@ -0,0 +1,246 @@
+package net.magneticpotato.model;
+
+import net.magneticpotato.service.CongoccEvaluator;
+import net.magneticpotato.service.ExpressionCache;
+import net.magneticpotato.service.ExpressionEvaluator;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Run configuration for a load test. The measured phase runs
+ * {@code iterations} passes over the corpus, or for {@code durationMs}
+ * when that is positive. With a positive {@code metricsIntervalMs} interval
+ * metrics are printed during the run and appended to {@code metricsLog}
+ * unless it is null. With a {@code metricsAddress} the run's metrics are
+ * served over HTTP in the OpenMetrics text format. With a {@code jfrRecording}
+ * path the measured phase is recorded by Java Flight Recorder, with one
+ * evaluation in {@code jfrSampleEvery} emitted as an event. With a positive
+ * {@code allocationSampleEvery} the bytes allocated by one evaluation in
+ * that many are measured. With a {@code timingBatch} above 1, up to that
+ * many consecutive evaluations of a class share one timer pair. The {@code workload} decides the order and mix
+ * in which each pass visits the corpus.
+ */
+public record LoadTestConfig(
+    int iterations,
+    long durationMs,
+    int threads,
+    boolean virtualThreads,
+    WarmupPolicy warmup,
+    List<ExpressionEvaluator> engines,
+    boolean splitTiming,
+    ExpressionCache.Policy cachePolicy,
+    int cacheSize,
+    int readAhead,
+    ExpressionGrouping grouping,
+    boolean regression,
+    ArrivalPolicy arrivals,
+    WorkloadPolicy workload,
+    long metricsIntervalMs,
+    Path metricsLog,
+    InetSocketAddress metricsAddress,
+    Path jfrRecording,
+    int jfrSampleEvery,
+    int allocationSampleEvery,
+    int timingBatch
+) {
+    /** Default number of compiled expressions held by the cache. */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+    /** Default number of expressions a streamed corpus is read ahead of the workers. */
+    public static final int DEFAULT_READ_AHEAD = 10_000;
+    /** Default number of evaluations per Flight Recorder evaluation event. */
+    public static final int DEFAULT_JFR_SAMPLE_EVERY = 10;
+
+    /**
+     * Returns true if the run needs a full {@link ExpressionProfile} per
+     * expression rather than just its complexity.
+     */
+    public boolean needsProfiles() {
+        return regression || !grouping.isComplexity();
+    }
+
+    /**
+     * Returns true if workers record interval metrics, for the live
+     * reporter or the metrics endpoint.
+     */
+    public boolean liveMetrics() {
+        return metricsIntervalMs > 0 || metricsAddress != null;
+    }
+
+    /**
+     * Creates a builder initialised with this configuration's values.
+     */
+    public Builder toBuilder() {
+        return new Builder()
+            .iterations(iterations)
+            .durationMs(durationMs)
+            .threads(threads)
+            .virtualThreads(virtualThreads)
+            .warmup(warmup)
+            .engines(engines)
+            .splitTiming(splitTiming)
+            .cachePolicy(cachePolicy)
+            .cacheSize(cacheSize)
+            .readAhead(readAhead)
+            .grouping(grouping)
+            .regression(regression)
+            .arrivals(arrivals)
+            .workload(workload)
+            .metricsIntervalMs(metricsIntervalMs)
+            .metricsLog(metricsLog)
+            .metricsAddress(metricsAddress)
+            .jfrRecording(jfrRecording)
+            .jfrSampleEvery(jfrSampleEvery)
+            .allocationSampleEvery(allocationSampleEvery)
+            .timingBatch(timingBatch);
+    }
+
+    /**
+     * Creates a builder initialised with default values.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for LoadTestConfig.
+     */
+    public static class Builder {
+        private int iterations = 1;
+        private long durationMs = 0;
+        private int threads = 1;
+        private boolean virtualThreads = false;
+        private WarmupPolicy warmup = WarmupPolicy.none();
+        private List<ExpressionEvaluator> engines = List.of(new CongoccEvaluator());
+        private boolean splitTiming = false;
+        private ExpressionCache.Policy cachePolicy = ExpressionCache.Policy.NONE;
+        private int cacheSize = DEFAULT_CACHE_SIZE;
+        private int readAhead = DEFAULT_READ_AHEAD;
+        private ExpressionGrouping grouping = ExpressionGrouping.complexity();
+        private boolean regression = false;
+        private ArrivalPolicy arrivals = ArrivalPolicy.closed();
+        private WorkloadPolicy workload = WorkloadPolicy.sequential();
+        private long metricsIntervalMs = 0;
+        private Path metricsLog = null;
+        private InetSocketAddress metricsAddress = null;
+        private Path jfrRecording = null;
+        private int jfrSampleEvery = DEFAULT_JFR_SAMPLE_EVERY;
+        private int allocationSampleEvery = 0;
+        private int timingBatch = 1;
+
+        public Builder iterations(int iterations) {
+            this.iterations = iterations;
+            return this;
+        }
+
+        public Builder durationMs(long durationMs) {
+            this.durationMs = durationMs;
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public Builder warmup(WarmupPolicy warmup) {
+            this.warmup = warmup;
+            return this;
+        }
+
+        public Builder engines(List<ExpressionEvaluator> engines) {
+            this.engines = List.copyOf(engines);
+            return this;
+        }
+
+        public Builder splitTiming(boolean splitTiming) {
+            this.splitTiming = splitTiming;
+            return this;
+        }
+
+        public Builder cachePolicy(ExpressionCache.Policy cachePolicy) {
+            this.cachePolicy = cachePolicy;
+            return this;
+        }
+
+        public Builder cacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        public Builder readAhead(int readAhead) {
+            this.readAhead = readAhead;
+            return this;
+        }
+
+        public Builder grouping(ExpressionGrouping grouping) {
+            this.grouping = grouping;
+            return this;
+        }
+
+        public Builder regression(boolean regression) {
+            this.regression = regression;
+            return this;
+        }
+
+        public Builder arrivals(ArrivalPolicy arrivals) {
+            this.arrivals = arrivals;
+            return this;
+        }
+
+        public Builder workload(WorkloadPolicy workload) {
+            this.workload = workload;
+            return this;
+        }
+
+        public Builder metricsIntervalMs(long metricsIntervalMs) {
+            this.metricsIntervalMs = metricsIntervalMs;
+            return this;
+        }
+
+        public Builder metricsLog(Path metricsLog) {
+            this.metricsLog = metricsLog;
+            return this;
+        }
+
+        public Builder metricsAddress(InetSocketAddress metricsAddress) {
+            this.metricsAddress = metricsAddress;
+            return this;
+        }
+
+        public Builder jfrRecording(Path jfrRecording) {
+            this.jfrRecording = jfrRecording;
+            return this;
+        }
+
+        public Builder jfrSampleEvery(int jfrSampleEvery) {
+            this.jfrSampleEvery = jfrSampleEvery;
+            return this;
+        }
+
+        public Builder allocationSampleEvery(int allocationSampleEvery) {
+            this.allocationSampleEvery = allocationSampleEvery;
+            return this;
+        }
+
+        public Builder timingBatch(int timingBatch) {
+            this.timingBatch = timingBatch;
+            return this;
+        }
+
+        public LoadTestConfig build() {
+            // A cache only makes sense with prepared expressions
+            boolean split = splitTiming || cachePolicy != ExpressionCache.Policy.NONE;
+            return new LoadTestConfig(iterations, durationMs, threads, virtualThreads, warmup, engines,
+                split, cachePolicy, cacheSize, readAhead, grouping, regression, arrivals,
+                workload, metricsIntervalMs, metricsLog, metricsAddress, jfrRecording, jfrSampleEvery,
+                allocationSampleEvery, timingBatch);
+        }
+    }
+}
@@ -4,9 +4,36 @@ import java.util.List;
 
 /**
  * Container for all load test results.
+ * {@code classStats} holds the statistics of the primary (first) engine;
+ * {@code engineResults} holds one entry per engine in the run.
+ * Class ids are labelled by {@code grouping}; {@code arrivals} describes
+ * how evaluations were started and {@code workload} in what order and mix
+ * expressions were visited. {@code scalability} is only present when
+ * the run was a concurrency sweep, whose highest level the rest describes.
+ * {@code jfr} is only present when the measured phase was recorded by
+ * Java Flight Recorder, {@code forks} when the result was merged from the
+ * trials of child JVMs, and {@code distributed} when it was merged from
+ * the shards of a distributed run.
  */
 public record LoadTestResult(
     OverallStatistics overallStats,
     List<ClassStatistics> classStats,
-    List<FailedEvaluation> failures
-) {}
+    List<FailedEvaluation> failures,
+    WarmupSummary warmup,
+    List<EngineResult> engineResults,
+    ExpressionGrouping grouping,
+    ArrivalPolicy arrivals,
+    WorkloadPolicy workload,
+    ScalabilityResult scalability,
+    JfrProfile jfr,
+    ForkSummary forks,
+    DistributedSummary distributed
+) {
+    /**
+     * Returns a copy of this result with the results of a concurrency sweep attached.
+     */
+    public LoadTestResult withScalability(ScalabilityResult scalability) {
+        return new LoadTestResult(overallStats, classStats, failures, warmup, engineResults, grouping,
+            arrivals, workload, scalability, jfr, forks, distributed);
+    }
+}
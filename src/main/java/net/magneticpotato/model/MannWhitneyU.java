@@ -0,0 +1,86 @@
+package net.magneticpotato.model;
+
+/**
+ * The Mann-Whitney U (Wilcoxon rank-sum) test of whether a candidate's
+ * latencies tend to be larger or smaller than a baseline's, computed on
+ * two latency histograms. Values in the same histogram bucket are treated
+ * as ties, so no raw samples are needed. The p-values use the normal
+ * approximation with tie and continuity corrections, which is accurate at
+ * the sample sizes of a load test.
+ *
+ * @param u the U statistic of the candidate: pairs where it is larger, ties counting half
+ * @param z the standardised U statistic
+ * @param pSlower one-sided p-value for the candidate being slower
+ * @param pFaster one-sided p-value for the candidate being faster
+ * @param probabilitySlower probability that a random candidate latency exceeds a random baseline one, ties counting half
+ */
+public record MannWhitneyU(
+    double u,
+    double z,
+    double pSlower,
+    double pFaster,
+    double probabilitySlower
+) {
+    /**
+     * Tests a candidate against a baseline.
+     *
+     * @throws IllegalArgumentException if either histogram is empty
+     */
+    public static MannWhitneyU test(LatencyHistogram baseline, LatencyHistogram candidate) {
+        double n1 = baseline.getTotalCount();
+        double n2 = candidate.getTotalCount();
+        if (n1 == 0 || n2 == 0) {
+            throw new IllegalArgumentException("Mann-Whitney test needs two non-empty histograms");
+        }
+
+        // Walk the buckets in value order; each candidate value beats all lower baseline values
+        double u = 0.0;
+        double tieTerm = 0.0;
+        double baselineBelow = 0.0;
+        for (int i = 0; i < baseline.getBucketCount(); i++) {
+            double b = baseline.getCountAtIndex(i);
+            double c = candidate.getCountAtIndex(i);
+            if (b == 0 && c == 0) {
+                continue;
+            }
+            u += c * (baselineBelow + b / 2.0);
+            baselineBelow += b;
+            double ties = b + c;
+            tieTerm += ties * ties * ties - ties;
+        }
+
+        double n = n1 + n2;
+        double mean = n1 * n2 / 2.0;
+        double variance = n1 * n2 / 12.0 * ((n + 1.0) - tieTerm / (n * (n - 1.0)));
+        double probabilitySlower = u / (n1 * n2);
+        if (!(variance > 0.0)) {
+            // Every value in one bucket: no evidence either way
+            return new MannWhitneyU(u, 0.0, 1.0, 1.0, probabilitySlower);
+        }
+        double sd = Math.sqrt(variance);
+        double z = (u - mean) / sd;
+        double pSlower = upperTail((u - mean - 0.5) / sd);
+        double pFaster = upperTail((mean - u - 0.5) / sd);
+        return new MannWhitneyU(u, z, pSlower, pFaster, probabilitySlower);
+    }
+
+    /**
+     * Returns P(Z > z) for a standard normal Z.
+     */
+    static double upperTail(double z) {
+        return 0.5 * erfc(z / Math.sqrt(2.0));
+    }
+
+    /**
+     * Complementary error function, with a fractional error below 1.2e-7
+     * (Numerical Recipes' Chebyshev approximation).
+     */
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1.0 / (1.0 + 0.5 * z);
+        double ans = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+            + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+            + t * (-0.82215223 + t * 0.17087277)))))))));
+        return (x >= 0.0) ? ans : 2.0 - ans;
+    }
+}
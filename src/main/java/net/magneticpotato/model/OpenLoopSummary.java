@@ -0,0 +1,14 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * Service and response times of one engine in an open-loop run.
+ *
+ * @param total statistics over all classes
+ * @param classStats statistics per class
+ */
+public record OpenLoopSummary(
+    ResponseStatistics total,
+    List<ResponseStatistics> classStats
+) {}
@@ -4,14 +4,27 @@ import java.time.ZonedDateTime;
 
 /**
  * Overall statistics for the entire load test execution.
+ * The load time is 0, and the corpus heap -1, when the corpus was streamed
+ * or supplied directly. GC figures cover the measured phase. {@code timer}
+ * is the calibration of the clock the timings were taken with.
  */
 public record OverallStatistics(
     String inputFilePath,
+    String corpusFormat,
+    double loadTimeMs,
+    long corpusHeapBytes,
     ZonedDateTime startTimeLocal,
     ZonedDateTime startTimeUtc,
     int iterations,
+    int threads,
+    boolean virtualThreads,
     int totalUniqueExpressions,
     long totalEvaluations,
     double totalExecutionTimeMs,
-    int failedEvaluations
+    double wallClockTimeMs,
+    double throughputEvalsPerSec,
+    int failedEvaluations,
+    long gcCount,
+    long gcTimeMs,
+    TimerCalibration timer
 ) {}
@@ -0,0 +1,57 @@
+package net.magneticpotato.model;
+
+/**
+ * Parse and evaluate phase statistics for a complexity class, recorded when
+ * evaluation is split into a prepare step and an evaluate-against-bindings
+ * step, optionally behind a compiled-expression cache.
+ *
+ * @param complexity the complexity class
+ * @param cacheHits evaluations whose compiled expression came from the cache
+ * @param cacheMisses evaluations that had to prepare the expression
+ * @param parses number of prepare calls
+ * @param parseMeanMs mean prepare time
+ * @param parseP99Ms 99th percentile prepare time
+ * @param evaluations number of evaluate calls
+ * @param evalMeanMs mean evaluate time
+ * @param evalP99Ms 99th percentile evaluate time
+ */
+public record PhaseStatistics(
+    int complexity,
+    long cacheHits,
+    long cacheMisses,
+    long parses,
+    double parseMeanMs,
+    double parseP99Ms,
+    long evaluations,
+    double evalMeanMs,
+    double evalP99Ms
+) {
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    /**
+     * Creates PhaseStatistics from ClassTimings data.
+     */
+    public static PhaseStatistics fromTimings(int complexity, ClassTimings timings) {
+        LatencyHistogram parse = timings.getParseHistogram();
+        LatencyHistogram eval = timings.getEvalHistogram();
+        return new PhaseStatistics(
+            complexity,
+            timings.getCacheHits(),
+            timings.getCacheMisses(),
+            parse.getTotalCount(),
+            parse.getMeanNs() / NANOS_PER_MS,
+            parse.getValueAtPercentile(99.0) / NANOS_PER_MS,
+            eval.getTotalCount(),
+            eval.getMeanNs() / NANOS_PER_MS,
+            eval.getValueAtPercentile(99.0) / NANOS_PER_MS
+        );
+    }
+
+    /**
+     * Returns the fraction of lookups served from the cache, or NaN without lookups.
+     */
+    public double hitRate() {
+        long lookups = cacheHits + cacheMisses;
+        return (lookups == 0) ? Double.NaN : (double) cacheHits / lookups;
+    }
+}
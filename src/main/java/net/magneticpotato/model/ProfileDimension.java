@@ -0,0 +1,71 @@
+package net.magneticpotato.model;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A dimension along which expression timings can be grouped.
+ */
+public enum ProfileDimension {
+    COMPLEXITY("complexity", ExpressionProfile::connectives),
+    DEPTH("depth", ExpressionProfile::depth),
+    NOT("not", ExpressionProfile::nots),
+    COMPARISONS("comparisons", ExpressionProfile::comparisons),
+    LIKE("like", ExpressionProfile::likes),
+    IN("in", ExpressionProfile::ins),
+    IN_LIST("in-list", ExpressionProfile::maxInList),
+    BETWEEN("between", ExpressionProfile::betweens),
+    NULL_CHECKS("null-checks", ExpressionProfile::nullChecks),
+    LITERALS("literals", ExpressionProfile::literals),
+    VARIABLES("variables", ExpressionProfile::variables),
+    /** Length in characters, bucketed to the next power of two. */
+    LENGTH("length", profile -> 32 - Integer.numberOfLeadingZeros(Math.max(profile.length() - 1, 0)));
+
+    private final String cliName;
+    private final ToIntFunction<ExpressionProfile> extractor;
+
+    ProfileDimension(String cliName, ToIntFunction<ExpressionProfile> extractor) {
+        this.cliName = cliName;
+        this.extractor = extractor;
+    }
+
+    public String cliName() {
+        return cliName;
+    }
+
+    /**
+     * Returns the value of this dimension for an expression.
+     */
+    public int value(ExpressionProfile profile) {
+        return extractor.applyAsInt(profile);
+    }
+
+    /**
+     * Formats a value of this dimension for reports.
+     */
+    public String format(int value) {
+        return (this == LENGTH) ? "<=" + (1L << value) : String.valueOf(value);
+    }
+
+    /**
+     * Looks a dimension up by its command line name.
+     *
+     * @throws IllegalArgumentException if no dimension has that name
+     */
+    public static ProfileDimension fromName(String name) {
+        for (ProfileDimension dimension : values()) {
+            if (dimension.cliName.equalsIgnoreCase(name.trim())) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("Unknown grouping dimension (use " + names() + "): " + name);
+    }
+
+    /**
+     * Returns the command line names of all dimensions, comma separated.
+     */
+    public static String names() {
+        return Arrays.stream(values()).map(ProfileDimension::cliName).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,51 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * Ordinary least squares fit of evaluation latency against expression
+ * features.
+ *
+ * @param observations number of timed evaluations in the fit
+ * @param rSquared fraction of latency variance explained by the features
+ * @param interceptNs latency predicted for an expression with all features at zero
+ * @param coefficients one entry per feature, in {@link ExpressionProfile#FEATURES} order
+ */
+public record RegressionResult(
+    long observations,
+    double rSquared,
+    double interceptNs,
+    List<Coefficient> coefficients
+) {
+    /**
+     * The fitted effect of one feature.
+     *
+     * @param feature the feature name
+     * @param mean mean value of the feature over all observations
+     * @param coefficientNs added latency per unit of the feature, NaN if it was not fitted
+     * @param standardErrorNs standard error of the coefficient
+     * @param aliased true if the feature never varied or was a linear combination
+     *        of earlier features, so its effect could not be separated
+     */
+    public record Coefficient(
+        String feature,
+        double mean,
+        double coefficientNs,
+        double standardErrorNs,
+        boolean aliased
+    ) {
+        /**
+         * Returns the t statistic; magnitudes above about 2 are unlikely to be noise.
+         */
+        public double tStat() {
+            return (standardErrorNs > 0) ? coefficientNs / standardErrorNs : Double.NaN;
+        }
+
+        /**
+         * Returns the latency attributed to this feature for an average expression.
+         */
+        public double contributionAtMeanNs() {
+            return aliased ? 0.0 : coefficientNs * mean;
+        }
+    }
+}
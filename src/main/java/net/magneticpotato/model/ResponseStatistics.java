@@ -0,0 +1,62 @@
+package net.magneticpotato.model;
+
+/**
+ * Service time and response time statistics of an open-loop run. Service
+ * time runs from the actual start of an evaluation to its end; response
+ * time runs from its scheduled start, so it includes the time the
+ * evaluation waited for a free worker.
+ *
+ * @param complexity the class, or -1 for all classes together
+ * @param evaluations number of scheduled evaluations
+ * @param serviceMeanMs mean service time
+ * @param serviceP50Ms median service time
+ * @param serviceP99Ms 99th percentile service time
+ * @param serviceP999Ms 99.9th percentile service time
+ * @param responseMeanMs mean response time
+ * @param responseP50Ms median response time
+ * @param responseP99Ms 99th percentile response time
+ * @param responseP999Ms 99.9th percentile response time
+ * @param responseMaxMs maximum response time
+ */
+public record ResponseStatistics(
+    int complexity,
+    long evaluations,
+    double serviceMeanMs,
+    double serviceP50Ms,
+    double serviceP99Ms,
+    double serviceP999Ms,
+    double responseMeanMs,
+    double responseP50Ms,
+    double responseP99Ms,
+    double responseP999Ms,
+    double responseMaxMs
+) {
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    /**
+     * Creates ResponseStatistics from ClassTimings data.
+     */
+    public static ResponseStatistics fromTimings(int complexity, ClassTimings timings) {
+        return fromHistograms(complexity, timings.getHistogram(), timings.getResponseHistogram());
+    }
+
+    /**
+     * Creates ResponseStatistics from service and response time histograms.
+     */
+    public static ResponseStatistics fromHistograms(int complexity, LatencyHistogram service,
+                                                    LatencyHistogram response) {
+        return new ResponseStatistics(
+            complexity,
+            response.getTotalCount(),
+            service.getMeanNs() / NANOS_PER_MS,
+            service.getValueAtPercentile(50.0) / NANOS_PER_MS,
+            service.getValueAtPercentile(99.0) / NANOS_PER_MS,
+            service.getValueAtPercentile(99.9) / NANOS_PER_MS,
+            response.getMeanNs() / NANOS_PER_MS,
+            response.getValueAtPercentile(50.0) / NANOS_PER_MS,
+            response.getValueAtPercentile(99.0) / NANOS_PER_MS,
+            response.getValueAtPercentile(99.9) / NANOS_PER_MS,
+            response.getMaxNs() / NANOS_PER_MS
+        );
+    }
+}
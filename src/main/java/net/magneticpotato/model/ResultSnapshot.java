@@ -0,0 +1,20 @@
+package net.magneticpotato.model;
+
+import java.util.Map;
+
+/**
+ * The parts of an exported result file that runs are compared on.
+ *
+ * @param source the file the snapshot was read from
+ * @param startTimeUtc when the run started
+ * @param inputFile the corpus the run measured
+ * @param environment the JVM and machine of the run
+ * @param engines per engine, in run order, the latency histogram of each class keyed by class label
+ */
+public record ResultSnapshot(
+    String source,
+    String startTimeUtc,
+    String inputFile,
+    RunEnvironment environment,
+    Map<String, Map<String, LatencyHistogram>> engines
+) {}
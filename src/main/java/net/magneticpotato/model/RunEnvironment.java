@@ -0,0 +1,43 @@
+package net.magneticpotato.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * The JVM and machine a run was measured on, exported with its results so
+ * two result files can be checked for like-for-like conditions.
+ *
+ * @param jvmArguments the flags the JVM was started with
+ * @param maxHeapBytes the maximum heap size, or -1 when unbounded
+ */
+public record RunEnvironment(
+    String javaVersion,
+    String javaVendor,
+    String vmName,
+    String vmVersion,
+    List<String> jvmArguments,
+    int availableProcessors,
+    long maxHeapBytes,
+    String osName,
+    String osVersion,
+    String osArch
+) {
+    /**
+     * Describes the running JVM.
+     */
+    public static RunEnvironment current() {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        return new RunEnvironment(
+            System.getProperty("java.version"),
+            System.getProperty("java.vendor"),
+            System.getProperty("java.vm.name"),
+            System.getProperty("java.vm.version"),
+            List.copyOf(ManagementFactory.getRuntimeMXBean().getInputArguments()),
+            Runtime.getRuntime().availableProcessors(),
+            (maxHeap == Long.MAX_VALUE) ? -1L : maxHeap,
+            System.getProperty("os.name"),
+            System.getProperty("os.version"),
+            System.getProperty("os.arch")
+        );
+    }
+}
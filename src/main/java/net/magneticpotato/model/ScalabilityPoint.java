@@ -0,0 +1,24 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * Throughput and latency measured at one concurrency level of a sweep.
+ *
+ * @param workers number of concurrent workers
+ * @param evaluations evaluations completed in the measured window
+ * @param wallClockMs length of the measured window
+ * @param throughputEvalsPerSec evaluations per second of wall clock time
+ * @param p50Ms median latency over all classes
+ * @param p99Ms 99th percentile latency over all classes
+ * @param classStats per-class statistics of the primary engine
+ */
+public record ScalabilityPoint(
+    int workers,
+    long evaluations,
+    double wallClockMs,
+    double throughputEvalsPerSec,
+    double p50Ms,
+    double p99Ms,
+    List<ClassStatistics> classStats
+) {}
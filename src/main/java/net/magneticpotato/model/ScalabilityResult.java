@@ -0,0 +1,16 @@
+package net.magneticpotato.model;
+
+import java.util.List;
+
+/**
+ * Results of a concurrency sweep.
+ *
+ * @param points the measurements, in increasing concurrency
+ * @param levelDurationMs how long each level was measured
+ * @param fit the Universal Scalability Law fit, or null with fewer than two levels
+ */
+public record ScalabilityResult(
+    List<ScalabilityPoint> points,
+    long levelDurationMs,
+    UslFit fit
+) {}
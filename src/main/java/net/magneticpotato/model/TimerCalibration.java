@@ -0,0 +1,55 @@
+package net.magneticpotato.model;
+
+/**
+ * Cost and resolution of {@link System#nanoTime()} on the host, measured
+ * before a run. Every per-evaluation timing includes about one timer
+ * latency, and cannot resolve differences below the granularity.
+ *
+ * @param latencyNs mean time of one {@code nanoTime} call
+ * @param granularityNs smallest step between two distinct {@code nanoTime} readings
+ */
+public record TimerCalibration(double latencyNs, long granularityNs) {
+
+    private static final int LATENCY_CALLS = 1_000_000;
+    private static final int GRANULARITY_STEPS = 1_000;
+    private static final int ROUNDS = 5;
+
+    /** Receives the latency loop's sum, so the loop cannot be eliminated. */
+    private static volatile long sink;
+
+    /**
+     * Measures the timer. The best of several rounds is kept, so the
+     * figures are what the timer costs once its code has been compiled.
+     */
+    public static TimerCalibration measure() {
+        double latency = Double.MAX_VALUE;
+        long granularity = Long.MAX_VALUE;
+        long sum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long startNs = System.nanoTime();
+            for (int i = 0; i < LATENCY_CALLS; i++) {
+                sum += System.nanoTime();
+            }
+            latency = Math.min(latency, (System.nanoTime() - startNs) / (double) LATENCY_CALLS);
+
+            for (int i = 0; i < GRANULARITY_STEPS; i++) {
+                long first = System.nanoTime();
+                long next;
+                do {
+                    next = System.nanoTime();
+                } while (next == first);
+                granularity = Math.min(granularity, next - first);
+            }
+        }
+        sink = sum;
+        return new TimerCalibration(latency, granularity);
+    }
+
+    /**
+     * Returns true if the timer's latency is a noticeable share, more than
+     * a tenth, of a latency measured one evaluation at a time.
+     */
+    public boolean distorts(double meanNs) {
+        return meanNs < latencyNs * 10.0;
+    }
+}
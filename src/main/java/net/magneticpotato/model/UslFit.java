@@ -0,0 +1,120 @@
+package net.magneticpotato.model;
+
+/**
+ * A fit of the Universal Scalability Law,
+ * {@code X(N) = lambda N / (1 + sigma (N - 1) + kappa N (N - 1))},
+ * to throughput measured at several concurrency levels. Sigma is the
+ * contention (serialised) fraction, kappa the coherency (crosstalk) cost;
+ * with kappa above zero throughput peaks and then declines.
+ *
+ * @param lambda throughput of a single worker
+ * @param sigma contention coefficient
+ * @param kappa coherency coefficient
+ * @param rSquared fraction of the throughput variance the fit explains, NaN if throughput never varied
+ * @param peakConcurrency concurrency of maximum throughput, infinite when kappa is zero
+ * @param peakThroughput predicted maximum throughput, or its asymptote when kappa is zero
+ */
+public record UslFit(
+    double lambda,
+    double sigma,
+    double kappa,
+    double rSquared,
+    double peakConcurrency,
+    double peakThroughput
+) {
+    /**
+     * Returns the predicted throughput at a concurrency level.
+     */
+    public double predict(double workers) {
+        return lambda * workers / (1.0 + sigma * (workers - 1.0) + kappa * workers * (workers - 1.0));
+    }
+
+    /**
+     * Fits the law by least squares on its linearised form
+     * {@code N / C(N) - 1 = sigma (N - 1) + kappa N (N - 1)}, where
+     * {@code C(N) = X(N) / X(1)} is the relative capacity. Both coefficients
+     * are kept non-negative; kappa is only fitted with three or more levels.
+     *
+     * @param workers concurrency levels, which must include 1
+     * @param throughput measured throughput at each level
+     * @return the fit
+     * @throws IllegalArgumentException if no level has a single worker or its throughput is zero
+     */
+    public static UslFit fit(int[] workers, double[] throughput) {
+        double lambda = Double.NaN;
+        for (int i = 0; i < workers.length; i++) {
+            if (workers[i] == 1) {
+                lambda = throughput[i];
+            }
+        }
+        if (!(lambda > 0.0)) {
+            throw new IllegalArgumentException("USL fit needs a positive single-worker throughput");
+        }
+
+        // Sums of the normal equations for y = sigma x1 + kappa x2, without intercept
+        double s11 = 0.0;
+        double s12 = 0.0;
+        double s22 = 0.0;
+        double s1y = 0.0;
+        double s2y = 0.0;
+        int levels = 0;
+        for (int i = 0; i < workers.length; i++) {
+            double n = workers[i];
+            if (n <= 1.0 || throughput[i] <= 0.0) {
+                continue;
+            }
+            double y = n / (throughput[i] / lambda) - 1.0;
+            double x1 = n - 1.0;
+            double x2 = n * (n - 1.0);
+            s11 += x1 * x1;
+            s12 += x1 * x2;
+            s22 += x2 * x2;
+            s1y += x1 * y;
+            s2y += x2 * y;
+            levels++;
+        }
+
+        double sigma = 0.0;
+        double kappa = 0.0;
+        if (levels >= 2) {
+            double det = s11 * s22 - s12 * s12;
+            sigma = (s22 * s1y - s12 * s2y) / det;
+            kappa = (s11 * s2y - s12 * s1y) / det;
+        }
+        if (levels < 2 || kappa < 0.0) {
+            // Contention only
+            kappa = 0.0;
+            sigma = (s11 > 0.0) ? s1y / s11 : 0.0;
+        }
+        if (sigma < 0.0) {
+            // Super-linear scaling is outside the model; keep coherency only
+            sigma = 0.0;
+            kappa = (levels >= 2 && s22 > 0.0) ? Math.max(0.0, s2y / s22) : 0.0;
+        }
+
+        UslFit partial = new UslFit(lambda, sigma, kappa, Double.NaN, 0.0, 0.0);
+        double meanX = 0.0;
+        for (double x : throughput) {
+            meanX += x / throughput.length;
+        }
+        double sse = 0.0;
+        double sst = 0.0;
+        for (int i = 0; i < workers.length; i++) {
+            double residual = throughput[i] - partial.predict(workers[i]);
+            sse += residual * residual;
+            sst += (throughput[i] - meanX) * (throughput[i] - meanX);
+        }
+        double rSquared = (sst > 0.0) ? 1.0 - sse / sst : Double.NaN;
+
+        double peakConcurrency;
+        double peakThroughput;
+        if (kappa > 0.0) {
+            peakConcurrency = Math.sqrt(Math.max(0.0, 1.0 - sigma) / kappa);
+            peakThroughput = partial.predict(Math.max(1.0, peakConcurrency));
+        } else {
+            peakConcurrency = Double.POSITIVE_INFINITY;
+            peakThroughput = (sigma > 0.0) ? lambda / sigma : Double.POSITIVE_INFINITY;
+        }
+        return new UslFit(lambda, sigma, kappa, rSquared, peakConcurrency, peakThroughput);
+    }
+}
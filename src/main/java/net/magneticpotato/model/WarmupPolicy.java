@@ -0,0 +1,65 @@
+package net.magneticpotato.model;
+
+/**
+ * Describes how the warmup phase that precedes measurement is run.
+ * Warmup evaluations exercise the evaluator so the JIT can compile the
+ * hot paths, but are excluded from the reported timings.
+ */
+public record WarmupPolicy(
+    Mode mode,
+    int iterations,
+    long durationMs,
+    double cvThreshold,
+    int window,
+    int maxIterations
+) {
+    /** Default coefficient of variation threshold for automatic warmup. */
+    public static final double DEFAULT_CV_THRESHOLD = 0.05;
+    /** Default number of passes in the steady-state sliding window. */
+    public static final int DEFAULT_WINDOW = 5;
+    /** Default cap on warmup passes in automatic mode. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /**
+     * Warmup strategies.
+     */
+    public enum Mode {
+        /** No warmup; every evaluation is measured. */
+        NONE,
+        /** A fixed number of passes over the corpus. */
+        ITERATIONS,
+        /** Whole passes over the corpus until a wall clock budget is spent. */
+        DURATION,
+        /** Passes until per-class mean latency is stable across a sliding window. */
+        AUTO
+    }
+
+    public static WarmupPolicy none() {
+        return new WarmupPolicy(Mode.NONE, 0, 0, 0.0, 0, 0);
+    }
+
+    public static WarmupPolicy iterations(int iterations) {
+        return new WarmupPolicy(Mode.ITERATIONS, iterations, 0, 0.0, 0, iterations);
+    }
+
+    public static WarmupPolicy duration(long durationMs) {
+        return new WarmupPolicy(Mode.DURATION, 0, durationMs, 0.0, 0, Integer.MAX_VALUE);
+    }
+
+    public static WarmupPolicy auto(double cvThreshold, int window, int maxIterations) {
+        return new WarmupPolicy(Mode.AUTO, 0, 0, cvThreshold, window, maxIterations);
+    }
+
+    /**
+     * Returns a human readable description of the policy.
+     */
+    public String describe() {
+        return switch (mode) {
+            case NONE -> "none";
+            case ITERATIONS -> iterations + " iteration(s)";
+            case DURATION -> durationMs + " ms";
+            case AUTO -> String.format("auto (CV < %.3f over %d iterations, max %d)",
+                cvThreshold, window, maxIterations);
+        };
+    }
+}
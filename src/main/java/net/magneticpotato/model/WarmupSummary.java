@@ -0,0 +1,22 @@
+package net.magneticpotato.model;
+
+/**
+ * Outcome of the warmup phase.
+ *
+ * @param policy the warmup policy that was applied
+ * @param iterations number of warmup passes over the corpus
+ * @param evaluationsDiscarded evaluations executed during warmup and excluded from the statistics
+ * @param durationMs wall clock time spent warming up
+ * @param steadyStateReached whether automatic warmup observed stable per-class latency
+ * @param steadyStateIteration the warmup pass at which steady state was detected, or 0
+ * @param finalCv the largest per-class coefficient of variation in the last window, or NaN
+ */
+public record WarmupSummary(
+    WarmupPolicy policy,
+    int iterations,
+    long evaluationsDiscarded,
+    double durationMs,
+    boolean steadyStateReached,
+    int steadyStateIteration,
+    double finalCv
+) {}
@@ -0,0 +1,81 @@
+package net.magneticpotato.model;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Describes the order and mix in which a pass visits the corpus. By default
+ * each pass walks the corpus in file order. A shuffled pass visits every
+ * expression once in a random order. With a Zipf exponent or a class mix a
+ * pass instead draws as many expressions as the corpus holds: classes by
+ * their mix weights, and within the corpus or class by Zipfian popularity
+ * over a fixed random ranking. Every random choice derives from the seed.
+ *
+ * @param shuffle whether each pass is a random permutation of the corpus
+ * @param zipfExponent Zipf exponent of expression popularity, or 0 for uniform
+ * @param mix relative weight of each complexity class to draw, or empty to draw from the whole corpus
+ * @param seed the seed of every random choice
+ */
+public record WorkloadPolicy(
+    boolean shuffle,
+    double zipfExponent,
+    Map<Integer, Double> mix,
+    long seed
+) {
+    public WorkloadPolicy {
+        mix = Map.copyOf(mix);
+        if (zipfExponent < 0.0) {
+            throw new IllegalArgumentException("Zipf exponent must be >= 0");
+        }
+        if (shuffle && (zipfExponent > 0.0 || !mix.isEmpty())) {
+            throw new IllegalArgumentException("A shuffled pass cannot also follow a Zipf or class mix");
+        }
+        for (double weight : mix.values()) {
+            if (!(weight > 0.0)) {
+                throw new IllegalArgumentException("Class mix weights must be > 0");
+            }
+        }
+    }
+
+    public static WorkloadPolicy sequential() {
+        return new WorkloadPolicy(false, 0.0, Map.of(), 0L);
+    }
+
+    /**
+     * Returns true if passes walk the corpus in file order.
+     */
+    public boolean isSequential() {
+        return !shuffle && !isSampled();
+    }
+
+    /**
+     * Returns true if passes draw expressions rather than visit each once.
+     */
+    public boolean isSampled() {
+        return zipfExponent > 0.0 || !mix.isEmpty();
+    }
+
+    /**
+     * Returns a human readable description of the policy.
+     */
+    public String describe() {
+        if (isSequential()) {
+            return "sequential";
+        }
+        String seedText = ", seed " + seed;
+        if (shuffle) {
+            return "shuffled" + seedText;
+        }
+        String zipf = String.format("Zipf s=%.2f", zipfExponent);
+        if (mix.isEmpty()) {
+            return zipf + seedText;
+        }
+        double total = mix.values().stream().mapToDouble(Double::doubleValue).sum();
+        String classes = mix.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map(e -> String.format("%d: %.1f%%", e.getKey(), e.getValue() / total * 100.0))
+            .collect(Collectors.joining(", "));
+        return "class mix " + classes + ((zipfExponent > 0.0) ? ", " + zipf + " within each class" : "")
+            + seedText;
+    }
+}
@@ -0,0 +1,79 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ArrivalPolicy;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The intended start times of an open-loop run, shared by all workers.
+ * Whichever worker is free claims the next start time, so when every worker
+ * is busy arrivals queue up and the wait shows in their response time, as
+ * it would for real callers.
+ */
+class ArrivalSchedule {
+
+    /** Below this remaining wait the worker spins instead of parking. */
+    private static final long SPIN_THRESHOLD_NS = 50_000;
+    /** Fixed seed so Poisson runs at the same rate see the same arrivals. */
+    private static final long POISSON_SEED = 0x5eed_a771_7a15L;
+
+    private final ArrivalPolicy policy;
+    private final double intervalNs;
+    private final AtomicLong ticket = new AtomicLong();
+    private final SplittableRandom random = new SplittableRandom(POISSON_SEED);
+    private long startNs;
+    private double poissonOffsetNs;
+
+    ArrivalSchedule(ArrivalPolicy policy) {
+        if (!policy.isOpenLoop()) {
+            throw new IllegalArgumentException("Arrival schedule requires an open-loop policy");
+        }
+        this.policy = policy;
+        this.intervalNs = 1_000_000_000.0 / policy.ratePerSec();
+    }
+
+    /**
+     * Starts the schedule; the first arrival is due immediately. Must be
+     * called before the workers that claim arrivals are started.
+     */
+    void start(long startNs) {
+        this.startNs = startNs;
+        ticket.set(0);
+        poissonOffsetNs = 0.0;
+    }
+
+    /**
+     * Claims the next arrival and waits until it is due.
+     *
+     * @return the intended start time, in {@link System#nanoTime()} units
+     */
+    long awaitNext() {
+        long intendedNs = next();
+        long remaining;
+        while ((remaining = intendedNs - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return intendedNs;
+    }
+
+    /**
+     * Claims the next arrival without waiting for it.
+     */
+    long next() {
+        if (policy.mode() == ArrivalPolicy.Mode.UNIFORM) {
+            return startNs + (long) (ticket.getAndIncrement() * intervalNs);
+        }
+        synchronized (this) {
+            long intendedNs = startNs + (long) poissonOffsetNs;
+            // Exponential gap; 1 - u avoids log(0)
+            poissonOffsetNs += -Math.log(1.0 - random.nextDouble()) * intervalNs;
+            return intendedNs;
+        }
+    }
+}
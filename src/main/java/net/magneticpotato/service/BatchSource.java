@@ -0,0 +1,17 @@
+package net.magneticpotato.service;
+
+/**
+ * Hands out the batches of one pass over the corpus. Shared by all workers
+ * of a pass, so implementations are thread-safe.
+ */
+interface BatchSource extends AutoCloseable {
+
+    /**
+     * Returns the next batch, or null once the pass is exhausted.
+     */
+    ExpressionBatch nextBatch();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,218 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary corpus format, read back by {@link MappedCorpus}.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header   magic, version, record count, string count,
+ *          record index offset, string index offset,
+ *          classifier version of the stored complexities
+ * records  per record: expression string id, complexity, variable count,
+ *          then per variable: name string id, type tag, value
+ * strings  per string: UTF-8 length, UTF-8 bytes
+ * index    string offsets, then record offsets (longs)
+ * </pre>
+ * Expressions and variable names are deduplicated into the string table,
+ * and string values are stored there as well. Integer, long, double,
+ * boolean and null values are encoded inline with a one byte type tag.
+ * Version 1 files lack the classifier version; their complexities were
+ * computed with version 1 of {@link ComplexityCalculator}.
+ */
+public final class BinaryCorpus {
+
+    static final int MAGIC = 0x53514558; // "SQEX"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 36;
+    static final int HEADER_SIZE_V1 = 32;
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_INT = 1;
+    static final byte TAG_LONG = 2;
+    static final byte TAG_DOUBLE = 3;
+    static final byte TAG_STRING = 4;
+    static final byte TAG_TRUE = 5;
+    static final byte TAG_FALSE = 6;
+
+    private BinaryCorpus() {}
+
+    /**
+     * Summary of a conversion.
+     */
+    public record ConversionResult(int records, int strings, long bytes) {}
+
+    /**
+     * Writes expressions in the binary format. Records are written as they
+     * are read, so only the string table is held in memory.
+     *
+     * @param expressions the expressions to write
+     * @param target the output file, replaced if it exists
+     * @return counts of what was written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if a value has an unsupported type
+     */
+    public static ConversionResult write(Iterator<ExpressionData> expressions, Path target)
+            throws IOException {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        long[] recordOffsets = new long[1024];
+        int records = 0;
+        long recordIndexOffset;
+        long stringIndexOffset;
+        long size;
+
+        CountingOutputStream counter = new CountingOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(target), 1 << 16));
+        try (DataOutputStream out = new DataOutputStream(counter)) {
+
+            // Placeholder header, patched once the offsets are known
+            out.write(new byte[HEADER_SIZE]);
+
+            while (expressions.hasNext()) {
+                ExpressionData expr = expressions.next();
+                if (records == recordOffsets.length) {
+                    recordOffsets = Arrays.copyOf(recordOffsets, records * 2);
+                }
+                recordOffsets[records++] = counter.count;
+
+                Map<String, Object> values = (expr.value_map() == null) ? Map.of() : expr.value_map();
+                out.writeInt(intern(expr.expr(), stringIds, strings));
+                out.writeInt(ComplexityCalculator.calculate(expr.expr()));
+                out.writeInt(values.size());
+                for (Map.Entry<String, Object> entry : values.entrySet()) {
+                    out.writeInt(intern(entry.getKey(), stringIds, strings));
+                    writeValue(out, entry.getKey(), entry.getValue(), stringIds, strings);
+                }
+            }
+
+            long[] stringOffsets = new long[strings.size()];
+            for (int i = 0; i < strings.size(); i++) {
+                stringOffsets[i] = counter.count;
+                byte[] utf8 = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }
+
+            stringIndexOffset = counter.count;
+            for (long offset : stringOffsets) {
+                out.writeLong(offset);
+            }
+            recordIndexOffset = counter.count;
+            for (int i = 0; i < records; i++) {
+                out.writeLong(recordOffsets[i]);
+            }
+            out.flush();
+            size = counter.count;
+        }
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(records)
+                .putInt(strings.size())
+                .putLong(recordIndexOffset)
+                .putLong(stringIndexOffset)
+                .putInt(ComplexityCalculator.VERSION)
+                .flip();
+            channel.write(header, 0);
+        }
+
+        return new ConversionResult(records, strings.size(), size);
+    }
+
+    /**
+     * Returns true if the stream starts with the binary corpus magic number.
+     * Reads at most four bytes.
+     */
+    static boolean hasMagic(InputStream is) throws IOException {
+        byte[] head = is.readNBytes(4);
+        return head.length == 4 && ByteBuffer.wrap(head).getInt() == MAGIC;
+    }
+
+    /**
+     * Returns true if the file is in the binary corpus format.
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        try (InputStream is = Files.newInputStream(path)) {
+            return hasMagic(is);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, String name, Object value,
+                                   Map<String, Integer> stringIds, List<String> strings)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TAG_INT);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long l) {
+            out.writeByte(TAG_LONG);
+            out.writeLong(l);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String s) {
+            out.writeByte(TAG_STRING);
+            out.writeInt(intern(s, stringIds, strings));
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TAG_TRUE : TAG_FALSE);
+        } else {
+            throw new IllegalArgumentException("Unsupported value type for variable '" + name + "': "
+                + value.getClass().getSimpleName());
+        }
+    }
+
+    private static int intern(String s, Map<String, Integer> stringIds, List<String> strings) {
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    /**
+     * Tracks the file position as a long; DataOutputStream's counter
+     * saturates at 2 GiB.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
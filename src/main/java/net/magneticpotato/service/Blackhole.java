@@ -0,0 +1,24 @@
+package net.magneticpotato.service;
+
+/**
+ * Consumes evaluation results so the JIT cannot prove them unused and
+ * eliminate, or hoist out of a timed loop, the evaluations that produce
+ * them. Each worker owns one, so consuming is a plain field update.
+ */
+final class Blackhole {
+
+    private long matches;
+
+    void consume(boolean result) {
+        if (result) {
+            matches++;
+        }
+    }
+
+    /**
+     * Returns how many consumed results were true.
+     */
+    long matches() {
+        return matches;
+    }
+}
@@ -0,0 +1,70 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.ForkSummary;
+import net.magneticpotato.model.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates the statistics of one engine and class across the results of
+ * several runs, either trials over the same corpus or shards of one corpus.
+ */
+final class ClassMerge {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final List<Double> means = new ArrayList<>();
+    private int maxUniqueExpressions;
+    private int totalUniqueExpressions;
+    private long allocationSamples;
+    private double allocatedBytes;
+    private long allocatedBytesMax;
+    private long timedBatches;
+
+    void add(ClassStatistics stats) {
+        histogram.add(stats.histogram());
+        if (stats.totalEvaluations() > 0) {
+            means.add(stats.avgTimeMs());
+        }
+        maxUniqueExpressions = Math.max(maxUniqueExpressions, stats.uniqueExpressions());
+        totalUniqueExpressions += stats.uniqueExpressions();
+        allocationSamples += stats.allocationSamples();
+        allocatedBytes += stats.allocatedBytesMean() * stats.allocationSamples();
+        allocatedBytesMax = Math.max(allocatedBytesMax, stats.allocatedBytesMax());
+        timedBatches += stats.timedBatches();
+    }
+
+    /**
+     * Returns the merged statistics.
+     *
+     * @param shards whether the runs measured disjoint shards, whose expressions add up, or the same corpus
+     */
+    ClassStatistics statistics(int complexity, boolean shards) {
+        ClassStatistics stats = ClassStatistics.fromHistogram(complexity,
+            shards ? totalUniqueExpressions : maxUniqueExpressions, histogram);
+        if (allocationSamples > 0) {
+            stats = stats.withAllocations(allocationSamples, allocatedBytes / allocationSamples,
+                allocatedBytesMax);
+        }
+        if (timedBatches > 0) {
+            stats = stats.withTimedBatches(timedBatches);
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the spread of the runs' mean latencies.
+     */
+    ForkSummary.ClassSpread spread(String engine, int complexity) {
+        int n = means.size();
+        double mean = means.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        double squares = 0.0;
+        for (double value : means) {
+            squares += (value - mean) * (value - mean);
+        }
+        return new ForkSummary.ClassSpread(engine, complexity, n, mean,
+            (n > 1) ? Math.sqrt(squares / (n - 1)) : 0.0,
+            means.stream().mapToDouble(Double::doubleValue).min().orElse(0.0),
+            means.stream().mapToDouble(Double::doubleValue).max().orElse(0.0));
+    }
+}
@@ -1,12 +1,34 @@
 package net.magneticpotato.service;
 
+import net.magneticpotato.model.ExpressionData;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
 /**
  * Calculates the complexity of a SQL boolean expression.
  * Complexity is defined as the number of logical AND and OR operators,
  * excluding AND operators that are part of BETWEEN clauses.
+ * <p>
+ * The expression is scanned once, character by character, without
+ * allocating. Keywords are matched case-insensitively as whole words, so
+ * any whitespace or parentheses may separate them from their operands, and
+ * nothing inside a quoted string literal or quoted identifier is counted.
  */
 public class ComplexityCalculator {
 
+    /**
+     * Version of the counting rules. Binary corpora record the version their
+     * complexities were computed with and are reclassified on load when it
+     * differs, so bump it whenever {@link #calculate} counts differently.
+     * Version 1 matched keywords as whitespace-delimited substrings; version
+     * 2 scans whole words outside quoted literals.
+     */
+    public static final int VERSION = 2;
+
+    /** Corpora smaller than this are classified on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
     /**
      * Calculates the complexity of an expression.
      *
@@ -14,64 +36,79 @@ public class ComplexityCalculator {
      * @return the complexity (count of AND and OR operators)
      */
     public static int calculate(String expression) {
-        String upperExpr = expression.toUpperCase();
-        String cleaned = removeBetweenAnd(upperExpr);
-        int andCount = countWordOccurrences(cleaned, " AND ");
-        int orCount = countWordOccurrences(cleaned, " OR ");
-        return andCount + orCount;
-    }
+        int count = 0;
+        boolean betweenPending = false;
+        char quote = 0;
+        int wordStart = -1;
+        int length = expression.length();
 
-    /**
-     * Removes AND operators that are part of BETWEEN clauses by replacing them
-     * with placeholders.
-     *
-     * @param expr the expression in uppercase
-     * @return the expression with BETWEEN AND operators removed
-     */
-    private static String removeBetweenAnd(String expr) {
-        StringBuilder result = new StringBuilder(expr);
-        int pos = 0;
+        // One extra iteration with a separator closes a word at the end of the text
+        for (int i = 0; i <= length; i++) {
+            char c = (i < length) ? expression.charAt(i) : ' ';
 
-        while ((pos = result.indexOf(" BETWEEN ", pos)) != -1) {
-            // Replace " BETWEEN " with " _______ " (same length)
-            result.replace(pos, pos + 9, " _______ ");
+            if (quote != 0) {
+                // A doubled quote escapes itself; closing and reopening is equivalent
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
 
-            // Find the next " AND " after this BETWEEN position
-            int andPos = result.indexOf(" AND ", pos + 9);
+            if (isWordChar(c)) {
+                if (wordStart < 0) {
+                    wordStart = i;
+                }
+                continue;
+            }
 
-            if (andPos != -1) {
-                // Verify this AND is part of the BETWEEN clause by checking
-                // that there's no OR, AND, or BETWEEN between them
-                String between = result.substring(pos + 9, andPos);
-                if (!between.contains(" OR ") && !between.contains(" AND ") &&
-                    !between.contains(" BETWEEN ")) {
-                    // This AND belongs to the BETWEEN clause
-                    result.replace(andPos, andPos + 5, " ___ ");
+            if (wordStart >= 0) {
+                int wordLength = i - wordStart;
+                if (isKeyword(expression, wordStart, wordLength, "AND")) {
+                    // The first AND after BETWEEN separates its bounds
+                    if (betweenPending) {
+                        betweenPending = false;
+                    } else {
+                        count++;
+                    }
+                } else if (isKeyword(expression, wordStart, wordLength, "OR")) {
+                    betweenPending = false;
+                    count++;
+                } else if (isKeyword(expression, wordStart, wordLength, "BETWEEN")) {
+                    betweenPending = true;
                 }
+                wordStart = -1;
             }
 
-            pos += 9;
+            if (c == '\'' || c == '"') {
+                quote = c;
+            }
         }
 
-        return result.toString();
+        return count;
     }
 
     /**
-     * Counts occurrences of a word in the text.
+     * Calculates the complexity of every expression in a corpus. Large
+     * corpora are classified in parallel on the common fork/join pool.
      *
-     * @param text the text to search
-     * @param word the word to count (should include surrounding spaces)
-     * @return the count of occurrences
+     * @param expressions the expressions to classify
+     * @return the complexity of each expression, in corpus order
      */
-    private static int countWordOccurrences(String text, String word) {
-        int count = 0;
-        int pos = 0;
-
-        while ((pos = text.indexOf(word, pos)) != -1) {
-            count++;
-            pos += word.length();
+    public static int[] calculateAll(List<ExpressionData> expressions) {
+        int[] complexities = new int[expressions.size()];
+        IntStream indices = IntStream.range(0, complexities.length);
+        if (complexities.length >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
         }
+        indices.forEach(i -> complexities[i] = calculate(expressions.get(i).expr()));
+        return complexities;
+    }
 
-        return count;
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isKeyword(String expression, int start, int length, String keyword) {
+        return length == keyword.length() && expression.regionMatches(true, start, keyword, 0, length);
     }
 }
@@ -0,0 +1,23 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.sqlexpr.congocc.SqlExprEvaluator;
+
+import java.util.Map;
+
+/**
+ * The default engine: the sqlexpr-congocc evaluator.
+ */
+public class CongoccEvaluator implements ExpressionEvaluator {
+
+    public static final String NAME = "congocc";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean match(String expression, Map<String, Object> bindings) throws Exception {
+        return SqlExprEvaluator.match(expression, bindings);
+    }
+}
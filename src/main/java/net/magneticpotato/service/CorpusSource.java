@@ -0,0 +1,35 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * A corpus that is streamed rather than held in memory. Every call to
+ * {@link #open()} starts a fresh pass over the source, so multi-iteration
+ * runs re-read the data instead of caching it.
+ */
+public interface CorpusSource {
+
+    /**
+     * Returns the absolute path, or a description, of the source.
+     */
+    String absolutePath();
+
+    /**
+     * Returns the format the corpus is stored in.
+     */
+    default ExpressionLoader.Format format() {
+        return ExpressionLoader.Format.JSON;
+    }
+
+    /**
+     * Opens a new sequential pass over the corpus. The caller must close
+     * the stream to release the underlying file or resource.
+     *
+     * @return the expressions in source order
+     * @throws IOException if the source cannot be opened
+     */
+    Stream<ExpressionData> open() throws IOException;
+}
@@ -0,0 +1,88 @@
+package net.magneticpotato.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * One connection between the coordinator and a worker of a distributed
+ * run. Messages are JSON objects, one per line, with a {@code type} field;
+ * histograms and timestamps are written as {@link ResultsJson} writes them.
+ * Any thread may send; one thread receives.
+ */
+final class DistributedConnection implements AutoCloseable {
+
+    private final Socket socket;
+    private final ObjectMapper mapper = ResultsJson.mapper().copy()
+        .disable(SerializationFeature.INDENT_OUTPUT);
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+
+    DistributedConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /**
+     * Returns a new message of a type.
+     */
+    ObjectNode message(String type) {
+        return mapper.createObjectNode().put("type", type);
+    }
+
+    synchronized void send(ObjectNode message) throws IOException {
+        writer.write(mapper.writeValueAsString(message));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Sets how long {@link #receive()} waits before failing with a
+     * {@link java.net.SocketTimeoutException}; 0 waits indefinitely.
+     */
+    void setReceiveTimeout(long timeoutMs) throws IOException {
+        socket.setSoTimeout((int) Math.min(timeoutMs, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the next message, or null once the other side has closed the connection.
+     */
+    JsonNode receive() throws IOException {
+        String line = reader.readLine();
+        return (line == null) ? null : mapper.readTree(line);
+    }
+
+    String remoteAddress() {
+        return socket.getInetAddress().getHostAddress() + ":" + socket.getPort();
+    }
+
+    /**
+     * Returns the wall clock time in microseconds, used to estimate the
+     * offset between two hosts' clocks.
+     */
+    static long wallClockMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,466 @@
+package net.magneticpotato.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.DistributedSummary;
+import net.magneticpotato.model.EngineResult;
+import net.magneticpotato.model.FailedEvaluation;
+import net.magneticpotato.model.IntervalSnapshot;
+import net.magneticpotato.model.LatencyHistogram;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.OverallStatistics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Runs a load test across {@link DistributedWorker}s, each measuring one
+ * shard of the corpus, and merges their results.
+ * <p>
+ * Every worker loads the corpus with the run's arguments, keeps its shard
+ * and classifies it locally. The coordinator starts the warmup once every
+ * worker is ready for it, and the measured phase once every worker has
+ * finished warming up. Interval snapshots are lined up by their sequence
+ * number in the measured phase, with times relative to when each worker
+ * started it, so the timeline does not depend on the workers' clocks
+ * agreeing; the clock offsets estimated at connection are only reported.
+ * <p>
+ * A worker the coordinator is waiting on may stay silent for the worker
+ * timeout, plus the metrics interval while it runs a phase; after that the
+ * run fails naming the workers that did not answer, rather than hanging.
+ */
+public class DistributedCoordinator {
+
+    private static final double NANOS_PER_MS = 1_000_000.0;
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int CLOCK_SAMPLES = 8;
+    /** Default longest silence of a worker the coordinator is waiting on. */
+    public static final long DEFAULT_WORKER_TIMEOUT_MS = 300_000;
+    private static final List<String> PHASES = List.of("warmup", "measure");
+
+    /**
+     * What a worker reported.
+     *
+     * @param clockOffsetMs how far the worker's clock was ahead of the coordinator's
+     * @param roundTripMs the round trip time of the offset's estimate
+     * @param intervals the worker's measured intervals, in order
+     */
+    record WorkerRun(int shard, String address, double clockOffsetMs, double roundTripMs, LoadTestResult result,
+                     List<IntervalSnapshot> intervals) {}
+
+    /**
+     * A message from a worker, or the end of its connection.
+     */
+    private record Event(int worker, JsonNode message, String error) {}
+
+    private final LoadTestConfig config;
+    private final List<InetSocketAddress> workers;
+    private final List<String> arguments;
+    private final long workerTimeoutMs;
+
+    /**
+     * @param config the configuration every worker runs with
+     * @param workers the address of every worker
+     * @param arguments the command line arguments of each worker, without distribution options
+     */
+    public DistributedCoordinator(LoadTestConfig config, List<InetSocketAddress> workers, List<String> arguments) {
+        this(config, workers, arguments, DEFAULT_WORKER_TIMEOUT_MS);
+    }
+
+    /**
+     * @param config the configuration every worker runs with
+     * @param workers the address of every worker
+     * @param arguments the command line arguments of each worker, without distribution options
+     * @param workerTimeoutMs how long a worker being waited on may send nothing
+     */
+    public DistributedCoordinator(LoadTestConfig config, List<InetSocketAddress> workers, List<String> arguments,
+                                  long workerTimeoutMs) {
+        if (workerTimeoutMs <= 0) {
+            throw new IllegalArgumentException("Worker timeout must be positive: " + workerTimeoutMs);
+        }
+        this.config = config;
+        this.workers = List.copyOf(workers);
+        this.arguments = List.copyOf(arguments);
+        this.workerTimeoutMs = workerTimeoutMs;
+    }
+
+    /**
+     * Runs every shard and merges the workers' results.
+     *
+     * @throws IOException if a worker cannot be reached, fails, disconnects or times out
+     */
+    public LoadTestResult run() throws IOException {
+        ZonedDateTime startLocal = ZonedDateTime.now();
+        int count = workers.size();
+        List<DistributedConnection> connections = new ArrayList<>();
+        double[][] clocks = new double[count][];
+        LoadTestResult[] results = new LoadTestResult[count];
+        List<List<IntervalSnapshot>> intervals = new ArrayList<>();
+        String[] ready = new String[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                InetSocketAddress address = workers.get(i);
+                Socket socket = new Socket();
+                try {
+                    socket.connect(address, CONNECT_TIMEOUT_MS);
+                } catch (IOException e) {
+                    socket.close();
+                    throw new IOException("Cannot connect to worker " + describe(address) + ": " + e.getMessage(), e);
+                }
+                DistributedConnection connection = new DistributedConnection(socket);
+                connections.add(connection);
+                connection.setReceiveTimeout(workerTimeoutMs);
+                clocks[i] = clockOffset(connection, address);
+                // Silences while running are timed by await, not by the reader
+                connection.setReceiveTimeout(0);
+                intervals.add(new ArrayList<>());
+                System.out.println(String.format("Worker %d: %s, clock offset %+.3f ms (round trip %.3f ms)",
+                    i + 1, describe(address), clocks[i][0], clocks[i][1]));
+            }
+
+            BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+            long[] heardNs = new long[count];
+            for (int i = 0; i < count; i++) {
+                DistributedConnection connection = connections.get(i);
+                ObjectNode job = connection.message("job").put("shard", i).put("shards", count);
+                arguments.forEach(job.putArray("arguments")::add);
+                connection.send(job);
+                heardNs[i] = System.nanoTime();
+                startReader(i, connection, events);
+            }
+
+            Map<Integer, Integer> reported = new TreeMap<>();
+            for (String phase : PHASES) {
+                await(events, heardNs, worker -> phase.equals(ready[worker]), "to be ready for the " + phase + " phase",
+                    event -> handle(event, ready, results, intervals, reported));
+                System.out.println("All " + count + " workers ready, starting " + phase);
+                for (int i = 0; i < count; i++) {
+                    DistributedConnection connection = connections.get(i);
+                    connection.send(connection.message("start").put("phase", phase));
+                    heardNs[i] = System.nanoTime();
+                }
+            }
+            await(events, heardNs, worker -> results[worker] != null, "to send their results",
+                event -> handle(event, ready, results, intervals, reported));
+        } finally {
+            for (DistributedConnection connection : connections) {
+                connection.close();
+            }
+        }
+
+        List<WorkerRun> runs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            runs.add(new WorkerRun(i, describe(workers.get(i)), clocks[i][0], clocks[i][1], results[i],
+                intervals.get(i)));
+        }
+        return merge(config, runs, startLocal);
+    }
+
+    /**
+     * Estimates how far a worker's clock is ahead of this one, from the
+     * probe with the shortest round trip. Returns the offset and round trip
+     * in milliseconds.
+     */
+    private static double[] clockOffset(DistributedConnection connection, InetSocketAddress address)
+        throws IOException {
+        long bestRoundTripUs = Long.MAX_VALUE;
+        long bestOffsetUs = 0;
+        for (int sample = 0; sample < CLOCK_SAMPLES; sample++) {
+            long sentUs = DistributedConnection.wallClockMicros();
+            connection.send(connection.message("clock"));
+            JsonNode reply;
+            try {
+                reply = connection.receive();
+            } catch (SocketTimeoutException e) {
+                throw new IOException("Worker " + describe(address) + " did not answer the clock probe in time", e);
+            }
+            long receivedUs = DistributedConnection.wallClockMicros();
+            if (reply == null || !reply.has("workerTimeUs")) {
+                throw new IOException("Worker " + describe(address) + " did not answer the clock probe");
+            }
+            long roundTripUs = receivedUs - sentUs;
+            if (roundTripUs < bestRoundTripUs) {
+                bestRoundTripUs = roundTripUs;
+                bestOffsetUs = reply.get("workerTimeUs").asLong() - (sentUs + receivedUs) / 2;
+            }
+        }
+        return new double[] {bestOffsetUs / 1000.0, bestRoundTripUs / 1000.0};
+    }
+
+    private static void startReader(int worker, DistributedConnection connection, BlockingQueue<Event> events) {
+        Thread reader = new Thread(() -> {
+            try {
+                JsonNode message;
+                while ((message = connection.receive()) != null) {
+                    events.add(new Event(worker, message, null));
+                }
+                events.add(new Event(worker, null, "disconnected"));
+            } catch (IOException e) {
+                events.add(new Event(worker, null, e.getMessage()));
+            }
+        }, "worker-" + (worker + 1));
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @FunctionalInterface
+    private interface EventHandler {
+        void handle(Event event) throws IOException;
+    }
+
+    /**
+     * Handles events until every worker is done, failing once a worker that
+     * is not done has sent nothing for longer than the timeout allows.
+     *
+     * @param heardNs when each worker was last heard from, updated as events arrive
+     * @param done whether a worker is done
+     * @param awaited what is being waited for, for the error message
+     */
+    private void await(BlockingQueue<Event> events, long[] heardNs, IntPredicate done, String awaited,
+                       EventHandler handler) throws IOException {
+        long silenceNs = (workerTimeoutMs + config.metricsIntervalMs()) * 1_000_000L;
+        while (true) {
+            List<Integer> pending = IntStream.range(0, workers.size()).filter(w -> !done.test(w)).boxed().toList();
+            if (pending.isEmpty()) {
+                return;
+            }
+            long nowNs = System.nanoTime();
+            List<String> silent = pending.stream()
+                .filter(w -> nowNs - heardNs[w] >= silenceNs)
+                .map(this::name)
+                .toList();
+            if (!silent.isEmpty()) {
+                throw new IOException(String.join(", ", silent) + " sent nothing for "
+                    + String.format("%.1f", silenceNs / 1e9) + " s while the coordinator waited for workers "
+                    + awaited);
+            }
+            long waitNs = pending.stream().mapToLong(w -> heardNs[w] + silenceNs - nowNs).min().orElse(0L);
+            Event event;
+            try {
+                event = events.poll(waitNs, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for workers", e);
+            }
+            if (event != null) {
+                heardNs[event.worker()] = System.nanoTime();
+                handler.handle(event);
+            }
+        }
+    }
+
+    private String name(int worker) {
+        return "Worker " + (worker + 1) + " (" + describe(workers.get(worker)) + ")";
+    }
+
+    private void handle(Event event, String[] ready, LoadTestResult[] results,
+                        List<List<IntervalSnapshot>> intervals, Map<Integer, Integer> reported)
+        throws IOException {
+        int worker = event.worker();
+        String name = name(worker);
+        JsonNode message = event.message();
+        if (message == null) {
+            if (results[worker] == null) {
+                throw new IOException(name + " " + event.error() + " before sending its result");
+            }
+            return;
+        }
+        switch (message.path("type").asText()) {
+            case "ready" -> ready[worker] = message.path("phase").asText();
+            case "interval" -> {
+                IntervalSnapshot snapshot = ResultsJson.mapper()
+                    .treeToValue(message.path("snapshot"), IntervalSnapshot.class);
+                if ("measure".equals(snapshot.phase())) {
+                    intervals.get(worker).add(snapshot);
+                    int seen = reported.merge(snapshot.sequence(), 1, Integer::sum);
+                    if (seen == workers.size()) {
+                        printInterval(snapshot.sequence(), intervals);
+                    }
+                }
+            }
+            case "result" -> results[worker] = ResultsJson.readResult(message.path("document"), name, config);
+            case "error" -> throw new IOException(name + " failed: " + message.path("message").asText());
+            default -> throw new IOException("Unexpected message from " + name + ": " + message);
+        }
+    }
+
+    private static void printInterval(int sequence, List<List<IntervalSnapshot>> intervals) {
+        DistributedSummary.TimelinePoint point = timelinePoint(sequence, intervals);
+        System.out.println(String.format(
+            "  [%8.1fs] all workers %.0f evals/s  p50 %.6f ms  p99 %.6f ms  max %.6f ms",
+            point.endSec(), point.throughputEvalsPerSec(), point.p50Ms(), point.p99Ms(), point.maxMs()));
+    }
+
+    /**
+     * Merges the results of the workers: the histograms of each engine and
+     * class are added, expressions, evaluations, failures and throughputs
+     * summed over the shards, and the wall clock time is the longest
+     * worker's.
+     */
+    static LoadTestResult merge(LoadTestConfig config, List<WorkerRun> runs, ZonedDateTime startLocal) {
+        Map<String, Map<Integer, ClassMerge>> engines = new LinkedHashMap<>();
+        Map<String, double[]> engineTotals = new LinkedHashMap<>();
+        Map<String, Boolean> preparation = new LinkedHashMap<>();
+        List<FailedEvaluation> failures = new ArrayList<>();
+        List<DistributedSummary.Worker> workers = new ArrayList<>();
+        long totalEvaluations = 0;
+        double totalTimeMs = 0.0;
+        double wallClockMs = 0.0;
+        double throughput = 0.0;
+        double loadTimeMs = 0.0;
+        long corpusHeapBytes = 0;
+        int threads = 0;
+        long gcCount = 0;
+        long gcTimeMs = 0;
+        String primary = runs.get(0).result().engineResults().get(0).engine();
+
+        for (WorkerRun run : runs) {
+            LoadTestResult result = run.result();
+            for (EngineResult engine : result.engineResults()) {
+                Map<Integer, ClassMerge> classes = engines.computeIfAbsent(engine.engine(), n -> new TreeMap<>());
+                for (ClassStatistics stats : engine.classStats()) {
+                    classes.computeIfAbsent(stats.complexity(), c -> new ClassMerge()).add(stats);
+                }
+                double[] totals = engineTotals.computeIfAbsent(engine.engine(), n -> new double[4]);
+                totals[0] += engine.totalEvaluations();
+                totals[1] += engine.totalTimeMs();
+                totals[2] += engine.throughputEvalsPerSec();
+                totals[3] += engine.failedEvaluations();
+                preparation.put(engine.engine(), engine.preparationSupported());
+            }
+            failures.addAll(result.failures());
+
+            OverallStatistics overall = result.overallStats();
+            totalEvaluations += overall.totalEvaluations();
+            totalTimeMs += overall.totalExecutionTimeMs();
+            wallClockMs = Math.max(wallClockMs, overall.wallClockTimeMs());
+            throughput += overall.throughputEvalsPerSec();
+            loadTimeMs = Math.max(loadTimeMs, overall.loadTimeMs());
+            corpusHeapBytes = (corpusHeapBytes < 0 || overall.corpusHeapBytes() < 0)
+                ? -1L : corpusHeapBytes + overall.corpusHeapBytes();
+            threads += overall.threads();
+            gcCount += overall.gcCount();
+            gcTimeMs += overall.gcTimeMs();
+
+            LatencyHistogram latencies = new LatencyHistogram();
+            result.engineResults().stream()
+                .filter(engine -> primary.equals(engine.engine()))
+                .flatMap(engine -> engine.classStats().stream())
+                .forEach(stats -> latencies.add(stats.histogram()));
+            workers.add(new DistributedSummary.Worker(run.shard(), run.address(), overall.totalUniqueExpressions(),
+                overall.totalEvaluations(), overall.wallClockTimeMs(), overall.throughputEvalsPerSec(),
+                latencies.getValueAtPercentile(50.0) / NANOS_PER_MS,
+                latencies.getValueAtPercentile(99.0) / NANOS_PER_MS,
+                overall.failedEvaluations(), overall.gcCount(), run.clockOffsetMs(), run.roundTripMs()));
+        }
+
+        List<EngineResult> engineResults = new ArrayList<>();
+        for (Map.Entry<String, Map<Integer, ClassMerge>> engine : engines.entrySet()) {
+            String name = engine.getKey();
+            List<ClassStatistics> classStats = new ArrayList<>();
+            for (Map.Entry<Integer, ClassMerge> entry : engine.getValue().entrySet()) {
+                classStats.add(entry.getValue().statistics(entry.getKey(), true));
+            }
+            double[] totals = engineTotals.get(name);
+            engineResults.add(new EngineResult(name, classStats, (long) totals[0], totals[1], totals[2],
+                (int) totals[3], List.of(), null, preparation.get(name), null, null));
+        }
+        List<ClassStatistics> classStats = engineResults.get(0).classStats();
+
+        List<List<IntervalSnapshot>> intervals = runs.stream().map(WorkerRun::intervals).toList();
+        List<DistributedSummary.TimelinePoint> timeline = intervals.stream()
+            .flatMap(List::stream)
+            .map(IntervalSnapshot::sequence)
+            .distinct()
+            .sorted()
+            .map(sequence -> timelinePoint(sequence, intervals))
+            .toList();
+
+        OverallStatistics first = runs.get(0).result().overallStats();
+        OverallStatistics overall = new OverallStatistics(
+            first.inputFilePath(),
+            first.corpusFormat(),
+            loadTimeMs,
+            corpusHeapBytes,
+            startLocal,
+            startLocal.withZoneSameInstant(ZoneId.of("UTC")),
+            first.iterations(),
+            threads,
+            first.virtualThreads(),
+            classStats.stream().mapToInt(ClassStatistics::uniqueExpressions).sum(),
+            totalEvaluations,
+            totalTimeMs,
+            wallClockMs,
+            throughput,
+            failures.size(),
+            gcCount,
+            gcTimeMs,
+            first.timer()
+        );
+
+        return new LoadTestResult(overall, classStats, failures, runs.get(0).result().warmup(), engineResults,
+            config.grouping(), config.arrivals(), config.workload(), null, null, null,
+            new DistributedSummary(config.metricsIntervalMs(), workers, timeline));
+    }
+
+    /**
+     * Merges the snapshots the workers reported for one interval of the
+     * measured phase, over the latencies of their first engine. Each
+     * worker's throughput is taken over its own interval, so the workers'
+     * clocks never need to agree.
+     *
+     * @param intervals the measured intervals of each worker
+     */
+    static DistributedSummary.TimelinePoint timelinePoint(int sequence, List<List<IntervalSnapshot>> intervals) {
+        LatencyHistogram all = new LatencyHistogram();
+        List<Long> workerEvaluations = new ArrayList<>();
+        double throughput = 0.0;
+        double startSec = 0.0;
+        double endSec = 0.0;
+        int reported = 0;
+        for (List<IntervalSnapshot> worker : intervals) {
+            IntervalSnapshot snapshot = worker.stream()
+                .filter(s -> s.sequence() == sequence)
+                .findFirst()
+                .orElse(null);
+            if (snapshot == null) {
+                workerEvaluations.add(0L);
+                continue;
+            }
+            LatencyHistogram latencies = snapshot.all(snapshot.latencies().keySet().stream().findFirst().orElse(""));
+            all.add(latencies);
+            workerEvaluations.add(latencies.getTotalCount());
+            double lengthSec = snapshot.endSec() - snapshot.startSec();
+            if (lengthSec > 0) {
+                throughput += latencies.getTotalCount() / lengthSec;
+            }
+            startSec += snapshot.startSec();
+            endSec += snapshot.endSec();
+            reported++;
+        }
+        int n = Math.max(1, reported);
+        return new DistributedSummary.TimelinePoint(sequence, startSec / n, endSec / n, all.getTotalCount(),
+            throughput, all.getValueAtPercentile(50.0) / NANOS_PER_MS,
+            all.getValueAtPercentile(99.0) / NANOS_PER_MS, all.getMaxNs() / NANOS_PER_MS, workerEvaluations);
+    }
+
+    private static String describe(InetSocketAddress address) {
+        return address.getHostString() + ":" + address.getPort();
+    }
+}
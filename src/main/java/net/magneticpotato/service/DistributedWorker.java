@@ -0,0 +1,171 @@
+package net.magneticpotato.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import net.magneticpotato.model.IntervalSnapshot;
+import net.magneticpotato.model.LoadTestResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves the shards of distributed runs. The worker listens for a
+ * {@link DistributedCoordinator}, answers its clock probes, and receives a
+ * job: the run's command line arguments and the shard of the corpus to run.
+ * It loads and classifies its shard itself, then reports ready before the
+ * warmup and the measured phase and waits for the coordinator to start each
+ * one, so all workers move through the phases in lock step. Interval
+ * metrics are sent as they are reported, the result when the run ends.
+ * <p>
+ * Connections are served one at a time, until the worker is closed.
+ */
+public class DistributedWorker implements AutoCloseable {
+
+    /**
+     * A shard of a run.
+     *
+     * @param arguments the run's command line arguments
+     * @param shard the index of the shard, from 0
+     * @param shards the number of shards
+     */
+    public record Job(List<String> arguments, int shard, int shards) {}
+
+    /**
+     * Runs the shard of a job.
+     */
+    @FunctionalInterface
+    public interface JobRunner {
+        /**
+         * @param listener to set on the {@link LoadTester} that runs the shard
+         */
+        LoadTestResult run(Job job, RunListener listener) throws IOException;
+    }
+
+    /** How long a connected coordinator may take to send its job. */
+    private static final int HANDSHAKE_TIMEOUT_MS = 60_000;
+
+    private final ServerSocket server;
+
+    /**
+     * Binds the worker; it does not accept coordinators until {@link #serve}.
+     *
+     * @param address the address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public DistributedWorker(InetSocketAddress address) throws IOException {
+        this.server = new ServerSocket();
+        server.bind(address);
+    }
+
+    /**
+     * Returns the port the worker listens on.
+     */
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Serves coordinators until the worker is closed. A failed job is
+     * reported to its coordinator and does not stop the worker.
+     *
+     * @throws IOException if accepting a connection fails
+     */
+    public void serve(JobRunner runner) throws IOException {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (server.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            try (DistributedConnection connection = new DistributedConnection(socket)) {
+                System.out.println("Coordinator connected from " + connection.remoteAddress());
+                handle(connection, runner);
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Coordinator connection failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void handle(DistributedConnection connection, JobRunner runner) throws IOException {
+        // A coordinator that stops before sending its job must not hold the worker
+        connection.setReceiveTimeout(HANDSHAKE_TIMEOUT_MS);
+        JsonNode message;
+        while ((message = connection.receive()) != null) {
+            switch (message.path("type").asText()) {
+                case "clock" -> connection.send(connection.message("clock")
+                    .put("workerTimeUs", DistributedConnection.wallClockMicros()));
+                case "job" -> {
+                    connection.setReceiveTimeout(0);
+                    List<String> arguments = new ArrayList<>();
+                    message.path("arguments").forEach(argument -> arguments.add(argument.asText()));
+                    Job job = new Job(arguments, message.path("shard").asInt(), message.path("shards").asInt());
+                    System.out.println("Running shard " + (job.shard() + 1) + " of " + job.shards());
+                    LoadTestResult result;
+                    try {
+                        result = runner.run(job, new Listener(connection));
+                    } catch (Exception e) {
+                        connection.send(connection.message("error").put("message", String.valueOf(e.getMessage())));
+                        throw new IOException("Shard " + (job.shard() + 1) + " failed: " + e.getMessage(), e);
+                    }
+                    ObjectNode reply = connection.message("result");
+                    reply.set("document", connection.mapper().valueToTree(ResultsJson.document(result)));
+                    connection.send(reply);
+                    System.out.println("Shard " + (job.shard() + 1) + " of " + job.shards() + " done");
+                    return;
+                }
+                default -> throw new IOException("Unexpected message from coordinator: " + message);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Holds the run at each phase until the coordinator starts it, and
+     * forwards interval metrics.
+     */
+    private static final class Listener implements RunListener {
+        private final DistributedConnection connection;
+
+        Listener(DistributedConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void beforePhase(String phase) {
+            try {
+                connection.send(connection.message("ready").put("phase", phase));
+                JsonNode start = connection.receive();
+                if (start == null || !"start".equals(start.path("type").asText())
+                    || !phase.equals(start.path("phase").asText())) {
+                    throw new IOException("Coordinator did not start the " + phase + " phase");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void interval(IntervalSnapshot snapshot) {
+            ObjectNode message = connection.message("interval");
+            message.set("snapshot", connection.mapper().valueToTree(snapshot));
+            try {
+                connection.send(message);
+            } catch (IOException e) {
+                System.err.println("Failed to send interval metrics: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package net.magneticpotato.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one sampled evaluation. Its duration covers
+ * the evaluation, so CPU samples taken on the same thread within it can be
+ * attributed to the expression's class.
+ */
+@Name(EvaluationEvent.NAME)
+@Label("SQL Expression Evaluation")
+@Description("One sampled evaluation of the load tester")
+@Category("SQL Expression Load Test")
+@StackTrace(false)
+final class EvaluationEvent extends jdk.jfr.Event {
+
+    static final String NAME = "net.magneticpotato.Evaluation";
+
+    @Label("Expression Hash")
+    int expressionHash;
+
+    @Label("Class")
+    int classId;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
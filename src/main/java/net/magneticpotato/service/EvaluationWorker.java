@@ -0,0 +1,676 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassTimings;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ExpressionProfile;
+import net.magneticpotato.model.FailedEvaluation;
+import net.magneticpotato.model.IntervalRecorder;
+import net.magneticpotato.model.LatencyRegression;
+import net.magneticpotato.model.LoadTestConfig;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A single load generating worker. Each worker owns its timing accumulators
+ * and failure list so the measurement path never touches shared mutable
+ * state; the results are merged by {@link LoadTester} once the run ends.
+ * <p>
+ * When several engines are compared, each expression is evaluated by every
+ * engine in turn, rotating which engine goes first so none of them
+ * systematically benefits from caches warmed by another.
+ * <p>
+ * With an {@link ArrivalSchedule} each evaluation first waits for its
+ * scheduled start, and its response time is measured from that start in
+ * addition to its service time.
+ * <p>
+ * While the run is flight recorded, one evaluation in every
+ * {@code jfrSampleEvery} is wrapped in an {@link EvaluationEvent}; the
+ * event is created and committed outside the timed region. Allocated
+ * bytes are likewise read before and after the timed region of one
+ * evaluation in every {@code allocationSampleEvery}.
+ * <p>
+ * A materialised corpus is walked through its {@link ExecutionPlan}. When
+ * no per-evaluation instrumentation is enabled, each batch is first timed
+ * in a tight loop that only calls {@code nanoTime}, {@code match} and
+ * {@code nanoTime} and stores the durations in preallocated buffers; the
+ * durations are recorded once the batch is done. In steady state this
+ * path allocates nothing. With a {@code timingBatch} above 1, runs of up
+ * to that many consecutive expressions of one class are timed with a
+ * single timer pair instead, and recorded as their per-operation mean.
+ * Results are consumed by a {@link Blackhole} either way.
+ */
+class EvaluationWorker {
+
+    /** Number of expressions handed to a worker at a time. */
+    static final int CHUNK_SIZE = 64;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final List<ExpressionEvaluator> engines;
+    private final ExpressionEvaluator[] evaluators;
+    private final List<Set<String>> failedExpressions;
+    private final boolean splitTiming;
+    private final List<ExpressionCache<PreparedExpression>> caches;
+    private List<Map<Integer, ClassTimings>> classTimings;
+    private final List<LatencyRegression> regressions;
+    private final List<IntervalRecorder> intervalRecorders;
+    private final List<FailedEvaluation> failedEvaluations;
+    private ArrivalSchedule schedule;
+    private boolean hasDeadline;
+    private long deadlineNs;
+    private int jfrSampleEvery;
+    private int jfrCountdown;
+    private final int allocationSampleEvery;
+    private final int timingBatch;
+    private final Blackhole blackhole = new Blackhole();
+    private int allocationCountdown;
+    /** Timings of the current plan's class slots, per engine, resolved as the slots are first used. */
+    private ClassTimings[][] slotTimings;
+    private ExecutionPlan slotPlan;
+    /** Buffers of one timed batch: plan index, engine, duration and reportable failure of each evaluation. */
+    private int[] batchIndices;
+    private int[] batchEngines;
+    private long[] batchDurations;
+    private Exception[] batchErrors;
+    private boolean[] batchFailed;
+    private int[] batchCounts;
+    private int[] batchFailures;
+    /** The expressions of the run being timed by {@link #timeGroups}. */
+    private ExpressionData[] runData;
+
+    /**
+     * @param config the run configuration
+     * @param failedExpressions per-engine concurrent sets of expressions that already failed
+     * @param caches per-engine shared compiled-expression caches, or null without caching
+     */
+    EvaluationWorker(LoadTestConfig config, List<Set<String>> failedExpressions,
+                     List<ExpressionCache<PreparedExpression>> caches) {
+        this.engines = config.engines();
+        this.evaluators = engines.toArray(new ExpressionEvaluator[0]);
+        this.failedExpressions = failedExpressions;
+        this.splitTiming = config.splitTiming();
+        this.caches = caches;
+        this.classTimings = newClassTimings(engines.size());
+        this.failedEvaluations = new ArrayList<>();
+        if (config.regression()) {
+            this.regressions = new ArrayList<>(engines.size());
+            for (int i = 0; i < engines.size(); i++) {
+                regressions.add(new LatencyRegression());
+            }
+        } else {
+            this.regressions = null;
+        }
+        this.allocationSampleEvery = config.allocationSampleEvery();
+        this.timingBatch = config.timingBatch();
+        this.allocationCountdown = allocationSampleEvery;
+        if (allocationSampleEvery > 0) {
+            if (!THREADS.isThreadAllocatedMemorySupported()) {
+                throw new IllegalStateException("This JVM cannot measure allocated bytes per thread");
+            }
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+        if (config.liveMetrics()) {
+            this.intervalRecorders = new ArrayList<>(engines.size());
+            for (int i = 0; i < engines.size(); i++) {
+                intervalRecorders.add(new IntervalRecorder());
+            }
+        } else {
+            this.intervalRecorders = null;
+        }
+    }
+
+    /**
+     * Evaluates batches taken from the shared source until the current
+     * pass over the corpus is exhausted, or the deadline, checked between
+     * batches, has passed.
+     *
+     * @param source the batches of this pass
+     */
+    void runPass(BatchSource source) {
+        if (source instanceof ListBatchSource planned) {
+            runPlanned(planned);
+            return;
+        }
+        int engineCount = engines.size();
+        ExpressionBatch batch;
+        while (!(hasDeadline && System.nanoTime() - deadlineNs >= 0) && (batch = source.nextBatch()) != null) {
+            List<ExpressionData> expressions = batch.expressions();
+            int[] classes = batch.classes();
+            ExpressionProfile[] profiles = (regressions == null) ? null : batch.profiles();
+            for (int i = batch.start(); i < batch.end(); i++) {
+                ExpressionData expr = expressions.get(i);
+                int classId = classes[i];
+                ExpressionProfile profile = (profiles == null) ? null : profiles[i];
+
+                for (int k = 0; k < engineCount; k++) {
+                    int engine = (i + k) % engineCount;
+
+                    // Skip if this expression has already failed on this engine
+                    if (failedExpressions.get(engine).contains(expr.expr())) {
+                        continue;
+                    }
+
+                    ClassTimings timings = classTimings.get(engine).computeIfAbsent(classId, c -> new ClassTimings());
+                    Exception failure = evaluate(engine, expr, classId, profile, timings);
+                    if (failure != null && failedExpressions.get(engine).add(expr.expr())) {
+                        reportFailure(engine, expr, failure);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the batches of a compiled corpus until the pass is exhausted
+     * or the deadline, checked between batches, has passed.
+     */
+    private void runPlanned(ListBatchSource source) {
+        ExecutionPlan plan = source.plan();
+        if (slotPlan != plan) {
+            slotPlan = plan;
+            slotTimings = null;
+        }
+        boolean tight = !splitTiming && schedule == null && jfrSampleEvery == 0 && allocationSampleEvery == 0;
+        if (tight && (batchDurations == null || batchDurations.length < source.batchSize() * evaluators.length)) {
+            int capacity = source.batchSize() * evaluators.length;
+            batchIndices = new int[capacity];
+            batchEngines = new int[capacity];
+            batchDurations = new long[capacity];
+            batchErrors = new Exception[capacity];
+            batchFailed = new boolean[capacity];
+            batchCounts = new int[capacity];
+            batchFailures = new int[capacity];
+            runData = new ExpressionData[source.batchSize()];
+        }
+
+        int engineCount = evaluators.length;
+        int start;
+        while (!(hasDeadline && System.nanoTime() - deadlineNs >= 0) && (start = source.claim()) >= 0) {
+            int end = source.end(start);
+            if (tight && timingBatch > 1) {
+                recordGroups(plan, timeGroups(plan, source, start, end));
+                continue;
+            }
+            if (tight) {
+                recordBatch(plan, timeBatch(plan, source, start, end));
+                continue;
+            }
+            for (int p = start; p < end; p++) {
+                int index = source.index(p);
+                int slot = plan.slot(index);
+                for (int k = 0; k < engineCount; k++) {
+                    int engine = (p + k) % engineCount;
+                    if (plan.hasFailed(engine, index)) {
+                        continue;
+                    }
+                    ExpressionProfile profile = (regressions == null) ? null : plan.profile(index);
+                    Exception failure = evaluate(engine, plan.data(index), plan.classId(slot), profile,
+                        slotTimings(plan, engine, slot));
+                    if (failure != null && plan.markFailed(engine, index)) {
+                        reportFailure(engine, plan.data(index), failure);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Times every evaluation of a batch into the batch buffers, and nothing else.
+     *
+     * @return the number of evaluations timed
+     */
+    private int timeBatch(ExecutionPlan plan, ListBatchSource source, int start, int end) {
+        ExpressionEvaluator[] evaluators = this.evaluators;
+        int engineCount = evaluators.length;
+        long[] durations = batchDurations;
+        int n = 0;
+        for (int p = start; p < end; p++) {
+            int index = source.index(p);
+            String expression = plan.expression(index);
+            Map<String, Object> bindings = plan.bindings(index);
+            for (int k = 0; k < engineCount; k++) {
+                int engine = (engineCount == 1) ? 0 : (p + k) % engineCount;
+                if (plan.hasFailed(engine, index)) {
+                    continue;
+                }
+                ExpressionEvaluator evaluator = evaluators[engine];
+                long startNs = System.nanoTime();
+                try {
+                    boolean result = evaluator.match(expression, bindings);
+                    durations[n] = System.nanoTime() - startNs;
+                    blackhole.consume(result);
+                    batchFailed[n] = false;
+                } catch (Exception e) {
+                    durations[n] = System.nanoTime() - startNs;
+                    batchFailed[n] = true;
+                    batchErrors[n] = plan.markFailed(engine, index) ? e : null;
+                }
+                batchIndices[n] = index;
+                batchEngines[n] = engine;
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Records the first {@code n} evaluations in the batch buffers.
+     */
+    private void recordBatch(ExecutionPlan plan, int n) {
+        for (int j = 0; j < n; j++) {
+            int index = batchIndices[j];
+            int engine = batchEngines[j];
+            int slot = plan.slot(index);
+            long durationNs = batchDurations[j];
+            slotTimings(plan, engine, slot).addTiming(durationNs);
+            recordInterval(engine, plan.classId(slot), durationNs, batchFailed[j]);
+            if (batchFailed[j]) {
+                if (batchErrors[j] != null) {
+                    reportFailure(engine, plan.data(index), batchErrors[j]);
+                    batchErrors[j] = null;
+                }
+            } else if (regressions != null) {
+                regressions.get(engine).add(plan.profile(index), durationNs);
+            }
+        }
+    }
+
+    /**
+     * Times runs of up to {@code timingBatch} consecutive expressions of one
+     * class with one timer pair per run and engine, into the batch buffers.
+     * A failure is reported where it happens; its time stays in the run.
+     *
+     * @return the number of runs timed
+     */
+    private int timeGroups(ExecutionPlan plan, ListBatchSource source, int start, int end) {
+        ExpressionEvaluator[] evaluators = this.evaluators;
+        int engineCount = evaluators.length;
+        int groups = 0;
+        int p = start;
+        while (p < end) {
+            int first = source.index(p);
+            int slot = plan.slot(first);
+            int runEnd = p + 1;
+            while (runEnd < end && runEnd - p < timingBatch && plan.slot(source.index(runEnd)) == slot) {
+                runEnd++;
+            }
+            // Resolved before the timer starts, as a mapped corpus decodes records on access
+            for (int q = p; q < runEnd; q++) {
+                runData[q - p] = plan.data(source.index(q));
+            }
+
+            for (int k = 0; k < engineCount; k++) {
+                int engine = (engineCount == 1) ? 0 : (p + k) % engineCount;
+                ExpressionEvaluator evaluator = evaluators[engine];
+                int count = 0;
+                int failures = 0;
+                long startNs = System.nanoTime();
+                for (int q = p; q < runEnd; q++) {
+                    int index = source.index(q);
+                    if (plan.hasFailed(engine, index)) {
+                        continue;
+                    }
+                    ExpressionData expr = runData[q - p];
+                    try {
+                        blackhole.consume(evaluator.match(expr.expr(), expr.value_map()));
+                    } catch (Exception e) {
+                        failures++;
+                        if (plan.markFailed(engine, index)) {
+                            reportFailure(engine, expr, e);
+                        }
+                    }
+                    count++;
+                }
+                long elapsedNs = System.nanoTime() - startNs;
+                if (count > 0) {
+                    batchIndices[groups] = first;
+                    batchEngines[groups] = engine;
+                    batchDurations[groups] = elapsedNs;
+                    batchCounts[groups] = count;
+                    batchFailures[groups] = failures;
+                    groups++;
+                }
+            }
+            p = runEnd;
+        }
+        return groups;
+    }
+
+    /**
+     * Records the first {@code groups} runs in the batch buffers.
+     */
+    private void recordGroups(ExecutionPlan plan, int groups) {
+        for (int j = 0; j < groups; j++) {
+            int engine = batchEngines[j];
+            int slot = plan.slot(batchIndices[j]);
+            int count = batchCounts[j];
+            slotTimings(plan, engine, slot).addBatchTiming(batchDurations[j], count);
+            if (intervalRecorders != null) {
+                long perOpNs = batchDurations[j] / count;
+                for (int c = 0; c < count; c++) {
+                    recordInterval(engine, plan.classId(slot), perOpNs, c < batchFailures[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the timings of a class slot of the current plan on an engine.
+     */
+    private ClassTimings slotTimings(ExecutionPlan plan, int engine, int slot) {
+        if (slotTimings == null) {
+            slotTimings = new ClassTimings[evaluators.length][plan.classCount()];
+        }
+        ClassTimings timings = slotTimings[engine][slot];
+        if (timings == null) {
+            timings = classTimings.get(engine).computeIfAbsent(plan.classId(slot), c -> new ClassTimings());
+            slotTimings[engine][slot] = timings;
+        }
+        return timings;
+    }
+
+    /**
+     * Waits for the scheduled start, if any, and evaluates an expression
+     * on one engine, recording its timing.
+     *
+     * @return the exception the evaluation failed with, or null
+     */
+    private Exception evaluate(int engine, ExpressionData expr, int classId, ExpressionProfile profile,
+                               ClassTimings timings) {
+        long intendedNs = (schedule == null) ? 0L : schedule.awaitNext();
+        return splitTiming
+            ? evaluatePrepared(engine, expr, classId, profile, intendedNs, timings)
+            : evaluateExpression(engine, expr, classId, profile, intendedNs, timings);
+    }
+
+    /**
+     * Evaluates a single expression on one engine and records timing.
+     *
+     * @param engine index of the engine
+     * @param expr the expression to evaluate
+     * @param classId the expression's class
+     * @param profile the expression's profile, or null when no regression is recorded
+     * @param intendedNs the scheduled start time, only used with a schedule
+     * @param timings the class's timings on the engine
+     * @return the exception the evaluation failed with, or null
+     */
+    private Exception evaluateExpression(int engine, ExpressionData expr, int classId, ExpressionProfile profile,
+                                         long intendedNs, ClassTimings timings) {
+        ExpressionEvaluator evaluator = engines.get(engine);
+
+        EvaluationEvent event = beginEvent();
+        long allocatedBefore = allocatedBytesIfSampled();
+        long startNs = System.nanoTime();
+        try {
+            boolean result = evaluator.match(expr.expr(), expr.value_map());
+            long endNs = System.nanoTime();
+            blackhole.consume(result);
+            recordAllocation(timings, allocatedBefore);
+            commitEvent(event, evaluator, expr, classId, true);
+
+            timings.addTiming(endNs - startNs);
+            recordInterval(engine, classId, endNs - startNs, false);
+            recordResponse(timings, intendedNs, endNs);
+            if (profile != null) {
+                regressions.get(engine).add(profile, endNs - startNs);
+            }
+            return null;
+
+        } catch (Exception e) {
+            long endNs = System.nanoTime();
+            recordAllocation(timings, allocatedBefore);
+            commitEvent(event, evaluator, expr, classId, false);
+
+            // Record timing even for failures
+            timings.addTiming(endNs - startNs);
+            recordInterval(engine, classId, endNs - startNs, true);
+            recordResponse(timings, intendedNs, endNs);
+            return e;
+        }
+    }
+
+    /**
+     * Evaluates a single expression in two timed phases: obtaining the
+     * prepared expression (from the cache when one is configured, otherwise
+     * by preparing it) and evaluating it against the bindings. The end to end
+     * time, including the cache lookup, is recorded as the evaluation timing.
+     *
+     * @param engine index of the engine
+     * @param expr the expression to evaluate
+     * @param classId the expression's class
+     * @param profile the expression's profile, or null when no regression is recorded
+     * @param intendedNs the scheduled start time, only used with a schedule
+     * @param timings the class's timings on the engine
+     * @return the exception the evaluation failed with, or null
+     */
+    private Exception evaluatePrepared(int engine, ExpressionData expr, int classId, ExpressionProfile profile,
+                                       long intendedNs, ClassTimings timings) {
+        ExpressionEvaluator evaluator = engines.get(engine);
+        ExpressionCache<PreparedExpression> cache = (caches == null) ? null : caches.get(engine);
+
+        EvaluationEvent event = beginEvent();
+        long allocatedBefore = allocatedBytesIfSampled();
+        long startNs = System.nanoTime();
+        long evalStartNs = startNs;
+        try {
+            PreparedExpression prepared = (cache == null) ? null : cache.get(expr.expr());
+            if (prepared == null) {
+                long parseStartNs = System.nanoTime();
+                prepared = evaluator.prepare(expr.expr());
+                evalStartNs = System.nanoTime();
+                timings.addParseTiming(evalStartNs - parseStartNs);
+                if (cache != null) {
+                    cache.put(expr.expr(), prepared);
+                    timings.recordCacheMiss();
+                }
+            } else {
+                evalStartNs = System.nanoTime();
+                timings.recordCacheHit();
+            }
+
+            boolean result = prepared.evaluate(expr.value_map());
+            long endNs = System.nanoTime();
+            blackhole.consume(result);
+            recordAllocation(timings, allocatedBefore);
+            commitEvent(event, evaluator, expr, classId, true);
+
+            timings.addEvalTiming(endNs - evalStartNs);
+            timings.addTiming(endNs - startNs);
+            recordInterval(engine, classId, endNs - startNs, false);
+            recordResponse(timings, intendedNs, endNs);
+            if (profile != null) {
+                regressions.get(engine).add(profile, endNs - startNs);
+            }
+            return null;
+
+        } catch (Exception e) {
+            long endNs = System.nanoTime();
+            recordAllocation(timings, allocatedBefore);
+            commitEvent(event, evaluator, expr, classId, false);
+
+            // Record timing even for failures
+            timings.addTiming(endNs - startNs);
+            recordInterval(engine, classId, endNs - startNs, true);
+            recordResponse(timings, intendedNs, endNs);
+            return e;
+        }
+    }
+
+    /**
+     * Begins an evaluation event when this evaluation is sampled for the
+     * flight recording, otherwise returns null.
+     */
+    private EvaluationEvent beginEvent() {
+        if (jfrSampleEvery == 0 || --jfrCountdown > 0) {
+            return null;
+        }
+        jfrCountdown = jfrSampleEvery;
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits a sampled evaluation event; does nothing for null.
+     */
+    private static void commitEvent(EvaluationEvent event, ExpressionEvaluator evaluator, ExpressionData expr,
+                                    int classId, boolean succeeded) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.expressionHash = expr.expr().hashCode();
+            event.classId = classId;
+            event.engine = evaluator.name();
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the bytes the current thread has allocated so far when this
+     * evaluation's allocations are sampled, otherwise -1.
+     */
+    private long allocatedBytesIfSampled() {
+        if (allocationSampleEvery == 0 || --allocationCountdown > 0) {
+            return -1L;
+        }
+        allocationCountdown = allocationSampleEvery;
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Records the bytes allocated since a sampled evaluation started; does
+     * nothing when it was not sampled or the thread cannot be measured.
+     */
+    private static void recordAllocation(ClassTimings timings, long allocatedBefore) {
+        if (allocatedBefore < 0) {
+            return;
+        }
+        long allocatedAfter = THREADS.getCurrentThreadAllocatedBytes();
+        if (allocatedAfter >= allocatedBefore) {
+            timings.addAllocation(allocatedAfter - allocatedBefore);
+        }
+    }
+
+    /**
+     * Records a timing for the live interval metrics, when they are enabled.
+     */
+    private void recordInterval(int engine, int classId, long durationNs, boolean failed) {
+        if (intervalRecorders != null) {
+            intervalRecorders.get(engine).record(classId, durationNs, failed);
+        }
+    }
+
+    /**
+     * Records the response time of a scheduled evaluation.
+     */
+    private void recordResponse(ClassTimings timings, long intendedNs, long endNs) {
+        if (schedule != null) {
+            timings.addResponseTiming(endNs - intendedNs);
+        }
+    }
+
+    /**
+     * Reports the first failure of an expression on an engine; the caller
+     * has already marked it failed, so no other worker reports it.
+     */
+    private void reportFailure(int engine, ExpressionData expr, Exception e) {
+        failedEvaluations.add(new FailedEvaluation(
+            expr.expr(),
+            expr.value_map(),
+            e.getClass().getSimpleName() + ": " + e.getMessage(),
+            engines.get(engine).name()
+        ));
+    }
+
+    /**
+     * Sets the schedule that later passes follow, or null to run closed
+     * loop. Must only be called between passes.
+     */
+    void setSchedule(ArrivalSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    /**
+     * Sets the time, in {@link System#nanoTime()} units, after which passes
+     * stop taking batches. Must only be called between passes.
+     */
+    void setDeadline(long deadlineNs) {
+        this.hasDeadline = true;
+        this.deadlineNs = deadlineNs;
+    }
+
+    /**
+     * Emits an evaluation event for one evaluation in every {@code sampleEvery},
+     * or none for 0. Must only be called between passes.
+     */
+    void setJfrSampling(int sampleEvery) {
+        this.jfrSampleEvery = sampleEvery;
+        this.jfrCountdown = sampleEvery;
+    }
+
+    /**
+     * Returns the recorded timings, one map per engine.
+     */
+    List<Map<Integer, ClassTimings>> getClassTimings() {
+        return classTimings;
+    }
+
+    /**
+     * Returns the latency regression accumulators, one per engine, or null
+     * when no regression is recorded.
+     */
+    List<LatencyRegression> getRegressions() {
+        return regressions;
+    }
+
+    /**
+     * Returns the live interval recorders, one per engine, or null when
+     * live metrics are disabled.
+     */
+    List<IntervalRecorder> getIntervalRecorders() {
+        return intervalRecorders;
+    }
+
+    /**
+     * Hands back the timings recorded so far and starts recording into
+     * fresh maps; regression observations are discarded. Must only be
+     * called between passes.
+     */
+    List<Map<Integer, ClassTimings>> swapClassTimings() {
+        List<Map<Integer, ClassTimings>> recorded = classTimings;
+        classTimings = newClassTimings(engines.size());
+        slotTimings = null;
+        if (regressions != null) {
+            regressions.forEach(LatencyRegression::reset);
+        }
+        return recorded;
+    }
+
+    /**
+     * Returns the sink that consumed this worker's evaluation results.
+     */
+    Blackhole getBlackhole() {
+        return blackhole;
+    }
+
+    List<FailedEvaluation> getFailedEvaluations() {
+        return failedEvaluations;
+    }
+
+    private static List<Map<Integer, ClassTimings>> newClassTimings(int engineCount) {
+        List<Map<Integer, ClassTimings>> maps = new ArrayList<>(engineCount);
+        for (int i = 0; i < engineCount; i++) {
+            maps.add(new TreeMap<>());
+        }
+        return maps;
+    }
+}
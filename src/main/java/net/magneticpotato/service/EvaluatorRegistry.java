@@ -0,0 +1,50 @@
+package net.magneticpotato.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Discovers {@link ExpressionEvaluator} implementations on the classpath.
+ */
+public class EvaluatorRegistry {
+
+    /**
+     * Returns all discoverable engines keyed by name, in discovery order.
+     */
+    public static Map<String, ExpressionEvaluator> discover() {
+        Map<String, ExpressionEvaluator> engines = new LinkedHashMap<>();
+        for (ExpressionEvaluator engine : ServiceLoader.load(ExpressionEvaluator.class)) {
+            engines.putIfAbsent(engine.name(), engine);
+        }
+        // The default engine is always available, even when service files were not merged
+        engines.putIfAbsent(CongoccEvaluator.NAME, new CongoccEvaluator());
+        return engines;
+    }
+
+    /**
+     * Resolves engine names to implementations, preserving the given order.
+     *
+     * @param names engine names
+     * @return the matching engines
+     * @throws IllegalArgumentException if a name is unknown or repeated
+     */
+    public static List<ExpressionEvaluator> resolve(List<String> names) {
+        Map<String, ExpressionEvaluator> available = discover();
+        List<ExpressionEvaluator> engines = new ArrayList<>();
+        for (String name : names) {
+            ExpressionEvaluator engine = available.get(name);
+            if (engine == null) {
+                throw new IllegalArgumentException(
+                    "Unknown engine: " + name + " (available: " + String.join(", ", available.keySet()) + ")");
+            }
+            if (engines.contains(engine)) {
+                throw new IllegalArgumentException("Engine listed more than once: " + name);
+            }
+            engines.add(engine);
+        }
+        return engines;
+    }
+}
@@ -0,0 +1,195 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ExpressionProfile;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A materialised corpus compiled into flat arrays before a run, so the
+ * measurement loop indexes arrays instead of hashing expression strings or
+ * looking classes up in maps. Each expression is resolved to its text,
+ * bindings, class slot (a dense index of its class) and distinct-expression
+ * id. Expressions that failed on an engine are marked in a per-engine
+ * bitset over the distinct ids, shared by all workers of the run.
+ * <p>
+ * A {@link MappedCorpus} is not copied: its records are decoded from the
+ * mapping each time they are evaluated, and the ids of their expressions in
+ * the file's string table serve as distinct ids, so only the class slots
+ * are held on the heap.
+ */
+final class ExecutionPlan {
+
+    private final MappedCorpus mapped;
+    private final ExpressionData[] data;
+    private final String[] expressions;
+    private final Map<String, Object>[] bindings;
+    private final int[] slots;
+    private final int[] classIds;
+    private final int[] distinctIds;
+    private final ExpressionProfile[] profiles;
+    private final AtomicLongArray[] failed;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ExecutionPlan(List<ExpressionData> corpus, int[] classes, ExpressionProfile[] profiles,
+                          int engineCount) {
+        int size = corpus.size();
+        this.mapped = (corpus instanceof MappedCorpus m) ? m : null;
+        this.slots = new int[size];
+        this.profiles = profiles;
+
+        // Slots follow class id order, so slot order is report order
+        Map<Integer, Integer> slotOf = new TreeMap<>();
+        for (int classId : classes) {
+            slotOf.putIfAbsent(classId, 0);
+        }
+        this.classIds = new int[slotOf.size()];
+        int next = 0;
+        for (Map.Entry<Integer, Integer> entry : slotOf.entrySet()) {
+            classIds[next] = entry.getKey();
+            entry.setValue(next++);
+        }
+
+        for (int i = 0; i < size; i++) {
+            slots[i] = slotOf.get(classes[i]);
+        }
+
+        int distinctCount;
+        if (mapped != null) {
+            this.data = null;
+            this.expressions = null;
+            this.bindings = null;
+            this.distinctIds = null;
+            distinctCount = mapped.stringCount();
+        } else {
+            this.data = corpus.toArray(new ExpressionData[0]);
+            this.expressions = new String[size];
+            this.bindings = new Map[size];
+            this.distinctIds = new int[size];
+            Map<String, Integer> distinct = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                expressions[i] = data[i].expr();
+                bindings[i] = data[i].value_map();
+                Integer id = distinct.putIfAbsent(expressions[i], distinct.size());
+                distinctIds[i] = (id == null) ? distinct.size() - 1 : id;
+            }
+            distinctCount = distinct.size();
+        }
+
+        this.failed = new AtomicLongArray[engineCount];
+        for (int e = 0; e < engineCount; e++) {
+            failed[e] = new AtomicLongArray((distinctCount + 63) >>> 6);
+        }
+    }
+
+    /**
+     * Compiles a corpus.
+     *
+     * @param corpus the expressions
+     * @param classes class id of each expression
+     * @param profiles profile of each expression, or null when not needed
+     * @param engineCount number of engines whose failures are tracked
+     */
+    static ExecutionPlan compile(List<ExpressionData> corpus, int[] classes, ExpressionProfile[] profiles,
+                                 int engineCount) {
+        return new ExecutionPlan(corpus, classes, profiles, engineCount);
+    }
+
+    int size() {
+        return slots.length;
+    }
+
+    /**
+     * Returns an expression with its bindings; decoded anew from a mapped corpus.
+     */
+    ExpressionData data(int index) {
+        return (mapped != null) ? mapped.get(index) : data[index];
+    }
+
+    String expression(int index) {
+        return (mapped != null) ? mapped.expression(index) : expressions[index];
+    }
+
+    /**
+     * Returns an expression's bindings; decoded anew from a mapped corpus.
+     */
+    Map<String, Object> bindings(int index) {
+        return (mapped != null) ? mapped.bindings(index) : bindings[index];
+    }
+
+    /**
+     * Returns the dense class index of an expression, below {@link #classCount()}.
+     */
+    int slot(int index) {
+        return slots[index];
+    }
+
+    int classCount() {
+        return classIds.length;
+    }
+
+    /**
+     * Returns the class id of a slot.
+     */
+    int classId(int slot) {
+        return classIds[slot];
+    }
+
+    /**
+     * Returns the profile of an expression, or null when not needed.
+     */
+    ExpressionProfile profile(int index) {
+        return (profiles == null) ? null : profiles[index];
+    }
+
+    /**
+     * Returns a visiting order with the expressions of each class together,
+     * in slot order, keeping their relative order within the class.
+     *
+     * @param order plan indices to visit, or null for every expression in plan order
+     */
+    int[] groupedByClass(int[] order) {
+        int size = (order == null) ? slots.length : order.length;
+        int[] starts = new int[classIds.length + 1];
+        for (int p = 0; p < size; p++) {
+            starts[slots[(order == null) ? p : order[p]] + 1]++;
+        }
+        for (int slot = 0; slot < classIds.length; slot++) {
+            starts[slot + 1] += starts[slot];
+        }
+        int[] grouped = new int[size];
+        for (int p = 0; p < size; p++) {
+            int index = (order == null) ? p : order[p];
+            grouped[starts[slots[index]]++] = index;
+        }
+        return grouped;
+    }
+
+    /**
+     * Returns true if the expression has already failed on the engine.
+     */
+    boolean hasFailed(int engine, int index) {
+        int id = distinctId(index);
+        return (failed[engine].get(id >>> 6) & (1L << id)) != 0;
+    }
+
+    /**
+     * Marks the expression as failed on the engine.
+     *
+     * @return true if it had not failed before, so this failure should be reported
+     */
+    boolean markFailed(int engine, int index) {
+        int id = distinctId(index);
+        long bit = 1L << id;
+        long previous = failed[engine].getAndAccumulate(id >>> 6, bit, (word, mask) -> word | mask);
+        return (previous & bit) == 0;
+    }
+
+    private int distinctId(int index) {
+        return (mapped != null) ? mapped.expressionId(index) : distinctIds[index];
+    }
+}
@@ -0,0 +1,24 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ExpressionProfile;
+
+import java.util.List;
+
+/**
+ * A contiguous run of classified expressions handed to a worker.
+ *
+ * @param expressions the expressions, of which [start, end) belong to this batch
+ * @param classes class id of each expression, aligned with {@code expressions};
+ *        the complexity unless timings are grouped by other dimensions
+ * @param profiles profile of each expression aligned with {@code expressions}, or null when not needed
+ * @param start first index of the batch
+ * @param end index after the last expression of the batch
+ */
+record ExpressionBatch(
+    List<ExpressionData> expressions,
+    int[] classes,
+    ExpressionProfile[] profiles,
+    int start,
+    int end
+) {}
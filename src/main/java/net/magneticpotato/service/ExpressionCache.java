@@ -0,0 +1,92 @@
+package net.magneticpotato.service;
+
+/**
+ * A bounded cache of compiled expressions keyed by expression text.
+ * Implementations are thread-safe.
+ *
+ * @param <V> the cached value type
+ */
+public interface ExpressionCache<V> {
+
+    /** Fewest entries a stripe of a shared cache is given, so striping barely changes the hit rate. */
+    int MIN_STRIPE_CAPACITY = 64;
+
+    /**
+     * Eviction policies.
+     */
+    enum Policy {
+        /** No cache; every evaluation prepares the expression. */
+        NONE,
+        /** Least recently used. */
+        LRU,
+        /** Window TinyLFU: a small LRU admission window in front of a frequency-filtered segmented LRU. */
+        WTINYLFU
+    }
+
+    /**
+     * Returns the cached value, or null on a miss.
+     */
+    V get(String key);
+
+    /**
+     * Adds a value, evicting another entry if the cache is full.
+     */
+    void put(String key, V value);
+
+    /**
+     * Returns the number of cached entries.
+     */
+    int size();
+
+    /**
+     * Returns the maximum number of cached entries.
+     */
+    int capacity();
+
+    /**
+     * Returns the number of entries evicted or rejected so far.
+     */
+    long evictions();
+
+    /**
+     * Creates a cache with the given policy.
+     *
+     * @param policy the eviction policy, not {@link Policy#NONE}
+     * @param capacity maximum number of entries
+     */
+    static <V> ExpressionCache<V> create(Policy policy, int capacity) {
+        return switch (policy) {
+            case LRU -> new LruExpressionCache<>(capacity);
+            case WTINYLFU -> new WTinyLfuExpressionCache<>(capacity);
+            case NONE -> throw new IllegalArgumentException("No cache for policy NONE");
+        };
+    }
+
+    /**
+     * Creates a cache shared by several workers: striped by key hash when
+     * there is more than one, so lookups of different expressions do not
+     * contend for one lock inside the timed region.
+     *
+     * @param policy the eviction policy, not {@link Policy#NONE}
+     * @param capacity maximum number of entries
+     * @param threads number of workers sharing the cache
+     */
+    static <V> ExpressionCache<V> create(Policy policy, int capacity, int threads) {
+        int stripes = stripesFor(threads, capacity);
+        return (stripes == 1) ? create(policy, capacity) : new StripedExpressionCache<>(policy, capacity, stripes);
+    }
+
+    /**
+     * Returns the number of stripes for a cache shared by {@code threads}
+     * workers: the power of two at or above four per worker, but no more
+     * than leaves each stripe {@link #MIN_STRIPE_CAPACITY} entries.
+     */
+    static int stripesFor(int threads, int capacity) {
+        if (threads <= 1) {
+            return 1;
+        }
+        int wanted = Integer.highestOneBit(threads * 4 - 1) << 1;
+        int allowed = Integer.highestOneBit(Math.max(1, capacity / MIN_STRIPE_CAPACITY));
+        return Math.min(wanted, allowed);
+    }
+}
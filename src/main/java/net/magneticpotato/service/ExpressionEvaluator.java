@@ -0,0 +1,52 @@
+package net.magneticpotato.service;
+
+import java.util.Map;
+
+/**
+ * Service provider interface for SQL boolean expression engines under test.
+ * Implementations are discovered with {@link java.util.ServiceLoader}, so a
+ * candidate engine only needs to be on the classpath with a
+ * {@code META-INF/services/net.magneticpotato.service.ExpressionEvaluator}
+ * entry to be selectable with {@code --engine}.
+ * <p>
+ * Implementations must be safe for concurrent use by multiple workers.
+ */
+public interface ExpressionEvaluator {
+
+    /**
+     * Returns the short name used to select this engine on the command line.
+     */
+    String name();
+
+    /**
+     * Evaluates an expression against a set of variable bindings.
+     *
+     * @param expression the SQL boolean expression
+     * @param bindings variable names mapped to their values
+     * @return the result of the expression
+     * @throws Exception if the expression cannot be parsed or evaluated
+     */
+    boolean match(String expression, Map<String, Object> bindings) throws Exception;
+
+    /**
+     * Parses and compiles an expression so it can be evaluated repeatedly.
+     * The default implementation cannot separate the phases: it returns a
+     * handle that defers to {@link #match(String, Map)}, so all parsing cost
+     * is attributed to evaluation. Engines with a compile step override this
+     * together with {@link #supportsPreparation()}.
+     *
+     * @param expression the SQL boolean expression
+     * @return the prepared expression
+     * @throws Exception if the expression cannot be parsed
+     */
+    default PreparedExpression prepare(String expression) throws Exception {
+        return bindings -> match(expression, bindings);
+    }
+
+    /**
+     * Returns whether {@link #prepare(String)} actually parses the expression.
+     */
+    default boolean supportsPreparation() {
+        return false;
+    }
+}
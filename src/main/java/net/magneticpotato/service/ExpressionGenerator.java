@@ -0,0 +1,251 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.GeneratorSpec;
+import net.magneticpotato.model.GeneratorSpec.Operator;
+import net.magneticpotato.model.GeneratorSpec.ValueType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates a synthetic corpus from a {@link GeneratorSpec}. Expressions
+ * are AND/OR trees over randomly chosen predicates, parenthesised like the
+ * bundled corpus, each with its own binding of every variable. Literals
+ * are drawn near the bound values, so predicates are true about as often
+ * as they are false. Every pass replays the same records from the seed, so
+ * a corpus far larger than the heap can be streamed straight into a run.
+ */
+public class ExpressionGenerator implements CorpusSource {
+
+    /** Probability that a bound value is null, when IS NULL predicates are generated. */
+    private static final double NULL_PROBABILITY = 0.1;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private final GeneratorSpec spec;
+    private final List<ValueType> variableTypes;
+    private final int[] complexities;
+    private final double[] complexityCdf;
+    private final Operator[] operators;
+    private final double[] operatorCdf;
+
+    public ExpressionGenerator(GeneratorSpec spec) {
+        this.spec = spec;
+        this.variableTypes = spec.variableTypes();
+
+        Map<Integer, Double> complexity = new TreeMap<>(spec.complexity());
+        this.complexities = complexity.keySet().stream().mapToInt(Integer::intValue).toArray();
+        this.complexityCdf = WorkloadShaper.cumulative(weights(complexity.values()));
+
+        Map<Operator, Double> operatorWeights = new TreeMap<>(spec.operators());
+        this.operators = operatorWeights.keySet().toArray(new Operator[0]);
+        this.operatorCdf = WorkloadShaper.cumulative(weights(operatorWeights.values()));
+    }
+
+    @Override
+    public String absolutePath() {
+        return spec.describe();
+    }
+
+    @Override
+    public ExpressionLoader.Format format() {
+        return ExpressionLoader.Format.SYNTHETIC;
+    }
+
+    /**
+     * Opens a new pass over the corpus, replaying the same records as every
+     * earlier pass.
+     */
+    @Override
+    public Stream<ExpressionData> open() {
+        Generation generation = new Generation();
+        return IntStream.range(0, spec.count()).mapToObj(i -> generation.next());
+    }
+
+    /**
+     * Generates the whole corpus into memory, with the complexity of every
+     * expression already known.
+     */
+    public ExpressionLoader.LoadedExpressions load() {
+        long startNs = System.nanoTime();
+        Generation generation = new Generation();
+        List<ExpressionData> expressions = new ArrayList<>(spec.count());
+        int[] classes = new int[spec.count()];
+        for (int i = 0; i < classes.length; i++) {
+            expressions.add(generation.next());
+            classes[i] = generation.lastComplexity;
+        }
+        double loadTimeMs = (System.nanoTime() - startNs) / 1_000_000.0;
+        return new ExpressionLoader.LoadedExpressions(expressions, absolutePath(), format(), classes,
+            loadTimeMs, -1L);
+    }
+
+    /**
+     * One sequential pass over the corpus.
+     */
+    private final class Generation {
+        private final SplittableRandom random = new SplittableRandom(spec.seed());
+        private final boolean nulls = spec.operators().containsKey(Operator.IS_NULL);
+        private Map<String, Object> bindings;
+        private int lastComplexity;
+
+        ExpressionData next() {
+            bindings = new LinkedHashMap<>();
+            for (int v = 0; v < variableTypes.size(); v++) {
+                ValueType type = variableTypes.get(v);
+                bindings.put(type.prefix() + v, (nulls && random.nextDouble() < NULL_PROBABILITY) ? null : value(type));
+            }
+            lastComplexity = complexities[WorkloadShaper.search(complexityCdf, random.nextDouble())];
+            StringBuilder expr = new StringBuilder();
+            appendTree(expr, lastComplexity + 1, spec.maxDepth());
+            return new ExpressionData(expr.toString(), bindings);
+        }
+
+        /**
+         * Appends a tree of {@code leaves} predicates joined by AND and OR,
+         * nested at most {@code depth} levels when depth is positive.
+         */
+        private void appendTree(StringBuilder sb, int leaves, int depth) {
+            if (leaves == 1) {
+                appendPredicate(sb);
+                return;
+            }
+            // Each side must fit in the levels that remain below this one
+            long capacity = (depth > 0) ? 1L << Math.min(depth - 1, 62) : leaves - 1;
+            int low = (int) Math.max(1, leaves - capacity);
+            int high = (int) Math.min(leaves - 1, capacity);
+            int left = low + random.nextInt(high - low + 1);
+
+            sb.append('(');
+            appendTree(sb, left, depth - 1);
+            sb.append(random.nextBoolean() ? ") AND (" : ") OR (");
+            appendTree(sb, leaves - left, depth - 1);
+            sb.append(')');
+        }
+
+        private void appendPredicate(StringBuilder sb) {
+            Operator operator = operators[WorkloadShaper.search(operatorCdf, random.nextDouble())];
+            String name = switch (operator) {
+                case BETWEEN -> variable(ValueType.INT, ValueType.DOUBLE);
+                case LIKE -> variable(ValueType.STRING, ValueType.STRING);
+                default -> variable(null, null);
+            };
+            ValueType type = typeOf(name);
+            Object bound = bindings.get(name);
+            boolean not = random.nextInt(4) == 0;
+            sb.append(name);
+
+            switch (operator) {
+                case COMPARISON -> {
+                    if (type == ValueType.STRING) {
+                        sb.append(random.nextBoolean() ? " = " : " <> ");
+                    } else {
+                        sb.append(switch (random.nextInt(6)) {
+                            case 0 -> " = ";
+                            case 1 -> " <> ";
+                            case 2 -> " < ";
+                            case 3 -> " <= ";
+                            case 4 -> " > ";
+                            default -> " >= ";
+                        });
+                    }
+                    sb.append(literal(type, bound));
+                }
+                case BETWEEN -> {
+                    String low = literal(type, bound);
+                    String high = literal(type, bound);
+                    if (Double.parseDouble(low) > Double.parseDouble(high)) {
+                        String swap = low;
+                        low = high;
+                        high = swap;
+                    }
+                    sb.append(not ? " NOT BETWEEN " : " BETWEEN ").append(low).append(" AND ").append(high);
+                }
+                case IN -> {
+                    sb.append(not ? " NOT IN (" : " IN (");
+                    int size = 2 + random.nextInt(4);
+                    for (int k = 0; k < size; k++) {
+                        sb.append((k == 0) ? "" : ",").append(literal(type, bound));
+                    }
+                    sb.append(')');
+                }
+                case LIKE -> sb.append(not ? " NOT LIKE " : " LIKE ").append(quote(pattern((String) bound)));
+                case IS_NULL -> sb.append(not ? " IS NOT NULL" : " IS NULL");
+            }
+        }
+
+        /**
+         * Picks a variable of one of two types, or of any type when both are null.
+         */
+        private String variable(ValueType first, ValueType second) {
+            int v;
+            do {
+                v = random.nextInt(variableTypes.size());
+            } while (first != null && variableTypes.get(v) != first && variableTypes.get(v) != second);
+            return variableTypes.get(v).prefix() + v;
+        }
+
+        private ValueType typeOf(String name) {
+            return variableTypes.get(Integer.parseInt(name, 1, name.length(), 10));
+        }
+
+        private Object value(ValueType type) {
+            return switch (type) {
+                case INT -> random.nextInt(100);
+                case DOUBLE -> random.nextInt(1000) / 10.0;
+                case STRING -> word(3 + random.nextInt(8));
+            };
+        }
+
+        /**
+         * Returns a literal equal to the bound value half of the time and a
+         * nearby value otherwise.
+         */
+        private String literal(ValueType type, Object bound) {
+            boolean equal = bound != null && random.nextBoolean();
+            return switch (type) {
+                case INT -> String.valueOf(equal ? (int) bound
+                    : Math.max(0, ((bound == null) ? 50 : (int) bound) + random.nextInt(21) - 10));
+                case DOUBLE -> String.valueOf(equal ? (double) bound
+                    : Math.max(0, Math.round(((bound == null) ? 50.0 : (double) bound) * 10) + random.nextInt(201) - 100)
+                        / 10.0);
+                case STRING -> quote(equal ? (String) bound : word(3 + random.nextInt(8)));
+            };
+        }
+
+        /**
+         * Returns a LIKE pattern that matches the value half of the time.
+         */
+        private String pattern(String value) {
+            String base = (value == null || random.nextBoolean()) ? word(4) : value;
+            return switch (random.nextInt(3)) {
+                case 0 -> base.substring(0, Math.min(2, base.length())) + "%";
+                case 1 -> "%" + base.substring(base.length() / 2);
+                default -> "_" + base.substring(1);
+            };
+        }
+
+        private String word(int length) {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+            }
+            return new String(chars);
+        }
+    }
+
+    private static String quote(String value) {
+        return "'" + value + "'";
+    }
+
+    private static double[] weights(Collection<Double> weights) {
+        return weights.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
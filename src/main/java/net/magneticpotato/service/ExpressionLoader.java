@@ -4,30 +4,139 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.magneticpotato.model.CompactBindings;
 import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.KeyDictionary;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Loads expression data from JSON files using streaming for efficiency.
  * Supports loading from both classpath resources and file system paths.
+ * Files in the {@link BinaryCorpus} format are recognised by their magic
+ * number and memory-mapped instead of parsed.
  */
 public class ExpressionLoader {
 
+    /**
+     * Corpus file formats; {@code SYNTHETIC} corpora are generated in
+     * process by {@link ExpressionGenerator}.
+     */
+    public enum Format {
+        JSON, NDJSON, BINARY, SYNTHETIC;
+
+        public String label() {
+            return name().toLowerCase();
+        }
+    }
+
     /**
      * Container for loaded expressions with resolved path information.
+     *
+     * @param expressions the loaded expressions
+     * @param absolutePath resolved path of the source
+     * @param format the format the corpus was read from
+     * @param complexities precomputed complexity per expression, or null if not known
+     * @param loadTimeMs time taken to load the corpus
+     * @param heapBytes heap retained by the loaded corpus, or -1 if not measured
      */
     public record LoadedExpressions(
         List<ExpressionData> expressions,
-        String absolutePath
-    ) {}
+        String absolutePath,
+        Format format,
+        int[] complexities,
+        double loadTimeMs,
+        long heapBytes
+    ) {
+        public LoadedExpressions(List<ExpressionData> expressions, String absolutePath) {
+            this(expressions, absolutePath, Format.JSON, null, 0.0, -1L);
+        }
+
+        /**
+         * Returns one of {@code count} shards of the corpus: every
+         * {@code count}-th expression, starting at {@code index}, so each
+         * shard gets a similar mix of classes.
+         */
+        public LoadedExpressions shard(int index, int count) {
+            if (index < 0 || index >= count) {
+                throw new IllegalArgumentException("Shard " + index + " of " + count + " does not exist");
+            }
+            List<ExpressionData> kept = new ArrayList<>();
+            int[] keptComplexities = (complexities != null) ? new int[(expressions.size() - index + count - 1) / count] : null;
+            for (int i = index; i < expressions.size(); i += count) {
+                if (keptComplexities != null) {
+                    keptComplexities[kept.size()] = complexities[i];
+                }
+                kept.add(expressions.get(i));
+            }
+            return new LoadedExpressions(kept, absolutePath, format, keptComplexities, loadTimeMs, heapBytes);
+        }
+
+        /**
+         * Returns only the expressions of the given complexity classes,
+         * with their complexities.
+         *
+         * @throws IllegalArgumentException if a class has no expressions in the corpus
+         */
+        public LoadedExpressions restrictTo(Set<Integer> classes) {
+            int[] all = (complexities != null) ? complexities : ComplexityCalculator.calculateAll(expressions);
+            List<ExpressionData> kept = new ArrayList<>();
+            int[] keptComplexities = new int[all.length];
+            Set<Integer> found = new HashSet<>();
+            for (int i = 0; i < all.length; i++) {
+                if (classes.contains(all[i])) {
+                    keptComplexities[kept.size()] = all[i];
+                    kept.add(expressions.get(i));
+                    found.add(all[i]);
+                }
+            }
+            for (int classId : classes) {
+                if (!found.contains(classId)) {
+                    throw new IllegalArgumentException("No expressions of complexity class " + classId + " in the corpus");
+                }
+            }
+            return new LoadedExpressions(kept, absolutePath, format,
+                Arrays.copyOf(keptComplexities, kept.size()), loadTimeMs, heapBytes);
+        }
+    }
+
+    /**
+     * Options for loading a JSON corpus into memory.
+     *
+     * @param parallelism maximum number of parser threads, 1 to parse sequentially
+     * @param compactBindings whether to store value maps as {@link CompactBindings}
+     * @param measureHeap whether to measure the heap the corpus retains, which takes two full collections
+     */
+    public record LoadOptions(int parallelism, boolean compactBindings, boolean measureHeap) {
+        /**
+         * Options that measure the corpus heap only with compact bindings, whose saving it shows.
+         */
+        public LoadOptions(int parallelism, boolean compactBindings) {
+            this(parallelism, compactBindings, compactBindings);
+        }
+
+        public static LoadOptions defaults() {
+            return new LoadOptions(Runtime.getRuntime().availableProcessors(), false);
+        }
+    }
 
     /**
      * Loads expressions from a classpath resource.
@@ -37,36 +146,245 @@ public class ExpressionLoader {
      * @throws IOException if the resource cannot be read
      */
     public static LoadedExpressions loadExpressionsFromClasspath(String resourcePath) throws IOException {
+        return loadExpressionsFromClasspath(resourcePath, LoadOptions.defaults());
+    }
+
+    /**
+     * Loads expressions from a classpath resource. Resources are always
+     * parsed on a single thread.
+     *
+     * @param resourcePath the path to the resource (e.g., "complex_expressions.json")
+     * @param options how to load the corpus
+     * @return loaded expressions with resolved absolute path
+     * @throws IOException if the resource cannot be read
+     */
+    public static LoadedExpressions loadExpressionsFromClasspath(String resourcePath, LoadOptions options)
+            throws IOException {
+        long heapBefore = options.measureHeap() ? usedHeapAfterGc() : -1L;
+        long startNs = System.nanoTime();
         List<ExpressionData> expressions;
         ObjectMapper mapper = new ObjectMapper();
 
         // Normalize resource path (ensure leading slash)
         String normalizedPath = resourcePath.startsWith("/") ? resourcePath : "/" + resourcePath;
 
+        // Binary corpora can only be mapped when the resource is a plain file
+        Path resourceFile = classpathResourceFile(normalizedPath);
+        if (resourceFile != null && BinaryCorpus.isBinary(resourceFile)) {
+            return loadBinary(resourceFile, startNs, heapBefore);
+        }
+
         try (InputStream is = ExpressionLoader.class.getResourceAsStream(normalizedPath)) {
             if (is == null) {
                 throw new IOException("Classpath resource not found: " + normalizedPath);
             }
 
-            expressions = parseJsonStream(is, mapper);
+            expressions = parseJsonStream(is, mapper, dictionaryFor(options));
         }
+        double loadTimeMs = elapsedMs(startNs);
 
         // Resolve absolute path for classpath resources
         String absolutePath = resolveClasspathResourcePath(normalizedPath);
 
-        return new LoadedExpressions(expressions, absolutePath);
+        return new LoadedExpressions(expressions, absolutePath, Format.JSON, null, loadTimeMs,
+            retainedSince(heapBefore));
+    }
+
+    /**
+     * Loads expressions from a filesystem file, parsing on all available
+     * processors. See {@link #loadExpressionsFromFile(String, LoadOptions)}.
+     *
+     * @param filePath the path to the file (absolute or relative)
+     * @return loaded expressions with absolute resolved path
+     * @throws IOException if the file cannot be read
+     */
+    public static LoadedExpressions loadExpressionsFromFile(String filePath) throws IOException {
+        return loadExpressionsFromFile(filePath, LoadOptions.defaults());
     }
 
     /**
      * Loads expressions from a filesystem file.
      * Supports both absolute and relative paths.
      * Relative paths are resolved relative to src/main/resources/ directory.
+     * JSON arrays and newline-delimited JSON larger than
+     * {@value ParallelJsonLoader#MIN_PARALLEL_BYTES} bytes are split into
+     * chunks and parsed concurrently; the order of the file is preserved.
      *
      * @param filePath the path to the file (absolute or relative)
+     * @param options how to load the corpus
      * @return loaded expressions with absolute resolved path
      * @throws IOException if the file cannot be read
      */
-    public static LoadedExpressions loadExpressionsFromFile(String filePath) throws IOException {
+    public static LoadedExpressions loadExpressionsFromFile(String filePath, LoadOptions options)
+            throws IOException {
+        long heapBefore = options.measureHeap() ? usedHeapAfterGc() : -1L;
+        long startNs = System.nanoTime();
+        Path path = resolveFilePath(filePath);
+        if (BinaryCorpus.isBinary(path)) {
+            return loadBinary(path, startNs, heapBefore);
+        }
+
+        String absolutePath = path.toAbsolutePath().toString();
+        Format format = detectJsonLayout(path);
+        KeyDictionary dictionary = dictionaryFor(options);
+        List<ExpressionData> expressions;
+
+        if (options.parallelism() > 1 && Files.size(path) >= ParallelJsonLoader.MIN_PARALLEL_BYTES) {
+            expressions = ParallelJsonLoader.load(path, format, options.parallelism(), dictionary);
+        } else {
+            try (InputStream is = Files.newInputStream(path)) {
+                expressions = parseJsonStream(is, new ObjectMapper(), dictionary);
+            }
+        }
+        double loadTimeMs = elapsedMs(startNs);
+
+        return new LoadedExpressions(expressions, absolutePath, format, null, loadTimeMs,
+            retainedSince(heapBefore));
+    }
+
+    /**
+     * Maps a binary corpus. Records are decoded lazily as they are accessed;
+     * complexities come from the file rather than being recalculated, unless
+     * a different version of the classifier computed them.
+     */
+    private static LoadedExpressions loadBinary(Path path, long startNs, long heapBefore) throws IOException {
+        MappedCorpus corpus = MappedCorpus.open(path);
+        int[] complexities = (corpus.classifierVersion() == ComplexityCalculator.VERSION)
+            ? corpus.complexities()
+            : null;
+        double loadTimeMs = elapsedMs(startNs);
+        return new LoadedExpressions(corpus, path.toAbsolutePath().toString(), Format.BINARY,
+            complexities, loadTimeMs, retainedSince(heapBefore));
+    }
+
+    /**
+     * Replaces a record's value map with {@link CompactBindings}, or returns
+     * the record unchanged when no dictionary is given.
+     */
+    static ExpressionData compact(ExpressionData expr, KeyDictionary dictionary) {
+        if (dictionary == null || expr.value_map() == null) {
+            return expr;
+        }
+        return new ExpressionData(expr.expr(), CompactBindings.of(expr.value_map(), dictionary));
+    }
+
+    private static KeyDictionary dictionaryFor(LoadOptions options) {
+        return options.compactBindings() ? new KeyDictionary() : null;
+    }
+
+    /**
+     * Returns the heap retained since {@code heapBefore} was measured, or -1
+     * if it was not.
+     */
+    private static long retainedSince(long heapBefore) {
+        return (heapBefore < 0) ? -1L : usedHeapAfterGc() - heapBefore;
+    }
+
+    /**
+     * Returns the heap in use after a full collection. Used to measure what
+     * a loaded corpus retains; the collector is only requested, so this is
+     * an estimate.
+     */
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Opens a classpath resource as a streamed corpus. Each pass re-reads
+     * the resource, so the corpus is never held in memory.
+     *
+     * @param resourcePath the path to the resource (e.g., "complex_expressions.json")
+     * @return the corpus source
+     * @throws IOException if the resource does not exist
+     */
+    public static CorpusSource streamExpressionsFromClasspath(String resourcePath) throws IOException {
+        String normalizedPath = resourcePath.startsWith("/") ? resourcePath : "/" + resourcePath;
+        if (ExpressionLoader.class.getResource(normalizedPath) == null) {
+            throw new IOException("Classpath resource not found: " + normalizedPath);
+        }
+        String absolutePath = resolveClasspathResourcePath(normalizedPath);
+
+        return new CorpusSource() {
+            @Override
+            public String absolutePath() {
+                return absolutePath;
+            }
+
+            @Override
+            public Stream<ExpressionData> open() throws IOException {
+                InputStream is = ExpressionLoader.class.getResourceAsStream(normalizedPath);
+                if (is == null) {
+                    throw new IOException("Classpath resource not found: " + normalizedPath);
+                }
+                return openJsonStream(is, new ObjectMapper());
+            }
+        };
+    }
+
+    /**
+     * Opens a filesystem file as a streamed corpus. Paths are resolved as in
+     * {@link #loadExpressionsFromFile(String)}. Each pass re-reads the file,
+     * so the corpus is never held in memory.
+     *
+     * @param filePath the path to the file (absolute or relative)
+     * @return the corpus source
+     * @throws IOException if the file cannot be read
+     */
+    public static CorpusSource streamExpressionsFromFile(String filePath) throws IOException {
+        Path path = resolveFilePath(filePath);
+        String absolutePath = path.toAbsolutePath().toString();
+
+        if (BinaryCorpus.isBinary(path)) {
+            // Already off-heap; each pass walks the mapping
+            MappedCorpus corpus = MappedCorpus.open(path);
+            return new CorpusSource() {
+                @Override
+                public String absolutePath() {
+                    return absolutePath;
+                }
+
+                @Override
+                public Format format() {
+                    return Format.BINARY;
+                }
+
+                @Override
+                public Stream<ExpressionData> open() {
+                    return corpus.stream();
+                }
+            };
+        }
+        Format format = detectJsonLayout(path);
+
+        return new CorpusSource() {
+            @Override
+            public String absolutePath() {
+                return absolutePath;
+            }
+
+            @Override
+            public Format format() {
+                return format;
+            }
+
+            @Override
+            public Stream<ExpressionData> open() throws IOException {
+                return openJsonStream(Files.newInputStream(path), new ObjectMapper());
+            }
+        };
+    }
+
+    /**
+     * Resolves and validates a filesystem path.
+     * Relative paths are resolved relative to src/main/resources/ directory.
+     *
+     * @param filePath the path to the file (absolute or relative)
+     * @return the resolved path
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    private static Path resolveFilePath(String filePath) throws IOException {
         Path path = Paths.get(filePath);
 
         // If relative path, resolve relative to src/main/resources
@@ -85,46 +403,154 @@ public class ExpressionLoader {
             throw new IOException("Not a regular file: " + path.toAbsolutePath());
         }
 
-        String absolutePath = path.toAbsolutePath().toString();
-        List<ExpressionData> expressions;
-        ObjectMapper mapper = new ObjectMapper();
+        return path;
+    }
 
+    /**
+     * Returns whether a JSON file is an array or newline-delimited objects,
+     * judged by its first non-whitespace character.
+     */
+    private static Format detectJsonLayout(Path path) throws IOException {
         try (InputStream is = Files.newInputStream(path)) {
-            expressions = parseJsonStream(is, mapper);
+            int c;
+            while ((c = is.read()) != -1) {
+                if (c == '{') {
+                    return Format.NDJSON;
+                }
+                if (c == '[') {
+                    return Format.JSON;
+                }
+                if (!Character.isWhitespace(c) && c != 0xEF && c != 0xBB && c != 0xBF) {
+                    break;
+                }
+            }
         }
+        return Format.JSON;
+    }
 
-        return new LoadedExpressions(expressions, absolutePath);
+    /**
+     * Positions a parser on the first object of a JSON array or of a
+     * sequence of top-level objects (newline-delimited JSON).
+     *
+     * @return the current token: START_OBJECT, or anything else if there are no objects
+     * @throws IOException if the input is neither an array nor an object sequence
+     */
+    private static JsonToken startObjects(JsonParser parser) throws IOException {
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.START_ARRAY) {
+            return parser.nextToken();
+        }
+        if (first != JsonToken.START_OBJECT && first != null) {
+            throw new IOException("Expected array start in JSON file");
+        }
+        return first;
     }
 
     /**
-     * Parses JSON array from input stream using streaming API.
+     * Wraps a JSON array, or newline-delimited JSON, in a lazily parsed,
+     * sequential stream. Objects are read from the parser one at a time as
+     * the stream is consumed; closing the stream closes the parser and the
+     * input stream.
+     *
+     * @param is the input stream containing JSON data
+     * @param mapper the Jackson ObjectMapper
+     * @return stream of expressions
+     * @throws IOException if the JSON is neither an array nor a sequence of objects
+     */
+    private static Stream<ExpressionData> openJsonStream(InputStream is, ObjectMapper mapper)
+            throws IOException {
+        JsonParser parser;
+        JsonToken firstToken;
+        try {
+            parser = mapper.getFactory().createParser(is);
+            try {
+                firstToken = startObjects(parser);
+            } catch (IOException e) {
+                parser.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            is.close();
+            throw e;
+        }
+
+        Spliterator<ExpressionData> spliterator = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private boolean started;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super ExpressionData> action) {
+                try {
+                    JsonToken token = started ? parser.nextToken() : firstToken;
+                    started = true;
+                    if (token != JsonToken.START_OBJECT) {
+                        return false;
+                    }
+                    action.accept(mapper.readValue(parser, ExpressionData.class));
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Parses a JSON array, or newline-delimited JSON, from input stream using streaming API.
      *
      * @param is the input stream containing JSON data
      * @param mapper the Jackson ObjectMapper
      * @return list of parsed expressions
      * @throws IOException if JSON parsing fails
      */
-    private static List<ExpressionData> parseJsonStream(InputStream is, ObjectMapper mapper)
-            throws IOException {
+    private static List<ExpressionData> parseJsonStream(InputStream is, ObjectMapper mapper,
+                                                        KeyDictionary dictionary) throws IOException {
         List<ExpressionData> expressions = new ArrayList<>();
 
         JsonFactory factory = mapper.getFactory();
         try (JsonParser parser = factory.createParser(is)) {
-            // Expect array start
-            if (parser.nextToken() != JsonToken.START_ARRAY) {
-                throw new IOException("Expected array start in JSON file");
-            }
+            // Expect array start, or the first of a sequence of objects
+            JsonToken token = startObjects(parser);
 
-            // Parse each object in the array
-            while (parser.nextToken() == JsonToken.START_OBJECT) {
+            // Parse each object
+            while (token == JsonToken.START_OBJECT) {
                 ExpressionData expr = mapper.readValue(parser, ExpressionData.class);
-                expressions.add(expr);
+                expressions.add(compact(expr, dictionary));
+                token = parser.nextToken();
             }
         }
 
         return expressions;
     }
 
+    /**
+     * Returns the filesystem path of a classpath resource, or null if the
+     * resource does not exist or lives inside a JAR.
+     */
+    private static Path classpathResourceFile(String resourcePath) {
+        try {
+            URL resourceUrl = ExpressionLoader.class.getResource(resourcePath);
+            if (resourceUrl != null && "file".equals(resourceUrl.getProtocol())) {
+                return Paths.get(resourceUrl.toURI());
+            }
+        } catch (Exception e) {
+            // Not addressable as a file
+        }
+        return null;
+    }
+
+    private static double elapsedMs(long startNs) {
+        return (System.nanoTime() - startNs) / 1_000_000.0;
+    }
+
     /**
      * Resolves the absolute filesystem path of a classpath resource.
      * Returns a descriptive path if actual filesystem path cannot be determined.
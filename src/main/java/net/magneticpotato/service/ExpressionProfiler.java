@@ -0,0 +1,248 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ExpressionProfile;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Extracts an {@link ExpressionProfile} from a SQL boolean expression in a
+ * single scan. Keywords are matched case-insensitively as whole words and
+ * quoted text is never mistaken for syntax, as in {@link ComplexityCalculator},
+ * whose count the profile's connectives always match.
+ */
+public class ExpressionProfiler {
+
+    /** Corpora smaller than this are profiled on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    /**
+     * Profiles an expression.
+     *
+     * @param expression the SQL boolean expression
+     * @return the expression's structural features
+     */
+    public static ExpressionProfile profile(String expression) {
+        Scanner scanner = new Scanner(expression);
+        scanner.scan();
+        return scanner.toProfile();
+    }
+
+    /**
+     * Profiles every expression in a corpus. Large corpora are profiled in
+     * parallel on the common fork/join pool.
+     *
+     * @param expressions the expressions to profile
+     * @return the profile of each expression, in corpus order
+     */
+    public static ExpressionProfile[] profileAll(List<ExpressionData> expressions) {
+        ExpressionProfile[] profiles = new ExpressionProfile[expressions.size()];
+        IntStream indices = IntStream.range(0, profiles.length);
+        if (profiles.length >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> profiles[i] = profile(expressions.get(i).expr()));
+        return profiles;
+    }
+
+    /**
+     * Scanner state for one expression.
+     */
+    private static class Scanner {
+        private final String text;
+        private final Set<String> variables = new HashSet<>();
+        private int pos;
+
+        private int depth;
+        private int maxDepth;
+        private int connectives;
+        private int nots;
+        private int comparisons;
+        private int likes;
+        private int ins;
+        private int inItems;
+        private int maxInList;
+        private int betweens;
+        private int nullChecks;
+        private int literals;
+
+        private boolean betweenPending;
+        private boolean inPending;
+        private boolean inList;
+        private int listItems;
+        private boolean itemOpen;
+
+        Scanner(String text) {
+            this.text = text;
+        }
+
+        void scan() {
+            int length = text.length();
+            while (pos < length) {
+                char c = text.charAt(pos);
+                if (c == '\'') {
+                    skipQuoted('\'');
+                    literals++;
+                    operand();
+                } else if (c == '"') {
+                    int start = pos + 1;
+                    skipQuoted('"');
+                    variables.add(text.substring(start, Math.max(start, pos - 1)));
+                    operand();
+                } else if (Character.isDigit(c) || (c == '.' && pos + 1 < length && Character.isDigit(text.charAt(pos + 1)))) {
+                    readWord();
+                    literals++;
+                    operand();
+                } else if (isWordChar(c)) {
+                    int start = pos;
+                    readWord();
+                    word(start, pos - start);
+                } else {
+                    symbol(c);
+                    pos++;
+                }
+            }
+        }
+
+        private void word(int start, int length) {
+            if (is(start, length, "AND")) {
+                // The first AND after BETWEEN separates its bounds
+                if (betweenPending) {
+                    betweenPending = false;
+                } else {
+                    connectives++;
+                }
+            } else if (is(start, length, "OR")) {
+                betweenPending = false;
+                connectives++;
+            } else if (is(start, length, "NOT")) {
+                nots++;
+            } else if (is(start, length, "LIKE")) {
+                likes++;
+            } else if (is(start, length, "IN")) {
+                ins++;
+                inPending = true;
+            } else if (is(start, length, "BETWEEN")) {
+                betweens++;
+                betweenPending = true;
+            } else if (is(start, length, "IS")) {
+                nullChecks++;
+            } else if (is(start, length, "TRUE") || is(start, length, "FALSE")) {
+                literals++;
+                operand();
+            } else if (is(start, length, "NULL") || is(start, length, "ESCAPE")) {
+                operand();
+            } else if (!followedByParenthesis()) {
+                // Anything else that is not a function call is a variable
+                variables.add(text.substring(start, start + length));
+                operand();
+            }
+        }
+
+        private void symbol(char c) {
+            switch (c) {
+                case '(' -> {
+                    if (inPending) {
+                        inPending = false;
+                        inList = true;
+                        listItems = 0;
+                        itemOpen = false;
+                    } else {
+                        maxDepth = Math.max(maxDepth, ++depth);
+                    }
+                }
+                case ')' -> {
+                    if (inList) {
+                        if (itemOpen) {
+                            listItems++;
+                        }
+                        inItems += listItems;
+                        maxInList = Math.max(maxInList, listItems);
+                        inList = false;
+                    } else {
+                        depth--;
+                    }
+                }
+                case ',' -> {
+                    if (inList && itemOpen) {
+                        listItems++;
+                        itemOpen = false;
+                    }
+                }
+                case '=' -> comparisons++;
+                case '<', '>' -> {
+                    comparisons++;
+                    // <=, >= and <> are single operators
+                    char next = peek(1);
+                    if (next == '=' || (c == '<' && next == '>')) {
+                        pos++;
+                    }
+                }
+                case '!' -> {
+                    if (peek(1) == '=') {
+                        comparisons++;
+                        pos++;
+                    }
+                }
+                default -> { }
+            }
+        }
+
+        private void operand() {
+            if (inList) {
+                itemOpen = true;
+            }
+        }
+
+        /** Moves past a quoted run; a doubled quote character escapes itself. */
+        private void skipQuoted(char quote) {
+            pos++;
+            while (pos < text.length()) {
+                if (text.charAt(pos) == quote) {
+                    if (peek(1) == quote) {
+                        pos += 2;
+                        continue;
+                    }
+                    pos++;
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private void readWord() {
+            while (pos < text.length() && (isWordChar(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+        }
+
+        private boolean followedByParenthesis() {
+            int i = pos;
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            return i < text.length() && text.charAt(i) == '(';
+        }
+
+        private char peek(int offset) {
+            int i = pos + offset;
+            return (i < text.length()) ? text.charAt(i) : 0;
+        }
+
+        private boolean is(int start, int length, String keyword) {
+            return length == keyword.length() && text.regionMatches(true, start, keyword, 0, length);
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+        }
+
+        ExpressionProfile toProfile() {
+            return new ExpressionProfile(text.length(), maxDepth, connectives, nots, comparisons, likes,
+                ins, inItems, maxInList, betweens, nullChecks, literals, variables.size());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.EngineResult;
+import net.magneticpotato.model.FailedEvaluation;
+import net.magneticpotato.model.ForkPolicy;
+import net.magneticpotato.model.ForkSummary;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.OverallStatistics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Runs each trial of a load test in a child JVM of its own, so the JIT
+ * profile and heap state of one trial cannot shape the next, and merges
+ * their results.
+ * <p>
+ * Children run one after another with the same classpath and the parent's
+ * arguments, plus {@code --classes} when a trial measures one class and
+ * {@code --fork-result} naming the file the child writes its result to.
+ * Trials interleave the JVM configurations, so drift on the host affects
+ * them alike. With several configurations each engine is reported once per
+ * configuration, e.g. "congocc [-XX:+UseParallelGC]".
+ */
+public class ForkRunner {
+
+    /**
+     * The result of one child JVM.
+     *
+     * @param complexity the class the trial measured, or -1 for every class
+     */
+    record Trial(int fork, String jvmOptions, int complexity, LoadTestResult result) {}
+
+    private final LoadTestConfig config;
+    private final ForkPolicy policy;
+    private final List<String> arguments;
+
+    /**
+     * @param config the configuration every child runs with
+     * @param policy how to split the run
+     * @param arguments the command line arguments of each child, without fork options
+     */
+    public ForkRunner(LoadTestConfig config, ForkPolicy policy, List<String> arguments) {
+        this.config = config;
+        this.policy = policy;
+        this.arguments = List.copyOf(arguments);
+    }
+
+    /**
+     * Runs every trial and merges their results.
+     *
+     * @throws IOException if a child cannot be started, fails, or leaves no result
+     */
+    public LoadTestResult run() throws IOException {
+        ZonedDateTime startLocal = ZonedDateTime.now();
+        List<Integer> classes = policy.classes().isEmpty() ? List.of(-1) : policy.classes();
+        Path directory = Files.createTempDirectory("sqlexpr-forks");
+        try {
+            List<Trial> trials = new ArrayList<>();
+            for (int repetition = 0; repetition < policy.forks(); repetition++) {
+                for (String jvmOptions : policy.jvmOptions()) {
+                    for (int complexity : classes) {
+                        int fork = trials.size() + 1;
+                        System.out.println("Fork " + fork + "/" + policy.trials() + ": "
+                            + ForkPolicy.label(jvmOptions)
+                            + ((complexity < 0) ? "" : ", class " + complexity));
+                        Path resultPath = directory.resolve("fork-" + fork + ".json");
+                        runChild(fork, command(jvmOptions, complexity, resultPath));
+                        trials.add(new Trial(fork, jvmOptions, complexity,
+                            ResultsJson.readResult(resultPath, config)));
+                    }
+                }
+            }
+            return merge(config, policy, trials, startLocal);
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Returns the command line of a child JVM.
+     */
+    List<String> command(String jvmOptions, int complexity, Path resultPath) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmOptions.isBlank()) {
+            command.addAll(Arrays.asList(jvmOptions.trim().split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("net.magneticpotato.Main");
+        command.addAll(arguments);
+        if (complexity >= 0) {
+            command.add("--classes");
+            command.add(String.valueOf(complexity));
+        }
+        command.add("--fork-result");
+        command.add(resultPath.toString());
+        return command;
+    }
+
+    private static void runChild(int fork, List<String> command) throws IOException {
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        int status;
+        try {
+            status = process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for fork " + fork, e);
+        }
+        if (status != 0) {
+            throw new IOException("Fork " + fork + " exited with status " + status);
+        }
+    }
+
+    /**
+     * Merges the results of the trials: the histograms of each engine and
+     * class are added, failures of the same expression counted once, and
+     * times and counts summed.
+     */
+    static LoadTestResult merge(LoadTestConfig config, ForkPolicy policy, List<Trial> trials,
+                                ZonedDateTime startLocal) {
+        boolean labelJvm = policy.jvmOptions().size() > 1;
+        Map<String, Map<Integer, ClassMerge>> engines = new LinkedHashMap<>();
+        Map<String, double[]> engineTotals = new LinkedHashMap<>();
+        Map<String, Boolean> preparation = new LinkedHashMap<>();
+        Set<FailedEvaluation> failures = new LinkedHashSet<>();
+        List<ForkSummary.Trial> summaries = new ArrayList<>();
+        long totalEvaluations = 0;
+        double totalTimeMs = 0.0;
+        double wallClockMs = 0.0;
+        long gcCount = 0;
+        long gcTimeMs = 0;
+
+        for (Trial trial : trials) {
+            LoadTestResult result = trial.result();
+            for (EngineResult engine : result.engineResults()) {
+                String name = engineLabel(engine.engine(), trial.jvmOptions(), labelJvm);
+                Map<Integer, ClassMerge> classes = engines.computeIfAbsent(name, n -> new TreeMap<>());
+                for (ClassStatistics stats : engine.classStats()) {
+                    classes.computeIfAbsent(stats.complexity(), c -> new ClassMerge()).add(stats);
+                }
+                double[] totals = engineTotals.computeIfAbsent(name, n -> new double[3]);
+                totals[0] += engine.totalEvaluations();
+                totals[1] += engine.totalTimeMs();
+                // Busy seconds at the engine's throughput, so merged throughput weighs every trial by its length
+                if (engine.throughputEvalsPerSec() > 0) {
+                    totals[2] += engine.totalEvaluations() / engine.throughputEvalsPerSec();
+                }
+                preparation.put(name, engine.preparationSupported());
+            }
+            for (FailedEvaluation failure : result.failures()) {
+                failures.add(new FailedEvaluation(failure.expression(), failure.valueMap(), failure.errorMessage(),
+                    engineLabel(failure.engine(), trial.jvmOptions(), labelJvm)));
+            }
+
+            OverallStatistics overall = result.overallStats();
+            totalEvaluations += overall.totalEvaluations();
+            totalTimeMs += overall.totalExecutionTimeMs();
+            wallClockMs += overall.wallClockTimeMs();
+            gcCount += overall.gcCount();
+            gcTimeMs += overall.gcTimeMs();
+            summaries.add(new ForkSummary.Trial(trial.fork(), trial.jvmOptions(), trial.complexity(),
+                overall.totalEvaluations(), overall.wallClockTimeMs(), overall.throughputEvalsPerSec(),
+                overall.gcCount(), overall.gcTimeMs()));
+        }
+
+        List<EngineResult> engineResults = new ArrayList<>();
+        List<ForkSummary.ClassSpread> spread = new ArrayList<>();
+        for (Map.Entry<String, Map<Integer, ClassMerge>> engine : engines.entrySet()) {
+            String name = engine.getKey();
+            List<ClassStatistics> classStats = new ArrayList<>();
+            for (Map.Entry<Integer, ClassMerge> entry : engine.getValue().entrySet()) {
+                classStats.add(entry.getValue().statistics(entry.getKey(), false));
+                spread.add(entry.getValue().spread(name, entry.getKey()));
+            }
+            double[] totals = engineTotals.get(name);
+            int failed = (int) failures.stream().filter(f -> name.equals(f.engine())).count();
+            engineResults.add(new EngineResult(name, classStats, (long) totals[0], totals[1],
+                (totals[2] > 0) ? totals[0] / totals[2] : 0.0, failed, List.of(), null,
+                preparation.get(name), null, null));
+        }
+        List<ClassStatistics> classStats = engineResults.get(0).classStats();
+
+        OverallStatistics first = trials.get(0).result().overallStats();
+        OverallStatistics overall = new OverallStatistics(
+            first.inputFilePath(),
+            first.corpusFormat(),
+            first.loadTimeMs(),
+            first.corpusHeapBytes(),
+            startLocal,
+            startLocal.withZoneSameInstant(ZoneId.of("UTC")),
+            first.iterations(),
+            first.threads(),
+            first.virtualThreads(),
+            classStats.stream().mapToInt(ClassStatistics::uniqueExpressions).sum(),
+            totalEvaluations,
+            totalTimeMs,
+            wallClockMs,
+            (wallClockMs > 0) ? totalEvaluations / (wallClockMs / 1000.0) : 0.0,
+            failures.size(),
+            gcCount,
+            gcTimeMs,
+            trials.stream()
+                .map(t -> t.result().overallStats().timer())
+                .filter(timer -> timer != null)
+                .min(Comparator.comparingDouble(timer -> timer.latencyNs()))
+                .orElse(null)
+        );
+
+        return new LoadTestResult(overall, classStats, new ArrayList<>(failures), trials.get(0).result().warmup(),
+            engineResults, config.grouping(), config.arrivals(), config.workload(), null, null,
+            new ForkSummary(policy, summaries, spread), null);
+    }
+
+    private static String engineLabel(String engine, String jvmOptions, boolean labelJvm) {
+        return labelJvm ? engine + " [" + ForkPolicy.label(jvmOptions) + "]" : engine;
+    }
+}
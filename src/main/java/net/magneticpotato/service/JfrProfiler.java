@@ -0,0 +1,425 @@
+package net.magneticpotato.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import net.magneticpotato.model.JfrProfile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Records the measured phase with Java Flight Recorder, using the JDK's
+ * "profile" settings plus the load tester's {@link EvaluationEvent}s, and
+ * analyses the recording once the run has ended.
+ * <p>
+ * CPU samples are attributed to a class when they were taken on a worker
+ * thread while one of its sampled evaluations was running, so the share of
+ * samples attributed follows the evaluation sampling rate. Attributed
+ * stacks are written per class in the collapsed format read by flame graph
+ * tools.
+ */
+class JfrProfiler implements AutoCloseable {
+
+    /** Methods listed per class. */
+    static final int HOT_METHODS = 5;
+    /** Allocation sites listed. */
+    static final int ALLOCATION_SITES = 10;
+
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final String GARBAGE_COLLECTION = "jdk.GarbageCollection";
+
+    private final Path recordingPath;
+    private Recording recording;
+    private Instant windowStart;
+    private Instant windowEnd;
+
+    /**
+     * @param recordingPath where the recording is written when it stops
+     */
+    JfrProfiler(Path recordingPath) {
+        this.recordingPath = recordingPath;
+    }
+
+    /**
+     * Starts recording.
+     *
+     * @throws IOException if the JDK's recording settings cannot be read
+     */
+    void start() throws IOException {
+        Configuration settings;
+        try {
+            settings = Configuration.getConfiguration("profile");
+        } catch (ParseException e) {
+            throw new IOException("Invalid Flight Recorder settings: " + e.getMessage(), e);
+        }
+        recording = new Recording(settings);
+        recording.setName("sqlexpr-load-test");
+        recording.enable(EvaluationEvent.class).withoutThreshold();
+        recording.start();
+        windowStart = Instant.now();
+    }
+
+    /**
+     * Stops recording and writes the recording file.
+     *
+     * @throws IOException if the recording cannot be written
+     */
+    void stop() throws IOException {
+        windowEnd = Instant.now();
+        recording.stop();
+        Path parent = recordingPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        recording.dump(recordingPath);
+        close();
+    }
+
+    @Override
+    public void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Analyses the written recording over the measured window, writing the
+     * collapsed stacks next to it in a {@code jfr-stacks} directory.
+     *
+     * @param sampleEvery the evaluation sampling rate the workers used
+     * @param classLabel names a class id in file names
+     */
+    JfrProfile analyze(int sampleEvery, IntFunction<String> classLabel) throws IOException {
+        Path stacksDir = recordingPath.toAbsolutePath().resolveSibling("jfr-stacks");
+        return analyze(recordingPath, windowStart, windowEnd, sampleEvery, classLabel, stacksDir);
+    }
+
+    /**
+     * Analyses a recording over a window.
+     *
+     * @param recordingPath the recording file
+     * @param from start of the measured window
+     * @param to end of the measured window
+     * @param sampleEvery the evaluation sampling rate the workers used
+     * @param classLabel names a class id in file names
+     * @param stacksDir where the collapsed stacks are written; earlier ones are removed
+     */
+    static JfrProfile analyze(Path recordingPath, Instant from, Instant to, int sampleEvery,
+                              IntFunction<String> classLabel, Path stacksDir) throws IOException {
+        long fromNs = epochNanos(from);
+        long toNs = epochNanos(to);
+
+        // First pass: the evaluation spans of every worker thread, and GC pauses
+        Map<String, ClassAccumulator> classes = new HashMap<>();
+        List<ClassAccumulator> classList = new ArrayList<>();
+        Map<Long, Spans> spansByThread = new HashMap<>();
+        long sampledEvaluations = 0;
+        long gcCount = 0;
+        long gcPauseTotalNs = 0;
+        long gcPauseMaxNs = 0;
+        try (RecordingFile file = new RecordingFile(recordingPath)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                long startNs = epochNanos(event.getStartTime());
+                if (startNs < fromNs || startNs > toNs) {
+                    continue;
+                }
+                String type = event.getEventType().getName();
+                if (EvaluationEvent.NAME.equals(type)) {
+                    String engine = event.getString("engine");
+                    int classId = event.getInt("classId");
+                    ClassAccumulator acc = classes.computeIfAbsent(engine + '\0' + classId, k -> {
+                        ClassAccumulator created = new ClassAccumulator(engine, classId, classList.size());
+                        classList.add(created);
+                        return created;
+                    });
+                    long durationNs = event.getDuration().toNanos();
+                    acc.evaluations++;
+                    acc.totalNs += durationNs;
+                    if (!event.getBoolean("succeeded")) {
+                        acc.failures++;
+                    }
+                    sampledEvaluations++;
+                    RecordedThread thread = event.getThread();
+                    if (thread != null) {
+                        spansByThread.computeIfAbsent(thread.getJavaThreadId(), k -> new Spans())
+                            .add(startNs, startNs + durationNs, acc.index);
+                    }
+                } else if (GARBAGE_COLLECTION.equals(type)) {
+                    long pauseNs = event.getDuration("sumOfPauses").toNanos();
+                    gcCount++;
+                    gcPauseTotalNs += pauseNs;
+                    gcPauseMaxNs = Math.max(gcPauseMaxNs, event.getDuration("longestPause").toNanos());
+                }
+            }
+        }
+        spansByThread.values().forEach(Spans::sort);
+
+        // Second pass: CPU and allocation samples of the worker threads
+        Map<String, long[]> allocations = new HashMap<>();
+        long executionSamples = 0;
+        try (RecordingFile file = new RecordingFile(recordingPath)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                boolean execution = EXECUTION_SAMPLE.equals(type);
+                if (!execution && !ALLOCATION_SAMPLE.equals(type)) {
+                    continue;
+                }
+                long startNs = epochNanos(event.getStartTime());
+                if (startNs < fromNs || startNs > toNs) {
+                    continue;
+                }
+                RecordedThread thread = event.getThread(execution ? "sampledThread" : "eventThread");
+                Spans spans = (thread == null) ? null : spansByThread.get(thread.getJavaThreadId());
+                RecordedStackTrace stackTrace = event.getStackTrace();
+                if (spans == null || stackTrace == null || stackTrace.getFrames().isEmpty()) {
+                    continue;
+                }
+                List<RecordedFrame> frames = stackTrace.getFrames();
+
+                if (execution) {
+                    executionSamples++;
+                    int index = spans.find(startNs);
+                    if (index >= 0) {
+                        classList.get(index).addSample(frames);
+                    }
+                } else {
+                    // The sampled events themselves are recording overhead, not evaluation cost
+                    String objectType = event.getClass("objectClass").getName();
+                    if (objectType.equals(EvaluationEvent.class.getName())) {
+                        continue;
+                    }
+                    String key = allocationSite(frames) + '\0' + objectType;
+                    long[] totals = allocations.computeIfAbsent(key, k -> new long[2]);
+                    totals[0] += event.getLong("weight");
+                    totals[1]++;
+                }
+            }
+        }
+
+        clearStacks(stacksDir);
+        classList.sort(Comparator.comparing((ClassAccumulator acc) -> acc.engine)
+            .thenComparingInt(acc -> acc.classId));
+        List<JfrProfile.ClassProfile> classProfiles = new ArrayList<>(classList.size());
+        for (ClassAccumulator acc : classList) {
+            String stacksFile = null;
+            if (!acc.stacks.isEmpty()) {
+                Path path = stacksDir.resolve(fileName(acc.engine + "-class-" + classLabel.apply(acc.classId))
+                    + ".collapsed");
+                writeCollapsed(path, acc.stacks);
+                stacksFile = path.toString();
+            }
+            classProfiles.add(new JfrProfile.ClassProfile(
+                acc.engine,
+                acc.classId,
+                acc.evaluations,
+                acc.failures,
+                (acc.evaluations > 0) ? acc.totalNs / (double) acc.evaluations / 1_000_000.0 : 0.0,
+                acc.samples,
+                top(acc.hotMethods, HOT_METHODS).stream()
+                    .map(e -> new JfrProfile.HotMethod(e.getKey(), e.getValue()))
+                    .toList(),
+                stacksFile
+            ));
+        }
+
+        List<JfrProfile.AllocationSite> sites = allocations.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed())
+            .limit(ALLOCATION_SITES)
+            .map(e -> {
+                String[] parts = e.getKey().split("\0", 2);
+                return new JfrProfile.AllocationSite(parts[0], parts[1], e.getValue()[0], e.getValue()[1]);
+            })
+            .toList();
+
+        return new JfrProfile(
+            recordingPath.toString(),
+            (toNs - fromNs) / 1_000_000.0,
+            sampledEvaluations,
+            sampleEvery,
+            executionSamples,
+            classProfiles,
+            sites,
+            gcCount,
+            gcPauseTotalNs / 1_000_000.0,
+            gcPauseMaxNs / 1_000_000.0
+        );
+    }
+
+    /**
+     * Sampled evaluations and CPU samples of one class on one engine.
+     */
+    private static final class ClassAccumulator {
+        final String engine;
+        final int classId;
+        final int index;
+        long evaluations;
+        long failures;
+        long totalNs;
+        long samples;
+        final Map<String, Long> hotMethods = new HashMap<>();
+        final Map<String, Long> stacks = new HashMap<>();
+
+        ClassAccumulator(String engine, int classId, int index) {
+            this.engine = engine;
+            this.classId = classId;
+            this.index = index;
+        }
+
+        /**
+         * Adds a CPU sample; frames are innermost first.
+         */
+        void addSample(List<RecordedFrame> frames) {
+            samples++;
+            hotMethods.merge(frameName(frames.get(0)), 1L, Long::sum);
+            StringBuilder stack = new StringBuilder();
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                if (!stack.isEmpty()) {
+                    stack.append(';');
+                }
+                stack.append(frameName(frames.get(i)));
+            }
+            stacks.merge(stack.toString(), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * The evaluation spans of one thread. A thread runs one evaluation at a
+     * time, so once sorted by start the spans are also sorted by end.
+     */
+    private static final class Spans {
+        private long[] starts = new long[64];
+        private long[] ends = new long[64];
+        private int[] classes = new int[64];
+        private int size;
+
+        void add(long startNs, long endNs, int classIndex) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                classes = Arrays.copyOf(classes, size * 2);
+            }
+            starts[size] = startNs;
+            ends[size] = endNs;
+            classes[size] = classIndex;
+            size++;
+        }
+
+        void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> starts[i]));
+            long[] sortedStarts = new long[size];
+            long[] sortedEnds = new long[size];
+            int[] sortedClasses = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedStarts[i] = starts[order[i]];
+                sortedEnds[i] = ends[order[i]];
+                sortedClasses[i] = classes[order[i]];
+            }
+            starts = sortedStarts;
+            ends = sortedEnds;
+            classes = sortedClasses;
+        }
+
+        /**
+         * Returns the class index of the span containing a time, or -1.
+         */
+        int find(long timeNs) {
+            int low = 0;
+            int high = size - 1;
+            int last = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= timeNs) {
+                    last = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return (last >= 0 && timeNs <= ends[last]) ? classes[last] : -1;
+        }
+    }
+
+    /**
+     * Returns the innermost frame outside the JDK, with its line, or the
+     * innermost frame when the whole stack is in the JDK.
+     */
+    private static String allocationSite(List<RecordedFrame> frames) {
+        RecordedFrame site = frames.get(0);
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                site = frame;
+                break;
+            }
+        }
+        int line = site.getLineNumber();
+        return (line > 0) ? frameName(site) + ":" + line : frameName(site);
+    }
+
+    private static String frameName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> counts, int limit) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .toList();
+    }
+
+    private static void writeCollapsed(Path path, Map<String, Long> stacks) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : top(stacks, Integer.MAX_VALUE)) {
+                writer.write(entry.getKey() + " " + entry.getValue());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Creates the stacks directory, removing collapsed stacks of an earlier run.
+     */
+    private static void clearStacks(Path stacksDir) throws IOException {
+        Files.createDirectories(stacksDir);
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(stacksDir, "*.collapsed")) {
+            for (Path path : old) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /** Replaces characters that are unsafe in file names. */
+    private static String fileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._=-]", "_");
+    }
+
+    private static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
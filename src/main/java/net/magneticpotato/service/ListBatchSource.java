@@ -0,0 +1,87 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ExpressionProfile;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batches one pass over a compiled corpus by claiming ranges of positions
+ * from a shared cursor. Without a visiting order position i is expression
+ * i of the plan; with one it is expression {@code order[i]}. Workers claim
+ * ranges with {@link #claim()} and walk the plan directly, so a pass
+ * allocates nothing per batch; {@link #nextBatch()} gathers a range into an
+ * {@link ExpressionBatch} for other consumers.
+ */
+class ListBatchSource implements BatchSource {
+
+    private final ExecutionPlan plan;
+    private final int[] order;
+    private final int size;
+    private final int batchSize;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * @param plan the compiled corpus
+     * @param order indices of the expressions to visit, in order, or null to visit the plan in order
+     * @param batchSize expressions per batch
+     */
+    ListBatchSource(ExecutionPlan plan, int[] order, int batchSize) {
+        this.plan = plan;
+        this.order = order;
+        this.size = (order == null) ? plan.size() : order.length;
+        this.batchSize = batchSize;
+    }
+
+    ExecutionPlan plan() {
+        return plan;
+    }
+
+    int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Claims the next range of positions.
+     *
+     * @return the first position of the range, or -1 once the pass is exhausted
+     */
+    int claim() {
+        int start = cursor.getAndAdd(batchSize);
+        return (start < size) ? start : -1;
+    }
+
+    /**
+     * Returns the position after the last one of the range starting at {@code start}.
+     */
+    int end(int start) {
+        return Math.min(start + batchSize, size);
+    }
+
+    /**
+     * Returns the plan index of the expression at a position.
+     */
+    int index(int position) {
+        return (order == null) ? position : order[position];
+    }
+
+    @Override
+    public ExpressionBatch nextBatch() {
+        int start = claim();
+        if (start < 0) {
+            return null;
+        }
+        int end = end(start);
+        ExpressionData[] expressions = new ExpressionData[end - start];
+        int[] classes = new int[end - start];
+        ExpressionProfile[] profiles = new ExpressionProfile[end - start];
+        for (int p = start; p < end; p++) {
+            int index = index(p);
+            expressions[p - start] = plan.data(index);
+            classes[p - start] = plan.classId(plan.slot(index));
+            profiles[p - start] = plan.profile(index);
+        }
+        return new ExpressionBatch(Arrays.asList(expressions), classes, profiles, 0, end - start);
+    }
+}
@@ -0,0 +1,136 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionGrouping;
+import net.magneticpotato.model.IntervalRecorder;
+import net.magneticpotato.model.LatencyHistogram;
+import net.magneticpotato.model.LoadTestConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The single reader of the workers' {@link IntervalRecorder}s while a run is
+ * in progress. Each collection drains every recorder once and folds the
+ * result both into per-engine totals since the start of the run and into
+ * the interval pending for the live reporter, so the reporter and the
+ * metrics endpoint can both read without stealing each other's data.
+ */
+class LiveMetrics {
+
+    /**
+     * Per-class latencies and failures of one engine.
+     */
+    static final class EngineMetrics {
+        final String engine;
+        final Map<Integer, LatencyHistogram> latencies = new TreeMap<>();
+        final Map<Integer, Long> failures = new TreeMap<>();
+
+        EngineMetrics(String engine) {
+            this.engine = engine;
+        }
+
+        /**
+         * Returns the latencies of all classes together.
+         */
+        LatencyHistogram all() {
+            LatencyHistogram all = new LatencyHistogram();
+            latencies.values().forEach(all::add);
+            return all;
+        }
+
+        private EngineMetrics copy() {
+            EngineMetrics copy = new EngineMetrics(engine);
+            latencies.forEach((classId, histogram) -> copy.latencies.put(classId, histogram.copy()));
+            copy.failures.putAll(failures);
+            return copy;
+        }
+    }
+
+    private final List<String> engines;
+    private final ExpressionGrouping grouping;
+    private final int workerCount;
+    private final List<List<IntervalRecorder>> recorders;
+    private final List<EngineMetrics> totals;
+    private List<EngineMetrics> pending;
+
+    /**
+     * @param engines the engine names, in recorder order
+     * @param grouping labels the class ids
+     * @param recorders the interval recorders of each worker, one per engine
+     */
+    LiveMetrics(List<String> engines, ExpressionGrouping grouping, List<List<IntervalRecorder>> recorders) {
+        this.engines = engines;
+        this.grouping = grouping;
+        this.workerCount = recorders.size();
+        this.recorders = recorders;
+        this.totals = newMetrics();
+        this.pending = newMetrics();
+    }
+
+    /**
+     * Creates the hub for the workers of a run.
+     */
+    static LiveMetrics of(LoadTestConfig config, List<EvaluationWorker> workers) {
+        List<String> engines = config.engines().stream().map(ExpressionEvaluator::name).toList();
+        List<List<IntervalRecorder>> recorders = workers.stream().map(EvaluationWorker::getIntervalRecorders).toList();
+        return new LiveMetrics(engines, config.grouping(), recorders);
+    }
+
+    /**
+     * Collects and returns everything recorded since the previous call.
+     */
+    synchronized List<EngineMetrics> drainInterval() {
+        collect();
+        List<EngineMetrics> interval = pending;
+        pending = newMetrics();
+        return interval;
+    }
+
+    /**
+     * Collects and returns a copy of everything recorded since the run started.
+     */
+    synchronized List<EngineMetrics> totals() {
+        collect();
+        List<EngineMetrics> copy = new ArrayList<>(totals.size());
+        for (EngineMetrics metrics : totals) {
+            copy.add(metrics.copy());
+        }
+        return copy;
+    }
+
+    int workerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Returns the report label of a class id.
+     */
+    String classLabel(int classId) {
+        return grouping.isComplexity() ? String.valueOf(classId) : grouping.label(classId);
+    }
+
+    private void collect() {
+        for (int e = 0; e < engines.size(); e++) {
+            Map<Integer, LatencyHistogram> latencies = new TreeMap<>();
+            Map<Integer, Long> failures = new TreeMap<>();
+            for (List<IntervalRecorder> workerRecorders : recorders) {
+                workerRecorders.get(e).snapshotInto(latencies, failures);
+            }
+            for (EngineMetrics target : List.of(totals.get(e), pending.get(e))) {
+                latencies.forEach((classId, histogram) ->
+                    target.latencies.computeIfAbsent(classId, k -> new LatencyHistogram()).add(histogram));
+                failures.forEach((classId, count) -> target.failures.merge(classId, count, Long::sum));
+            }
+        }
+    }
+
+    private List<EngineMetrics> newMetrics() {
+        List<EngineMetrics> metrics = new ArrayList<>(engines.size());
+        for (String engine : engines) {
+            metrics.add(new EngineMetrics(engine));
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,251 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.IntervalRecorder;
+import net.magneticpotato.model.IntervalSnapshot;
+import net.magneticpotato.model.LatencyHistogram;
+import net.magneticpotato.model.LoadTestConfig;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports interval metrics while a run is in progress. Every interval a
+ * background thread drains the workers' {@link IntervalRecorder}s through
+ * {@link LiveMetrics}, without pausing the workers, prints a one-line
+ * throughput and latency summary and appends one CSV row per engine and
+ * class, plus an "all" row, to the metrics log. GC activity and heap use
+ * are added to each row so latency drift can be lined up with collections.
+ * A {@link RunListener} is handed every interval as an {@link IntervalSnapshot}.
+ */
+class LiveMetricsReporter implements AutoCloseable {
+
+    private static final String CSV_HEADER = "timestamp,elapsed_s,phase,workers,engine,class,evaluations,"
+        + "throughput_per_s,mean_ms,p50_ms,p99_ms,max_ms,gc_count,gc_time_ms,heap_used_mb";
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    private final LoadTestConfig config;
+    private final LiveMetrics metrics;
+    private final RunListener listener;
+    private final ScheduledExecutorService scheduler;
+    private BufferedWriter log;
+    private volatile String phase = "warmup";
+    private long startNs;
+    private long phaseStartNs;
+    private int sequence;
+    private long lastTickNs;
+    private long lastGcCount;
+    private long lastGcTimeMs;
+
+    /**
+     * @param config the run configuration, with a positive metrics interval
+     * @param metrics the run's interval metrics
+     * @param listener receives every interval, or null
+     */
+    LiveMetricsReporter(LoadTestConfig config, LiveMetrics metrics, RunListener listener) {
+        this.config = config;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the metrics log, appending to it when it already exists, and
+     * starts the reporting thread.
+     *
+     * @throws IOException if the metrics log cannot be opened
+     */
+    void start() throws IOException {
+        Path path = config.metricsLog();
+        if (path != null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            boolean fresh = !Files.exists(path) || Files.size(path) == 0;
+            log = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (fresh) {
+                log.write(CSV_HEADER);
+                log.newLine();
+            }
+        }
+        startNs = System.nanoTime();
+        phaseStartNs = startNs;
+        lastTickNs = startNs;
+        lastGcCount = gcCount();
+        lastGcTimeMs = gcTimeMs();
+        long interval = config.metricsIntervalMs();
+        scheduler.scheduleAtFixedRate(() -> tick(false), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ends the current interval early and labels the rows of later
+     * intervals, e.g. "warmup" or "measure", so no interval spans two phases.
+     */
+    void phase(String phase) {
+        tick(true);
+        synchronized (this) {
+            this.phase = phase;
+            phaseStartNs = System.nanoTime();
+            lastTickNs = phaseStartNs;
+            sequence = 0;
+        }
+    }
+
+    /**
+     * Stops the reporting thread and reports the final partial interval.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        tick(true);
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close metrics log: " + e.getMessage());
+            }
+            log = null;
+        }
+    }
+
+    /**
+     * Snapshots and reports one interval.
+     *
+     * @param partial whether the interval was cut short; a partial interval without evaluations is not reported
+     */
+    private synchronized void tick(boolean partial) {
+        long nowNs = System.nanoTime();
+        double intervalSec = (nowNs - lastTickNs) / 1_000_000_000.0;
+        double elapsedSec = (nowNs - startNs) / 1_000_000_000.0;
+        lastTickNs = nowNs;
+        if (intervalSec <= 0.0) {
+            return;
+        }
+
+        long gcCount = gcCount();
+        long gcTimeMs = gcTimeMs();
+        long gcCountDelta = gcCount - lastGcCount;
+        long gcTimeDelta = gcTimeMs - lastGcTimeMs;
+        lastGcCount = gcCount;
+        lastGcTimeMs = gcTimeMs;
+        double heapUsedMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0);
+        String timestamp = Instant.now().toString();
+        String gcColumns = gcCountDelta + "," + gcTimeDelta + "," + String.format("%.1f", heapUsedMb);
+
+        List<LiveMetrics.EngineMetrics> interval = metrics.drainInterval();
+        if (listener != null) {
+            notifyListener(interval, partial, (nowNs - phaseStartNs) / 1_000_000_000.0 - intervalSec,
+                (nowNs - phaseStartNs) / 1_000_000_000.0, gcCountDelta);
+        }
+        int engineCount = interval.size();
+        for (LiveMetrics.EngineMetrics engineMetrics : interval) {
+            Map<Integer, LatencyHistogram> classes = engineMetrics.latencies;
+            LatencyHistogram all = engineMetrics.all();
+            if (partial && all.getTotalCount() == 0) {
+                continue;
+            }
+
+            String engine = engineMetrics.engine;
+            System.out.println(String.format(
+                "  [%8.1fs] %-7s %s%.0f evals/s  p50 %.6f ms  p99 %.6f ms  max %.6f ms  gc %d (%d ms)",
+                elapsedSec, phase, (engineCount > 1) ? engine + " " : "",
+                all.getTotalCount() / intervalSec,
+                all.getValueAtPercentile(50.0) / NANOS_PER_MS,
+                all.getValueAtPercentile(99.0) / NANOS_PER_MS,
+                all.getMaxNs() / NANOS_PER_MS,
+                gcCountDelta, gcTimeDelta));
+
+            if (log != null) {
+                String prefix = timestamp + "," + String.format("%.3f", elapsedSec) + "," + phase + ","
+                    + config.threads() + "," + csv(engine) + ",";
+                try {
+                    for (Map.Entry<Integer, LatencyHistogram> entry : classes.entrySet()) {
+                        writeRow(prefix + csv(metrics.classLabel(entry.getKey())), entry.getValue(), intervalSec,
+                            gcColumns);
+                    }
+                    writeRow(prefix + "all", all, intervalSec, gcColumns);
+                    log.flush();
+                } catch (IOException ex) {
+                    System.err.println("Live metrics log disabled: " + ex.getMessage());
+                    log = null;
+                }
+            }
+        }
+    }
+
+    private void notifyListener(List<LiveMetrics.EngineMetrics> interval, boolean partial, double startSec,
+                                double endSec, long gcCountDelta) {
+        Map<String, Map<Integer, LatencyHistogram>> latencies = new LinkedHashMap<>();
+        Map<String, Map<Integer, Long>> failures = new LinkedHashMap<>();
+        long evaluations = 0;
+        for (LiveMetrics.EngineMetrics engineMetrics : interval) {
+            latencies.put(engineMetrics.engine, engineMetrics.latencies);
+            failures.put(engineMetrics.engine, engineMetrics.failures);
+            evaluations += engineMetrics.all().getTotalCount();
+        }
+        // Empty slivers, such as the tick right after a phase starts, would read as stalls in a timeline
+        if (evaluations == 0 && (partial || endSec - startSec < config.metricsIntervalMs() / 2000.0)) {
+            return;
+        }
+        listener.interval(new IntervalSnapshot(phase, sequence++, Math.max(0.0, startSec), endSec, latencies,
+            failures, gcCountDelta));
+    }
+
+    private void writeRow(String prefix, LatencyHistogram histogram, double intervalSec, String gcColumns)
+        throws IOException {
+        log.write(prefix + "," + histogram.getTotalCount()
+            + "," + String.format("%.1f", histogram.getTotalCount() / intervalSec)
+            + "," + String.format("%.6f", histogram.getMeanNs() / NANOS_PER_MS)
+            + "," + String.format("%.6f", histogram.getValueAtPercentile(50.0) / NANOS_PER_MS)
+            + "," + String.format("%.6f", histogram.getValueAtPercentile(99.0) / NANOS_PER_MS)
+            + "," + String.format("%.6f", histogram.getMaxNs() / NANOS_PER_MS)
+            + "," + gcColumns);
+        log.newLine();
+    }
+
+    /** Quotes a CSV field that contains a separator or quote. */
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    static long gcTimeMs() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -1,31 +1,67 @@
 package net.magneticpotato.service;
 
 import net.magneticpotato.model.*;
-import net.magneticpotato.sqlexpr.congocc.SqlExprEvaluator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
  * Orchestrates the load testing of SQL expressions.
+ * Evaluations are spread over one or more {@link EvaluationWorker}s, each
+ * with its own timing accumulators, which are merged once the run completes.
  */
 public class LoadTester {
-    private final int iterations;
+    private final LoadTestConfig config;
     private final String inputFilePath;
-    private final Map<Integer, ClassTimings> classTimingsMap;
+    private final List<Map<Integer, ClassTimings>> engineTimings;
     private final List<FailedEvaluation> failedEvaluations;
-    private final Map<String, Integer> complexityCache;
-    private final Set<String> failedExpressions;
+    private final List<Set<String>> failedExpressions;
+    private final List<ExpressionCache<PreparedExpression>> caches;
+    private String corpusFormat = ExpressionLoader.Format.JSON.label();
+    private double loadTimeMs;
+    private long corpusHeapBytes = -1L;
+    private int passesStarted;
+    private RunListener listener;
 
     public LoadTester(int iterations, String inputFilePath) {
-        this.iterations = iterations;
+        this(LoadTestConfig.builder().iterations(iterations).build(), inputFilePath);
+    }
+
+    public LoadTester(LoadTestConfig config, String inputFilePath) {
+        this.config = config;
         this.inputFilePath = inputFilePath;
-        this.classTimingsMap = new TreeMap<>();
+        this.engineTimings = new ArrayList<>();
         this.failedEvaluations = new ArrayList<>();
-        this.complexityCache = new HashMap<>();
-        this.failedExpressions = new HashSet<>();
+        this.failedExpressions = new ArrayList<>();
+        for (int i = 0; i < config.engines().size(); i++) {
+            engineTimings.add(new TreeMap<>());
+            failedExpressions.add(ConcurrentHashMap.newKeySet());
+        }
+        if (config.cachePolicy() == ExpressionCache.Policy.NONE) {
+            this.caches = null;
+        } else {
+            this.caches = new ArrayList<>();
+            for (int i = 0; i < config.engines().size(); i++) {
+                caches.add(ExpressionCache.create(config.cachePolicy(), config.cacheSize(), config.threads()));
+            }
+        }
+    }
+
+    /**
+     * Sets the listener that is told before each phase starts and, when the
+     * run reports live metrics, handed every interval.
+     */
+    public void setRunListener(RunListener listener) {
+        this.listener = listener;
     }
 
     /**
@@ -35,101 +71,546 @@ public class LoadTester {
      * @return load test results
      */
     public LoadTestResult run(List<ExpressionData> expressions) {
+        return run(new ExpressionLoader.LoadedExpressions(expressions, inputFilePath));
+    }
+
+    /**
+     * Runs the load test on a loaded corpus, reusing its precomputed
+     * complexities when the format provides them and timings are grouped
+     * by complexity.
+     *
+     * @param loaded the loaded corpus
+     * @return load test results
+     */
+    public LoadTestResult run(ExpressionLoader.LoadedExpressions loaded) {
         ZonedDateTime startLocal = ZonedDateTime.now();
-        ZonedDateTime startUtc = startLocal.withZoneSameInstant(ZoneId.of("UTC"));
+        List<ExpressionData> expressions = loaded.expressions();
+        corpusFormat = loaded.format().label();
+        loadTimeMs = loaded.loadTimeMs();
+        corpusHeapBytes = loaded.heapBytes();
 
-        // Pre-calculate complexities and initialize timings
-        for (ExpressionData expr : expressions) {
-            int complexity = ComplexityCalculator.calculate(expr.expr());
-            complexityCache.put(expr.expr(), complexity);
-            classTimingsMap.computeIfAbsent(complexity, k -> new ClassTimings());
+        // Pre-classify the expressions and count the expressions in each class
+        ExpressionProfile[] profiles = null;
+        int[] classes;
+        if (config.needsProfiles()) {
+            profiles = ExpressionProfiler.profileAll(expressions);
+            classes = new int[profiles.length];
+            for (int i = 0; i < profiles.length; i++) {
+                classes[i] = config.grouping().groupOf(profiles[i]);
+            }
+        } else {
+            classes = loaded.complexities();
+            if (classes == null) {
+                classes = ComplexityCalculator.calculateAll(expressions);
+            }
         }
+        Map<Integer, Integer> classCounts = new TreeMap<>();
+        for (int classId : classes) {
+            classCounts.merge(classId, 1, Integer::sum);
+        }
+
+        // Resolve everything the measurement loop needs up front
+        ExecutionPlan plan = ExecutionPlan.compile(expressions, classes, profiles, config.engines().size());
+        WorkloadShaper shaper = new WorkloadShaper(config.workload(), classes);
+        int timingBatch = config.timingBatch();
 
-        // Mark unique expressions in each class
-        for (ExpressionData expr : expressions) {
-            int complexity = complexityCache.get(expr.expr());
-            classTimingsMap.get(complexity).incrementUniqueExpr();
+        return execute(
+            // Batched timing needs the expressions of a class next to each other
+            pass -> (timingBatch > 1)
+                ? new ListBatchSource(plan, plan.groupedByClass(shaper.order(pass)),
+                    Math.max(EvaluationWorker.CHUNK_SIZE, timingBatch))
+                : new ListBatchSource(plan, shaper.order(pass), EvaluationWorker.CHUNK_SIZE),
+            classCounts,
+            startLocal
+        );
+    }
+
+    /**
+     * Runs the load test on a streamed corpus. Each pass re-reads the source
+     * with bounded read-ahead, and expressions are classified as they are
+     * read, so memory use does not depend on the corpus size.
+     *
+     * @param source the corpus to stream
+     * @return load test results
+     */
+    public LoadTestResult run(CorpusSource source) {
+        if (!config.workload().isSequential()) {
+            throw new IllegalArgumentException("A streamed corpus can only be visited in file order");
+        }
+        if (config.timingBatch() > 1) {
+            throw new IllegalArgumentException("Batched timing needs a loaded corpus");
         }
+        ZonedDateTime startLocal = ZonedDateTime.now();
+
+        corpusFormat = source.format().label() + " (streamed)";
+        loadTimeMs = 0.0;
+        corpusHeapBytes = -1L;
+
+        // Class sizes are counted by the reader during the first pass
+        Map<Integer, Integer> classCounts = new TreeMap<>();
+
+        return execute(
+            pass -> {
+                try {
+                    return new StreamingBatchSource(source, EvaluationWorker.CHUNK_SIZE,
+                        config.readAhead(), (pass == 0) ? classCounts : null, config.grouping(),
+                        config.regression());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to open corpus: " + source.absolutePath(), e);
+                }
+            },
+            classCounts,
+            startLocal
+        );
+    }
+
+    /**
+     * Opens the batches of one pass over the corpus.
+     */
+    @FunctionalInterface
+    private interface PassFactory {
+        /**
+         * @param pass number of the pass in the run, counting warmup passes from 0
+         */
+        BatchSource open(int pass);
+    }
 
-        // Run iterations
-        for (int iter = 0; iter < iterations; iter++) {
-            if (iterations > 1 && (iter + 1) % 10 == 0) {
-                System.out.println("  Completed iteration " + (iter + 1) + "/" + iterations);
+    /**
+     * Runs warmup and measured passes, then merges and summarises the results.
+     *
+     * @param passes opens each pass over the corpus
+     * @param classCounts expressions per complexity class, complete once the first pass has run
+     * @param startLocal when the run started
+     * @return load test results
+     */
+    private LoadTestResult execute(PassFactory passes, Map<Integer, Integer> classCounts,
+                                   ZonedDateTime startLocal) {
+        ZonedDateTime startUtc = startLocal.withZoneSameInstant(ZoneId.of("UTC"));
+        int iterations = config.iterations();
+
+        List<ExpressionEvaluator> engines = config.engines();
+
+        TimerCalibration timer = TimerCalibration.measure();
+        System.out.println(String.format("Timer: nanoTime latency %.1f ns, granularity %d ns",
+            timer.latencyNs(), timer.granularityNs()));
+
+        List<EvaluationWorker> workers = new ArrayList<>(config.threads());
+        for (int i = 0; i < config.threads(); i++) {
+            workers.add(new EvaluationWorker(config, failedExpressions, caches));
+        }
+
+        ExecutorService executor = createExecutor();
+        LiveMetricsReporter live = null;
+        MetricsServer metricsServer = null;
+        JfrProfiler profiler = null;
+        WarmupSummary warmup;
+        long wallStartNs;
+        long wallEndNs;
+        long gcCount;
+        long gcTimeMs;
+        try {
+            LiveMetrics liveMetrics = config.liveMetrics() ? LiveMetrics.of(config, workers) : null;
+            if (config.metricsAddress() != null) {
+                try {
+                    metricsServer = new MetricsServer(liveMetrics, config.metricsAddress());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to bind metrics endpoint: " + config.metricsAddress(), e);
+                }
+                metricsServer.start();
+            }
+            if (config.metricsIntervalMs() > 0) {
+                LiveMetricsReporter reporter = new LiveMetricsReporter(config, liveMetrics, listener);
+                try {
+                    reporter.start();
+                    live = reporter;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to open metrics log: " + config.metricsLog(), e);
+                }
+            }
+
+            if (listener != null) {
+                listener.beforePhase("warmup");
+            }
+            warmup = runWarmup(passes, workers, executor);
+            if (listener != null) {
+                listener.beforePhase("measure");
+            }
+            if (live != null) {
+                live.phase("measure");
+            }
+
+            // Warmup runs closed loop; the measured passes follow the schedule
+            ArrivalSchedule schedule = null;
+            if (config.arrivals().isOpenLoop()) {
+                schedule = new ArrivalSchedule(config.arrivals());
+                for (EvaluationWorker worker : workers) {
+                    worker.setSchedule(schedule);
+                }
+            }
+
+            // The flight recording covers the measured passes only
+            if (config.jfrRecording() != null) {
+                profiler = new JfrProfiler(config.jfrRecording());
+                try {
+                    profiler.start();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to start flight recording", e);
+                }
+                for (EvaluationWorker worker : workers) {
+                    worker.setJfrSampling(config.jfrSampleEvery());
+                }
             }
 
-            for (ExpressionData expr : expressions) {
-                // Skip if this expression has already failed
-                if (failedExpressions.contains(expr.expr())) {
-                    continue;
+            // Run iterations
+            long gcCountBefore = LiveMetricsReporter.gcCount();
+            long gcTimeBefore = LiveMetricsReporter.gcTimeMs();
+            wallStartNs = System.nanoTime();
+            if (schedule != null) {
+                schedule.start(wallStartNs);
+            }
+            if (config.durationMs() > 0) {
+                // Whole passes until the deadline, which also cuts the last pass short
+                long deadlineNs = wallStartNs + config.durationMs() * 1_000_000L;
+                for (EvaluationWorker worker : workers) {
+                    worker.setDeadline(deadlineNs);
+                }
+                iterations = 0;
+                while (System.nanoTime() - deadlineNs < 0) {
+                    runPass(passes, workers, executor);
+                    iterations++;
                 }
+            } else {
+                for (int iter = 0; iter < iterations; iter++) {
+                    if (iterations > 1 && (iter + 1) % 10 == 0) {
+                        System.out.println("  Completed iteration " + (iter + 1) + "/" + iterations);
+                    }
 
-                evaluateExpression(expr);
+                    runPass(passes, workers, executor);
+                }
+            }
+            wallEndNs = System.nanoTime();
+            gcCount = LiveMetricsReporter.gcCount() - gcCountBefore;
+            gcTimeMs = LiveMetricsReporter.gcTimeMs() - gcTimeBefore;
+            if (profiler != null) {
+                try {
+                    profiler.stop();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to write flight recording: " + config.jfrRecording(), e);
+                }
+            }
+        } finally {
+            if (profiler != null) {
+                profiler.close();
+            }
+            if (live != null) {
+                live.close();
+            }
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+            if (executor != null) {
+                executor.shutdownNow();
             }
         }
 
-        // Compute statistics
-        List<ClassStatistics> classStats = classTimingsMap.entrySet().stream()
-            .map(entry -> ClassStatistics.fromTimings(entry.getKey(), entry.getValue()))
-            .collect(Collectors.toList());
+        // Initialize timings with the unique expressions in each class
+        for (Map<Integer, ClassTimings> classTimingsMap : engineTimings) {
+            classCounts.forEach((complexity, count) -> {
+                ClassTimings timings = classTimingsMap.computeIfAbsent(complexity, k -> new ClassTimings());
+                for (int i = 0; i < count; i++) {
+                    timings.incrementUniqueExpr();
+                }
+            });
+        }
+
+        // Merge per-worker results
+        for (EvaluationWorker worker : workers) {
+            List<Map<Integer, ClassTimings>> workerTimings = worker.getClassTimings();
+            for (int e = 0; e < engines.size(); e++) {
+                Map<Integer, ClassTimings> classTimingsMap = engineTimings.get(e);
+                workerTimings.get(e).forEach((complexity, timings) ->
+                    classTimingsMap.computeIfAbsent(complexity, k -> new ClassTimings()).merge(timings));
+            }
+            failedEvaluations.addAll(worker.getFailedEvaluations());
+        }
+
+        // Merge latency regressions
+        List<LatencyRegression> regressions = null;
+        if (config.regression()) {
+            regressions = new ArrayList<>();
+            for (int e = 0; e < engines.size(); e++) {
+                LatencyRegression merged = new LatencyRegression();
+                for (EvaluationWorker worker : workers) {
+                    merged.add(worker.getRegressions().get(e));
+                }
+                regressions.add(merged);
+            }
+        }
+
+        // Compute statistics per engine
+        List<EngineResult> engineResults = new ArrayList<>();
+        for (int e = 0; e < engines.size(); e++) {
+            RegressionResult regression = (regressions == null) ? null : regressions.get(e).fit();
+            engineResults.add(buildEngineResult(e, engineTimings.get(e), regression));
+        }
+        List<ClassStatistics> classStats = engineResults.get(0).classStats();
 
         // Compute overall statistics
         int totalUniqueExpr = classStats.stream()
             .mapToInt(ClassStatistics::uniqueExpressions)
             .sum();
 
-        long totalEvaluations = classStats.stream()
-            .mapToLong(ClassStatistics::totalEvaluations)
+        long totalEvaluations = engineResults.stream()
+            .mapToLong(EngineResult::totalEvaluations)
             .sum();
 
-        double totalTime = classStats.stream()
-            .mapToDouble(ClassStatistics::totalTimeMs)
+        double totalTime = engineResults.stream()
+            .mapToDouble(EngineResult::totalTimeMs)
             .sum();
 
+        double wallClockMs = (wallEndNs - wallStartNs) / 1_000_000.0;
+        double throughput = (wallClockMs > 0) ? totalEvaluations / (wallClockMs / 1000.0) : 0.0;
+
         OverallStatistics overall = new OverallStatistics(
             inputFilePath,
+            corpusFormat,
+            loadTimeMs,
+            corpusHeapBytes,
             startLocal,
             startUtc,
             iterations,
+            config.threads(),
+            config.virtualThreads(),
             totalUniqueExpr,
             totalEvaluations,
             totalTime,
-            failedEvaluations.size()
+            wallClockMs,
+            throughput,
+            failedEvaluations.size(),
+            gcCount,
+            gcTimeMs,
+            timer
         );
 
-        return new LoadTestResult(overall, classStats, failedEvaluations);
+        // A failed analysis leaves the recording on disk for other tools
+        JfrProfile jfr = null;
+        if (profiler != null) {
+            ExpressionGrouping grouping = config.grouping();
+            try {
+                jfr = profiler.analyze(config.jfrSampleEvery(),
+                    id -> grouping.isComplexity() ? String.valueOf(id) : grouping.label(id));
+            } catch (IOException e) {
+                System.err.println("Failed to analyze flight recording: " + e.getMessage());
+            }
+        }
+
+        return new LoadTestResult(overall, classStats, failedEvaluations, warmup, engineResults,
+            config.grouping(), config.arrivals(), config.workload(), null, jfr, null, null);
     }
 
     /**
-     * Evaluates a single expression and records timing.
+     * Computes the statistics of one engine from its merged timings.
+     * Because engines are interleaved, wall clock time cannot be split between
+     * them; throughput is derived from the engine's busy time instead.
+     */
+    private EngineResult buildEngineResult(int engineIndex, Map<Integer, ClassTimings> classTimingsMap,
+                                           RegressionResult regression) {
+        ExpressionEvaluator evaluator = config.engines().get(engineIndex);
+        String engine = evaluator.name();
+        List<ClassStatistics> classStats = classTimingsMap.entrySet().stream()
+            .map(entry -> ClassStatistics.fromTimings(entry.getKey(), entry.getValue()))
+            .collect(Collectors.toList());
+
+        long evaluations = classStats.stream()
+            .mapToLong(ClassStatistics::totalEvaluations)
+            .sum();
+
+        double totalTime = classStats.stream()
+            .mapToDouble(ClassStatistics::totalTimeMs)
+            .sum();
+
+        double throughput = (totalTime > 0)
+            ? evaluations / (totalTime / 1000.0) * config.threads()
+            : 0.0;
+
+        int failures = (int) failedEvaluations.stream()
+            .filter(failure -> failure.engine().equals(engine))
+            .count();
+
+        List<PhaseStatistics> phaseStats = classTimingsMap.entrySet().stream()
+            .filter(entry -> entry.getValue().hasPhaseTimings())
+            .map(entry -> PhaseStatistics.fromTimings(entry.getKey(), entry.getValue()))
+            .collect(Collectors.toList());
+
+        CacheSummary cacheSummary = null;
+        if (caches != null) {
+            ExpressionCache<PreparedExpression> cache = caches.get(engineIndex);
+            cacheSummary = new CacheSummary(
+                config.cachePolicy().name(),
+                cache.capacity(),
+                cache.size(),
+                phaseStats.stream().mapToLong(PhaseStatistics::cacheHits).sum(),
+                phaseStats.stream().mapToLong(PhaseStatistics::cacheMisses).sum(),
+                cache.evictions()
+            );
+        }
+
+        OpenLoopSummary openLoop = null;
+        if (config.arrivals().isOpenLoop()) {
+            LatencyHistogram service = new LatencyHistogram();
+            LatencyHistogram response = new LatencyHistogram();
+            List<ResponseStatistics> responseStats = new ArrayList<>();
+            classTimingsMap.forEach((classId, timings) -> {
+                if (timings.hasResponseTimings()) {
+                    service.add(timings.getHistogram());
+                    response.add(timings.getResponseHistogram());
+                    responseStats.add(ResponseStatistics.fromTimings(classId, timings));
+                }
+            });
+            openLoop = new OpenLoopSummary(ResponseStatistics.fromHistograms(-1, service, response), responseStats);
+        }
+
+        return new EngineResult(engine, classStats, evaluations, totalTime, throughput, failures,
+            phaseStats, cacheSummary, evaluator.supportsPreparation(), regression, openLoop);
+    }
+
+    /**
+     * Runs the warmup phase described by the configured {@link WarmupPolicy}.
+     * Timings recorded during warmup are discarded; failures are kept so
+     * failing expressions are skipped in the measured phase as usual.
      *
-     * @param expr the expression to evaluate
+     * @return summary of the warmup phase
      */
-    private void evaluateExpression(ExpressionData expr) {
-        int complexity = complexityCache.get(expr.expr());
-        ClassTimings timings = classTimingsMap.get(complexity);
+    private WarmupSummary runWarmup(PassFactory passes, List<EvaluationWorker> workers,
+                                    ExecutorService executor) {
+        WarmupPolicy policy = config.warmup();
+        if (policy.mode() == WarmupPolicy.Mode.NONE) {
+            return new WarmupSummary(policy, 0, 0, 0.0, false, 0, Double.NaN);
+        }
 
+        System.out.println("Warming up: " + policy.describe());
+
+        Map<String, Deque<Double>> meanWindows = new TreeMap<>();
         long startNs = System.nanoTime();
-        try {
-            boolean result = SqlExprEvaluator.match(expr.expr(), expr.value_map());
-            long endNs = System.nanoTime();
+        long evaluations = 0;
+        int passCount = 0;
+        boolean steady = false;
+        double maxCv = Double.NaN;
+
+        while (passCount < policy.maxIterations()) {
+            if (policy.mode() == WarmupPolicy.Mode.DURATION
+                && (System.nanoTime() - startNs) / 1_000_000 >= policy.durationMs()) {
+                break;
+            }
+
+            runPass(passes, workers, executor);
+            passCount++;
+
+            // Key each class by engine so every engine has to settle
+            Map<String, ClassTimings> passTimings = new TreeMap<>();
+            for (EvaluationWorker worker : workers) {
+                List<Map<Integer, ClassTimings>> workerTimings = worker.swapClassTimings();
+                for (int e = 0; e < workerTimings.size(); e++) {
+                    int engine = e;
+                    workerTimings.get(e).forEach((complexity, timings) ->
+                        passTimings.computeIfAbsent(engine + ":" + complexity, k -> new ClassTimings())
+                            .merge(timings));
+                }
+            }
+            for (ClassTimings timings : passTimings.values()) {
+                evaluations += timings.getEvaluationCount();
+            }
+
+            if (policy.mode() == WarmupPolicy.Mode.AUTO) {
+                maxCv = updateMeanWindows(meanWindows, passTimings, policy.window());
+                if (!Double.isNaN(maxCv) && maxCv < policy.cvThreshold()) {
+                    steady = true;
+                    break;
+                }
+            }
+        }
+
+        double durationMs = (System.nanoTime() - startNs) / 1_000_000.0;
+        if (policy.mode() == WarmupPolicy.Mode.AUTO) {
+            System.out.println(steady
+                ? "  Steady state reached after " + passCount + " warmup iteration(s)"
+                : "  Steady state not reached after " + passCount + " warmup iteration(s)");
+        }
+
+        return new WarmupSummary(policy, passCount, evaluations, durationMs, steady,
+            steady ? passCount : 0, maxCv);
+    }
 
-            double durationMs = (endNs - startNs) / 1_000_000.0;
-            timings.addTiming(durationMs);
+    /**
+     * Adds the per-class mean latency of the latest pass to the sliding
+     * windows and returns the largest coefficient of variation across
+     * classes, or NaN while any window is still filling up.
+     */
+    private static double updateMeanWindows(Map<String, Deque<Double>> meanWindows,
+                                            Map<String, ClassTimings> passTimings, int window) {
+        passTimings.forEach((key, timings) -> {
+            Deque<Double> means = meanWindows.computeIfAbsent(key, k -> new ArrayDeque<>());
+            means.addLast(timings.getHistogram().getMeanNs());
+            if (means.size() > window) {
+                means.removeFirst();
+            }
+        });
 
-        } catch (Exception e) {
-            long endNs = System.nanoTime();
-            double durationMs = (endNs - startNs) / 1_000_000.0;
+        double maxCv = 0.0;
+        for (Deque<Double> means : meanWindows.values()) {
+            if (means.size() < window) {
+                return Double.NaN;
+            }
+            double mean = means.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+            double sumSquaredDiffs = means.stream()
+                .mapToDouble(m -> Math.pow(m - mean, 2))
+                .sum();
+            double stdDev = Math.sqrt(sumSquaredDiffs / (means.size() - 1));
+            double cv = (mean > 0) ? stdDev / mean : 0.0;
+            maxCv = Math.max(maxCv, cv);
+        }
+        return meanWindows.isEmpty() ? Double.NaN : maxCv;
+    }
 
-            // Record timing even for failures
-            timings.addTiming(durationMs);
+    /**
+     * Runs one pass over the corpus, sharing its batches among all workers.
+     * A single platform-thread worker runs on the calling thread.
+     */
+    private void runPass(PassFactory passes, List<EvaluationWorker> workers, ExecutorService executor) {
+        try (BatchSource source = passes.open(passesStarted++)) {
+            if (executor == null) {
+                workers.get(0).runPass(source);
+                return;
+            }
 
-            // Mark as failed and add to failed list
-            failedExpressions.add(expr.expr());
-            failedEvaluations.add(new FailedEvaluation(
-                expr.expr(),
-                expr.value_map(),
-                e.getClass().getSimpleName() + ": " + e.getMessage()
-            ));
+            List<Future<?>> futures = new ArrayList<>(workers.size());
+            for (EvaluationWorker worker : workers) {
+                futures.add(executor.submit(() -> worker.runPass(source)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Load test interrupted", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Worker failed: " + e.getCause(), e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the executor that hosts the workers, or null when the run is
+     * single-threaded on platform threads.
+     */
+    private ExecutorService createExecutor() {
+        if (config.virtualThreads()) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        if (config.threads() > 1) {
+            return Executors.newFixedThreadPool(config.threads());
         }
+        return null;
     }
 }
@@ -0,0 +1,58 @@
+package net.magneticpotato.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used expression cache.
+ *
+ * @param <V> the cached value type
+ */
+public class LruExpressionCache<V> implements ExpressionCache<V> {
+
+    private final int capacity;
+    private final LinkedHashMap<String, V> entries;
+    private long evictions;
+
+    public LruExpressionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be >= 1");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                if (size() > LruExpressionCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized V get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(String key, V value) {
+        entries.put(key, value);
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
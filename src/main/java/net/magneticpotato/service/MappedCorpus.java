@@ -0,0 +1,262 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only view of a {@link BinaryCorpus} file mapped into memory.
+ * <p>
+ * Records are decoded into {@link ExpressionData} on each access, so the
+ * corpus itself stays in the page cache rather than on the heap. Strings
+ * are decoded once and shared, which also makes repeated expressions the
+ * same instance. Files larger than 2 GiB are mapped in several windows.
+ * Safe for concurrent readers.
+ */
+public class MappedCorpus extends AbstractList<ExpressionData> implements RandomAccess {
+
+    private static final int WINDOW_BITS = 30;
+    private static final long WINDOW_SIZE = 1L << WINDOW_BITS;
+
+    private final MappedByteBuffer[] windows;
+    private final int recordCount;
+    private final long recordIndexOffset;
+    private final long stringIndexOffset;
+    private final int classifierVersion;
+    private final String[] strings;
+
+    private MappedCorpus(MappedByteBuffer[] windows, int recordCount, int stringCount,
+                         long recordIndexOffset, long stringIndexOffset, int classifierVersion) {
+        this.windows = windows;
+        this.recordCount = recordCount;
+        this.recordIndexOffset = recordIndexOffset;
+        this.stringIndexOffset = stringIndexOffset;
+        this.classifierVersion = classifierVersion;
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * Maps a binary corpus file.
+     *
+     * @param path the file to map
+     * @return the mapped corpus
+     * @throws IOException if the file cannot be mapped or is not a binary corpus
+     */
+    public static MappedCorpus open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < BinaryCorpus.HEADER_SIZE_V1) {
+                throw new IOException("Not a binary corpus (too short): " + path);
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((size + WINDOW_SIZE - 1) >>> WINDOW_BITS)];
+            for (int i = 0; i < windows.length; i++) {
+                long position = (long) i << WINDOW_BITS;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(WINDOW_SIZE, size - position));
+            }
+
+            MappedByteBuffer header = windows[0];
+            if (header.getInt(0) != BinaryCorpus.MAGIC) {
+                throw new IOException("Not a binary corpus (bad magic): " + path);
+            }
+            int version = header.getInt(4);
+            if (version != 1 && version != BinaryCorpus.VERSION) {
+                throw new IOException("Unsupported binary corpus version " + version + ": " + path);
+            }
+            if (version > 1 && size < BinaryCorpus.HEADER_SIZE) {
+                throw new IOException("Not a binary corpus (too short): " + path);
+            }
+            int classifierVersion = (version == 1) ? 1 : header.getInt(32);
+            int recordCount = header.getInt(8);
+            int stringCount = header.getInt(12);
+            long recordIndexOffset = header.getLong(16);
+            long stringIndexOffset = header.getLong(24);
+            if (recordCount < 0 || stringCount < 0
+                    || recordIndexOffset + 8L * recordCount != size
+                    || stringIndexOffset + 8L * stringCount != recordIndexOffset) {
+                throw new IOException("Corrupt binary corpus header: " + path);
+            }
+
+            return new MappedCorpus(windows, recordCount, stringCount, recordIndexOffset, stringIndexOffset,
+                classifierVersion);
+        }
+    }
+
+    @Override
+    public int size() {
+        return recordCount;
+    }
+
+    @Override
+    public ExpressionData get(int index) {
+        long pos = recordOffset(index);
+        return new ExpressionData(string(readInt(pos)), decodeBindings(pos));
+    }
+
+    /**
+     * Returns the expression text of a record without decoding its bindings.
+     */
+    public String expression(int index) {
+        return string(expressionId(index));
+    }
+
+    /**
+     * Returns the id of a record's expression text in the string table;
+     * records with equal expressions have equal ids.
+     */
+    public int expressionId(int index) {
+        return readInt(recordOffset(index));
+    }
+
+    /**
+     * Returns the number of strings in the string table, an upper bound of
+     * the {@link #expressionId(int)}s.
+     */
+    public int stringCount() {
+        return strings.length;
+    }
+
+    /**
+     * Decodes the bindings of a record into a new map.
+     */
+    public Map<String, Object> bindings(int index) {
+        return decodeBindings(recordOffset(index));
+    }
+
+    private Map<String, Object> decodeBindings(long recordPos) {
+        long pos = recordPos;
+        int varCount = readInt(pos + 8);
+        pos += 12;
+
+        Map<String, Object> values = new LinkedHashMap<>(Math.max(4, varCount * 4 / 3 + 1));
+        for (int v = 0; v < varCount; v++) {
+            String name = string(readInt(pos));
+            byte tag = readByte(pos + 4);
+            pos += 5;
+            Object value;
+            switch (tag) {
+                case BinaryCorpus.TAG_NULL -> value = null;
+                case BinaryCorpus.TAG_INT -> {
+                    value = readInt(pos);
+                    pos += 4;
+                }
+                case BinaryCorpus.TAG_LONG -> {
+                    value = readLong(pos);
+                    pos += 8;
+                }
+                case BinaryCorpus.TAG_DOUBLE -> {
+                    value = Double.longBitsToDouble(readLong(pos));
+                    pos += 8;
+                }
+                case BinaryCorpus.TAG_STRING -> {
+                    value = string(readInt(pos));
+                    pos += 4;
+                }
+                case BinaryCorpus.TAG_TRUE -> value = Boolean.TRUE;
+                case BinaryCorpus.TAG_FALSE -> value = Boolean.FALSE;
+                default -> throw new IllegalStateException("Corrupt binary corpus: unknown value tag " + tag);
+            }
+            values.put(name, value);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the {@link ComplexityCalculator#VERSION} the stored complexities
+     * were computed with.
+     */
+    public int classifierVersion() {
+        return classifierVersion;
+    }
+
+    /**
+     * Returns the complexity of a record, precomputed at conversion time by
+     * the {@link #classifierVersion()} of the classifier.
+     */
+    public int complexity(int index) {
+        return readInt(recordOffset(index) + 4);
+    }
+
+    /**
+     * Returns the precomputed complexity of every record, in record order.
+     */
+    public int[] complexities() {
+        int[] complexities = new int[recordCount];
+        for (int i = 0; i < recordCount; i++) {
+            complexities[i] = complexity(i);
+        }
+        return complexities;
+    }
+
+    private long recordOffset(int index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + recordCount);
+        }
+        return readLong(recordIndexOffset + 8L * index);
+    }
+
+    private String string(int id) {
+        String s = strings[id];
+        if (s == null) {
+            // Racing readers decode the same value; either copy may win
+            long pos = readLong(stringIndexOffset + 8L * id);
+            byte[] utf8 = readBytes(pos + 4, readInt(pos));
+            s = new String(utf8, StandardCharsets.UTF_8);
+            strings[id] = s;
+        }
+        return s;
+    }
+
+    private byte readByte(long pos) {
+        return windows[(int) (pos >>> WINDOW_BITS)].get((int) (pos & (WINDOW_SIZE - 1)));
+    }
+
+    private int readInt(long pos) {
+        int offset = (int) (pos & (WINDOW_SIZE - 1));
+        if (offset <= WINDOW_SIZE - 4) {
+            return windows[(int) (pos >>> WINDOW_BITS)].getInt(offset);
+        }
+        return (int) readStraddling(pos, 4);
+    }
+
+    private long readLong(long pos) {
+        int offset = (int) (pos & (WINDOW_SIZE - 1));
+        if (offset <= WINDOW_SIZE - 8) {
+            return windows[(int) (pos >>> WINDOW_BITS)].getLong(offset);
+        }
+        return readStraddling(pos, 8);
+    }
+
+    /** Reads a big-endian value that crosses a window boundary. */
+    private long readStraddling(long pos, int bytes) {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (readByte(pos + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private byte[] readBytes(long pos, int length) {
+        byte[] bytes = new byte[length];
+        int done = 0;
+        while (done < length) {
+            long at = pos + done;
+            int offset = (int) (at & (WINDOW_SIZE - 1));
+            int chunk = (int) Math.min(length - done, WINDOW_SIZE - offset);
+            windows[(int) (at >>> WINDOW_BITS)].get(offset, bytes, done, chunk);
+            done += chunk;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,226 @@
+package net.magneticpotato.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.magneticpotato.model.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the metrics of a run in progress at {@code /metrics} in the
+ * OpenMetrics text format, on the JDK's built-in HTTP server. Each scrape
+ * drains the workers' interval recorders through {@link LiveMetrics} on the
+ * server's own thread, so scraping adds no locking to the evaluation path.
+ */
+class MetricsServer implements AutoCloseable {
+
+    static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    /** Upper bounds of the latency histogram buckets, in seconds. */
+    private static final BigDecimal[] BUCKETS_SECONDS = latencyBuckets();
+
+    private final LiveMetrics metrics;
+    private final HttpServer server;
+    private final long startNs;
+    private long lastScrapeNs;
+    private long lastScrapeEvaluations;
+
+    /**
+     * Binds the server; it does not accept requests until {@link #start()}.
+     *
+     * @param metrics the run's live metrics
+     * @param address the address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    MetricsServer(LiveMetrics metrics, InetSocketAddress address) throws IOException {
+        this.metrics = metrics;
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext("/metrics", this::handle);
+        this.server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        this.startNs = System.nanoTime();
+        this.lastScrapeNs = startNs;
+    }
+
+    void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     */
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Renders all metrics in the OpenMetrics text format.
+     */
+    synchronized String render() {
+        List<LiveMetrics.EngineMetrics> totals = metrics.totals();
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("# TYPE sqlexpr_evaluations counter\n");
+        sb.append("# HELP sqlexpr_evaluations Evaluations completed, including warmup.\n");
+        long evaluations = 0;
+        for (LiveMetrics.EngineMetrics engine : totals) {
+            for (Map.Entry<Integer, LatencyHistogram> entry : engine.latencies.entrySet()) {
+                sb.append("sqlexpr_evaluations_total").append(labels(engine, entry.getKey())).append(' ')
+                    .append(entry.getValue().getTotalCount()).append('\n');
+                evaluations += entry.getValue().getTotalCount();
+            }
+        }
+
+        sb.append("# TYPE sqlexpr_failures counter\n");
+        sb.append("# HELP sqlexpr_failures Evaluations that failed.\n");
+        for (LiveMetrics.EngineMetrics engine : totals) {
+            for (Integer classId : engine.latencies.keySet()) {
+                sb.append("sqlexpr_failures_total").append(labels(engine, classId)).append(' ')
+                    .append(engine.failures.getOrDefault(classId, 0L)).append('\n');
+            }
+        }
+
+        sb.append("# TYPE sqlexpr_latency_seconds histogram\n");
+        sb.append("# UNIT sqlexpr_latency_seconds seconds\n");
+        sb.append("# HELP sqlexpr_latency_seconds Evaluation latency.\n");
+        for (LiveMetrics.EngineMetrics engine : totals) {
+            for (Map.Entry<Integer, LatencyHistogram> entry : engine.latencies.entrySet()) {
+                appendHistogram(sb, engine, entry.getKey(), entry.getValue());
+            }
+        }
+
+        long nowNs = System.nanoTime();
+        double windowSec = (nowNs - lastScrapeNs) / 1_000_000_000.0;
+        double throughput = (windowSec > 0) ? (evaluations - lastScrapeEvaluations) / windowSec : 0.0;
+        lastScrapeNs = nowNs;
+        lastScrapeEvaluations = evaluations;
+
+        sb.append("# TYPE sqlexpr_throughput_evals_per_second gauge\n");
+        sb.append("# HELP sqlexpr_throughput_evals_per_second Evaluations per second since the previous scrape.\n");
+        sb.append("sqlexpr_throughput_evals_per_second ").append(number(throughput)).append('\n');
+        sb.append("# TYPE sqlexpr_workers gauge\n");
+        sb.append("# HELP sqlexpr_workers Concurrent evaluation workers.\n");
+        sb.append("sqlexpr_workers ").append(metrics.workerCount()).append('\n');
+        sb.append("# TYPE sqlexpr_uptime_seconds gauge\n");
+        sb.append("# HELP sqlexpr_uptime_seconds Time since the run started.\n");
+        sb.append("sqlexpr_uptime_seconds ").append(number((nowNs - startNs) / 1_000_000_000.0)).append('\n');
+
+        appendJvm(sb);
+        sb.append("# EOF\n");
+        return sb.toString();
+    }
+
+    private void appendHistogram(StringBuilder sb, LiveMetrics.EngineMetrics engine, int classId,
+                                 LatencyHistogram histogram) {
+        String labels = labelPairs(engine, classId);
+        for (BigDecimal bucket : BUCKETS_SECONDS) {
+            long count = histogram.getCountAtOrBelow(bucket.movePointRight(9).longValueExact());
+            sb.append("sqlexpr_latency_seconds_bucket{").append(labels).append(",le=\"")
+                .append(bucket.toPlainString()).append("\"} ").append(count).append('\n');
+        }
+        sb.append("sqlexpr_latency_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ")
+            .append(histogram.getTotalCount()).append('\n');
+        sb.append("sqlexpr_latency_seconds_count{").append(labels).append("} ")
+            .append(histogram.getTotalCount()).append('\n');
+        sb.append("sqlexpr_latency_seconds_sum{").append(labels).append("} ")
+            .append(number(histogram.getTotalNs() / 1_000_000_000.0)).append('\n');
+    }
+
+    private static void appendJvm(StringBuilder sb) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        sb.append("# TYPE jvm_memory_heap_used_bytes gauge\n");
+        sb.append("# UNIT jvm_memory_heap_used_bytes bytes\n");
+        sb.append("jvm_memory_heap_used_bytes ").append(heap.getUsed()).append('\n');
+        sb.append("# TYPE jvm_memory_heap_committed_bytes gauge\n");
+        sb.append("# UNIT jvm_memory_heap_committed_bytes bytes\n");
+        sb.append("jvm_memory_heap_committed_bytes ").append(heap.getCommitted()).append('\n');
+        if (heap.getMax() >= 0) {
+            sb.append("# TYPE jvm_memory_heap_max_bytes gauge\n");
+            sb.append("# UNIT jvm_memory_heap_max_bytes bytes\n");
+            sb.append("jvm_memory_heap_max_bytes ").append(heap.getMax()).append('\n');
+        }
+
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        sb.append("# TYPE jvm_gc_collections counter\n");
+        sb.append("# HELP jvm_gc_collections Garbage collections per collector.\n");
+        for (GarbageCollectorMXBean gc : collectors) {
+            sb.append("jvm_gc_collections_total{gc=\"").append(escape(gc.getName())).append("\"} ")
+                .append(Math.max(0, gc.getCollectionCount())).append('\n');
+        }
+        sb.append("# TYPE jvm_gc_collection_seconds counter\n");
+        sb.append("# UNIT jvm_gc_collection_seconds seconds\n");
+        sb.append("# HELP jvm_gc_collection_seconds Time spent in garbage collection per collector.\n");
+        for (GarbageCollectorMXBean gc : collectors) {
+            sb.append("jvm_gc_collection_seconds_total{gc=\"").append(escape(gc.getName())).append("\"} ")
+                .append(number(Math.max(0, gc.getCollectionTime()) / 1000.0)).append('\n');
+        }
+    }
+
+    private String labels(LiveMetrics.EngineMetrics engine, int classId) {
+        return "{" + labelPairs(engine, classId) + "}";
+    }
+
+    private String labelPairs(LiveMetrics.EngineMetrics engine, int classId) {
+        return "engine=\"" + escape(engine.engine) + "\",class=\"" + escape(metrics.classLabel(classId)) + "\"";
+    }
+
+    /** Escapes a label value. */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /** Formats a number without an exponent. */
+    private static String number(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Returns bucket bounds of 1, 2.5 and 5 times each power of ten from
+     * 100 ns to 10 s.
+     */
+    private static BigDecimal[] latencyBuckets() {
+        BigDecimal[] buckets = new BigDecimal[25];
+        int i = 0;
+        for (int exponent = -7; exponent <= 0; exponent++) {
+            BigDecimal decade = BigDecimal.ONE.scaleByPowerOfTen(exponent);
+            buckets[i++] = decade;
+            buckets[i++] = decade.multiply(new BigDecimal("2.5"));
+            buckets[i++] = decade.multiply(BigDecimal.valueOf(5));
+        }
+        buckets[i] = BigDecimal.TEN;
+        return buckets;
+    }
+}
@@ -0,0 +1,288 @@
+package net.magneticpotato.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.KeyDictionary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Parses a JSON corpus file on several threads.
+ * <p>
+ * A single sequential byte scan splits the file into chunks that each hold
+ * a whole number of top-level objects: for a JSON array the scanner tracks
+ * nesting and string literals to find where elements end, and for
+ * newline-delimited JSON every line break is a boundary. The chunks are
+ * then parsed concurrently on a fork/join pool, each with its own Jackson
+ * parser, and concatenated in file order so the result is identical to a
+ * sequential load.
+ */
+final class ParallelJsonLoader {
+
+    /** Files smaller than this are not worth splitting. */
+    static final long MIN_PARALLEL_BYTES = 1L << 20;
+
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    private static final int MAX_CHUNK_BYTES = 16 << 20;
+    private static final int SCAN_BUFFER_BYTES = 1 << 20;
+
+    private ParallelJsonLoader() {}
+
+    /**
+     * A byte range of the file holding whole objects.
+     */
+    private record Chunk(long start, long end) {}
+
+    /**
+     * Loads a JSON array or NDJSON file using up to {@code parallelism} threads.
+     *
+     * @param path the file to load
+     * @param layout whether the file is a JSON array or newline-delimited
+     * @param parallelism number of parser threads
+     * @param dictionary if not null, value maps are compacted into this dictionary
+     * @return the expressions in file order
+     * @throws IOException if the file cannot be read or parsed
+     */
+    static List<ExpressionData> load(Path path, ExpressionLoader.Format layout, int parallelism,
+                                     KeyDictionary dictionary) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunkBytes = (int) Math.max(MIN_CHUNK_BYTES,
+                Math.min(MAX_CHUNK_BYTES, size / (4L * parallelism)));
+
+            List<Chunk> chunks = (layout == ExpressionLoader.Format.NDJSON)
+                ? splitLines(channel, chunkBytes)
+                : splitArray(channel, chunkBytes);
+
+            ObjectReader reader = new ObjectMapper().readerFor(ExpressionData.class);
+            AtomicReferenceArray<List<ExpressionData>> parsed = new AtomicReferenceArray<>(chunks.size());
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new ParseTask(channel, chunks, reader, layout, dictionary, parsed, 0, chunks.size()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+
+            int total = 0;
+            for (int i = 0; i < parsed.length(); i++) {
+                total += parsed.get(i).size();
+            }
+            List<ExpressionData> expressions = new ArrayList<>(total);
+            for (int i = 0; i < parsed.length(); i++) {
+                expressions.addAll(parsed.get(i));
+            }
+            return expressions;
+        }
+    }
+
+    /**
+     * Splits a JSON array into chunks ending at element boundaries. Each
+     * chunk runs from the start of its first object to the end of its last.
+     */
+    private static List<Chunk> splitArray(FileChannel channel, int chunkBytes) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long position = skipByteOrderMark(channel);
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        boolean closed = false;
+        long chunkStart = -1;
+        long lastObjectEnd = -1;
+
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                long offset = position++;
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                if (isWhitespace(b)) {
+                    continue;
+                }
+                if (closed) {
+                    throw new IOException("Unexpected content after the JSON array at byte " + offset);
+                }
+                if (depth == 0 && b != '[') {
+                    throw new IOException("Expected array start in JSON file");
+                }
+                if (depth == 1 && b != '{' && b != ',' && b != ']') {
+                    throw new IOException("Expected object in JSON array at byte " + offset);
+                }
+                switch (b) {
+                    case '"' -> inString = true;
+                    case '{', '[' -> {
+                        if (depth == 1 && chunkStart < 0) {
+                            chunkStart = offset;
+                        }
+                        depth++;
+                    }
+                    case '}', ']' -> {
+                        depth--;
+                        if (depth == 1) {
+                            lastObjectEnd = offset + 1;
+                            if (lastObjectEnd - chunkStart >= chunkBytes) {
+                                chunks.add(new Chunk(chunkStart, lastObjectEnd));
+                                chunkStart = -1;
+                            }
+                        } else if (depth == 0) {
+                            closed = true;
+                        }
+                    }
+                    default -> { }
+                }
+            }
+            buffer.clear();
+        }
+
+        if (!closed) {
+            throw new IOException("Unterminated JSON array");
+        }
+        if (chunkStart >= 0) {
+            chunks.add(new Chunk(chunkStart, lastObjectEnd));
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the offset of the first byte after a UTF-8 byte order mark, if any.
+     */
+    private static long skipByteOrderMark(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(3);
+        channel.read(head, 0);
+        boolean bom = head.position() == 3
+            && head.get(0) == (byte) 0xEF && head.get(1) == (byte) 0xBB && head.get(2) == (byte) 0xBF;
+        return bom ? 3 : 0;
+    }
+
+    /**
+     * Splits newline-delimited JSON into chunks ending at line breaks.
+     */
+    private static List<Chunk> splitLines(FileChannel channel, int chunkBytes) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long position = skipByteOrderMark(channel);
+        long chunkStart = position;
+
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                long offset = position++;
+                if (b == '\n' && offset + 1 - chunkStart >= chunkBytes) {
+                    chunks.add(new Chunk(chunkStart, offset + 1));
+                    chunkStart = offset + 1;
+                }
+            }
+            buffer.clear();
+        }
+
+        if (position > chunkStart) {
+            chunks.add(new Chunk(chunkStart, position));
+        }
+        return chunks;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Parses a range of chunks, splitting it in half until a single chunk is left.
+     */
+    @SuppressWarnings("serial")
+    private static class ParseTask extends RecursiveAction {
+        private final FileChannel channel;
+        private final List<Chunk> chunks;
+        private final ObjectReader reader;
+        private final ExpressionLoader.Format layout;
+        private final KeyDictionary dictionary;
+        private final AtomicReferenceArray<List<ExpressionData>> parsed;
+        private final int lo;
+        private final int hi;
+
+        ParseTask(FileChannel channel, List<Chunk> chunks, ObjectReader reader,
+                  ExpressionLoader.Format layout, KeyDictionary dictionary,
+                  AtomicReferenceArray<List<ExpressionData>> parsed, int lo, int hi) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.reader = reader;
+            this.layout = layout;
+            this.dictionary = dictionary;
+            this.parsed = parsed;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ParseTask(channel, chunks, reader, layout, dictionary, parsed, lo, mid),
+                          new ParseTask(channel, chunks, reader, layout, dictionary, parsed, mid, hi));
+                return;
+            }
+            if (hi > lo) {
+                Chunk chunk = chunks.get(lo);
+                try {
+                    parsed.set(lo, parse(chunk));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(new IOException(
+                        "Failed to parse bytes " + chunk.start() + "-" + chunk.end() + ": " + e.getMessage(), e));
+                }
+            }
+        }
+
+        private List<ExpressionData> parse(Chunk chunk) throws IOException {
+            // Array chunks are a comma separated run of elements; bracket them to make an array
+            boolean wrap = layout != ExpressionLoader.Format.NDJSON;
+            int length = (int) (chunk.end() - chunk.start());
+            int prefix = wrap ? 1 : 0;
+            ByteBuffer bytes = ByteBuffer.allocate(length + 2 * prefix);
+            if (wrap) {
+                bytes.put((byte) '[');
+            }
+            bytes.limit(prefix + length);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, chunk.start() + bytes.position() - prefix) < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+            if (wrap) {
+                bytes.limit(bytes.capacity());
+                bytes.put((byte) ']');
+            }
+
+            List<ExpressionData> expressions = new ArrayList<>();
+            try (MappingIterator<ExpressionData> it = reader.readValues(bytes.array())) {
+                while (it.hasNextValue()) {
+                    expressions.add(ExpressionLoader.compact(it.nextValue(), dictionary));
+                }
+            }
+            return expressions;
+        }
+    }
+}
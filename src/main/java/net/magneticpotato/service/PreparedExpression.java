@@ -0,0 +1,20 @@
+package net.magneticpotato.service;
+
+import java.util.Map;
+
+/**
+ * An expression that an {@link ExpressionEvaluator} has parsed and compiled
+ * ahead of time, ready to be evaluated against different bindings.
+ */
+@FunctionalInterface
+public interface PreparedExpression {
+
+    /**
+     * Evaluates the prepared expression.
+     *
+     * @param bindings variable names mapped to their values
+     * @return the result of the expression
+     * @throws Exception if the expression cannot be evaluated
+     */
+    boolean evaluate(Map<String, Object> bindings) throws Exception;
+}
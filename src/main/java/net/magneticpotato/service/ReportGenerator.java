@@ -10,8 +10,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 /**
  * Generates markdown reports for load test results.
@@ -25,16 +30,16 @@ public class ReportGenerator {
      * Generates the timings report.
      *
      * @param outputPath path to the output file
-     * @param overall overall statistics
-     * @param classStats per-complexity-class statistics
+     * @param result the load test results
      * @throws IOException if the file cannot be written
      */
     public static void generateTimingsReport(
         Path outputPath,
-        OverallStatistics overall,
-        List<ClassStatistics> classStats
+        LoadTestResult result
     ) throws IOException {
         StringBuilder sb = new StringBuilder();
+        OverallStatistics overall = result.overallStats();
+        List<ClassStatistics> classStats = result.classStats();
 
         // Header
         sb.append("# Load Test Results - sqlexpr-congocc\n\n");
@@ -42,11 +47,80 @@ public class ReportGenerator {
         // Overall Statistics
         sb.append("## Overall Statistics\n\n");
         sb.append(formatOverallStats(overall));
+        ExpressionGrouping grouping = result.grouping();
+        if (grouping != null && !grouping.isComplexity()) {
+            sb.append("- **Grouped By**: ").append(grouping.describe()).append("\n");
+        }
+        if (result.workload() != null && !result.workload().isSequential()) {
+            sb.append("- **Workload**: ").append(result.workload().describe()).append("\n");
+        }
         sb.append("\n");
 
-        // Per-complexity-class stats
+        // Concurrency sweep
+        if (result.scalability() != null) {
+            sb.append(formatScalability(result.scalability(), grouping));
+            sb.append("\n");
+        }
+
+        // Trials of a forked run
+        if (result.forks() != null) {
+            sb.append(formatForks(result.forks(), grouping));
+            sb.append("\n");
+        }
+
+        // Workers and timeline of a distributed run
+        if (result.distributed() != null) {
+            sb.append(formatDistributed(result.distributed()));
+            sb.append("\n");
+        }
+
+        // Open-loop service and response times
+        if (result.arrivals() != null && result.arrivals().isOpenLoop()) {
+            sb.append(formatOpenLoop(result));
+            sb.append("\n");
+        }
+
+        // Warmup
+        if (result.warmup() != null && result.warmup().policy().mode() != WarmupPolicy.Mode.NONE) {
+            sb.append(formatWarmup(result.warmup()));
+            sb.append("\n");
+        }
+
+        // Engine comparison
+        if (result.engineResults() != null && result.engineResults().size() > 1) {
+            sb.append(formatEngineComparison(result.engineResults(), grouping));
+            sb.append("\n");
+        }
+
+        // Parse/evaluate split
+        if (result.engineResults() != null) {
+            for (EngineResult engine : result.engineResults()) {
+                if (!engine.phaseStats().isEmpty()) {
+                    sb.append(formatPhaseStats(engine, result.engineResults().size() > 1, grouping));
+                    sb.append("\n");
+                }
+            }
+        }
+
+        // Latency regression
+        if (result.engineResults() != null) {
+            for (EngineResult engine : result.engineResults()) {
+                if (engine.regression() != null) {
+                    sb.append(formatRegression(engine, result.engineResults().size() > 1));
+                    sb.append("\n");
+                }
+            }
+        }
+
+        // Flight recording
+        if (result.jfr() != null) {
+            sb.append(formatJfr(result.jfr(), grouping, result.engineResults().size() > 1));
+            sb.append("\n");
+        }
+
+        // Per-class stats
         for (ClassStatistics stats : classStats) {
-            sb.append(formatClassStats(stats));
+            sb.append(formatClassStats(stats, grouping, overall.timer()));
             sb.append("\n");
         }
 
@@ -88,6 +162,8 @@ public class ReportGenerator {
 
             sb.append("## Failure ").append(i + 1).append("\n\n");
 
+            sb.append("**Engine:** ").append(failure.engine()).append("\n\n");
+
             sb.append("**Expression:**\n```\n");
             sb.append(failure.expression()).append("\n");
             sb.append("```\n\n");
@@ -120,6 +196,19 @@ public class ReportGenerator {
         sb.append("- **Input File**: ")
             .append(stats.inputFilePath())
             .append("\n");
+        sb.append("- **Corpus Format**: ")
+            .append(stats.corpusFormat())
+            .append("\n");
+        if (stats.loadTimeMs() > 0) {
+            sb.append("- **Load Time**: ")
+                .append(String.format("%.3f ms", stats.loadTimeMs()))
+                .append("\n");
+        }
+        if (stats.corpusHeapBytes() >= 0) {
+            sb.append("- **Corpus Heap**: ")
+                .append(String.format("%.1f MB", stats.corpusHeapBytes() / (1024.0 * 1024.0)))
+                .append("\n");
+        }
         sb.append("- **Start Time (Local)**: ")
             .append(stats.startTimeLocal().format(TIMESTAMP_FORMATTER))
             .append("\n");
@@ -129,6 +218,10 @@ public class ReportGenerator {
         sb.append("- **Iterations**: ")
             .append(stats.iterations())
             .append("\n");
+        sb.append("- **Threads**: ")
+            .append(stats.threads())
+            .append(stats.virtualThreads() ? " (virtual)" : "")
+            .append("\n");
         sb.append("- **Total Unique Expressions**: ")
             .append(stats.totalUniqueExpressions())
             .append("\n");
@@ -138,20 +231,746 @@ public class ReportGenerator {
         sb.append("- **Total Execution Time**: ")
             .append(String.format("%.3f ms", stats.totalExecutionTimeMs()))
             .append("\n");
+        sb.append("- **Wall Clock Time**: ")
+            .append(String.format("%.3f ms", stats.wallClockTimeMs()))
+            .append("\n");
+        sb.append("- **Throughput**: ")
+            .append(String.format("%.1f evals/sec", stats.throughputEvalsPerSec()))
+            .append("\n");
         sb.append("- **Failed Evaluations**: ")
             .append(stats.failedEvaluations())
             .append("\n");
+        sb.append("- **Garbage Collections**: ")
+            .append(stats.gcCount())
+            .append(" (")
+            .append(stats.gcTimeMs())
+            .append(" ms)\n");
+        if (stats.timer() != null) {
+            sb.append("- **Timer**: ")
+                .append(String.format("nanoTime latency %.1f ns, granularity %d ns",
+                    stats.timer().latencyNs(), stats.timer().granularityNs()))
+                .append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats the warmup section.
+     */
+    private static String formatWarmup(WarmupSummary warmup) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("## Warmup\n\n");
+        sb.append("- **Warmup Policy**: ")
+            .append(warmup.policy().describe())
+            .append("\n");
+        sb.append("- **Warmup Iterations**: ")
+            .append(warmup.iterations())
+            .append("\n");
+        sb.append("- **Warmup Evaluations Discarded**: ")
+            .append(warmup.evaluationsDiscarded())
+            .append("\n");
+        sb.append("- **Warmup Time**: ")
+            .append(String.format("%.3f ms", warmup.durationMs()))
+            .append("\n");
+        if (warmup.policy().mode() == WarmupPolicy.Mode.AUTO) {
+            sb.append("- **Steady State**: ")
+                .append(warmup.steadyStateReached()
+                    ? "reached at warmup iteration " + warmup.steadyStateIteration()
+                    : "not reached")
+                .append("\n");
+            if (!Double.isNaN(warmup.finalCv())) {
+                sb.append("- **Final Max Class CV**: ")
+                    .append(String.format("%.4f", warmup.finalCv()))
+                    .append("\n");
+            }
+        }
 
         return sb.toString();
     }
 
     /**
-     * Formats a complexity class statistics section.
+     * Formats the engine comparison section. Ratios are relative to the
+     * first (primary) engine; values above 1 mean slower than the primary.
      */
-    private static String formatClassStats(ClassStatistics stats) {
+    private static String formatEngineComparison(List<EngineResult> engineResults,
+                                                 ExpressionGrouping grouping) {
         StringBuilder sb = new StringBuilder();
+        EngineResult primary = engineResults.get(0);
+
+        sb.append("## Engine Comparison\n\n");
+        sb.append("Latency ratios are relative to **").append(primary.engine()).append("**.\n\n");
+
+        List<String[]> summaryRows = new ArrayList<>();
+        for (EngineResult engine : engineResults) {
+            summaryRows.add(new String[] {
+                engine.engine(),
+                String.valueOf(engine.totalEvaluations()),
+                String.format("%.3f", engine.totalTimeMs()),
+                String.format("%.1f", engine.throughputEvalsPerSec()),
+                String.format("%.3f", ratio(primary.throughputEvalsPerSec(), engine.throughputEvalsPerSec())),
+                String.valueOf(engine.failedEvaluations())
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Engine", "Evaluations", "Total Time (ms)", "Throughput (evals/sec)",
+                          "Time Ratio", "Failures"},
+            summaryRows));
+        sb.append("\n");
 
-        sb.append("## Complexity Class: ").append(stats.complexity()).append("\n\n");
+        boolean allocations = engineResults.stream()
+            .flatMap(engine -> engine.classStats().stream())
+            .anyMatch(stats -> stats.allocationSamples() > 0);
+        List<String[]> classRows = new ArrayList<>();
+        for (ClassStatistics primaryStats : primary.classStats()) {
+            for (EngineResult engine : engineResults) {
+                ClassStatistics stats = engine.classStats().stream()
+                    .filter(candidate -> candidate.complexity() == primaryStats.complexity())
+                    .findFirst()
+                    .orElse(null);
+                if (stats == null) {
+                    continue;
+                }
+                classRows.add(new String[] {
+                    classLabel(grouping, stats.complexity()),
+                    engine.engine(),
+                    String.valueOf(stats.totalEvaluations()),
+                    String.format("%.6f", stats.avgTimeMs()),
+                    String.format("%.6f", stats.p50TimeMs()),
+                    String.format("%.6f", stats.p99TimeMs()),
+                    String.format("%.3f", ratio(stats.avgTimeMs(), primaryStats.avgTimeMs())),
+                    String.format("%.3f", ratio(stats.p99TimeMs(), primaryStats.p99TimeMs())),
+                    (stats.allocationSamples() > 0) ? String.format("%.1f", stats.allocatedBytesMean()) : "n/a"
+                });
+            }
+        }
+        String[] headers = {"Class", "Engine", "Evaluations", "Average (ms)", "P50 (ms)", "P99 (ms)",
+                            "Avg Ratio", "P99 Ratio", "Bytes/Eval"};
+        if (!allocations) {
+            headers = Arrays.copyOf(headers, headers.length - 1);
+            for (int i = 0; i < classRows.size(); i++) {
+                classRows.set(i, Arrays.copyOf(classRows.get(i), headers.length));
+            }
+        }
+        sb.append(formatTable(headers, classRows));
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats the parse/evaluate split section for one engine.
+     */
+    private static String formatPhaseStats(EngineResult engine, boolean showEngine,
+                                           ExpressionGrouping grouping) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("## Parse/Evaluate Split");
+        if (showEngine) {
+            sb.append(" - ").append(engine.engine());
+        }
+        sb.append("\n\n");
+
+        if (!engine.preparationSupported()) {
+            sb.append("> The **").append(engine.engine()).append("** engine does not expose a separate ")
+                .append("parse step: parsing happens inside evaluation, so parse times only cover ")
+                .append("creating the deferred handle and a cache cannot save parsing work.\n\n");
+        }
+
+        CacheSummary cache = engine.cache();
+        if (cache != null) {
+            sb.append("- **Cache Policy**: ").append(cache.policy()).append("\n");
+            sb.append("- **Cache Capacity**: ").append(cache.capacity()).append("\n");
+            sb.append("- **Cached Entries**: ").append(cache.size()).append("\n");
+            sb.append("- **Cache Hits**: ").append(cache.hits()).append("\n");
+            sb.append("- **Cache Misses**: ").append(cache.misses()).append("\n");
+            sb.append("- **Cache Hit Rate**: ").append(formatPercent(cache.hitRate()));
+            if (!engine.preparationSupported()) {
+                sb.append(" (saves no parsing: ").append(engine.engine())
+                    .append(" parses again on every evaluation)");
+            }
+            sb.append("\n");
+            sb.append("- **Cache Evictions**: ").append(cache.evictions()).append("\n");
+            sb.append("\n");
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        for (PhaseStatistics stats : engine.phaseStats()) {
+            rows.add(new String[] {
+                classLabel(grouping, stats.complexity()),
+                formatPercent(stats.hitRate()),
+                String.valueOf(stats.parses()),
+                String.format("%.6f", stats.parseMeanMs()),
+                String.format("%.6f", stats.parseP99Ms()),
+                String.valueOf(stats.evaluations()),
+                String.format("%.6f", stats.evalMeanMs()),
+                String.format("%.6f", stats.evalP99Ms())
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Class", "Hit Rate", "Parses", "Parse Avg (ms)", "Parse P99 (ms)",
+                          "Evals", "Eval Avg (ms)", "Eval P99 (ms)"},
+            rows));
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats the scalability section of a concurrency sweep: throughput
+     * and latency per level against the Universal Scalability Law fit, then
+     * the 99th percentile latency of each class per level.
+     */
+    private static String formatScalability(ScalabilityResult scalability, ExpressionGrouping grouping) {
+        StringBuilder sb = new StringBuilder();
+        List<ScalabilityPoint> points = scalability.points();
+        UslFit fit = scalability.fit();
+        double baseline = points.get(0).throughputEvalsPerSec();
+
+        sb.append("## Scalability\n\n");
+        sb.append("- **Levels**: ").append(points.stream()
+            .map(p -> String.valueOf(p.workers()))
+            .collect(Collectors.joining(", "))).append(" worker(s)\n");
+        sb.append("- **Level Duration**: ").append(scalability.levelDurationMs()).append(" ms\n");
+        if (fit != null) {
+            sb.append("- **Contention (sigma)**: ").append(String.format("%.5f", fit.sigma())).append("\n");
+            sb.append("- **Coherency (kappa)**: ").append(String.format("%.6f", fit.kappa())).append("\n");
+            sb.append("- **Fit R-squared**: ").append(String.format("%.4f", fit.rSquared())).append("\n");
+            if (Double.isInfinite(fit.peakConcurrency())) {
+                sb.append("- **Predicted Peak**: none, throughput approaches ")
+                    .append(Double.isInfinite(fit.peakThroughput())
+                        ? "linear scaling"
+                        : String.format("%.1f evals/sec", fit.peakThroughput()))
+                    .append("\n");
+            } else {
+                sb.append("- **Predicted Peak**: ")
+                    .append(String.format("%.1f workers, %.1f evals/sec", fit.peakConcurrency(), fit.peakThroughput()))
+                    .append("\n");
+            }
+        }
+        sb.append("\n");
+
+        List<String[]> rows = new ArrayList<>();
+        for (ScalabilityPoint point : points) {
+            double speedup = (baseline > 0) ? point.throughputEvalsPerSec() / baseline : Double.NaN;
+            rows.add(new String[] {
+                String.valueOf(point.workers()),
+                String.valueOf(point.evaluations()),
+                String.format("%.1f", point.throughputEvalsPerSec()),
+                (fit != null) ? String.format("%.1f", fit.predict(point.workers())) : "",
+                String.format("%.2f", speedup),
+                formatPercent(speedup / point.workers()),
+                String.format("%.6f", point.p50Ms()),
+                String.format("%.6f", point.p99Ms())
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Workers", "Evals", "Throughput (evals/sec)", "USL Predicted", "Speedup",
+                          "Efficiency", "P50 (ms)", "P99 (ms)"},
+            rows));
+        sb.append("\n");
+
+        // P99 latency of each class across levels
+        Map<Integer, String[]> classRows = new TreeMap<>();
+        for (int level = 0; level < points.size(); level++) {
+            for (ClassStatistics stats : points.get(level).classStats()) {
+                String[] row = classRows.computeIfAbsent(stats.complexity(), id -> {
+                    String[] cells = new String[points.size() + 1];
+                    Arrays.fill(cells, "");
+                    cells[0] = classLabel(grouping, id);
+                    return cells;
+                });
+                if (stats.totalEvaluations() > 0) {
+                    row[level + 1] = String.format("%.6f", stats.p99TimeMs());
+                }
+            }
+        }
+        String[] headers = new String[points.size() + 1];
+        headers[0] = "Class";
+        for (int level = 0; level < points.size(); level++) {
+            headers[level + 1] = "P99 @" + points.get(level).workers() + " (ms)";
+        }
+        sb.append(formatTable(headers, new ArrayList<>(classRows.values())));
+        sb.append("\n> Sigma is the fraction of work serialised by contention, kappa the cost of keeping ")
+            .append("shared state coherent between workers. The remaining sections describe the ")
+            .append(points.get(points.size() - 1).workers()).append("-worker level.\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats the section of a forked run: every trial, then how much each
+     * class's mean latency varied between the trials that measured it.
+     */
+    private static String formatForks(ForkSummary forks, ExpressionGrouping grouping) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("## Forks\n\n");
+        sb.append("- **Trials**: ").append(forks.trials().size()).append(" child JVM(s), ")
+            .append(forks.policy().describe()).append("\n");
+        if (forks.policy().jvmOptions().size() > 1) {
+            sb.append("- **JVM Configurations**: ").append(forks.policy().jvmOptions().stream()
+                .map(ForkPolicy::label)
+                .collect(Collectors.joining("; "))).append("\n");
+        }
+        sb.append("\n");
+
+        List<String[]> rows = new ArrayList<>();
+        for (ForkSummary.Trial trial : forks.trials()) {
+            rows.add(new String[] {
+                String.valueOf(trial.fork()),
+                ForkPolicy.label(trial.jvmOptions()),
+                (trial.complexity() < 0) ? "all" : classLabel(grouping, trial.complexity()),
+                String.valueOf(trial.totalEvaluations()),
+                String.format("%.3f", trial.wallClockTimeMs()),
+                String.format("%.1f", trial.throughputEvalsPerSec()),
+                trial.gcCount() + " (" + trial.gcTimeMs() + " ms)"
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Fork", "JVM", "Class", "Evals", "Wall Clock (ms)", "Throughput (evals/sec)", "GC"},
+            rows));
+        sb.append("\n");
+
+        rows = new ArrayList<>();
+        for (ForkSummary.ClassSpread spread : forks.spread()) {
+            rows.add(new String[] {
+                spread.engine(),
+                classLabel(grouping, spread.complexity()),
+                String.valueOf(spread.forks()),
+                String.format("%.6f", spread.meanMs()),
+                String.format("%.6f", spread.stdDevMs()),
+                formatPercent(spread.cv()),
+                String.format("%.6f", spread.minMeanMs()),
+                String.format("%.6f", spread.maxMeanMs())
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Engine", "Class", "Forks", "Mean of Fork Means (ms)", "Std Dev Between Forks (ms)",
+                          "CV", "Min Fork Mean (ms)", "Max Fork Mean (ms)"},
+            rows));
+        sb.append("\n> Each fork ran in a fresh JVM. The per-class sections merge the histograms of all forks; ")
+            .append("a high CV between forks means a single JVM would not have measured the class reliably.\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats the section of a distributed run: every worker's shard, then
+     * the measured intervals merged over the workers.
+     */
+    private static String formatDistributed(DistributedSummary distributed) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("## Distributed Run\n\n");
+        sb.append("- **Workers**: ").append(distributed.workers().size()).append(", one shard of the corpus each\n");
+        sb.append("- **Interval**: ").append(distributed.intervalMs()).append(" ms\n\n");
+
+        List<String[]> rows = new ArrayList<>();
+        for (DistributedSummary.Worker worker : distributed.workers()) {
+            rows.add(new String[] {
+                String.valueOf(worker.shard() + 1),
+                worker.address(),
+                String.valueOf(worker.expressions()),
+                String.valueOf(worker.totalEvaluations()),
+                String.format("%.3f", worker.wallClockTimeMs()),
+                String.format("%.1f", worker.throughputEvalsPerSec()),
+                String.format("%.6f", worker.p50Ms()),
+                String.format("%.6f", worker.p99Ms()),
+                String.valueOf(worker.failedEvaluations()),
+                String.valueOf(worker.gcCount()),
+                String.format("%+.3f (+/- %.3f)", worker.clockOffsetMs(), worker.roundTripMs() / 2)
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Shard", "Worker", "Expressions", "Evals", "Wall Clock (ms)", "Throughput (evals/sec)",
+                          "p50 (ms)", "p99 (ms)", "Failed", "GC", "Clock Offset (ms)"},
+            rows));
+        sb.append("\n");
+
+        if (!distributed.timeline().isEmpty()) {
+            rows = new ArrayList<>();
+            for (DistributedSummary.TimelinePoint point : distributed.timeline()) {
+                rows.add(new String[] {
+                    String.valueOf(point.sequence() + 1),
+                    String.format("%.2f-%.2f", point.startSec(), point.endSec()),
+                    String.valueOf(point.evaluations()),
+                    String.format("%.1f", point.throughputEvalsPerSec()),
+                    String.format("%.6f", point.p50Ms()),
+                    String.format("%.6f", point.p99Ms()),
+                    String.format("%.6f", point.maxMs()),
+                    point.workerEvaluations().stream().map(String::valueOf).collect(Collectors.joining(" / "))
+                });
+            }
+            sb.append(formatTable(
+                new String[] {"Interval", "Time (s)", "Evals", "Throughput (evals/sec)", "p50 (ms)", "p99 (ms)",
+                              "Max (ms)", "Evals per Worker"},
+                rows));
+        }
+        sb.append("\n> The timeline merges the first engine's latencies. Intervals are matched by their number ")
+            .append("and timed from when each worker started measuring, so clock offsets between hosts do not ")
+            .append("shift them; the offsets are estimates from the connection, reported for reference.\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats the open-loop section: the target against the achieved rate,
+     * then service and response times per engine and class.
+     */
+    private static String formatOpenLoop(LoadTestResult result) {
+        StringBuilder sb = new StringBuilder();
+        ArrivalPolicy arrivals = result.arrivals();
+        double achieved = result.overallStats().throughputEvalsPerSec();
+
+        sb.append("## Open-Loop Load\n\n");
+        sb.append("- **Arrivals**: ").append(arrivals.describe()).append("\n");
+        sb.append("- **Target Rate**: ").append(String.format("%.1f evals/sec", arrivals.ratePerSec())).append("\n");
+        sb.append("- **Achieved Rate**: ").append(String.format("%.1f evals/sec", achieved)).append("\n");
+        if (achieved < arrivals.ratePerSec() * 0.99) {
+            sb.append("\n> The workers could not keep up with the target rate: arrivals queued for the whole ")
+                .append("run, so response times grow with its length. Lower `--rate` or add `--threads`.\n");
+        }
+        sb.append("\n");
+        sb.append("Service time runs from the actual start of an evaluation, response time from its ")
+            .append("scheduled start, so the difference is time spent waiting for a free worker.\n\n");
+
+        ExpressionGrouping grouping = result.grouping();
+        boolean showEngine = result.engineResults().size() > 1;
+        List<String[]> rows = new ArrayList<>();
+        for (EngineResult engine : result.engineResults()) {
+            OpenLoopSummary openLoop = engine.openLoop();
+            if (openLoop == null) {
+                continue;
+            }
+            List<ResponseStatistics> engineRows = new ArrayList<>(openLoop.classStats());
+            engineRows.add(openLoop.total());
+            for (ResponseStatistics stats : engineRows) {
+                String label = (stats.complexity() < 0) ? "All" : classLabel(grouping, stats.complexity());
+                List<String> row = new ArrayList<>();
+                if (showEngine) {
+                    row.add(engine.engine());
+                }
+                row.add(label);
+                row.add(String.valueOf(stats.evaluations()));
+                row.add(String.format("%.6f", stats.serviceP50Ms()));
+                row.add(String.format("%.6f", stats.serviceP99Ms()));
+                row.add(String.format("%.6f", stats.serviceP999Ms()));
+                row.add(String.format("%.6f", stats.responseP50Ms()));
+                row.add(String.format("%.6f", stats.responseP99Ms()));
+                row.add(String.format("%.6f", stats.responseP999Ms()));
+                row.add(String.format("%.6f", stats.responseMaxMs()));
+                rows.add(row.toArray(new String[0]));
+            }
+        }
+        List<String> headers = new ArrayList<>();
+        if (showEngine) {
+            headers.add("Engine");
+        }
+        headers.addAll(List.of("Class", "Evals", "Service P50 (ms)", "Service P99 (ms)", "Service P99.9 (ms)",
+            "Response P50 (ms)", "Response P99 (ms)", "Response P99.9 (ms)", "Response Max (ms)"));
+        sb.append(formatTable(headers.toArray(new String[0]), rows));
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats the latency regression section for one engine. Features are
+     * listed by the latency they account for in an average expression.
+     */
+    private static String formatRegression(EngineResult engine, boolean showEngine) {
+        StringBuilder sb = new StringBuilder();
+        RegressionResult regression = engine.regression();
+
+        sb.append("## Latency Regression");
+        if (showEngine) {
+            sb.append(" - ").append(engine.engine());
+        }
+        sb.append("\n\n");
+
+        sb.append("- **Observations**: ").append(regression.observations()).append("\n");
+        sb.append("- **R-squared**: ").append(String.format("%.4f", regression.rSquared())).append("\n");
+        sb.append("- **Intercept**: ").append(String.format("%.3f us", regression.interceptNs() / 1000.0))
+            .append("\n\n");
+
+        List<RegressionResult.Coefficient> ordered = new ArrayList<>(regression.coefficients());
+        ordered.sort(Comparator
+            .comparing(RegressionResult.Coefficient::aliased)
+            .thenComparing(c -> -Math.abs(c.contributionAtMeanNs())));
+
+        List<String[]> rows = new ArrayList<>();
+        for (RegressionResult.Coefficient c : ordered) {
+            if (c.aliased()) {
+                rows.add(new String[] {c.feature(), String.format("%.3f", c.mean()), "aliased", "", "", ""});
+                continue;
+            }
+            rows.add(new String[] {
+                c.feature(),
+                String.format("%.3f", c.mean()),
+                String.format("%.4f", c.coefficientNs() / 1000.0),
+                String.format("%.4f", c.standardErrorNs() / 1000.0),
+                String.format("%.2f", c.tStat()),
+                String.format("%.4f", c.contributionAtMeanNs() / 1000.0)
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Feature", "Mean", "Coef (us/unit)", "Std Err (us)", "t", "At Mean (us)"},
+            rows));
+        sb.append("\n> Coefficients are the added latency per unit of a feature with the others held fixed. ")
+            .append("|t| above about 2 marks an effect unlikely to be noise. Aliased features were constant ")
+            .append("or a combination of others.\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats the analysis of the flight recording: sampled evaluations and
+     * hot methods per class, allocation sites and GC pauses.
+     */
+    private static String formatJfr(JfrProfile jfr, ExpressionGrouping grouping, boolean showEngine) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("## Flight Recording\n\n");
+        sb.append("- **Recording**: ").append(jfr.recordingPath()).append("\n");
+        sb.append("- **Window**: ").append(String.format("%.2f ms", jfr.windowMs())).append("\n");
+        sb.append("- **Sampled Evaluations**: ").append(jfr.sampledEvaluations())
+            .append(" (1 in ").append(jfr.sampleEvery()).append(")\n");
+        long attributed = jfr.classes().stream().mapToLong(JfrProfile.ClassProfile::executionSamples).sum();
+        sb.append("- **CPU Samples**: ").append(jfr.executionSamples())
+            .append(", ").append(attributed).append(" attributed to a class\n");
+        sb.append("- **GC Pauses**: ").append(jfr.gcCount()).append(" collection(s), ")
+            .append(String.format("%.3f ms total, %.3f ms max", jfr.gcPauseTotalMs(), jfr.gcPauseMaxMs()))
+            .append("\n\n");
+
+        List<String[]> rows = new ArrayList<>();
+        for (JfrProfile.ClassProfile profile : jfr.classes()) {
+            String label = classLabel(grouping, profile.complexity());
+            rows.add(new String[] {
+                showEngine ? profile.engine() + " / " + label : label,
+                String.valueOf(profile.evaluations()),
+                String.valueOf(profile.failures()),
+                String.format("%.6f", profile.meanMs()),
+                String.valueOf(profile.executionSamples()),
+                profile.hotMethods().isEmpty() ? "" : profile.hotMethods().get(0).method()
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Class", "Sampled Evals", "Failures", "Mean (ms)", "CPU Samples", "Hottest Method"},
+            rows));
+
+        for (JfrProfile.ClassProfile profile : jfr.classes()) {
+            if (profile.hotMethods().isEmpty()) {
+                continue;
+            }
+            sb.append("\n### Hot Methods - ");
+            if (showEngine) {
+                sb.append(profile.engine()).append(" / ");
+            }
+            sb.append(classLabel(grouping, profile.complexity())).append("\n\n");
+            List<String[]> methodRows = new ArrayList<>();
+            for (JfrProfile.HotMethod method : profile.hotMethods()) {
+                methodRows.add(new String[] {
+                    method.method(),
+                    String.valueOf(method.samples()),
+                    formatPercent(method.samples() / (double) profile.executionSamples())
+                });
+            }
+            sb.append(formatTable(new String[] {"Method", "Samples", "Share"}, methodRows));
+            sb.append("\nCollapsed stacks: ").append(profile.stacksFile()).append("\n");
+        }
+
+        if (!jfr.allocationSites().isEmpty()) {
+            sb.append("\n### Allocation Sites\n\n");
+            List<String[]> siteRows = new ArrayList<>();
+            for (JfrProfile.AllocationSite site : jfr.allocationSites()) {
+                siteRows.add(new String[] {
+                    site.site(),
+                    site.type(),
+                    String.format("%.1f", site.estimatedBytes() / 1024.0),
+                    String.valueOf(site.samples())
+                });
+            }
+            sb.append(formatTable(new String[] {"Site", "Type", "Estimated KiB", "Samples"}, siteRows));
+        }
+        sb.append("\n> CPU samples count towards a class when taken during one of its sampled evaluations. ")
+            .append("Collapsed stacks can be rendered with flamegraph.pl or speedscope.\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Returns the label of a class id: the complexity, or the grouping's
+     * dimension values.
+     */
+    private static String classLabel(ExpressionGrouping grouping, int classId) {
+        return (grouping == null || grouping.isComplexity()) ? String.valueOf(classId) : grouping.label(classId);
+    }
+
+    /**
+     * Formats a fraction as a percentage, or "n/a" for NaN.
+     */
+    private static String formatPercent(double fraction) {
+        return Double.isNaN(fraction) ? "n/a" : String.format("%.2f%%", fraction * 100.0);
+    }
+
+    /**
+     * Returns numerator / denominator, or NaN when the denominator is zero.
+     */
+    private static double ratio(double numerator, double denominator) {
+        return (denominator > 0) ? numerator / denominator : Double.NaN;
+    }
+
+    /**
+     * Generates the comparison of a candidate run against a baseline.
+     *
+     * @param outputPath path to the output file
+     * @param comparison the comparison
+     * @return the report text
+     * @throws IOException if the file cannot be written
+     */
+    public static String generateComparisonReport(Path outputPath, ComparisonResult comparison)
+        throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Load Test Comparison - sqlexpr-congocc\n\n");
+
+        sb.append("- **Baseline**: ").append(describeRun(comparison.baseline())).append("\n");
+        sb.append("- **Candidate**: ").append(describeRun(comparison.candidate())).append("\n");
+        sb.append("- **Metric**: ").append(comparison.metric()).append("\n");
+        sb.append("- **Threshold**: ").append(String.format("%.2f%%", comparison.thresholdPercent())).append("\n");
+        sb.append("- **Significance Level**: ").append(comparison.alpha()).append("\n");
+        long regressions = comparison.classes().stream()
+            .filter(c -> c.verdict() == ComparisonResult.Verdict.REGRESSION)
+            .count();
+        long improvements = comparison.classes().stream()
+            .filter(c -> c.verdict() == ComparisonResult.Verdict.IMPROVEMENT)
+            .count();
+        sb.append("- **Result**: ").append(regressions).append(" regression(s), ")
+            .append(improvements).append(" improvement(s)\n\n");
+
+        String mismatch = environmentMismatch(comparison.baseline().environment(),
+            comparison.candidate().environment());
+        if (mismatch != null) {
+            sb.append("> The runs' environments differ (").append(mismatch)
+                .append("); latency changes may not be due to the code alone.\n\n");
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        for (ComparisonResult.ClassComparison c : comparison.classes()) {
+            MannWhitneyU test = c.test();
+            rows.add(new String[] {
+                c.engine(),
+                c.label(),
+                String.valueOf(c.baselineEvaluations()),
+                String.valueOf(c.candidateEvaluations()),
+                Double.isNaN(c.baselineMs()) ? "n/a" : String.format("%.6f", c.baselineMs()),
+                Double.isNaN(c.candidateMs()) ? "n/a" : String.format("%.6f", c.candidateMs()),
+                Double.isNaN(c.deltaPercent()) ? "n/a" : String.format("%+.2f%%", c.deltaPercent()),
+                (test == null) ? "n/a" : String.format("%.3f", test.probabilitySlower()),
+                (test == null) ? "n/a"
+                    : String.format("%.2e", (c.deltaPercent() >= 0.0) ? test.pSlower() : test.pFaster()),
+                c.verdict().name()
+            });
+        }
+        sb.append(formatTable(
+            new String[] {"Engine", "Class", "Baseline Evals", "Candidate Evals", "Baseline (ms)",
+                          "Candidate (ms)", "Delta", "P(Slower)", "p-value", "Verdict"},
+            rows));
+        sb.append("\n> P(Slower) is the probability that a candidate evaluation takes longer than a baseline ")
+            .append("one. The p-value is the one-sided Mann-Whitney U test in the direction of the delta. ")
+            .append("A class regresses when the p-value is below the significance level and the delta ")
+            .append("exceeds the threshold.\n\n");
+
+        sb.append("---\n\n");
+        sb.append("Generated: ");
+        sb.append(ZonedDateTime.now().format(TIMESTAMP_FORMATTER));
+        sb.append("\n");
+
+        Files.createDirectories(outputPath.toAbsolutePath().getParent());
+        Files.writeString(outputPath, sb.toString(), StandardCharsets.UTF_8);
+        return sb.toString();
+    }
+
+    private static String describeRun(ResultSnapshot run) {
+        StringBuilder sb = new StringBuilder(run.source());
+        if (!run.startTimeUtc().isEmpty()) {
+            sb.append(", started ").append(run.startTimeUtc());
+        }
+        if (run.environment() != null) {
+            sb.append(", Java ").append(run.environment().javaVersion())
+                .append(", ").append(run.environment().availableProcessors()).append(" CPU(s)");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Names the environment properties in which two runs differ, or returns
+     * null when they match or either is unknown.
+     */
+    private static String environmentMismatch(RunEnvironment baseline, RunEnvironment candidate) {
+        if (baseline == null || candidate == null) {
+            return null;
+        }
+        List<String> differences = new ArrayList<>();
+        if (!baseline.javaVersion().equals(candidate.javaVersion())) {
+            differences.add("Java " + baseline.javaVersion() + " vs " + candidate.javaVersion());
+        }
+        if (baseline.availableProcessors() != candidate.availableProcessors()) {
+            differences.add(baseline.availableProcessors() + " vs " + candidate.availableProcessors() + " CPUs");
+        }
+        if (!baseline.jvmArguments().equals(candidate.jvmArguments())) {
+            differences.add("JVM flags");
+        }
+        if (!baseline.osArch().equals(candidate.osArch())) {
+            differences.add(baseline.osArch() + " vs " + candidate.osArch());
+        }
+        return differences.isEmpty() ? null : String.join(", ", differences);
+    }
+
+    /**
+     * Formats a markdown table whose columns are wide enough for the
+     * longest header or value. Numbers are right aligned, except in the
+     * first column; everything else is left aligned.
+     */
+    private static String formatTable(String[] headers, List<String[]> rows) {
+        int[] widths = new int[headers.length];
+        for (int c = 0; c < headers.length; c++) {
+            widths[c] = headers[c].length();
+            for (String[] row : rows) {
+                widths[c] = Math.max(widths[c], row[c].length());
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("|");
+        for (int c = 0; c < headers.length; c++) {
+            sb.append(" ").append(pad(headers[c], widths[c])).append(" |");
+        }
+        sb.append("\n|");
+        for (int width : widths) {
+            sb.append("-".repeat(width + 2)).append("|");
+        }
+        sb.append("\n");
+        for (String[] row : rows) {
+            sb.append("|");
+            for (int c = 0; c < headers.length; c++) {
+                boolean rightAlign = c > 0 && row[c].matches("-?[0-9.]+%?|NaN|n/a");
+                String cell = rightAlign ? String.format("%" + widths[c] + "s", row[c]) : pad(row[c], widths[c]);
+                sb.append(" ").append(cell).append(" |");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a class statistics section.
+     */
+    private static String formatClassStats(ClassStatistics stats, ExpressionGrouping grouping,
+                                           TimerCalibration timer) {
+        StringBuilder sb = new StringBuilder();
+
+        if (grouping == null || grouping.isComplexity()) {
+            sb.append("## Complexity Class: ").append(stats.complexity()).append("\n\n");
+        } else {
+            sb.append("## Group: ").append(grouping.label(stats.complexity())).append("\n\n");
+        }
 
         // Define metrics
         String[] metricNames = {
@@ -159,7 +978,12 @@ public class ReportGenerator {
             "Min Time",
             "Max Time",
             "Average Time",
-            "Std Deviation"
+            "Std Deviation",
+            "P50",
+            "P90",
+            "P99",
+            "P99.9",
+            "P99.99"
         };
 
         double[] values = {
@@ -167,7 +991,12 @@ public class ReportGenerator {
             stats.minTimeMs(),
             stats.maxTimeMs(),
             stats.avgTimeMs(),
-            stats.stdDevMs()
+            stats.stdDevMs(),
+            stats.p50TimeMs(),
+            stats.p90TimeMs(),
+            stats.p99TimeMs(),
+            stats.p999TimeMs(),
+            stats.p9999TimeMs()
         };
 
         // Calculate column widths
@@ -196,6 +1025,24 @@ public class ReportGenerator {
         sb.append("\n");
         sb.append("- **Total Evaluations**: ").append(stats.totalEvaluations()).append("\n");
         sb.append("- **Unique Expressions**: ").append(stats.uniqueExpressions()).append("\n");
+        if (stats.timedBatches() > 0) {
+            sb.append("- **Timing**: ")
+                .append(String.format("batched, %.1f evaluations per timer pair; latencies are per-evaluation "
+                    + "means of each batch", stats.evaluationsPerTimer()))
+                .append("\n");
+        } else if (stats.totalEvaluations() > 0) {
+            sb.append("- **Timing**: per evaluation");
+            if (timer != null && timer.distorts(stats.avgTimeMs() * 1_000_000.0)) {
+                sb.append(String.format("; the %.1f ns timer latency is over a tenth of the mean, "
+                    + "consider --batch", timer.latencyNs()));
+            }
+            sb.append("\n");
+        }
+        if (stats.allocationSamples() > 0) {
+            sb.append("- **Allocated Bytes / Evaluation**: ")
+                .append(String.format("%.1f mean, %d max", stats.allocatedBytesMean(), stats.allocatedBytesMax()))
+                .append(" (").append(stats.allocationSamples()).append(" measured)\n");
+        }
         sb.append("\n");
 
         return sb.toString();
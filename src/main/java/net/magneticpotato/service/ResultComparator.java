@@ -0,0 +1,92 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ComparisonResult;
+import net.magneticpotato.model.LatencyHistogram;
+import net.magneticpotato.model.MannWhitneyU;
+import net.magneticpotato.model.ResultSnapshot;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares a candidate run against a baseline, class by class. A class
+ * regresses when the Mann-Whitney test finds the candidate significantly
+ * slower and the chosen latency metric grew by more than the threshold;
+ * requiring both keeps tiny but significant shifts of long runs, and large
+ * but noisy shifts of short ones, from failing a gate.
+ */
+public class ResultComparator {
+
+    /** Default relative change of the metric that counts, in percent. */
+    public static final double DEFAULT_THRESHOLD_PERCENT = 5.0;
+    /** Default significance level. */
+    public static final double DEFAULT_ALPHA = 0.01;
+
+    private final ComparisonResult.Metric metric;
+    private final double thresholdPercent;
+    private final double alpha;
+
+    /**
+     * @param metric the latency statistic the threshold applies to
+     * @param thresholdPercent the relative change that counts, in percent
+     * @param alpha the significance level of the test
+     */
+    public ResultComparator(ComparisonResult.Metric metric, double thresholdPercent, double alpha) {
+        if (!(thresholdPercent >= 0.0)) {
+            throw new IllegalArgumentException("Threshold must be >= 0");
+        }
+        if (!(alpha > 0.0 && alpha < 1.0)) {
+            throw new IllegalArgumentException("Alpha must be between 0 and 1");
+        }
+        this.metric = metric;
+        this.thresholdPercent = thresholdPercent;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Compares every class of every engine found in either run. Engines and
+     * classes are matched by name and label.
+     */
+    public ComparisonResult compare(ResultSnapshot baseline, ResultSnapshot candidate) {
+        Set<String> engines = new LinkedHashSet<>(baseline.engines().keySet());
+        engines.addAll(candidate.engines().keySet());
+
+        List<ComparisonResult.ClassComparison> classes = new ArrayList<>();
+        for (String engine : engines) {
+            Map<String, LatencyHistogram> before = baseline.engines().getOrDefault(engine, Map.of());
+            Map<String, LatencyHistogram> after = candidate.engines().getOrDefault(engine, Map.of());
+            Set<String> labels = new LinkedHashSet<>(before.keySet());
+            labels.addAll(after.keySet());
+            for (String label : labels) {
+                classes.add(compareClass(engine, label, before.get(label), after.get(label)));
+            }
+        }
+        return new ComparisonResult(baseline, candidate, metric, thresholdPercent, alpha, classes);
+    }
+
+    private ComparisonResult.ClassComparison compareClass(String engine, String label,
+                                                          LatencyHistogram before, LatencyHistogram after) {
+        long beforeCount = (before == null) ? 0 : before.getTotalCount();
+        long afterCount = (after == null) ? 0 : after.getTotalCount();
+        double beforeMs = (beforeCount == 0) ? Double.NaN : metric.valueNs(before) / 1_000_000.0;
+        double afterMs = (afterCount == 0) ? Double.NaN : metric.valueNs(after) / 1_000_000.0;
+        if (beforeCount == 0 || afterCount == 0) {
+            return new ComparisonResult.ClassComparison(engine, label, beforeCount, afterCount, beforeMs, afterMs,
+                Double.NaN, null, ComparisonResult.Verdict.MISSING);
+        }
+
+        double deltaPercent = (beforeMs > 0.0) ? (afterMs - beforeMs) / beforeMs * 100.0 : 0.0;
+        MannWhitneyU test = MannWhitneyU.test(before, after);
+        ComparisonResult.Verdict verdict = ComparisonResult.Verdict.UNCHANGED;
+        if (test.pSlower() < alpha && deltaPercent > thresholdPercent) {
+            verdict = ComparisonResult.Verdict.REGRESSION;
+        } else if (test.pFaster() < alpha && deltaPercent < -thresholdPercent) {
+            verdict = ComparisonResult.Verdict.IMPROVEMENT;
+        }
+        return new ComparisonResult.ClassComparison(engine, label, beforeCount, afterCount, beforeMs, afterMs,
+            deltaPercent, test, verdict);
+    }
+}
@@ -0,0 +1,302 @@
+package net.magneticpotato.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.EngineResult;
+import net.magneticpotato.model.ExpressionGrouping;
+import net.magneticpotato.model.FailedEvaluation;
+import net.magneticpotato.model.LatencyHistogram;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.OverallStatistics;
+import net.magneticpotato.model.ProfileDimension;
+import net.magneticpotato.model.ResultSnapshot;
+import net.magneticpotato.model.RunEnvironment;
+import net.magneticpotato.model.WarmupSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes a {@link LoadTestResult} as JSON for other tools, and reads back
+ * what {@link ResultComparator} needs. Latency histograms are written as
+ * their non-empty buckets, each keyed by the lowest value it holds, plus
+ * their exact summary statistics, so they can be rebuilt without loss.
+ * {@link #readResult} restores the parts of a result that the trials of
+ * a forked run merge.
+ */
+public class ResultsJson {
+
+    /** Version of the file layout; bumped when a reader could misread it. */
+    public static final int SCHEMA_VERSION = 1;
+
+    /**
+     * The exported document.
+     *
+     * @param classLabels the label of every class id in the result
+     */
+    record Document(int schemaVersion, RunEnvironment environment, Map<String, String> classLabels,
+                    LoadTestResult result) {}
+
+    private ResultsJson() {
+    }
+
+    /**
+     * Writes a result, and the environment of the running JVM, to a file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, LoadTestResult result) throws IOException {
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        mapper().writeValue(path.toFile(), document(result));
+    }
+
+    /**
+     * Returns the document exported for a result, measured in the running JVM.
+     */
+    static Document document(LoadTestResult result) {
+        Map<String, String> classLabels = new TreeMap<>();
+        ExpressionGrouping grouping = result.grouping();
+        for (EngineResult engine : result.engineResults()) {
+            for (ClassStatistics stats : engine.classStats()) {
+                classLabels.put(String.valueOf(stats.complexity()), label(grouping, stats.complexity()));
+            }
+        }
+        return new Document(SCHEMA_VERSION, RunEnvironment.current(), classLabels, result);
+    }
+
+    /**
+     * Reads the per-class latencies of every engine from a result file.
+     *
+     * @throws IOException if the file cannot be read or is not a result file
+     */
+    public static ResultSnapshot read(Path path) throws IOException {
+        ObjectMapper mapper = mapper();
+        JsonNode root = mapper.readTree(path.toFile());
+        if (root == null || !root.path("schemaVersion").isInt()) {
+            throw new IOException("Not a results file: " + path);
+        }
+        int version = root.get("schemaVersion").asInt();
+        if (version != SCHEMA_VERSION) {
+            throw new IOException("Unsupported results schema " + version + " in " + path
+                + " (expected " + SCHEMA_VERSION + ")");
+        }
+
+        JsonNode labels = root.path("classLabels");
+        JsonNode result = root.path("result");
+        Map<String, Map<String, LatencyHistogram>> engines = new LinkedHashMap<>();
+        for (JsonNode engine : result.path("engineResults")) {
+            Map<String, LatencyHistogram> classes = new LinkedHashMap<>();
+            for (JsonNode stats : engine.path("classStats")) {
+                String id = stats.path("complexity").asText();
+                classes.put(labels.path(id).asText(id), readHistogram(stats.path("histogram"), path));
+            }
+            engines.put(engine.path("engine").asText(), classes);
+        }
+        if (engines.isEmpty()) {
+            throw new IOException("No engine results in " + path);
+        }
+
+        RunEnvironment environment = root.hasNonNull("environment")
+            ? mapper.treeToValue(root.get("environment"), RunEnvironment.class)
+            : null;
+        JsonNode overall = result.path("overallStats");
+        return new ResultSnapshot(
+            path.toString(),
+            overall.path("startTimeUtc").asText(""),
+            overall.path("inputFilePath").asText(""),
+            environment,
+            engines
+        );
+    }
+
+    /**
+     * Reads back a result: its overall and per-class statistics, the totals
+     * of each engine, its failures and warmup. Per-phase, cache, regression,
+     * open-loop, sweep and flight recording sections are not restored.
+     *
+     * @param config the configuration the result was measured with, for its grouping, arrivals and workload
+     * @throws IOException if the file cannot be read or is not a result file
+     */
+    public static LoadTestResult readResult(Path path, LoadTestConfig config) throws IOException {
+        return readResult(mapper().readTree(path.toFile()), path, config);
+    }
+
+    /**
+     * Reads back a result from an exported document.
+     *
+     * @param source where the document came from, for error messages
+     * @throws IOException if the document is not an exported result
+     */
+    static LoadTestResult readResult(JsonNode root, Object source, LoadTestConfig config) throws IOException {
+        ObjectMapper mapper = mapper();
+        if (root == null || root.path("schemaVersion").asInt() != SCHEMA_VERSION) {
+            throw new IOException("Not a results document of schema " + SCHEMA_VERSION + ": " + source);
+        }
+        JsonNode result = root.path("result");
+
+        List<EngineResult> engines = new ArrayList<>();
+        for (JsonNode engine : result.path("engineResults")) {
+            List<ClassStatistics> classes = new ArrayList<>();
+            for (JsonNode stats : engine.path("classStats")) {
+                classes.add(mapper.treeToValue(stats, ClassStatistics.class));
+            }
+            engines.add(new EngineResult(
+                engine.path("engine").asText(),
+                classes,
+                engine.path("totalEvaluations").asLong(),
+                engine.path("totalTimeMs").asDouble(),
+                engine.path("throughputEvalsPerSec").asDouble(),
+                engine.path("failedEvaluations").asInt(),
+                List.of(),
+                null,
+                engine.path("preparationSupported").asBoolean(),
+                null,
+                null
+            ));
+        }
+        if (engines.isEmpty()) {
+            throw new IOException("No engine results in " + source);
+        }
+        List<FailedEvaluation> failures = new ArrayList<>();
+        for (JsonNode failure : result.path("failures")) {
+            failures.add(mapper.treeToValue(failure, FailedEvaluation.class));
+        }
+        WarmupSummary warmup = result.hasNonNull("warmup")
+            ? mapper.treeToValue(result.get("warmup"), WarmupSummary.class)
+            : null;
+
+        return new LoadTestResult(
+            mapper.treeToValue(result.path("overallStats"), OverallStatistics.class),
+            engines.get(0).classStats(),
+            failures,
+            warmup,
+            engines,
+            config.grouping(),
+            config.arrivals(),
+            config.workload(),
+            null,
+            null,
+            null,
+            null
+        );
+    }
+
+    private static LatencyHistogram readHistogram(JsonNode node, Object source) throws IOException {
+        JsonNode buckets = node.path("buckets");
+        if (!buckets.isArray()) {
+            throw new IOException("Class without histogram buckets in " + source);
+        }
+        long[] values = new long[buckets.size()];
+        long[] counts = new long[buckets.size()];
+        for (int i = 0; i < buckets.size(); i++) {
+            values[i] = buckets.get(i).path(0).asLong();
+            counts[i] = buckets.get(i).path(1).asLong();
+        }
+        return LatencyHistogram.restore(values, counts,
+            node.path("minNs").asLong(), node.path("maxNs").asLong(),
+            node.path("meanNs").asDouble(), node.path("stdDevNs").asDouble());
+    }
+
+    private static String label(ExpressionGrouping grouping, int classId) {
+        return (grouping == null || grouping.isComplexity()) ? String.valueOf(classId) : grouping.label(classId);
+    }
+
+    /**
+     * Returns a mapper that writes and reads histograms, timestamps and
+     * groupings the way result files hold them.
+     */
+    static ObjectMapper mapper() {
+        SimpleModule module = new SimpleModule("sqlexpr-results");
+        module.addSerializer(LatencyHistogram.class, new HistogramSerializer());
+        module.addDeserializer(LatencyHistogram.class, new JsonDeserializer<>() {
+            @Override
+            public LatencyHistogram deserialize(JsonParser parser, DeserializationContext context)
+                throws IOException {
+                return readHistogram(parser.readValueAsTree(), "results file");
+            }
+        });
+        module.addDeserializer(ZonedDateTime.class, new JsonDeserializer<>() {
+            @Override
+            public ZonedDateTime deserialize(JsonParser parser, DeserializationContext context)
+                throws IOException {
+                return OffsetDateTime.parse(parser.getValueAsString()).toZonedDateTime();
+            }
+        });
+        module.addSerializer(ZonedDateTime.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(ZonedDateTime value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+                gen.writeString(value.toOffsetDateTime().toString());
+            }
+        });
+        module.addSerializer(ExpressionGrouping.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(ExpressionGrouping value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+                gen.writeStartObject();
+                gen.writeArrayFieldStart("dimensions");
+                for (ProfileDimension dimension : value.dimensions()) {
+                    gen.writeString(dimension.cliName());
+                }
+                gen.writeEndArray();
+                gen.writeStringField("description", value.describe());
+                gen.writeEndObject();
+            }
+        });
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(module);
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        // Records export derived values, such as a policy's description, that have no component
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return mapper;
+    }
+
+    /**
+     * Writes a histogram as its summary statistics and non-empty buckets.
+     */
+    private static final class HistogramSerializer extends JsonSerializer<LatencyHistogram> {
+        @Override
+        public void serialize(LatencyHistogram histogram, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("count", histogram.getTotalCount());
+            gen.writeNumberField("minNs", histogram.getMinNs());
+            gen.writeNumberField("maxNs", histogram.getMaxNs());
+            gen.writeNumberField("meanNs", histogram.getMeanNs());
+            gen.writeNumberField("stdDevNs", histogram.getStdDevNs());
+            gen.writeArrayFieldStart("buckets");
+            for (int i = 0; i < histogram.getBucketCount(); i++) {
+                long count = histogram.getCountAtIndex(i);
+                if (count > 0) {
+                    gen.writeStartArray();
+                    gen.writeNumber(LatencyHistogram.lowestEquivalentValue(i));
+                    gen.writeNumber(count);
+                    gen.writeEndArray();
+                }
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+}
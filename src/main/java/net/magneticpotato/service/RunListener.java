@@ -0,0 +1,24 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.IntervalSnapshot;
+
+/**
+ * Follows the phases of a {@link LoadTester} run, e.g. to hold the workers
+ * of a distributed run in lock step and forward their interval metrics.
+ */
+public interface RunListener {
+
+    /**
+     * Called before a phase, "warmup" or "measure", starts. Blocks until the
+     * phase may start.
+     *
+     * @throws java.io.UncheckedIOException if the phase must not start
+     */
+    void beforePhase(String phase);
+
+    /**
+     * Called from the reporting thread with the metrics of every interval,
+     * when the run reports live metrics.
+     */
+    void interval(IntervalSnapshot snapshot);
+}
@@ -0,0 +1,112 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.LatencyHistogram;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.ScalabilityPoint;
+import net.magneticpotato.model.ScalabilityResult;
+import net.magneticpotato.model.UslFit;
+import net.magneticpotato.model.WarmupPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs the load test at increasing concurrency levels, 1, 2, 4, ... up to a
+ * maximum, each for a fixed duration, and fits the Universal Scalability
+ * Law to the throughput measured at each level.
+ * <p>
+ * Each level is a separate {@link LoadTester} run. The configured warmup
+ * only precedes the first level; the JIT state it builds carries over.
+ */
+public class ScalabilitySweep {
+
+    /** Measured time per level when the configuration does not set one. */
+    public static final long DEFAULT_LEVEL_DURATION_MS = 10_000;
+
+    private final LoadTestConfig config;
+    private final String inputFilePath;
+    private final int maxWorkers;
+
+    /**
+     * @param config the run configuration; its thread count is replaced by each level's
+     * @param inputFilePath the corpus path shown in the reports
+     * @param maxWorkers the highest concurrency level
+     */
+    public ScalabilitySweep(LoadTestConfig config, String inputFilePath, int maxWorkers) {
+        if (maxWorkers < 1) {
+            throw new IllegalArgumentException("Sweep needs at least one worker");
+        }
+        this.config = config;
+        this.inputFilePath = inputFilePath;
+        this.maxWorkers = maxWorkers;
+    }
+
+    /**
+     * Returns the concurrency levels of a sweep: powers of two below the
+     * maximum, then the maximum itself.
+     */
+    public static List<Integer> levels(int maxWorkers) {
+        List<Integer> levels = new ArrayList<>();
+        for (int level = 1; level < maxWorkers; level *= 2) {
+            levels.add(level);
+        }
+        levels.add(maxWorkers);
+        return levels;
+    }
+
+    /**
+     * Runs every level of the sweep.
+     *
+     * @param runner runs one level's tester over the corpus, e.g. {@code tester -> tester.run(loaded)}
+     * @return the result of the highest level, with the sweep attached
+     */
+    public LoadTestResult run(Function<LoadTester, LoadTestResult> runner) {
+        long durationMs = (config.durationMs() > 0) ? config.durationMs() : DEFAULT_LEVEL_DURATION_MS;
+        List<ScalabilityPoint> points = new ArrayList<>();
+        LoadTestResult last = null;
+
+        for (int level : levels(maxWorkers)) {
+            System.out.println("Sweep level: " + level + " worker(s) for " + durationMs + " ms");
+            LoadTestConfig levelConfig = config.toBuilder()
+                .threads(level)
+                .durationMs(durationMs)
+                .warmup(points.isEmpty() ? config.warmup() : WarmupPolicy.none())
+                .build();
+
+            last = runner.apply(new LoadTester(levelConfig, inputFilePath));
+            points.add(toPoint(level, last));
+            System.out.println(String.format("  %.1f evals/sec", last.overallStats().throughputEvalsPerSec()));
+        }
+
+        UslFit fit = null;
+        if (points.size() >= 2 && points.get(0).throughputEvalsPerSec() > 0.0) {
+            int[] workers = points.stream().mapToInt(ScalabilityPoint::workers).toArray();
+            double[] throughput = points.stream().mapToDouble(ScalabilityPoint::throughputEvalsPerSec).toArray();
+            fit = UslFit.fit(workers, throughput);
+        }
+        return last.withScalability(new ScalabilityResult(points, durationMs, fit));
+    }
+
+    /**
+     * Summarises one level: its wall clock throughput and the latency of
+     * the primary engine over all classes.
+     */
+    private static ScalabilityPoint toPoint(int workers, LoadTestResult result) {
+        LatencyHistogram all = new LatencyHistogram();
+        for (ClassStatistics stats : result.classStats()) {
+            all.add(stats.histogram());
+        }
+        return new ScalabilityPoint(
+            workers,
+            result.overallStats().totalEvaluations(),
+            result.overallStats().wallClockTimeMs(),
+            result.overallStats().throughputEvalsPerSec(),
+            all.getValueAtPercentile(50.0) / 1_000_000.0,
+            all.getValueAtPercentile(99.0) / 1_000_000.0,
+            result.classStats()
+        );
+    }
+}
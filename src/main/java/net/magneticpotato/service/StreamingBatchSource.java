@@ -0,0 +1,132 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ExpressionGrouping;
+import net.magneticpotato.model.ExpressionProfile;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+
+/**
+ * Batches one pass over a streamed corpus. A background reader thread pulls
+ * expressions from the source, classifies them and queues them in batches;
+ * the bounded queue limits read-ahead, so memory is proportional to the
+ * read-ahead window rather than to the corpus size.
+ */
+class StreamingBatchSource implements BatchSource {
+
+    private static final ExpressionBatch END = new ExpressionBatch(List.of(), new int[0], null, 0, 0);
+
+    private final Stream<ExpressionData> stream;
+    private final BlockingQueue<ExpressionBatch> queue;
+    private final Thread reader;
+    private final Map<Integer, Integer> classCounts;
+    private final ExpressionGrouping grouping;
+    private final boolean profiled;
+    private volatile Throwable readerError;
+
+    /**
+     * Starts reading a pass.
+     *
+     * @param source the corpus to stream
+     * @param batchSize expressions per batch
+     * @param readAhead maximum number of expressions read ahead of the workers
+     * @param classCounts if not null, receives the number of expressions per class
+     * @param grouping how expressions are classified
+     * @param profiled whether batches carry expression profiles
+     * @throws IOException if the source cannot be opened
+     */
+    StreamingBatchSource(CorpusSource source, int batchSize, int readAhead,
+                         Map<Integer, Integer> classCounts, ExpressionGrouping grouping,
+                         boolean profiled) throws IOException {
+        this.stream = source.open();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, readAhead / batchSize));
+        this.classCounts = classCounts;
+        this.grouping = grouping;
+        this.profiled = profiled || !grouping.isComplexity();
+        this.reader = new Thread(() -> read(batchSize), "corpus-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    private void read(int batchSize) {
+        try {
+            Iterator<ExpressionData> it = stream.iterator();
+            while (it.hasNext()) {
+                ExpressionData[] records = new ExpressionData[batchSize];
+                int[] classes = new int[batchSize];
+                ExpressionProfile[] profiles = profiled ? new ExpressionProfile[batchSize] : null;
+                int size = 0;
+                while (size < batchSize && it.hasNext()) {
+                    ExpressionData expr = it.next();
+                    int classId;
+                    if (profiles != null) {
+                        profiles[size] = ExpressionProfiler.profile(expr.expr());
+                        classId = grouping.groupOf(profiles[size]);
+                    } else {
+                        classId = ComplexityCalculator.calculate(expr.expr());
+                    }
+                    records[size] = expr;
+                    classes[size] = classId;
+                    if (classCounts != null) {
+                        classCounts.merge(classId, 1, Integer::sum);
+                    }
+                    size++;
+                }
+                queue.put(new ExpressionBatch(Arrays.asList(records), classes, profiles, 0, size));
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (RuntimeException e) {
+            readerError = e;
+        }
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            // Closed while the queue was full; nobody is waiting
+        }
+    }
+
+    @Override
+    public ExpressionBatch nextBatch() {
+        try {
+            ExpressionBatch batch = queue.take();
+            if (batch == END) {
+                // Leave the marker for the other workers
+                queue.put(END);
+                if (readerError != null) {
+                    throw new IllegalStateException("Failed to read corpus: " + readerError.getMessage(), readerError);
+                }
+                return null;
+            }
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for corpus data", e);
+        }
+    }
+
+    /**
+     * Stops the reader if the pass was abandoned, waits for it to exit and
+     * then releases the underlying stream, so the reader never parses from
+     * a closed input.
+     */
+    @Override
+    public void close() {
+        reader.interrupt();
+        try {
+            // The reader stops at its next queue.put, at most one batch later
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stream.close();
+        }
+    }
+}
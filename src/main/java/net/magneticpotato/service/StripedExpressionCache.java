@@ -0,0 +1,80 @@
+package net.magneticpotato.service;
+
+/**
+ * Splits a cache into independently locked stripes selected by key hash,
+ * so workers looking up different expressions rarely wait for each other.
+ * Each stripe applies the eviction policy to its share of the capacity.
+ *
+ * @param <V> the cached value type
+ */
+public class StripedExpressionCache<V> implements ExpressionCache<V> {
+
+    private final ExpressionCache<V>[] stripes;
+    private final int mask;
+    private final int capacity;
+
+    /**
+     * @param policy the eviction policy of every stripe, not {@link Policy#NONE}
+     * @param capacity maximum number of entries over all stripes
+     * @param stripeCount number of stripes, a power of two no larger than the capacity
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StripedExpressionCache(Policy policy, int capacity, int stripeCount) {
+        if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1 || stripeCount > capacity) {
+            throw new IllegalArgumentException(
+                "Stripe count must be a power of two no larger than the capacity: " + stripeCount);
+        }
+        this.stripes = new ExpressionCache[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            int share = capacity / stripeCount + ((i < capacity % stripeCount) ? 1 : 0);
+            stripes[i] = ExpressionCache.create(policy, share);
+        }
+        this.mask = stripeCount - 1;
+        this.capacity = capacity;
+    }
+
+    private ExpressionCache<V> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    @Override
+    public V get(String key) {
+        return stripe(key).get(key);
+    }
+
+    @Override
+    public void put(String key, V value) {
+        stripe(key).put(key, value);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ExpressionCache<V> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long evictions() {
+        long evictions = 0;
+        for (ExpressionCache<V> stripe : stripes) {
+            evictions += stripe.evictions();
+        }
+        return evictions;
+    }
+
+    /**
+     * Returns the number of stripes.
+     */
+    public int stripeCount() {
+        return stripes.length;
+    }
+}
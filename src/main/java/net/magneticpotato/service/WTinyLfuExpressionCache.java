@@ -0,0 +1,213 @@
+package net.magneticpotato.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Window TinyLFU expression cache, following the design used by Caffeine.
+ * <p>
+ * New entries enter a small LRU admission window (1% of capacity). When an
+ * entry falls out of the window it competes with the main cache's eviction
+ * victim, and only the one that a count-min frequency sketch estimates to be
+ * accessed more often is kept. The main cache is a segmented LRU: entries
+ * start in a probation segment and are promoted to a protected segment
+ * (80% of the main cache) on their next hit. Sketch counters are halved
+ * periodically so the popularity estimate follows changes in the workload.
+ *
+ * @param <V> the cached value type
+ */
+public class WTinyLfuExpressionCache<V> implements ExpressionCache<V> {
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+
+    // Insertion ordered; the first entry is the least recently used
+    private final LinkedHashMap<String, V> window = new LinkedHashMap<>();
+    private final LinkedHashMap<String, V> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<String, V> protectedSegment = new LinkedHashMap<>();
+
+    private final FrequencySketch sketch;
+    private long evictions;
+
+    public WTinyLfuExpressionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be >= 1");
+        }
+        this.capacity = capacity;
+        this.windowCapacity = (capacity < 2) ? capacity : Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = (int) (mainCapacity * 0.8);
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public synchronized V get(String key) {
+        sketch.increment(key);
+
+        V value = window.remove(key);
+        if (value != null) {
+            window.put(key, value);
+            return value;
+        }
+
+        value = probation.remove(key);
+        if (value != null) {
+            promote(key, value);
+            return value;
+        }
+
+        value = protectedSegment.remove(key);
+        if (value != null) {
+            protectedSegment.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void put(String key, V value) {
+        sketch.increment(key);
+
+        if (window.containsKey(key)) {
+            window.remove(key);
+        } else if (probation.containsKey(key)) {
+            probation.remove(key);
+            promote(key, value);
+            return;
+        } else if (protectedSegment.containsKey(key)) {
+            protectedSegment.remove(key);
+            protectedSegment.put(key, value);
+            return;
+        }
+
+        window.put(key, value);
+        if (window.size() > windowCapacity) {
+            Map.Entry<String, V> candidate = removeEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * Moves an entry from the window into the main cache if the main cache
+     * has room or the entry is more popular than the main cache's victim.
+     */
+    private void admit(String key, V value) {
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(key, value);
+            return;
+        }
+
+        LinkedHashMap<String, V> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        if (victimSegment.isEmpty()) {
+            // No main cache at all (capacity of one): the window entry is the victim
+            evictions++;
+            return;
+        }
+
+        String victim = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(key) > sketch.frequency(victim)) {
+            victimSegment.remove(victim);
+            probation.put(key, value);
+        }
+        evictions++;
+    }
+
+    /**
+     * Moves a probation entry that was hit into the protected segment,
+     * demoting the protected segment's least recent entry if it overflows.
+     */
+    private void promote(String key, V value) {
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedCapacity) {
+            Map.Entry<String, V> demoted = removeEldest(protectedSegment);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private static <V> Map.Entry<String, V> removeEldest(LinkedHashMap<String, V> segment) {
+        Iterator<Map.Entry<String, V>> it = segment.entrySet().iterator();
+        Map.Entry<String, V> eldest = it.next();
+        Map.Entry<String, V> removed = Map.entry(eldest.getKey(), eldest.getValue());
+        it.remove();
+        return removed;
+    }
+
+    @Override
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Count-min sketch with four rows of 4-bit saturating counters.
+     */
+    static class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+        };
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(16, capacity * 2 - 1)) << 1;
+            this.counters = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = Math.max(10 * capacity, 160);
+        }
+
+        void increment(String key) {
+            int hash = key.hashCode();
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = indexOf(hash, row);
+                if (counters[row][index] < MAX_COUNT) {
+                    counters[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(String key) {
+            int hash = key.hashCode();
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters[row][indexOf(hash, row)]);
+            }
+            return min;
+        }
+
+        /** Halves every counter so old popularity decays. */
+        private void reset() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.WorkloadPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Turns a {@link WorkloadPolicy} into the order in which each pass visits
+ * a materialised corpus. Popularity rankings are fixed for the run; the
+ * draws of each pass come from a generator seeded with the run's seed and
+ * the pass number, so a run is reproduced exactly by its seed.
+ */
+class WorkloadShaper {
+
+    private final WorkloadPolicy policy;
+    private final int size;
+    /** Expression indices of each group, most popular first. */
+    private final int[][] groups;
+    /** Cumulative popularity of each group's members, or null for uniform. */
+    private final double[][] memberCdf;
+    /** Cumulative weight of each group. */
+    private final double[] groupCdf;
+
+    /**
+     * @param policy the workload policy
+     * @param classes class id of each expression in the corpus
+     * @throws IllegalArgumentException if the mix names a class the corpus does not have
+     */
+    WorkloadShaper(WorkloadPolicy policy, int[] classes) {
+        this.policy = policy;
+        this.size = classes.length;
+        if (!policy.isSampled()) {
+            this.groups = null;
+            this.memberCdf = null;
+            this.groupCdf = null;
+            return;
+        }
+
+        SplittableRandom ranking = new SplittableRandom(policy.seed());
+        List<int[]> members = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        if (policy.mix().isEmpty()) {
+            int[] all = new int[size];
+            Arrays.setAll(all, i -> i);
+            members.add(all);
+            weights.add(1.0);
+        } else {
+            Map<Integer, List<Integer>> byClass = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                if (policy.mix().containsKey(classes[i])) {
+                    byClass.computeIfAbsent(classes[i], k -> new ArrayList<>()).add(i);
+                }
+            }
+            for (Map.Entry<Integer, Double> entry : new TreeMap<>(policy.mix()).entrySet()) {
+                List<Integer> indices = byClass.get(entry.getKey());
+                if (indices == null) {
+                    throw new IllegalArgumentException("Class mix names class " + entry.getKey()
+                        + ", which has no expressions in the corpus");
+                }
+                members.add(indices.stream().mapToInt(Integer::intValue).toArray());
+                weights.add(entry.getValue());
+            }
+        }
+
+        this.groups = new int[members.size()][];
+        this.memberCdf = new double[members.size()][];
+        for (int g = 0; g < groups.length; g++) {
+            // A random ranking, so popularity is not tied to file order
+            groups[g] = members.get(g);
+            shuffle(groups[g], ranking);
+            memberCdf[g] = (policy.zipfExponent() > 0.0) ? zipfCdf(groups[g].length, policy.zipfExponent()) : null;
+        }
+        this.groupCdf = cumulative(weights.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    /**
+     * Returns the expression indices pass number {@code pass} visits, in
+     * order, or null when it walks the corpus in file order.
+     */
+    int[] order(int pass) {
+        if (policy.isSequential()) {
+            return null;
+        }
+        SplittableRandom random = new SplittableRandom(policy.seed() + 0x9E3779B97F4A7C15L * (pass + 1));
+        int[] order = new int[size];
+        if (policy.shuffle()) {
+            Arrays.setAll(order, i -> i);
+            shuffle(order, random);
+            return order;
+        }
+        for (int i = 0; i < size; i++) {
+            int g = (groups.length == 1) ? 0 : search(groupCdf, random.nextDouble());
+            int[] members = groups[g];
+            int m = (memberCdf[g] == null) ? random.nextInt(members.length) : search(memberCdf[g], random.nextDouble());
+            order[i] = members[m];
+        }
+        return order;
+    }
+
+    /**
+     * Returns the cumulative distribution of Zipf's law over n ranks:
+     * rank k has probability proportional to 1 / k^s.
+     */
+    static double[] zipfCdf(int n, double exponent) {
+        double[] weights = new double[n];
+        for (int k = 0; k < n; k++) {
+            weights[k] = 1.0 / Math.pow(k + 1, exponent);
+        }
+        return cumulative(weights);
+    }
+
+    /**
+     * Normalises weights to a cumulative distribution ending at exactly 1.
+     */
+    static double[] cumulative(double[] weights) {
+        double total = 0.0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] cdf = new double[weights.length];
+        double running = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i];
+            cdf[i] = running / total;
+        }
+        cdf[cdf.length - 1] = 1.0;
+        return cdf;
+    }
+
+    /**
+     * Returns the first index whose cumulative probability exceeds u.
+     */
+    static int search(double[] cdf, double u) {
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] > u) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static void shuffle(int[] values, SplittableRandom random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}
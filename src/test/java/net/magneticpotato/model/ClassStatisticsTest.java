@@ -0,0 +1,49 @@
+package net.magneticpotato.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for deriving ClassStatistics from timings.
+ */
+public class ClassStatisticsTest {
+
+    @Test
+    void testAllocationFiguresFromTimings() {
+        ClassTimings timings = new ClassTimings();
+        timings.addTiming(1_000);
+        timings.addTiming(2_000);
+        ClassStatistics unmeasured = ClassStatistics.fromTimings(3, timings);
+        assertEquals(0, unmeasured.allocationSamples());
+        assertEquals(0.0, unmeasured.allocatedBytesMean());
+        assertEquals(0, unmeasured.allocatedBytesMax());
+
+        timings.addAllocation(100);
+        timings.addAllocation(300);
+        timings.addAllocation(800);
+        ClassStatistics stats = ClassStatistics.fromTimings(3, timings);
+        assertEquals(3, stats.complexity());
+        assertEquals(2, stats.totalEvaluations());
+        assertEquals(3, stats.allocationSamples());
+        assertEquals(400.0, stats.allocatedBytesMean());
+        assertEquals(800, stats.allocatedBytesMax());
+    }
+
+    @Test
+    void testWithAllocationsKeepsTheLatencies() {
+        ClassTimings timings = new ClassTimings();
+        timings.addTiming(1_000);
+        timings.addTiming(5_000);
+        ClassStatistics stats = ClassStatistics.fromTimings(0, timings);
+
+        ClassStatistics replaced = stats.withAllocations(1, 64.0, 64);
+        assertEquals(1, replaced.allocationSamples());
+        assertEquals(64.0, replaced.allocatedBytesMean());
+        assertEquals(64, replaced.allocatedBytesMax());
+        assertEquals(stats.totalEvaluations(), replaced.totalEvaluations());
+        assertEquals(stats.p99TimeMs(), replaced.p99TimeMs());
+        assertSame(stats.histogram(), replaced.histogram());
+    }
+}
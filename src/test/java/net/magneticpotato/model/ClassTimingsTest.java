@@ -0,0 +1,50 @@
+package net.magneticpotato.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for ClassTimings accumulation and merging.
+ */
+public class ClassTimingsTest {
+
+    @Test
+    void testAllocationsAccumulateAndMerge() {
+        ClassTimings timings = new ClassTimings();
+        timings.addTiming(1_000);
+        timings.addAllocation(100);
+        timings.addAllocation(300);
+        assertEquals(2, timings.getAllocationSamples());
+        assertEquals(400, timings.getAllocatedBytes());
+        assertEquals(300, timings.getMaxAllocatedBytes());
+
+        ClassTimings other = new ClassTimings();
+        other.addTiming(2_000);
+        other.addAllocation(800);
+        timings.merge(other);
+
+        assertEquals(2, timings.getEvaluationCount());
+        assertEquals(3, timings.getAllocationSamples());
+        assertEquals(1_200, timings.getAllocatedBytes());
+        assertEquals(800, timings.getMaxAllocatedBytes());
+
+        // Merging timings without samples leaves the figures alone
+        timings.merge(new ClassTimings());
+        assertEquals(3, timings.getAllocationSamples());
+        assertEquals(800, timings.getMaxAllocatedBytes());
+    }
+
+    @Test
+    void testBatchTimingKeepsTheRemainder() {
+        ClassTimings timings = new ClassTimings();
+        timings.addBatchTiming(1_003, 8);
+        timings.addBatchTiming(64, 8);
+
+        assertEquals(16, timings.getEvaluationCount());
+        assertEquals(2, timings.getTimedBatches());
+        assertEquals(1_067.0, timings.getHistogram().getTotalNs());
+        assertEquals(8, timings.getHistogram().getMinNs());
+        assertEquals(126, timings.getHistogram().getMaxNs());
+    }
+}
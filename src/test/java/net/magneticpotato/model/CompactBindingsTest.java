@@ -0,0 +1,56 @@
+package net.magneticpotato.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the compact value map view.
+ */
+public class CompactBindingsTest {
+
+    @Test
+    void testBehavesLikeTheSourceMap() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("s76", "xsometext");
+        values.put("f92", 25.5);
+        values.put("i3", 5);
+        values.put("l", 5_000_000_000L);
+        values.put("b", false);
+        values.put("s2", null);
+
+        CompactBindings bindings = CompactBindings.of(values, new KeyDictionary());
+
+        assertEquals(values, bindings);
+        assertEquals(values.hashCode(), bindings.hashCode());
+        assertEquals(List.copyOf(values.keySet()), List.copyOf(bindings.keySet()));
+        assertEquals(Integer.class, bindings.get("i3").getClass());
+        assertEquals(Long.class, bindings.get("l").getClass());
+        assertTrue(bindings.containsKey("s2"));
+        assertNull(bindings.get("s2"));
+        assertFalse(bindings.containsKey("missing"));
+        assertNull(bindings.get(null));
+        assertThrows(UnsupportedOperationException.class, () -> bindings.put("x", 1));
+    }
+
+    @Test
+    void testSharesNamesAndStringValuesAcrossRecords() {
+        KeyDictionary dictionary = new KeyDictionary();
+        CompactBindings first = CompactBindings.of(Map.of("s1", new String("a")), dictionary);
+        CompactBindings second = CompactBindings.of(Map.of("s1", new String("a"), "i4", 11), dictionary);
+
+        assertEquals(2, dictionary.size());
+        assertSame(first.get("s1"), second.get("s1"));
+        assertFalse(first.containsKey("i4"));
+        assertEquals(11, second.get("i4"));
+    }
+}
@@ -0,0 +1,67 @@
+package net.magneticpotato.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for IntervalRecorder snapshots.
+ */
+public class IntervalRecorderTest {
+
+    @Test
+    void testSnapshotDrainsRecordedValues() {
+        IntervalRecorder recorder = new IntervalRecorder();
+        recorder.record(1, 100, false);
+        recorder.record(1, 200, true);
+        recorder.record(2, 300, false);
+
+        Map<Integer, LatencyHistogram> first = new HashMap<>();
+        Map<Integer, Long> firstFailures = new HashMap<>();
+        recorder.snapshotInto(first, firstFailures);
+        assertEquals(2, first.get(1).getTotalCount());
+        assertEquals(300, first.get(2).getMaxNs());
+        assertEquals(Map.of(1, 1L), firstFailures);
+
+        Map<Integer, LatencyHistogram> second = new HashMap<>();
+        Map<Integer, Long> secondFailures = new HashMap<>();
+        recorder.snapshotInto(second, secondFailures);
+        assertTrue(second.isEmpty());
+        assertTrue(secondFailures.isEmpty());
+
+        recorder.record(2, 400, true);
+        recorder.snapshotInto(second, secondFailures);
+        assertEquals(1, second.get(2).getTotalCount());
+        assertEquals(400, second.get(2).getMinNs());
+        assertEquals(Map.of(2, 1L), secondFailures);
+    }
+
+    @Test
+    void testNoValueIsLostWhileSnapshotting() throws InterruptedException {
+        IntervalRecorder recorder = new IntervalRecorder();
+        int values = 2_000_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < values; i++) {
+                recorder.record(i % 7, 1 + i % 1000, i % 100 == 0);
+            }
+        });
+
+        Map<Integer, LatencyHistogram> total = new HashMap<>();
+        Map<Integer, Long> failures = new HashMap<>();
+        writer.start();
+        while (writer.isAlive()) {
+            recorder.snapshotInto(total, failures);
+        }
+        writer.join();
+        recorder.snapshotInto(total, failures);
+
+        long count = total.values().stream().mapToLong(LatencyHistogram::getTotalCount).sum();
+        assertEquals(values, count);
+        assertEquals(7, total.size());
+        assertEquals(values / 100, failures.values().stream().mapToLong(Long::longValue).sum());
+    }
+}
@@ -0,0 +1,106 @@
+package net.magneticpotato.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for LatencyHistogram bucketing, percentiles and merging.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    void testExactStatistics() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(1_000);
+        histogram.recordValue(2_000);
+        histogram.recordValue(3_000);
+
+        assertEquals(3, histogram.getTotalCount());
+        assertEquals(1_000, histogram.getMinNs());
+        assertEquals(3_000, histogram.getMaxNs());
+        assertEquals(2_000.0, histogram.getMeanNs(), 1e-9);
+        assertEquals(6_000.0, histogram.getTotalNs(), 1e-6);
+        assertEquals(1_000.0, histogram.getStdDevNs(), 1e-9);
+    }
+
+    @Test
+    void testPercentilesWithinOnePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.recordValue(v * 100);
+        }
+
+        assertWithinOnePercent(5_000_000, histogram.getValueAtPercentile(50.0));
+        assertWithinOnePercent(9_000_000, histogram.getValueAtPercentile(90.0));
+        assertWithinOnePercent(9_990_000, histogram.getValueAtPercentile(99.9));
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    void testPercentileErrorBoundedAcrossMagnitudes() {
+        for (int exponent = 0; exponent < 42; exponent++) {
+            long base = 1L << exponent;
+            for (int step = 0; step < 64; step++) {
+                long value = base + base * step / 64 + step;
+                if (value > LatencyHistogram.MAX_TRACKABLE_NS / 2) {
+                    continue;
+                }
+                LatencyHistogram histogram = new LatencyHistogram();
+                histogram.recordValue(value);
+                // A larger value keeps the recorded maximum from capping the percentile
+                histogram.recordValue(value * 2);
+                long reported = histogram.getValueAtPercentile(50.0);
+                assertTrue(reported >= value, "value " + value + " reported as " + reported);
+                assertTrue(reported - value <= value * LatencyHistogram.MAX_RELATIVE_ERROR,
+                    "value " + value + " reported as " + reported);
+            }
+        }
+        for (int i = 1; i < new LatencyHistogram().getBucketCount(); i++) {
+            long lowest = LatencyHistogram.lowestEquivalentValue(i);
+            long width = LatencyHistogram.highestEquivalentValue(i) - lowest;
+            assertTrue(width <= lowest * LatencyHistogram.MAX_RELATIVE_ERROR, "bucket " + i);
+        }
+    }
+
+    @Test
+    void testBucketBoundariesAreContiguous() {
+        for (int i = 1; i < new LatencyHistogram().getBucketCount(); i++) {
+            assertEquals(LatencyHistogram.highestEquivalentValue(i - 1) + 1,
+                LatencyHistogram.lowestEquivalentValue(i));
+            assertEquals(i, LatencyHistogram.bucketIndex(LatencyHistogram.lowestEquivalentValue(i)));
+        }
+    }
+
+    @Test
+    void testMergeMatchesSingleHistogram() {
+        LatencyHistogram combined = new LatencyHistogram();
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (long v = 1; v <= 1_000; v++) {
+            combined.recordValue(v * 37);
+            (v % 2 == 0 ? a : b).recordValue(v * 37);
+        }
+        a.add(b);
+
+        assertEquals(combined.getTotalCount(), a.getTotalCount());
+        assertEquals(combined.getMinNs(), a.getMinNs());
+        assertEquals(combined.getMaxNs(), a.getMaxNs());
+        assertEquals(combined.getMeanNs(), a.getMeanNs(), 1e-6);
+        assertEquals(combined.getStdDevNs(), a.getStdDevNs(), 1e-6);
+        assertEquals(combined.getValueAtPercentile(99.0), a.getValueAtPercentile(99.0));
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getMinNs());
+        assertEquals(0, histogram.getValueAtPercentile(99.0));
+        assertEquals(0.0, histogram.getStdDevNs());
+    }
+
+    private static void assertWithinOnePercent(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 100,
+            "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,77 @@
+package net.magneticpotato.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for LatencyRegression fitting, merging and aliasing.
+ */
+public class LatencyRegressionTest {
+
+    @Test
+    void testRecoversKnownCoefficients() {
+        LatencyRegression first = new LatencyRegression();
+        LatencyRegression second = new LatencyRegression();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int length = 20 + random.nextInt(400);
+            int likes = random.nextInt(4);
+            int depth = random.nextInt(6);
+            // 1000 ns base, 2 ns per character, 500 ns per LIKE, 100 ns per nesting level
+            long latency = 1000 + 2L * length + 500L * likes + 100L * depth + random.nextInt(21) - 10;
+            ExpressionProfile profile = profile(length, depth, likes, random.nextInt(3));
+            (i % 2 == 0 ? first : second).add(profile, latency);
+        }
+        first.add(second);
+
+        RegressionResult result = first.fit();
+        assertEquals(20_000, result.observations());
+        assertEquals(1000.0, result.interceptNs(), 1.0);
+        assertTrue(result.rSquared() > 0.99);
+        assertEquals(2.0, coefficient(result, "length").coefficientNs(), 0.01);
+        assertEquals(500.0, coefficient(result, "like").coefficientNs(), 0.5);
+        assertEquals(100.0, coefficient(result, "depth").coefficientNs(), 0.5);
+        assertEquals(0.0, coefficient(result, "in").coefficientNs(), 0.5);
+        assertTrue(Math.abs(coefficient(result, "like").tStat()) > 100);
+    }
+
+    @Test
+    void testConstantAndUnusedFeaturesAreAliased() {
+        LatencyRegression regression = new LatencyRegression();
+        for (int i = 0; i < 100; i++) {
+            regression.add(profile(10 + i, 3, i % 2, 0), 100L + i);
+        }
+
+        RegressionResult result = regression.fit();
+        assertTrue(coefficient(result, "depth").aliased());
+        assertTrue(coefficient(result, "in").aliased());
+        assertFalse(coefficient(result, "length").aliased());
+        assertEquals(1.0, coefficient(result, "length").coefficientNs(), 1e-6);
+        assertEquals(90.0, result.interceptNs(), 1e-6);
+    }
+
+    @Test
+    void testTooFewObservations() {
+        LatencyRegression regression = new LatencyRegression();
+        assertNull(regression.fit());
+        regression.add(profile(10, 1, 0, 0), 100);
+        assertNull(regression.fit());
+    }
+
+    private static ExpressionProfile profile(int length, int depth, int likes, int ins) {
+        return new ExpressionProfile(length, depth, 0, 0, 0, likes, ins, 0, 0, 0, 0, 0, 0);
+    }
+
+    private static RegressionResult.Coefficient coefficient(RegressionResult result, String feature) {
+        return result.coefficients().stream()
+            .filter(c -> c.feature().equals(feature))
+            .findFirst()
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,78 @@
+package net.magneticpotato.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the Mann-Whitney U test on latency histograms.
+ */
+public class MannWhitneyUTest {
+
+    @Test
+    void testMatchesExactStatisticWithoutTies() {
+        // Candidate values beat 2 + 3 + 3 = 8 of the 9 pairs
+        LatencyHistogram baseline = histogram(10, 20, 30);
+        LatencyHistogram candidate = histogram(25, 40, 50);
+
+        MannWhitneyU test = MannWhitneyU.test(baseline, candidate);
+        assertEquals(8.0, test.u(), 1e-9);
+        assertEquals(8.0 / 9.0, test.probabilitySlower(), 1e-9);
+        assertTrue(test.pSlower() < test.pFaster());
+    }
+
+    @Test
+    void testDetectsShiftButNotNoise() {
+        SplittableRandom random = new SplittableRandom(42);
+        LatencyHistogram baseline = new LatencyHistogram();
+        LatencyHistogram same = new LatencyHistogram();
+        LatencyHistogram slower = new LatencyHistogram();
+        for (int i = 0; i < 20_000; i++) {
+            baseline.recordValue(10_000 + random.nextLong(2_000));
+            same.recordValue(10_000 + random.nextLong(2_000));
+            slower.recordValue(10_300 + random.nextLong(2_000));
+        }
+
+        MannWhitneyU noise = MannWhitneyU.test(baseline, same);
+        assertTrue(noise.pSlower() > 0.001, "p " + noise.pSlower());
+        assertTrue(noise.pFaster() > 0.001, "p " + noise.pFaster());
+        assertEquals(0.5, noise.probabilitySlower(), 0.02);
+
+        MannWhitneyU shifted = MannWhitneyU.test(baseline, slower);
+        assertTrue(shifted.pSlower() < 1e-6, "p " + shifted.pSlower());
+        assertTrue(shifted.pFaster() > 0.99);
+        assertTrue(shifted.probabilitySlower() > 0.55);
+    }
+
+    @Test
+    void testIdenticalSingleBucketIsNotSignificant() {
+        MannWhitneyU test = MannWhitneyU.test(histogram(50, 50), histogram(50));
+        assertEquals(1.0, test.pSlower());
+        assertEquals(0.5, test.probabilitySlower(), 1e-9);
+    }
+
+    @Test
+    void testRejectsEmptyHistogram() {
+        assertThrows(IllegalArgumentException.class,
+            () -> MannWhitneyU.test(new LatencyHistogram(), histogram(1)));
+    }
+
+    @Test
+    void testUpperTail() {
+        assertEquals(0.5, MannWhitneyU.upperTail(0.0), 1e-7);
+        assertEquals(0.0227501, MannWhitneyU.upperTail(2.0), 1e-6);
+        assertEquals(0.9772499, MannWhitneyU.upperTail(-2.0), 1e-6);
+    }
+
+    private static LatencyHistogram histogram(long... values) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value : values) {
+            histogram.recordValue(value);
+        }
+        return histogram;
+    }
+}
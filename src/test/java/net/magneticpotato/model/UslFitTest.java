@@ -0,0 +1,58 @@
+package net.magneticpotato.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the Universal Scalability Law fit.
+ */
+public class UslFitTest {
+
+    private static final int[] LEVELS = {1, 2, 4, 8, 16, 32};
+
+    @Test
+    void testRecoversKnownCoefficients() {
+        UslFit truth = new UslFit(1000.0, 0.05, 0.002, Double.NaN, 0.0, 0.0);
+        double[] throughput = new double[LEVELS.length];
+        for (int i = 0; i < LEVELS.length; i++) {
+            throughput[i] = truth.predict(LEVELS[i]);
+        }
+
+        UslFit fit = UslFit.fit(LEVELS, throughput);
+        assertEquals(1000.0, fit.lambda(), 1e-9);
+        assertEquals(0.05, fit.sigma(), 1e-9);
+        assertEquals(0.002, fit.kappa(), 1e-9);
+        assertEquals(1.0, fit.rSquared(), 1e-9);
+        // sqrt((1 - 0.05) / 0.002)
+        assertEquals(21.794, fit.peakConcurrency(), 0.001);
+        assertEquals(truth.predict(fit.peakConcurrency()), fit.peakThroughput(), 1e-6);
+    }
+
+    @Test
+    void testContentionOnlyHasNoPeak() {
+        int[] levels = {1, 2, 4};
+        double[] throughput = {100.0, 100.0 * 2 / 1.1, 100.0 * 4 / 1.3};
+
+        UslFit fit = UslFit.fit(levels, throughput);
+        assertEquals(0.1, fit.sigma(), 1e-9);
+        assertEquals(0.0, fit.kappa());
+        assertTrue(Double.isInfinite(fit.peakConcurrency()));
+        assertEquals(1000.0, fit.peakThroughput(), 1e-6);
+    }
+
+    @Test
+    void testLinearScaling() {
+        UslFit fit = UslFit.fit(new int[] {1, 2, 4}, new double[] {10.0, 20.0, 40.0});
+        assertEquals(0.0, fit.sigma(), 1e-12);
+        assertEquals(0.0, fit.kappa(), 1e-12);
+        assertTrue(Double.isInfinite(fit.peakThroughput()));
+    }
+
+    @Test
+    void testRequiresSingleWorkerLevel() {
+        assertThrows(IllegalArgumentException.class, () -> UslFit.fit(new int[] {2, 4}, new double[] {1.0, 2.0}));
+    }
+}
@@ -0,0 +1,55 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ArrivalPolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ArrivalSchedule intended start times.
+ */
+public class ArrivalScheduleTest {
+
+    @Test
+    void testUniformArrivalsAreEvenlySpaced() {
+        ArrivalSchedule schedule = new ArrivalSchedule(ArrivalPolicy.uniform(4000.0));
+        schedule.start(1_000L);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1_000L + i * 250_000L, schedule.next());
+        }
+    }
+
+    @Test
+    void testPoissonArrivalsHaveTheTargetRate() {
+        ArrivalSchedule schedule = new ArrivalSchedule(ArrivalPolicy.poisson(1000.0));
+        schedule.start(0L);
+        long previous = schedule.next();
+        assertEquals(0L, previous);
+        int arrivals = 100_000;
+        long last = 0;
+        for (int i = 1; i < arrivals; i++) {
+            last = schedule.next();
+            assertTrue(last >= previous);
+            previous = last;
+        }
+        // Mean gap of 1 ms within 2%
+        double meanGapNs = (double) last / (arrivals - 1);
+        assertEquals(1_000_000.0, meanGapNs, 20_000.0);
+    }
+
+    @Test
+    void testAwaitNextWaitsForTheIntendedStart() {
+        ArrivalSchedule schedule = new ArrivalSchedule(ArrivalPolicy.uniform(100.0));
+        schedule.start(System.nanoTime());
+        schedule.awaitNext();
+        long intendedNs = schedule.awaitNext();
+        assertTrue(System.nanoTime() >= intendedNs);
+    }
+
+    @Test
+    void testClosedLoopHasNoSchedule() {
+        assertThrows(IllegalArgumentException.class, () -> new ArrivalSchedule(ArrivalPolicy.closed()));
+    }
+}
@@ -0,0 +1,119 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the binary corpus writer and the memory-mapped reader.
+ */
+public class BinaryCorpusTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripPreservesValuesAndTypes() throws IOException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("i", 11);
+        values.put("l", 5_000_000_000L);
+        values.put("f", 25.5);
+        values.put("s", "xsometext");
+        values.put("b", true);
+        values.put("n", null);
+        List<ExpressionData> expressions = List.of(
+            new ExpressionData("(i > 10) AND (s LIKE '_sometext')", values),
+            new ExpressionData("n IS NULL", Map.of())
+        );
+
+        Path file = tempDir.resolve("corpus.bin");
+        BinaryCorpus.ConversionResult result = BinaryCorpus.write(expressions.iterator(), file);
+        assertEquals(2, result.records());
+        assertEquals(Files.size(file), result.bytes());
+        assertTrue(BinaryCorpus.isBinary(file));
+
+        MappedCorpus corpus = MappedCorpus.open(file);
+        assertEquals(expressions, corpus);
+        assertEquals(Integer.class, corpus.get(0).value_map().get("i").getClass());
+        assertEquals(Long.class, corpus.get(0).value_map().get("l").getClass());
+        assertEquals(ComplexityCalculator.calculate(expressions.get(0).expr()), corpus.complexity(0));
+        assertEquals(ComplexityCalculator.calculate(expressions.get(1).expr()), corpus.complexity(1));
+    }
+
+    @Test
+    void testStringsAreDeduplicated() throws IOException {
+        Map<String, Object> values = Map.of("s1", "a");
+        List<ExpressionData> expressions = List.of(
+            new ExpressionData("s1 = 'a'", values),
+            new ExpressionData("s1 = 'a'", values)
+        );
+
+        Path file = tempDir.resolve("dedup.bin");
+        BinaryCorpus.ConversionResult result = BinaryCorpus.write(expressions.iterator(), file);
+        assertEquals(3, result.strings());
+
+        MappedCorpus corpus = MappedCorpus.open(file);
+        assertSame(corpus.get(0).expr(), corpus.get(1).expr());
+    }
+
+    @Test
+    void testReclassifiesCorpusConvertedUnderOtherRules() throws IOException {
+        List<ExpressionData> expressions = List.of(
+            new ExpressionData("a=1\nAND(b=2)", Map.of()),
+            new ExpressionData("s = 'x AND y'", Map.of())
+        );
+        Path file = tempDir.resolve("rules.bin");
+        BinaryCorpus.write(expressions.iterator(), file);
+
+        ExpressionLoader.LoadedExpressions current = ExpressionLoader.loadExpressionsFromFile(file.toString());
+        assertEquals(ComplexityCalculator.VERSION, MappedCorpus.open(file).classifierVersion());
+        assertArrayEquals(new int[] {1, 0}, current.complexities());
+
+        // Stored complexities from other rules, or from a version 1 file, are not trusted
+        patchHeaderInt(file, 32, ComplexityCalculator.VERSION - 1);
+        assertNull(ExpressionLoader.loadExpressionsFromFile(file.toString()).complexities());
+        patchHeaderInt(file, 4, 1);
+        assertEquals(1, MappedCorpus.open(file).classifierVersion());
+        assertNull(ExpressionLoader.loadExpressionsFromFile(file.toString()).complexities());
+        assertEquals(expressions, MappedCorpus.open(file));
+    }
+
+    @Test
+    void testRejectsJsonAndUnsupportedValues() throws IOException {
+        Path json = tempDir.resolve("corpus.json");
+        Files.writeString(json, "[{\"expr\": \"i > 1\", \"value_map\": {}}]");
+        assertFalse(BinaryCorpus.isBinary(json));
+        assertThrows(IOException.class, () -> MappedCorpus.open(json));
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("list", List.of(1, 2));
+        List<ExpressionData> expressions = List.of(new ExpressionData("list IS NULL", values));
+        assertThrows(IllegalArgumentException.class,
+            () -> BinaryCorpus.write(expressions.iterator(), tempDir.resolve("bad.bin")));
+    }
+
+    private static void patchHeaderInt(Path file, int position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(value).flip(), position);
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package net.magneticpotato.service;
 
+import net.magneticpotato.model.ExpressionData;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -65,4 +71,38 @@ public class ComplexityCalculatorTest {
     void testOnlyAnd() {
         assertEquals(2, ComplexityCalculator.calculate("a = 1 AND b = 2 AND c = 3"));
     }
+
+    @Test
+    void testArbitraryWhitespaceAndParentheses() {
+        assertEquals(1, ComplexityCalculator.calculate("a=1\nAND(b=2)"));
+        assertEquals(2, ComplexityCalculator.calculate("(a=1)or\t(b=2)  OR(c=3)"));
+        assertEquals(0, ComplexityCalculator.calculate("f92\nBETWEEN 20\tAND\n30"));
+    }
+
+    @Test
+    void testKeywordsInsideLiteralsAreIgnored() {
+        assertEquals(0, ComplexityCalculator.calculate("s1 = 'this AND that OR other'"));
+        assertEquals(1, ComplexityCalculator.calculate("s1 = 'it''s AND' AND s2 = 'x'"));
+        assertEquals(1, ComplexityCalculator.calculate("\"or\" = 1 OR b = 2"));
+    }
+
+    @Test
+    void testKeywordsMustBeWholeWords() {
+        assertEquals(0, ComplexityCalculator.calculate("brand = 1"));
+        assertEquals(1, ComplexityCalculator.calculate("band_or = 1 AND order_id = 2"));
+    }
+
+    @Test
+    void testCalculateAllMatchesCalculate() {
+        List<ExpressionData> expressions = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            expressions.add(new ExpressionData("a = " + i + " AND b BETWEEN 1 AND 2" + " OR c = 1".repeat(i % 5), Map.of()));
+        }
+
+        int[] complexities = ComplexityCalculator.calculateAll(expressions);
+        for (int i = 0; i < expressions.size(); i++) {
+            assertEquals(ComplexityCalculator.calculate(expressions.get(i).expr()), complexities[i]);
+            assertEquals(1 + i % 5, complexities[i]);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package net.magneticpotato.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.magneticpotato.model.DistributedSummary;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests running the shards of a load test on workers and merging them.
+ */
+public class DistributedCoordinatorTest {
+
+    private static final List<ExpressionData> EXPRESSIONS = List.of(
+        new ExpressionData("i > 10", Map.of("i", 12)),
+        new ExpressionData("(i > 10) AND (s = 'x')", Map.of("i", 5, "s", "x")),
+        new ExpressionData("(i > 10) OR (s = 'x') OR (i < 2)", Map.of("i", 5, "s", "y")),
+        new ExpressionData("FAIL = 1", Map.of())
+    );
+
+    @Test
+    void testMergesShardsOfWorkers() throws Exception {
+        LoadTestConfig config = LoadTestConfig.builder().iterations(2000).metricsIntervalMs(20).build();
+        List<DistributedWorker> workers = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                DistributedWorker worker = new DistributedWorker(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                workers.add(worker);
+                addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), worker.port()));
+                Thread thread = new Thread(() -> {
+                    try {
+                        worker.serve(DistributedCoordinatorTest::runShard);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            LoadTestResult merged = new DistributedCoordinator(config, addresses, List.of("--iterations", "2000"))
+                .run();
+
+            DistributedSummary distributed = merged.distributed();
+            assertEquals(2, distributed.workers().size());
+            assertEquals(2, distributed.workers().get(0).expressions());
+            assertEquals(4, merged.overallStats().totalUniqueExpressions());
+            // A failing expression is skipped after its first failure
+            assertTrue(merged.overallStats().totalEvaluations() >= 3 * 2000);
+            assertEquals(1, merged.failures().size());
+            assertEquals(1, merged.engineResults().get(0).failedEvaluations());
+            long workerEvaluations = distributed.workers().stream()
+                .mapToLong(DistributedSummary.Worker::totalEvaluations)
+                .sum();
+            assertEquals(merged.overallStats().totalEvaluations(), workerEvaluations);
+            long histogramCount = merged.classStats().stream().mapToLong(stats -> stats.histogram().getTotalCount())
+                .sum();
+            assertEquals(merged.overallStats().totalEvaluations(), histogramCount);
+
+            assertTrue(!distributed.timeline().isEmpty());
+            long timelineEvaluations = 0;
+            for (DistributedSummary.TimelinePoint point : distributed.timeline()) {
+                assertEquals(2, point.workerEvaluations().size());
+                assertEquals(point.evaluations(), point.workerEvaluations().stream().mapToLong(Long::longValue).sum());
+                timelineEvaluations += point.evaluations();
+            }
+            assertEquals(merged.overallStats().totalEvaluations(), timelineEvaluations);
+        } finally {
+            for (DistributedWorker worker : workers) {
+                worker.close();
+            }
+        }
+    }
+
+    @Test
+    void testSilentWorkerFailsTheRun() throws Exception {
+        // Answers the clock probes, takes the job, then never reports
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread thread = new Thread(() -> {
+                try (DistributedConnection connection = new DistributedConnection(server.accept())) {
+                    JsonNode message;
+                    while ((message = connection.receive()) != null) {
+                        if ("clock".equals(message.path("type").asText())) {
+                            connection.send(connection.message("clock")
+                                .put("workerTimeUs", DistributedConnection.wallClockMicros()));
+                        }
+                    }
+                } catch (Exception e) {
+                    // The coordinator closes the connection when it gives up
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+
+            List<InetSocketAddress> addresses = List.of(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+            DistributedCoordinator coordinator = new DistributedCoordinator(LoadTestConfig.builder().build(),
+                addresses, List.of(), 200);
+            IOException e = assertThrows(IOException.class, coordinator::run);
+            assertTrue(e.getMessage().startsWith("Worker 1 ("), e.getMessage());
+            assertTrue(e.getMessage().contains(" sent nothing for 0.2 s "), e.getMessage());
+            assertTrue(e.getMessage().endsWith("to be ready for the warmup phase"), e.getMessage());
+        }
+    }
+
+    @Test
+    void testUnansweredClockProbeFailsTheRun() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            List<InetSocketAddress> addresses = List.of(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+            DistributedCoordinator coordinator = new DistributedCoordinator(LoadTestConfig.builder().build(),
+                addresses, List.of(), 200);
+            IOException e = assertThrows(IOException.class, coordinator::run);
+            assertTrue(e.getMessage().contains("did not answer the clock probe"), e.getMessage());
+        }
+    }
+
+    private static LoadTestResult runShard(DistributedWorker.Job job, RunListener listener) {
+        assertEquals(List.of("--iterations", "2000"), job.arguments());
+        List<ExpressionData> shard = new ArrayList<>();
+        for (int i = job.shard(); i < EXPRESSIONS.size(); i += job.shards()) {
+            shard.add(EXPRESSIONS.get(i));
+        }
+        LoadTester tester = new LoadTester(
+            LoadTestConfig.builder().iterations(2000).metricsIntervalMs(20).build(), "inline");
+        tester.setRunListener(listener);
+        return tester.run(shard);
+    }
+}
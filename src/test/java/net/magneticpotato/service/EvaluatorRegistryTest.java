@@ -0,0 +1,92 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.EngineResult;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.WarmupPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests discovering and resolving engines, and keeping the results of
+ * several engines in one run apart.
+ */
+public class EvaluatorRegistryTest {
+
+    /** Registered in the test classpath's service file; fails on expressions containing "echo". */
+    public static class Echo implements ExpressionEvaluator {
+        @Override
+        public String name() {
+            return "echo";
+        }
+
+        @Override
+        public boolean match(String expression, Map<String, Object> bindings) {
+            if (expression.contains("echo")) {
+                throw new IllegalStateException("echo cannot evaluate itself");
+            }
+            return true;
+        }
+    }
+
+    @Test
+    void testDiscoversServiceProviders() {
+        Map<String, ExpressionEvaluator> engines = EvaluatorRegistry.discover();
+        assertInstanceOf(CongoccEvaluator.class, engines.get(CongoccEvaluator.NAME));
+        assertInstanceOf(Echo.class, engines.get("echo"));
+    }
+
+    @Test
+    void testResolvesNamesInOrder() {
+        List<ExpressionEvaluator> engines = EvaluatorRegistry.resolve(List.of("echo", CongoccEvaluator.NAME));
+        assertEquals(List.of("echo", CongoccEvaluator.NAME), engines.stream().map(ExpressionEvaluator::name).toList());
+    }
+
+    @Test
+    void testRejectsUnknownAndRepeatedNames() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+            () -> EvaluatorRegistry.resolve(List.of(CongoccEvaluator.NAME, "nope")));
+        assertTrue(unknown.getMessage().startsWith("Unknown engine: nope (available: "), unknown.getMessage());
+        assertTrue(unknown.getMessage().contains("echo"), unknown.getMessage());
+
+        IllegalArgumentException repeated = assertThrows(IllegalArgumentException.class,
+            () -> EvaluatorRegistry.resolve(List.of("echo", CongoccEvaluator.NAME, "echo")));
+        assertEquals("Engine listed more than once: echo", repeated.getMessage());
+    }
+
+    @Test
+    void testInterleavedEnginesKeepSeparateResults() {
+        List<ExpressionData> corpus = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            corpus.add(new ExpressionData("x = " + i, Map.of("x", i)));
+        }
+        corpus.add(new ExpressionData("s = 'echo'", Map.of("s", "echo")));
+        LoadTestConfig config = LoadTestConfig.builder().iterations(10).warmup(WarmupPolicy.none())
+            .engines(EvaluatorRegistry.resolve(List.of(CongoccEvaluator.NAME, "echo"))).build();
+        LoadTestResult result = new LoadTester(config, "inline").run(corpus);
+
+        assertEquals(2, result.engineResults().size());
+        EngineResult congocc = result.engineResults().get(0);
+        EngineResult echo = result.engineResults().get(1);
+        assertEquals(CongoccEvaluator.NAME, congocc.engine());
+        assertEquals("echo", echo.engine());
+
+        // Only echo fails on the last expression, and only echo skips it afterwards
+        assertEquals(0, congocc.failedEvaluations());
+        assertEquals(1, echo.failedEvaluations());
+        assertEquals(21 * 10, congocc.totalEvaluations());
+        assertEquals(20 * 10 + 1, echo.totalEvaluations());
+        assertEquals(congocc.classStats(), result.classStats());
+        assertEquals(1, result.failures().size());
+        assertEquals("echo", result.failures().get(0).engine());
+    }
+}
@@ -0,0 +1,168 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassTimings;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.WorkloadPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests compiling a corpus into an execution plan and the measurement
+ * loop that walks it.
+ */
+public class ExecutionPlanTest {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Matches without allocating; expressions starting with "FAIL" throw. */
+    private static final ExpressionEvaluator STUB = new ExpressionEvaluator() {
+        @Override
+        public String name() {
+            return "stub";
+        }
+
+        @Override
+        public boolean match(String expression, Map<String, Object> bindings) throws Exception {
+            if (expression.startsWith("FAIL")) {
+                throw new IllegalStateException("fails");
+            }
+            return expression.length() > bindings.size();
+        }
+    };
+
+    @Test
+    void testResolvesClassesAndDistinctFailures() {
+        List<ExpressionData> corpus = List.of(
+            new ExpressionData("a = 1", Map.of()),
+            new ExpressionData("FAIL = 1", Map.of()),
+            new ExpressionData("FAIL = 1", Map.of()),
+            new ExpressionData("a = 1 OR b = 2", Map.of()));
+        ExecutionPlan plan = ExecutionPlan.compile(corpus, new int[] {7, 0, 0, 3}, null, 2);
+
+        assertEquals(3, plan.classCount());
+        assertEquals(0, plan.classId(plan.slot(1)));
+        assertEquals(3, plan.classId(plan.slot(3)));
+        assertEquals(7, plan.classId(plan.slot(0)));
+
+        assertTrue(plan.markFailed(0, 1));
+        assertTrue(plan.hasFailed(0, 2));
+        assertFalse(plan.markFailed(0, 2));
+        assertFalse(plan.hasFailed(1, 1));
+        assertFalse(plan.hasFailed(0, 0));
+    }
+
+    @Test
+    void testSteadyStateAllocatesNothing() {
+        assertTrue(THREADS.isThreadAllocatedMemorySupported());
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        List<ExpressionData> corpus = new ArrayList<>();
+        int[] classes = new int[1000];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = i % 200;
+            String expr = (i == 500) ? "FAIL = 1" : "x = " + i;
+            corpus.add(new ExpressionData(expr, Map.of("x", i)));
+        }
+        ExecutionPlan plan = ExecutionPlan.compile(corpus, classes, null, 1);
+        LoadTestConfig config = LoadTestConfig.builder().engines(List.of(STUB)).build();
+        EvaluationWorker worker = new EvaluationWorker(config, List.of(ConcurrentHashMap.newKeySet()), null);
+        int[] order = new WorkloadShaper(new WorkloadPolicy(true, 0.0, Map.of(), 1L),
+            classes).order(0);
+
+        // Warm up until every class slot is resolved and the loop is compiled
+        for (int pass = 0; pass < 200; pass++) {
+            worker.runPass(new ListBatchSource(plan, (pass % 2 == 0) ? null : order, EvaluationWorker.CHUNK_SIZE));
+        }
+
+        long allocated = 0;
+        for (int pass = 0; pass < 20; pass++) {
+            ListBatchSource source = new ListBatchSource(plan, (pass % 2 == 0) ? null : order,
+                EvaluationWorker.CHUNK_SIZE);
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            worker.runPass(source);
+            allocated += THREADS.getCurrentThreadAllocatedBytes() - before;
+        }
+        assertEquals(0L, allocated, "bytes allocated by 20 steady-state passes");
+
+        long evaluations = 0;
+        for (ClassTimings timings : worker.getClassTimings().get(0).values()) {
+            evaluations += timings.getHistogram().getTotalCount();
+        }
+        assertEquals(220L * 999 + 1, evaluations);
+        assertEquals(1, worker.getFailedEvaluations().size());
+    }
+
+    @Test
+    void testBatchedTimingGroupsEachClass() {
+        List<ExpressionData> corpus = new ArrayList<>();
+        int[] classes = new int[100];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = (i % 3 == 0) ? 5 : 2;
+            corpus.add(new ExpressionData((i == 10) ? "FAIL = 1" : "x = " + i, Map.of("x", i)));
+        }
+        ExecutionPlan plan = ExecutionPlan.compile(corpus, classes, null, 1);
+
+        int[] grouped = plan.groupedByClass(new int[] {4, 3, 1, 0, 6});
+        assertArrayEquals(new int[] {4, 1, 3, 0, 6}, grouped);
+
+        LoadTestConfig config = LoadTestConfig.builder().engines(List.of(STUB)).timingBatch(8).build();
+        EvaluationWorker worker = new EvaluationWorker(config, List.of(ConcurrentHashMap.newKeySet()), null);
+        worker.runPass(new ListBatchSource(plan, plan.groupedByClass(null), 16));
+
+        // 66 expressions of class 2, then 34 of class 5, cut into runs of at most 8 within batches of 16
+        ClassTimings five = worker.getClassTimings().get(0).get(5);
+        ClassTimings two = worker.getClassTimings().get(0).get(2);
+        assertEquals(34, five.getHistogram().getTotalCount());
+        assertEquals(66, two.getHistogram().getTotalCount());
+        assertEquals(5, five.getTimedBatches());
+        assertEquals(9, two.getTimedBatches());
+        assertEquals(1, worker.getFailedEvaluations().size());
+        assertEquals(99, worker.getBlackhole().matches());
+    }
+
+    @Test
+    void testMappedCorpusIsNotCopied(@TempDir Path dir) throws IOException {
+        List<ExpressionData> corpus = List.of(
+            new ExpressionData("x = 1", Map.of("x", 1)),
+            new ExpressionData("FAIL = 1", Map.of()),
+            new ExpressionData("x = 2", Map.of("x", 2, "s", "a")),
+            new ExpressionData("FAIL = 1", Map.of("x", 3)));
+        Path file = dir.resolve("plan.bin");
+        BinaryCorpus.write(corpus.iterator(), file);
+        MappedCorpus mapped = MappedCorpus.open(file);
+        ExecutionPlan plan = ExecutionPlan.compile(mapped, new int[] {1, 0, 1, 0}, null, 1);
+
+        assertEquals(4, plan.size());
+        for (int i = 0; i < corpus.size(); i++) {
+            assertEquals(corpus.get(i), plan.data(i));
+            assertEquals(corpus.get(i).expr(), plan.expression(i));
+            assertEquals(corpus.get(i).value_map(), plan.bindings(i));
+        }
+        // Equal expressions share their string id, so a failure marks both
+        assertTrue(plan.markFailed(0, 1));
+        assertTrue(plan.hasFailed(0, 3));
+        assertFalse(plan.hasFailed(0, 0));
+
+        LoadTestConfig config = LoadTestConfig.builder().engines(List.of(STUB)).timingBatch(2).build();
+        EvaluationWorker worker = new EvaluationWorker(config, List.of(ConcurrentHashMap.newKeySet()), null);
+        ExecutionPlan fresh = ExecutionPlan.compile(mapped, new int[] {1, 0, 1, 0}, null, 1);
+        worker.runPass(new ListBatchSource(fresh, fresh.groupedByClass(null), 4));
+        assertEquals(1, worker.getFailedEvaluations().size());
+        assertEquals(2, worker.getBlackhole().matches());
+    }
+}
@@ -0,0 +1,116 @@
+package net.magneticpotato.service;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the LRU and W-TinyLFU compiled-expression caches.
+ */
+public class ExpressionCacheTest {
+
+    @Test
+    void testLruEvictsLeastRecentlyUsed() {
+        ExpressionCache<String> cache = new LruExpressionCache<>(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void testWTinyLfuNeverExceedsCapacity() {
+        ExpressionCache<String> cache = new WTinyLfuExpressionCache<>(50);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("key" + i, "value" + i);
+            assertTrue(cache.size() <= 50);
+        }
+        assertEquals(50, cache.size());
+    }
+
+    @Test
+    void testWTinyLfuKeepsPopularEntriesUnderScan() {
+        ExpressionCache<String> cache = new WTinyLfuExpressionCache<>(100);
+
+        // Establish a popular working set
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                String key = "hot" + i;
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+
+        // A long scan of one-hit wonders must not flush it
+        for (int i = 0; i < 10_000; i++) {
+            String key = "scan" + i;
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+        }
+
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot" + i) != null) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 45, "retained only " + retained + " popular entries");
+    }
+
+    @Test
+    void testCapacityOfOne() {
+        ExpressionCache<String> cache = new WTinyLfuExpressionCache<>(1);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testStripesShareTheCapacity() {
+        assertEquals(1, ExpressionCache.stripesFor(1, 1000));
+        assertEquals(16, ExpressionCache.stripesFor(4, 10_000));
+        assertEquals(8, ExpressionCache.stripesFor(4, 1000));
+        assertEquals(1, ExpressionCache.stripesFor(8, 100));
+
+        ExpressionCache<String> cache = ExpressionCache.create(ExpressionCache.Policy.LRU, 1000, 4);
+        assertEquals(8, ((StripedExpressionCache<String>) cache).stripeCount());
+        assertEquals(1000, cache.capacity());
+        for (int i = 0; i < 5_000; i++) {
+            cache.put("key" + i, "value" + i);
+            assertTrue(cache.size() <= 1000);
+        }
+        assertEquals(5_000, cache.size() + cache.evictions());
+        assertEquals("value4999", cache.get("key4999"));
+    }
+
+    @Test
+    void testStripedCacheUnderConcurrentWorkers() throws Exception {
+        ExpressionCache<String> cache = ExpressionCache.create(ExpressionCache.Policy.WTINYLFU, 512, 4);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    String key = "key" + (i % 300);
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(cache.size() <= 512);
+        assertEquals("key7", cache.get("key7"));
+    }
+}
@@ -0,0 +1,83 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.GeneratorSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests generating synthetic corpora.
+ */
+public class ExpressionGeneratorTest {
+
+    @Test
+    void testPassesReplayTheSeed() throws Exception {
+        ExpressionGenerator generator = new ExpressionGenerator(GeneratorSpec.defaults(500, 11L));
+        List<ExpressionData> first;
+        List<ExpressionData> second;
+        try (Stream<ExpressionData> pass = generator.open()) {
+            first = pass.toList();
+        }
+        try (Stream<ExpressionData> pass = generator.open()) {
+            second = pass.toList();
+        }
+        assertEquals(500, first.size());
+        assertEquals(first, second);
+        assertEquals(first, generator.load().expressions());
+        assertNotEquals(first, new ExpressionGenerator(GeneratorSpec.defaults(500, 12L)).load().expressions());
+    }
+
+    @Test
+    void testFollowsComplexityDistributionAndDepth() {
+        GeneratorSpec spec = new GeneratorSpec(10_000, 5L, Map.of(1, 60.0, 3, 30.0, 8, 10.0),
+            GeneratorSpec.defaults(1, 0L).operators(), 4, 6, EnumSet.allOf(GeneratorSpec.ValueType.class));
+        ExpressionLoader.LoadedExpressions loaded = new ExpressionGenerator(spec).load();
+
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < loaded.expressions().size(); i++) {
+            ExpressionData expr = loaded.expressions().get(i);
+            int complexity = ComplexityCalculator.calculate(expr.expr());
+            assertEquals(loaded.complexities()[i], complexity, expr.expr());
+            assertTrue(ExpressionProfiler.profile(expr.expr()).depth() <= 4, expr.expr());
+            assertEquals(6, expr.value_map().size());
+            counts.merge(complexity, 1, Integer::sum);
+        }
+        assertEquals(Map.of(1, 0, 3, 0, 8, 0).keySet(), counts.keySet());
+        assertEquals(0.60, counts.get(1) / 10_000.0, 0.02);
+        assertEquals(0.30, counts.get(3) / 10_000.0, 0.02);
+        assertEquals(0.10, counts.get(8) / 10_000.0, 0.02);
+    }
+
+    @Test
+    void testOperatorMixAndValueTypes() {
+        GeneratorSpec spec = new GeneratorSpec(200, 1L, Map.of(2, 1.0), Map.of(GeneratorSpec.Operator.LIKE, 1.0),
+            0, 3, EnumSet.of(GeneratorSpec.ValueType.STRING));
+        for (ExpressionData expr : new ExpressionGenerator(spec).load().expressions()) {
+            assertEquals(3, expr.expr().split("LIKE").length - 1, expr.expr());
+            assertFalse(expr.value_map().keySet().stream().anyMatch(name -> !name.startsWith("s")));
+        }
+    }
+
+    @Test
+    void testRejectsImpossibleShapes() {
+        Map<GeneratorSpec.Operator, Double> operators = GeneratorSpec.defaults(1, 0L).operators();
+        EnumSet<GeneratorSpec.ValueType> types = EnumSet.allOf(GeneratorSpec.ValueType.class);
+        assertThrows(IllegalArgumentException.class,
+            () -> new GeneratorSpec(10, 0L, Map.of(8, 1.0), operators, 3, 6, types));
+        assertThrows(IllegalArgumentException.class,
+            () -> new GeneratorSpec(10, 0L, Map.of(1, 1.0), operators, 0, 6, EnumSet.of(GeneratorSpec.ValueType.INT)));
+        assertThrows(IllegalArgumentException.class,
+            () -> new GeneratorSpec(10, 0L, Map.of(1, 1.0), operators, 0, 2, types));
+    }
+}
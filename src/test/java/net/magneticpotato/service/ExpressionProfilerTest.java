@@ -0,0 +1,75 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionGrouping;
+import net.magneticpotato.model.ExpressionProfile;
+import net.magneticpotato.model.ProfileDimension;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for ExpressionProfiler feature extraction and ExpressionGrouping labels.
+ */
+public class ExpressionProfilerTest {
+
+    @Test
+    void testProfileCountsConstructs() {
+        String expr = "(s76 NOT LIKE '_some AND text') AND (f92 NOT BETWEEN 20 AND 30) OR (i1 IN (1, 2, 3) AND b IS NOT NULL)";
+        ExpressionProfile profile = ExpressionProfiler.profile(expr);
+
+        assertEquals(expr.length(), profile.length());
+        assertEquals(1, profile.depth());
+        assertEquals(3, profile.connectives());
+        assertEquals(3, profile.nots());
+        assertEquals(1, profile.likes());
+        assertEquals(1, profile.betweens());
+        assertEquals(1, profile.ins());
+        assertEquals(3, profile.inItems());
+        assertEquals(3, profile.maxInList());
+        assertEquals(1, profile.nullChecks());
+        assertEquals(6, profile.literals());
+        assertEquals(4, profile.variables());
+        assertEquals(0, profile.comparisons());
+    }
+
+    @Test
+    void testComparisonsAndNesting() {
+        ExpressionProfile profile = ExpressionProfiler.profile("((a >= 1 AND a <> b) OR (c != 'x' AND d < 2.5)) AND upper(e) = 'Y' AND a=1");
+        assertEquals(6, profile.comparisons());
+        assertEquals(2, profile.depth());
+        assertEquals(5, profile.variables());
+        assertEquals(5, profile.literals());
+    }
+
+    @Test
+    void testConnectivesMatchComplexity() {
+        List<String> expressions = List.of(
+            "a = 1 AND b = 2 OR c = 3",
+            "(a BETWEEN 1 AND 10) AND (b BETWEEN 20 AND 30)",
+            "s1 = 'it''s AND' AND s2 = 'x'",
+            "\"or\" = 1 OR b = 2",
+            "band_or = 1 AND order_id = 2"
+        );
+        for (String expr : expressions) {
+            assertEquals(ComplexityCalculator.calculate(expr), ExpressionProfiler.profile(expr).connectives(), expr);
+        }
+    }
+
+    @Test
+    void testGroupingLabels() {
+        ExpressionGrouping grouping = ExpressionGrouping.of(List.of(ProfileDimension.DEPTH, ProfileDimension.LIKE));
+        ExpressionProfile shallow = ExpressionProfiler.profile("(a LIKE 'x%') AND b = 1");
+        ExpressionProfile deep = ExpressionProfiler.profile("((a LIKE 'x%' OR c LIKE 'y%')) AND b = 1");
+
+        assertEquals("depth=1, like=1", grouping.label(grouping.groupOf(shallow)));
+        assertEquals("depth=2, like=2", grouping.label(grouping.groupOf(deep)));
+        assertNotEquals(grouping.groupOf(shallow), grouping.groupOf(deep));
+        assertThrows(IllegalArgumentException.class,
+            () -> ExpressionGrouping.of(List.of(ProfileDimension.DEPTH, ProfileDimension.DEPTH)));
+        assertThrows(IllegalArgumentException.class, () -> ProfileDimension.fromName("colour"));
+    }
+}
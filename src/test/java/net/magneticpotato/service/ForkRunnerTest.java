@@ -0,0 +1,83 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.EngineResult;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ForkPolicy;
+import net.magneticpotato.model.ForkSummary;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests merging the results of forked trials.
+ */
+public class ForkRunnerTest {
+
+    private static final List<ExpressionData> EXPRESSIONS = List.of(
+        new ExpressionData("i > 10", Map.of("i", 12)),
+        new ExpressionData("(i > 10) AND (s = 'x')", Map.of("i", 5, "s", "x")),
+        new ExpressionData("(i > 10) OR (s = 'x') OR (i < 2)", Map.of("i", 5, "s", "y")),
+        new ExpressionData("FAIL = 1", Map.of())
+    );
+
+    @Test
+    void testMergesTrialsPerJvmConfiguration(@TempDir Path dir) throws Exception {
+        LoadTestConfig config = LoadTestConfig.builder().iterations(5).build();
+        ForkPolicy policy = new ForkPolicy(2, List.of("-Xmx256m", "-Xmx512m"), List.of());
+
+        // Results take the same way back from a child as from a real fork
+        List<ForkRunner.Trial> trials = new ArrayList<>();
+        for (int fork = 1; fork <= 4; fork++) {
+            Path path = dir.resolve("fork-" + fork + ".json");
+            ResultsJson.write(path, new LoadTester(config, "inline").run(EXPRESSIONS));
+            trials.add(new ForkRunner.Trial(fork, policy.jvmOptions().get((fork - 1) % 2), -1,
+                ResultsJson.readResult(path, config)));
+        }
+        LoadTestResult single = trials.get(0).result();
+        assertEquals(1, single.failures().size());
+        LoadTestResult merged = ForkRunner.merge(config, policy, trials, ZonedDateTime.now());
+
+        assertEquals(List.of("congocc [-Xmx256m]", "congocc [-Xmx512m]"),
+            merged.engineResults().stream().map(EngineResult::engine).toList());
+        for (EngineResult engine : merged.engineResults()) {
+            assertEquals(2 * single.overallStats().totalEvaluations(), engine.totalEvaluations());
+            assertEquals(single.failures().size(), engine.failedEvaluations());
+            long evaluations = engine.classStats().stream().mapToLong(ClassStatistics::totalEvaluations).sum();
+            assertEquals(engine.totalEvaluations(), evaluations);
+        }
+        assertEquals(4 * single.overallStats().totalEvaluations(), merged.overallStats().totalEvaluations());
+        assertEquals(2 * single.failures().size(), merged.failures().size());
+        assertEquals(2 * single.classStats().get(0).histogram().getTotalCount(),
+            merged.classStats().get(0).histogram().getTotalCount());
+
+        ForkSummary forks = merged.forks();
+        assertEquals(4, forks.trials().size());
+        assertEquals(2 * merged.classStats().size(), forks.spread().size());
+        for (ForkSummary.ClassSpread spread : forks.spread()) {
+            assertEquals(2, spread.forks());
+            assertTrue(spread.minMeanMs() <= spread.meanMs() && spread.meanMs() <= spread.maxMeanMs());
+        }
+    }
+
+    @Test
+    void testChildCommand() {
+        ForkRunner runner = new ForkRunner(LoadTestConfig.builder().build(),
+            new ForkPolicy(1, List.of(), List.of(3)), List.of("--iterations", "5"));
+        List<String> command = runner.command(" -XX:+UseSerialGC  -Xmx1g ", 3, Path.of("fork-1.json"));
+
+        assertEquals(List.of("-XX:+UseSerialGC", "-Xmx1g", "-cp"), command.subList(1, 4));
+        assertEquals(List.of("net.magneticpotato.Main", "--iterations", "5", "--classes", "3",
+            "--fork-result", "fork-1.json"), command.subList(5, command.size()));
+    }
+}
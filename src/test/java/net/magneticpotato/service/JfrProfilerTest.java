@@ -0,0 +1,69 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.JfrProfile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests recording and analysing evaluation events with Flight Recorder.
+ */
+public class JfrProfilerTest {
+
+    @Test
+    void testAnalysesEvaluationEvents(@TempDir Path dir) throws Exception {
+        Path recordingPath = dir.resolve("recording.jfr");
+        JfrProfile profile;
+        try (JfrProfiler profiler = new JfrProfiler(recordingPath)) {
+            profiler.start();
+            for (int i = 0; i < 40; i++) {
+                EvaluationEvent event = new EvaluationEvent();
+                event.begin();
+                spin(2_000_000);
+                event.end();
+                event.expressionHash = i;
+                event.classId = (i % 4 == 0) ? 7 : 3;
+                event.engine = "congocc";
+                event.succeeded = i != 5;
+                event.commit();
+            }
+            profiler.stop();
+            profile = profiler.analyze(1, String::valueOf);
+        }
+
+        assertTrue(Files.size(recordingPath) > 0);
+        assertEquals(40, profile.sampledEvaluations());
+        assertEquals(2, profile.classes().size());
+
+        JfrProfile.ClassProfile three = profile.classes().get(0);
+        JfrProfile.ClassProfile seven = profile.classes().get(1);
+        assertEquals(3, three.complexity());
+        assertEquals(30, three.evaluations());
+        assertEquals(1, three.failures());
+        assertEquals(7, seven.complexity());
+        assertEquals(10, seven.evaluations());
+        assertTrue(three.meanMs() >= 1.5, "mean " + three.meanMs());
+
+        long attributed = three.executionSamples() + seven.executionSamples();
+        assertTrue(attributed <= profile.executionSamples());
+        for (JfrProfile.ClassProfile classProfile : profile.classes()) {
+            if (classProfile.executionSamples() > 0) {
+                assertTrue(Files.readString(Path.of(classProfile.stacksFile())).contains(getClass().getName()));
+            }
+        }
+    }
+
+    private static long spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        long x = 0;
+        while (System.nanoTime() < end) {
+            x += x * 31 + 7;
+        }
+        return x;
+    }
+}
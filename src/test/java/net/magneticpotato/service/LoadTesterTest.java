@@ -0,0 +1,204 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.WarmupPolicy;
+import net.magneticpotato.model.WarmupSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests running load tests end to end with stub evaluators.
+ */
+public class LoadTesterTest {
+
+    /** Allocates a byte array of the size bound to "bytes". */
+    private static final ExpressionEvaluator ALLOCATING = new ExpressionEvaluator() {
+        @Override
+        public String name() {
+            return "allocating";
+        }
+
+        @Override
+        public boolean match(String expression, Map<String, Object> bindings) {
+            sink = new byte[(Integer) bindings.get("bytes")];
+            return sink.length > 0;
+        }
+    };
+
+    private static volatile byte[] sink;
+
+    private static final List<ExpressionData> FOUR = List.of(
+        new ExpressionData("a = 1", Map.of()),
+        new ExpressionData("b = 2", Map.of()),
+        new ExpressionData("(a = 1) AND (b = 2)", Map.of()),
+        new ExpressionData("(a = 1) OR (b = 2)", Map.of()));
+
+    /**
+     * Spins for a time that depends on the pass over a four-expression
+     * corpus: longer in each of the first four passes, then a steady 100 us.
+     */
+    private static ExpressionEvaluator settling() {
+        return new ExpressionEvaluator() {
+            private int evaluations;
+
+            @Override
+            public String name() {
+                return "settling";
+            }
+
+            @Override
+            public boolean match(String expression, Map<String, Object> bindings) {
+                int pass = evaluations++ / 4;
+                long spinNs = (pass < 4) ? (pass + 1) * 500_000L : 100_000L;
+                long untilNs = System.nanoTime() + spinNs;
+                while (System.nanoTime() < untilNs) {
+                    Thread.onSpinWait();
+                }
+                return true;
+            }
+        };
+    }
+
+    @Test
+    void testAutoWarmupStopsOnceMeansSettle() {
+        LoadTestConfig config = LoadTestConfig.builder().engines(List.of(settling())).iterations(5)
+            .warmup(WarmupPolicy.auto(0.2, 3, 50)).build();
+        LoadTestResult result = new LoadTester(config, "inline").run(FOUR);
+
+        WarmupSummary warmup = result.warmup();
+        assertTrue(warmup.steadyStateReached());
+        // The window spans three passes, none of them before the latency settles
+        assertTrue(warmup.steadyStateIteration() >= 7, "settled at " + warmup.steadyStateIteration());
+        assertTrue(warmup.iterations() < 50);
+        assertEquals(warmup.iterations(), warmup.steadyStateIteration());
+        assertTrue(warmup.finalCv() < 0.2);
+        assertEquals(4L * warmup.iterations(), warmup.evaluationsDiscarded());
+
+        // Warmup evaluations stay out of the measured histograms
+        assertEquals(5 * 4, result.overallStats().totalEvaluations());
+        long measured = result.classStats().stream().mapToLong(s -> s.histogram().getTotalCount()).sum();
+        assertEquals(5 * 4, measured);
+    }
+
+    @Test
+    void testAutoWarmupStopsAtItsCap() {
+        // A threshold of 0 can never be met
+        LoadTestConfig config = LoadTestConfig.builder().engines(List.of(settling())).iterations(2)
+            .warmup(WarmupPolicy.auto(0.0, 3, 6)).build();
+        LoadTestResult result = new LoadTester(config, "inline").run(FOUR);
+
+        WarmupSummary warmup = result.warmup();
+        assertFalse(warmup.steadyStateReached());
+        assertEquals(0, warmup.steadyStateIteration());
+        assertEquals(6, warmup.iterations());
+        assertEquals(6 * 4, warmup.evaluationsDiscarded());
+        assertEquals(2 * 4, result.overallStats().totalEvaluations());
+    }
+
+    @Test
+    void testFixedWarmupDiscardsItsPasses() {
+        LoadTestConfig config = LoadTestConfig.builder().engines(List.of(settling())).iterations(3)
+            .warmup(WarmupPolicy.iterations(2)).build();
+        LoadTestResult result = new LoadTester(config, "inline").run(FOUR);
+
+        assertEquals(2, result.warmup().iterations());
+        assertEquals(2 * 4, result.warmup().evaluationsDiscarded());
+        assertFalse(result.warmup().steadyStateReached());
+        assertEquals(3 * 4, result.overallStats().totalEvaluations());
+    }
+
+    @Test
+    void testAllocationSamplingMeasuresEachClass() {
+        // Four expressions of class 0 allocating 16 KiB, then four of class 1 allocating 64 KiB
+        List<ExpressionData> corpus = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String expr = (i < 4) ? "x = " + i : "(x = " + i + ") AND (y = 1)";
+            corpus.add(new ExpressionData(expr, Map.of("bytes", (i < 4) ? 16 * 1024 : 64 * 1024)));
+        }
+
+        for (int every : new int[] {1, 4}) {
+            LoadTestConfig config = LoadTestConfig.builder().engines(List.of(ALLOCATING)).iterations(10)
+                .warmup(WarmupPolicy.none()).allocationSampleEvery(every).build();
+            LoadTestResult result = new LoadTester(config, "inline").run(corpus);
+
+            // Every evaluation, or the last of each class in a pass
+            long samples = (every == 1) ? 40 : 10;
+            assertAllocations(samples, 16 * 1024, result.classStats().get(0));
+            assertAllocations(samples, 64 * 1024, result.classStats().get(1));
+            assertTrue(result.overallStats().gcCount() >= 0);
+            assertTrue(result.overallStats().gcTimeMs() >= 0);
+        }
+    }
+
+    @Test
+    void testWorkersMergeEachEvaluationOnce() {
+        // 97 distinct expressions of class 1, and two distinct failing ones of class 0, one of them twice
+        List<ExpressionData> corpus = new ArrayList<>();
+        corpus.add(new ExpressionData("FAIL = 1", Map.of()));
+        for (int i = 0; i < 97; i++) {
+            corpus.add(new ExpressionData("(x = " + i + ") AND (y = 1)", Map.of("x", i)));
+            if (i == 50) {
+                corpus.add(new ExpressionData("FAIL = 2", Map.of()));
+            }
+        }
+        corpus.add(new ExpressionData("FAIL = 1", Map.of()));
+
+        for (boolean virtualThreads : new boolean[] {false, true}) {
+            AtomicLong calls = new AtomicLong();
+            ExpressionEvaluator counting = new ExpressionEvaluator() {
+                @Override
+                public String name() {
+                    return "counting";
+                }
+
+                @Override
+                public boolean match(String expression, Map<String, Object> bindings) {
+                    calls.incrementAndGet();
+                    if (expression.startsWith("FAIL")) {
+                        throw new IllegalStateException("fails");
+                    }
+                    return true;
+                }
+            };
+            LoadTestConfig config = LoadTestConfig.builder().engines(List.of(counting)).iterations(10)
+                .threads(4).virtualThreads(virtualThreads).warmup(WarmupPolicy.none()).build();
+            LoadTestResult result = new LoadTester(config, "inline").run(corpus);
+
+            String mode = virtualThreads ? "virtual" : "platform";
+            assertEquals(4, result.overallStats().threads(), mode);
+            assertEquals(calls.get(), result.overallStats().totalEvaluations(), mode);
+            ClassStatistics failing = result.classStats().get(0);
+            ClassStatistics passing = result.classStats().get(1);
+            assertEquals(97 * 10, passing.totalEvaluations(), mode);
+            assertEquals(97, passing.uniqueExpressions(), mode);
+            // Skipped once marked failed; the duplicate may race the first failure in the first pass
+            assertTrue(failing.totalEvaluations() >= 2 && failing.totalEvaluations() <= 3, mode);
+            assertEquals(calls.get(), failing.totalEvaluations() + passing.totalEvaluations(), mode);
+            assertEquals(2, result.failures().size(), mode);
+            assertEquals(2, result.overallStats().failedEvaluations(), mode);
+        }
+    }
+
+    /**
+     * Asserts the sample count and that the mean and maximum are the array
+     * size plus at most a header's worth of overhead.
+     */
+    private static void assertAllocations(long samples, int arrayBytes, ClassStatistics stats) {
+        assertEquals(samples, stats.allocationSamples());
+        assertTrue(stats.allocatedBytesMean() >= arrayBytes && stats.allocatedBytesMean() <= arrayBytes + 64,
+            "mean " + stats.allocatedBytesMean());
+        assertTrue(stats.allocatedBytesMax() >= arrayBytes && stats.allocatedBytesMax() <= arrayBytes + 64,
+            "max " + stats.allocatedBytesMax());
+    }
+}
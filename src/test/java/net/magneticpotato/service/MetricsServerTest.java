@@ -0,0 +1,67 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ExpressionGrouping;
+import net.magneticpotato.model.IntervalRecorder;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the OpenMetrics endpoint against the loopback interface.
+ */
+public class MetricsServerTest {
+
+    @Test
+    void testServesCountersAndHistograms() throws Exception {
+        IntervalRecorder first = new IntervalRecorder();
+        IntervalRecorder second = new IntervalRecorder();
+        first.record(2, 1_500, false);
+        first.record(2, 40_000, true);
+        second.record(5, 800, false);
+        LiveMetrics metrics = new LiveMetrics(List.of("congocc"), ExpressionGrouping.complexity(),
+            List.of(List.of(first), List.of(second)));
+
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (MetricsServer server = new MetricsServer(metrics, address)) {
+            server.start();
+            HttpResponse<String> response = scrape(server);
+
+            assertEquals(200, response.statusCode());
+            assertEquals(MetricsServer.CONTENT_TYPE, response.headers().firstValue("Content-Type").orElseThrow());
+            String body = response.body();
+            assertTrue(body.contains("sqlexpr_evaluations_total{engine=\"congocc\",class=\"2\"} 2\n"));
+            assertTrue(body.contains("sqlexpr_evaluations_total{engine=\"congocc\",class=\"5\"} 1\n"));
+            assertTrue(body.contains("sqlexpr_failures_total{engine=\"congocc\",class=\"2\"} 1\n"));
+            assertTrue(body.contains("sqlexpr_failures_total{engine=\"congocc\",class=\"5\"} 0\n"));
+            assertTrue(body.contains("sqlexpr_latency_seconds_bucket{engine=\"congocc\",class=\"2\",le=\"0.0000025\"} 1\n"));
+            assertTrue(body.contains("sqlexpr_latency_seconds_bucket{engine=\"congocc\",class=\"2\",le=\"0.00005\"} 2\n"));
+            assertTrue(body.contains("sqlexpr_latency_seconds_bucket{engine=\"congocc\",class=\"2\",le=\"+Inf\"} 2\n"));
+            assertTrue(body.contains("sqlexpr_latency_seconds_count{engine=\"congocc\",class=\"2\"} 2\n"));
+            assertTrue(body.contains("sqlexpr_workers 2\n"));
+            assertTrue(body.contains("jvm_memory_heap_used_bytes "));
+            assertTrue(body.endsWith("# EOF\n"));
+
+            // Counters accumulate across scrapes
+            first.record(2, 2_000, false);
+            assertTrue(scrape(server).body().contains("sqlexpr_evaluations_total{engine=\"congocc\",class=\"2\"} 3\n"));
+        }
+    }
+
+    private static HttpResponse<String> scrape(MetricsServer server) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.port() + "/metrics"))
+            .GET()
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,76 @@
+package net.magneticpotato.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that chunked parallel loading matches a sequential load.
+ */
+public class ParallelJsonLoaderTest {
+
+    private static final int RECORDS = 30_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testJsonArrayMatchesSequentialLoad() throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < RECORDS; i++) {
+            json.append(i == 0 ? "  " : ",\n  ").append(record(i));
+        }
+        json.append("\n]\n");
+        Path file = tempDir.resolve("corpus.json");
+        Files.writeString(file, json);
+
+        assertParallelMatchesSequential(file, ExpressionLoader.Format.JSON);
+    }
+
+    @Test
+    void testNdjsonMatchesSequentialLoad() throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < RECORDS; i++) {
+            ndjson.append(record(i)).append('\n');
+        }
+        Path file = tempDir.resolve("corpus.ndjson");
+        Files.writeString(file, ndjson);
+
+        assertParallelMatchesSequential(file, ExpressionLoader.Format.NDJSON);
+    }
+
+    @Test
+    void testRejectsMalformedArray() throws IOException {
+        Path file = tempDir.resolve("bad.json");
+        Files.writeString(file, "[" + record(0) + ", 42]");
+        assertThrows(IOException.class,
+            () -> ParallelJsonLoader.load(file, ExpressionLoader.Format.JSON, 4, null));
+    }
+
+    private void assertParallelMatchesSequential(Path file, ExpressionLoader.Format format)
+            throws IOException {
+        assertTrue(Files.size(file) > 2 * ParallelJsonLoader.MIN_PARALLEL_BYTES);
+
+        ExpressionLoader.LoadedExpressions sequential =
+            ExpressionLoader.loadExpressionsFromFile(file.toString(), new ExpressionLoader.LoadOptions(1, false));
+        ExpressionLoader.LoadedExpressions parallel =
+            ExpressionLoader.loadExpressionsFromFile(file.toString(), new ExpressionLoader.LoadOptions(4, false));
+
+        assertEquals(format, parallel.format());
+        assertEquals(RECORDS, sequential.expressions().size());
+        assertEquals(sequential.expressions(), parallel.expressions());
+    }
+
+    /** Strings contain braces, brackets, commas and escaped quotes to exercise the boundary scan. */
+    private static String record(int i) {
+        return "{\"expr\": \"(s1 = '}],{[') OR (i" + i + " > 10)\", \"value_map\": "
+            + "{\"s1\": \"x\\\"}{" + i + "\", \"i" + i + "\": " + i + ", \"f\": 2.5, \"n\": null}}";
+    }
+}
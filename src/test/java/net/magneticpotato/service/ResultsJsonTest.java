@@ -0,0 +1,98 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.ComparisonResult;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.LatencyHistogram;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.ResultSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests exporting results as JSON and comparing exported runs.
+ */
+public class ResultsJsonTest {
+
+    @Test
+    void testHistogramsSurviveRoundTrip(@TempDir Path dir) throws Exception {
+        List<ExpressionData> expressions = List.of(
+            new ExpressionData("i > 10", Map.of("i", 12)),
+            new ExpressionData("(i > 10) AND (s = 'x')", Map.of("i", 5, "s", "x")),
+            new ExpressionData("(i > 10) OR (s = 'x') OR (i < 2)", Map.of("i", 5, "s", "y"))
+        );
+        LoadTestResult result = new LoadTester(LoadTestConfig.builder().iterations(20).build(), "inline")
+            .run(expressions);
+
+        Path path = dir.resolve("results.json");
+        ResultsJson.write(path, result);
+        ResultSnapshot snapshot = ResultsJson.read(path);
+
+        assertEquals("inline", snapshot.inputFile());
+        assertTrue(snapshot.environment().availableProcessors() > 0);
+        Map<String, LatencyHistogram> classes = snapshot.engines().get("congocc");
+        assertEquals(result.classStats().size(), classes.size());
+        for (ClassStatistics stats : result.classStats()) {
+            LatencyHistogram original = stats.histogram();
+            LatencyHistogram restored = classes.get(String.valueOf(stats.complexity()));
+            assertEquals(original.getTotalCount(), restored.getTotalCount());
+            assertEquals(original.getMaxNs(), restored.getMaxNs());
+            assertEquals(original.getMeanNs(), restored.getMeanNs(), 1e-9);
+            assertEquals(original.getStdDevNs(), restored.getStdDevNs(), 1e-6);
+            assertEquals(original.getValueAtPercentile(99.0), restored.getValueAtPercentile(99.0));
+        }
+
+        ComparisonResult comparison = new ResultComparator(ComparisonResult.Metric.P50, 5.0, 0.01)
+            .compare(snapshot, snapshot);
+        assertFalse(comparison.regressed());
+        assertTrue(comparison.classes().stream()
+            .allMatch(c -> c.verdict() == ComparisonResult.Verdict.UNCHANGED));
+    }
+
+    @Test
+    void testFlagsSignificantSlowdown() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 5_000; i++) {
+            fast.recordValue(1_000 + i % 100);
+            slow.recordValue(1_200 + i % 100);
+        }
+        ResultSnapshot baseline = snapshot(Map.of("1", fast, "2", fast));
+        ResultSnapshot candidate = snapshot(Map.of("1", slow, "3", fast));
+
+        ComparisonResult comparison = new ResultComparator(ComparisonResult.Metric.MEAN, 5.0, 0.01)
+            .compare(baseline, candidate);
+        assertTrue(comparison.regressed());
+        Map<String, ComparisonResult.Verdict> verdicts = new java.util.TreeMap<>();
+        comparison.classes().forEach(c -> verdicts.put(c.label(), c.verdict()));
+        assertEquals(ComparisonResult.Verdict.REGRESSION, verdicts.get("1"));
+        assertEquals(ComparisonResult.Verdict.MISSING, verdicts.get("2"));
+        assertEquals(ComparisonResult.Verdict.MISSING, verdicts.get("3"));
+
+        // The same slowdown is within a 25% threshold
+        assertFalse(new ResultComparator(ComparisonResult.Metric.MEAN, 25.0, 0.01)
+            .compare(baseline, candidate).regressed());
+    }
+
+    @Test
+    void testRejectsOtherJson(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("other.json");
+        Files.writeString(path, "{\"expressions\": []}");
+        assertThrows(java.io.IOException.class, () -> ResultsJson.read(path));
+    }
+
+    private static ResultSnapshot snapshot(Map<String, LatencyHistogram> classes) {
+        return new ResultSnapshot("test", "", "", null, Map.of("congocc", classes));
+    }
+}
@@ -0,0 +1,179 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.ClassStatistics;
+import net.magneticpotato.model.ExpressionData;
+import net.magneticpotato.model.ExpressionGrouping;
+import net.magneticpotato.model.LoadTestConfig;
+import net.magneticpotato.model.LoadTestResult;
+import net.magneticpotato.model.WarmupPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests streaming a corpus in batches with bounded read-ahead.
+ */
+public class StreamingBatchSourceTest {
+
+    private static final List<ExpressionData> CORPUS = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < 250; i++) {
+            String expr = switch (i % 5) {
+                case 0, 1, 2 -> "x = " + i;
+                case 3 -> "(x = " + i + ") AND (y = 1)";
+                default -> "(x = " + i + ") OR (y = 1) OR (z = 2)";
+            };
+            CORPUS.add(new ExpressionData(expr, Map.of("x", i)));
+        }
+    }
+
+    @Test
+    void testReadAheadIsBounded() throws Exception {
+        AtomicInteger pulled = new AtomicInteger();
+        CorpusSource endless = source(() -> Stream.generate(() -> {
+            int i = pulled.getAndIncrement();
+            return new ExpressionData("x = " + i, Map.of());
+        }), new AtomicInteger(), new AtomicInteger());
+
+        StreamingBatchSource batches = new StreamingBatchSource(endless, 10, 100, null,
+            ExpressionGrouping.complexity(), false);
+        try {
+            // Ten queued batches, plus the one the reader is blocked putting
+            int settled = awaitSettled(pulled);
+            assertTrue(settled >= 100 && settled <= 110, "read ahead " + settled);
+
+            ExpressionBatch first = batches.nextBatch();
+            assertEquals(10, first.end());
+            assertEquals("x = 0", first.expressions().get(0).expr());
+            assertTrue(awaitSettled(pulled) <= 120);
+        } finally {
+            batches.close();
+        }
+    }
+
+    @Test
+    void testCountsClassesWhileReading() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        Map<Integer, Integer> classCounts = new TreeMap<>();
+        StreamingBatchSource batches = new StreamingBatchSource(source(CORPUS::stream, opened, closed), 16, 64,
+            classCounts, ExpressionGrouping.complexity(), false);
+
+        int read = 0;
+        ExpressionBatch batch;
+        while ((batch = batches.nextBatch()) != null) {
+            for (int i = batch.start(); i < batch.end(); i++) {
+                assertEquals(CORPUS.get(read), batch.expressions().get(i));
+                assertEquals(ComplexityCalculator.calculate(CORPUS.get(read).expr()), batch.classes()[i]);
+                read++;
+            }
+        }
+        // Every worker sees the end of the pass
+        assertNull(batches.nextBatch());
+        batches.close();
+
+        assertEquals(CORPUS.size(), read);
+        assertEquals(Map.of(0, 150, 1, 50, 2, 50), classCounts);
+        assertEquals(1, opened.get());
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    void testCloseJoinsTheReaderBeforeClosingTheStream() throws Exception {
+        AtomicReference<Thread> readerThread = new AtomicReference<>();
+        AtomicBoolean readerAliveAtClose = new AtomicBoolean(true);
+        CorpusSource endless = new CorpusSource() {
+            @Override
+            public String absolutePath() {
+                return "endless";
+            }
+
+            @Override
+            public Stream<ExpressionData> open() {
+                return Stream.generate(() -> {
+                    readerThread.set(Thread.currentThread());
+                    return new ExpressionData("x = 1", Map.of());
+                }).onClose(() -> readerAliveAtClose.set(readerThread.get().isAlive()));
+            }
+        };
+
+        // Abandoned while the reader is blocked on a full queue
+        StreamingBatchSource batches = new StreamingBatchSource(endless, 4, 8, null,
+            ExpressionGrouping.complexity(), false);
+        batches.nextBatch();
+        batches.close();
+
+        assertFalse(readerAliveAtClose.get());
+        assertFalse(readerThread.get().isAlive());
+    }
+
+    @Test
+    void testEveryPassRereadsTheSource() {
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        LoadTestConfig config = LoadTestConfig.builder().iterations(3).warmup(WarmupPolicy.iterations(1))
+            .readAhead(32).engines(List.of(new ExpressionEvaluator() {
+                @Override
+                public String name() {
+                    return "stub";
+                }
+
+                @Override
+                public boolean match(String expression, Map<String, Object> bindings) {
+                    return true;
+                }
+            })).build();
+        LoadTestResult result = new LoadTester(config, "streamed").run(source(CORPUS::stream, opened, closed));
+
+        assertEquals(4, opened.get());
+        assertEquals(4, closed.get());
+        assertEquals(3L * CORPUS.size(), result.overallStats().totalEvaluations());
+        assertEquals(List.of(150, 50, 50),
+            result.classStats().stream().map(ClassStatistics::uniqueExpressions).toList());
+    }
+
+    @FunctionalInterface
+    private interface Opener {
+        Stream<ExpressionData> open();
+    }
+
+    private static CorpusSource source(Opener opener, AtomicInteger opened, AtomicInteger closed) {
+        return new CorpusSource() {
+            @Override
+            public String absolutePath() {
+                return "test";
+            }
+
+            @Override
+            public Stream<ExpressionData> open() {
+                opened.incrementAndGet();
+                return opener.open().onClose(closed::incrementAndGet);
+            }
+        };
+    }
+
+    /**
+     * Waits until the reader has stopped pulling records and returns how many it pulled.
+     */
+    private static int awaitSettled(AtomicInteger pulled) throws InterruptedException {
+        int last = -1;
+        for (int i = 0; i < 100 && pulled.get() != last; i++) {
+            last = pulled.get();
+            Thread.sleep(20);
+        }
+        return pulled.get();
+    }
+}
@@ -0,0 +1,94 @@
+package net.magneticpotato.service;
+
+import net.magneticpotato.model.WorkloadPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the visiting orders derived from a workload policy.
+ */
+public class WorkloadShaperTest {
+
+    /** 1000 expressions: 500 of class 1, 300 of class 3 and 200 of class 8. */
+    private static final int[] CLASSES = classes();
+
+    @Test
+    void testSequentialHasNoOrder() {
+        assertNull(new WorkloadShaper(WorkloadPolicy.sequential(), CLASSES).order(0));
+    }
+
+    @Test
+    void testShuffleIsSeededPermutationPerPass() {
+        WorkloadPolicy policy = new WorkloadPolicy(true, 0.0, Map.of(), 42L);
+        int[] first = new WorkloadShaper(policy, CLASSES).order(0);
+        int[] again = new WorkloadShaper(policy, CLASSES).order(0);
+        int[] second = new WorkloadShaper(policy, CLASSES).order(1);
+
+        assertArrayEquals(first, again);
+        assertFalse(Arrays.equals(first, second));
+        int[] sorted = first.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i, sorted[i]);
+        }
+    }
+
+    @Test
+    void testZipfSkewsPopularity() {
+        WorkloadPolicy policy = new WorkloadPolicy(false, 1.2, Map.of(), 7L);
+        WorkloadShaper shaper = new WorkloadShaper(policy, CLASSES);
+        int[] counts = new int[CLASSES.length];
+        for (int pass = 0; pass < 20; pass++) {
+            for (int index : shaper.order(pass)) {
+                counts[index]++;
+            }
+        }
+        Arrays.sort(counts);
+        long top = counts[counts.length - 1];
+        // Rank 1 of Zipf(1.2) over 1000 ranks has about 22% of the draws
+        assertTrue(top > 20_000 * 0.18 && top < 20_000 * 0.26, "top " + top);
+        assertEquals(0, counts[0]);
+        assertArrayEquals(shaper.order(3), new WorkloadShaper(policy, CLASSES).order(3));
+    }
+
+    @Test
+    void testMixFollowsClassWeights() {
+        WorkloadPolicy policy = new WorkloadPolicy(false, 0.0, Map.of(1, 60.0, 3, 30.0, 8, 10.0), 1L);
+        WorkloadShaper shaper = new WorkloadShaper(policy, CLASSES);
+        Map<Integer, Integer> byClass = new TreeMap<>();
+        int draws = 0;
+        for (int pass = 0; pass < 10; pass++) {
+            for (int index : shaper.order(pass)) {
+                byClass.merge(CLASSES[index], 1, Integer::sum);
+                draws++;
+            }
+        }
+        assertEquals(0.60, byClass.get(1) / (double) draws, 0.02);
+        assertEquals(0.30, byClass.get(3) / (double) draws, 0.02);
+        assertEquals(0.10, byClass.get(8) / (double) draws, 0.02);
+    }
+
+    @Test
+    void testMixRejectsMissingClass() {
+        WorkloadPolicy policy = new WorkloadPolicy(false, 0.0, Map.of(1, 1.0, 5, 1.0), 1L);
+        assertThrows(IllegalArgumentException.class, () -> new WorkloadShaper(policy, CLASSES));
+    }
+
+    private static int[] classes() {
+        int[] classes = new int[1000];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = (i % 10 < 5) ? 1 : (i % 10 < 8) ? 3 : 8;
+        }
+        return classes;
+    }
+}